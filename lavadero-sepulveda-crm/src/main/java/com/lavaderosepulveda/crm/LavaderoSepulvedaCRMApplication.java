@@ -1,9 +1,13 @@
 package com.lavaderosepulveda.crm;
 
 import com.lavaderosepulveda.crm.api.client.ApiClient;
+import com.lavaderosepulveda.crm.api.client.EventosClient;
 import com.lavaderosepulveda.crm.config.ConfigManager;
 import com.lavaderosepulveda.crm.config.StageManager;
+import com.lavaderosepulveda.crm.service.EmailService;
+import com.lavaderosepulveda.crm.service.ReplicaLocalService;
 import com.lavaderosepulveda.crm.util.AlertUtil;
+import com.lavaderosepulveda.crm.util.EjecutorTareas;
 import javafx.application.Application;
 import javafx.stage.Stage;
 import lombok.extern.slf4j.Slf4j;
@@ -39,6 +43,12 @@ public class LavaderoSepulvedaCRMApplication extends Application {
                 log.info("Conexión exitosa con la API");
             }
             
+            // Escuchar cambios en tiempo real (SSE); se reconecta solo si la API no está disponible
+            EventosClient.getInstance().iniciar();
+            
+            // Réplica local (H2): lectura instantánea y trabajo sin conexión
+            ReplicaLocalService.getInstance().iniciar();
+            
             // Configurar StageManager
             StageManager stageManager = StageManager.getInstance();
             stageManager.setPrimaryStage(primaryStage);
@@ -66,6 +76,10 @@ public class LavaderoSepulvedaCRMApplication extends Application {
     @Override
     public void stop() {
         log.info("Cerrando aplicación...");
+        EventosClient.getInstance().detener();
+        ReplicaLocalService.getInstance().detener();
+        EmailService.cerrarConexionesAbiertas();
+        EjecutorTareas.detener();
         log.info("Aplicación cerrada");
     }
 
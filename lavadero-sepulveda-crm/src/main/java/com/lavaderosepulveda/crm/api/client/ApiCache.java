@@ -0,0 +1,86 @@
+package com.lavaderosepulveda.crm.api.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché local de respuestas de la API con caducidad corta.
+ * Permite que varias pantallas que piden lo mismo (p.ej. las citas de hoy)
+ * reutilicen una única respuesta en lugar de repetir la llamada HTTP.
+ */
+@Slf4j
+public class ApiCache {
+
+    private final long ttlMillis;
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Map<String, Object> bloqueos = new ConcurrentHashMap<>();
+
+    public ApiCache(long ttlSegundos) {
+        this.ttlMillis = ttlSegundos * 1000L;
+    }
+
+    /**
+     * Carga de datos que puede fallar con IOException (llamada HTTP)
+     */
+    @FunctionalInterface
+    public interface Cargador<T> {
+        T cargar() throws IOException;
+    }
+
+    /**
+     * Devuelve el valor cacheado para la clave o lo carga si no existe o ha caducado.
+     * Las peticiones simultáneas de la misma clave esperan a una única carga.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String clave, Cargador<T> cargador) throws IOException {
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && !entrada.caducada()) {
+            log.debug("Caché API hit: {}", clave);
+            return (T) entrada.valor;
+        }
+
+        synchronized (bloqueos.computeIfAbsent(clave, k -> new Object())) {
+            entrada = entradas.get(clave);
+            if (entrada != null && !entrada.caducada()) {
+                return (T) entrada.valor;
+            }
+
+            T valor = cargador.cargar();
+            if (ttlMillis > 0) {
+                entradas.put(clave, new Entrada(valor, System.currentTimeMillis() + ttlMillis));
+            }
+            return valor;
+        }
+    }
+
+    /**
+     * Elimina las entradas cuya clave empieza por el prefijo indicado
+     */
+    public void invalidar(String prefijo) {
+        entradas.keySet().removeIf(clave -> clave.startsWith(prefijo));
+    }
+
+    /**
+     * Vacía la caché completa
+     */
+    public void invalidarTodo() {
+        entradas.clear();
+    }
+
+    private static final class Entrada {
+        private final Object valor;
+        private final long expiraEn;
+
+        private Entrada(Object valor, long expiraEn) {
+            this.valor = valor;
+            this.expiraEn = expiraEn;
+        }
+
+        private boolean caducada() {
+            return System.currentTimeMillis() >= expiraEn;
+        }
+    }
+}
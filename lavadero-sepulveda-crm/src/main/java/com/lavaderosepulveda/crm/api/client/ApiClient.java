@@ -48,7 +48,9 @@ public class ApiClient {
 
                     // Agregar headers comunes
                     requestBuilder.header("Content-Type", "application/json");
-                    requestBuilder.header("Accept", "application/json");
+                    if (original.header("Accept") == null) {
+                        requestBuilder.header("Accept", "application/json");
+                    }
 
                     // Agregar token de autenticación si está habilitado
                     if (config.isAuthEnabled() && !config.getAuthToken().isEmpty()) {
@@ -101,7 +103,7 @@ public class ApiClient {
 
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
-                throw new IOException("Error en GET: " + response.code() + " - " + response.message());
+                throw new ApiHttpException(response.code(), "Error en GET: " + response.code() + " - " + response.message());
             }
 
             String responseBody = response.body().string();
@@ -122,7 +124,7 @@ public class ApiClient {
 
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
-                throw new IOException("Error en GET: " + response.code() + " - " + response.message());
+                throw new ApiHttpException(response.code(), "Error en GET: " + response.code() + " - " + response.message());
             }
 
             return response.body().string();
@@ -145,7 +147,7 @@ public class ApiClient {
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 String errorBody = response.body() != null ? response.body().string() : "Sin cuerpo";
-                throw new IOException("Error en POST: " + response.code() + " - " + errorBody);
+                throw new ApiHttpException(response.code(), "Error en POST: " + response.code() + " - " + errorBody);
             }
 
             String responseBody = response.body().string();
@@ -175,7 +177,7 @@ public class ApiClient {
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 String errorBody = response.body() != null ? response.body().string() : "Sin cuerpo";
-                throw new IOException("Error en POST: " + response.code() + " - " + errorBody);
+                throw new ApiHttpException(response.code(), "Error en POST: " + response.code() + " - " + errorBody);
             }
 
             String responseBody = response.body().string();
@@ -200,7 +202,7 @@ public class ApiClient {
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 String errorBody = response.body() != null ? response.body().string() : "Sin cuerpo";
-                throw new IOException("Error en PUT: " + response.code() + " - " + errorBody);
+                throw new ApiHttpException(response.code(), "Error en PUT: " + response.code() + " - " + errorBody);
             }
 
             String responseBody = response.body().string();
@@ -225,7 +227,7 @@ public class ApiClient {
 
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
-                throw new IOException("Error en DELETE: " + response.code() + " - " + response.message());
+                throw new ApiHttpException(response.code(), "Error en DELETE: " + response.code() + " - " + response.message());
             }
 
             log.debug("DELETE exitoso");
@@ -254,10 +256,63 @@ public class ApiClient {
         }
     }
 
+    /**
+     * Petición con método y cuerpo JSON ya serializado (reenvío de escrituras encoladas sin conexión)
+     */
+    public String ejecutarRaw(String metodo, String url, String jsonBody) throws IOException {
+        RequestBody requestBody = jsonBody != null ? RequestBody.create(jsonBody, JSON) : null;
+        if (requestBody == null && ("POST".equals(metodo) || "PUT".equals(metodo))) {
+            requestBody = RequestBody.create("{}", JSON);
+        }
+        Request request = new Request.Builder()
+                .url(url)
+                .method(metodo, requestBody)
+                .build();
+
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                String errorBody = response.body() != null ? response.body().string() : "Sin cuerpo";
+                throw new ApiHttpException(response.code(), "Error en " + metodo + ": " + response.code() + " - " + errorBody);
+            }
+            return response.body() != null ? response.body().string() : "";
+        }
+    }
+
+    /**
+     * Indica si el fallo es de conexión (servidor inalcanzable) y no una respuesta de error
+     */
+    public static boolean esSinConexion(IOException e) {
+        return !(e instanceof ApiHttpException);
+    }
+
     public Gson getGson() {
         return gson;
     }
 
+    /**
+     * Cliente para conexiones de larga duración (SSE): comparte pool e interceptores
+     * con el cliente principal pero sin timeout de lectura
+     */
+    public OkHttpClient crearClienteStreaming() {
+        return httpClient.newBuilder()
+                .readTimeout(0, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Cliente para APIs externas (WhatsApp): comparte pool de conexiones e hilos con el
+     * cliente principal pero no sus interceptores, que añaden el token de nuestra API
+     */
+    public OkHttpClient crearClienteExterno() {
+        return new OkHttpClient.Builder()
+                .connectionPool(httpClient.connectionPool())
+                .dispatcher(httpClient.dispatcher())
+                .connectTimeout(config.getConnectTimeout(), TimeUnit.SECONDS)
+                .readTimeout(config.getReadTimeout(), TimeUnit.SECONDS)
+                .writeTimeout(config.getWriteTimeout(), TimeUnit.SECONDS)
+                .build();
+    }
+
     /**
      * PUT request que devuelve el JSON raw como String
      */
@@ -274,7 +329,7 @@ public class ApiClient {
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 String errorBody = response.body() != null ? response.body().string() : "Sin cuerpo";
-                throw new IOException("Error en PUT: " + response.code() + " - " + errorBody);
+                throw new ApiHttpException(response.code(), "Error en PUT: " + response.code() + " - " + errorBody);
             }
 
             String responseBody = response.body().string();
@@ -294,7 +349,7 @@ public class ApiClient {
 
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful()) {
-                throw new IOException("Error en GET: " + response.code() + " - " + response.message());
+                throw new ApiHttpException(response.code(), "Error en GET: " + response.code() + " - " + response.message());
             }
 
             return response.body().bytes();
@@ -0,0 +1,29 @@
+package com.lavaderosepulveda.crm.api.client;
+
+import java.io.IOException;
+
+/**
+ * Respuesta HTTP de error del backend (4xx/5xx).
+ * Distingue "el servidor ha rechazado la petición" de "no hay conexión con el servidor",
+ * que llega como IOException normal.
+ */
+public class ApiHttpException extends IOException {
+
+    private final int codigo;
+
+    public ApiHttpException(int codigo, String mensaje) {
+        super(mensaje);
+        this.codigo = codigo;
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Error del cliente (datos rechazados): reintentar la misma petición no servirá
+     */
+    public boolean esErrorCliente() {
+        return codigo >= 400 && codigo < 500;
+    }
+}
@@ -0,0 +1,186 @@
+package com.lavaderosepulveda.crm.api.client;
+
+import com.lavaderosepulveda.crm.config.ConfigManager;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Suscriptor del flujo Server-Sent Events del backend (/api/eventos).
+ * Mantiene una conexión abierta en un hilo daemon, se reconecta con espera creciente
+ * y reparte cada EventoCambioDTO entre los oyentes registrados (desde ese hilo,
+ * no desde el de JavaFX: los controladores deben usar Platform.runLater)
+ */
+@Slf4j
+public class EventosClient {
+
+    private static final long ESPERA_INICIAL_MS = 2_000;
+    private static final long ESPERA_MAXIMA_MS = 60_000;
+
+    private static EventosClient instance;
+
+    private final ApiClient apiClient;
+    private final OkHttpClient httpClient;
+    private final String url;
+    private final List<Consumer<EventoCambioDTO>> oyentes = new CopyOnWriteArrayList<>();
+
+    private volatile boolean activo;
+    private volatile boolean conectado;
+    private volatile Call llamadaActual;
+    private Thread hilo;
+
+    private EventosClient() {
+        this.apiClient = ApiClient.getInstance();
+        this.httpClient = apiClient.crearClienteStreaming();
+        this.url = ConfigManager.getInstance().getApiBaseUrl() + "/api/eventos";
+    }
+
+    public static synchronized EventosClient getInstance() {
+        if (instance == null) {
+            instance = new EventosClient();
+        }
+        return instance;
+    }
+
+    /**
+     * Registrar un oyente de cambios
+     */
+    public void suscribir(Consumer<EventoCambioDTO> oyente) {
+        oyentes.add(oyente);
+    }
+
+    public void cancelarSuscripcion(Consumer<EventoCambioDTO> oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * Indica si hay una conexión SSE abierta; si no, las pantallas deben recargar por su cuenta
+     */
+    public boolean isConectado() {
+        return conectado;
+    }
+
+    /**
+     * Arrancar la escucha en segundo plano
+     */
+    public synchronized void iniciar() {
+        if (activo) {
+            return;
+        }
+        activo = true;
+        hilo = new Thread(this::bucleConexion, "eventos-sse");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Detener la escucha y cerrar la conexión
+     */
+    public synchronized void detener() {
+        activo = false;
+        Call llamada = llamadaActual;
+        if (llamada != null) {
+            llamada.cancel();
+        }
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+
+    private void bucleConexion() {
+        long espera = ESPERA_INICIAL_MS;
+
+        while (activo) {
+            try {
+                escuchar();
+                espera = ESPERA_INICIAL_MS;
+            } catch (IOException e) {
+                if (activo) {
+                    log.warn("Conexión de eventos perdida ({}). Reintentando en {} s",
+                            e.getMessage(), espera / 1000);
+                }
+            } finally {
+                conectado = false;
+            }
+
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_MS);
+        }
+    }
+
+    /**
+     * Lee el flujo SSE línea a línea hasta que el servidor cierre la conexión
+     */
+    private void escuchar() throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .header("Accept", "text/event-stream")
+                .get()
+                .build();
+
+        llamadaActual = httpClient.newCall(request);
+        try (Response response = llamadaActual.execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("Error en GET eventos: " + response.code());
+            }
+
+            conectado = true;
+            log.info("Conectado al flujo de eventos del servidor");
+
+            BufferedReader reader = new BufferedReader(body.charStream());
+            StringBuilder datos = new StringBuilder();
+            String linea;
+            while (activo && (linea = reader.readLine()) != null) {
+                if (linea.isEmpty()) {
+                    // Fin de evento
+                    if (datos.length() > 0) {
+                        despachar(datos.toString());
+                        datos.setLength(0);
+                    }
+                } else if (linea.startsWith("data:")) {
+                    if (datos.length() > 0) {
+                        datos.append('\n');
+                    }
+                    datos.append(linea.substring(5).trim());
+                }
+                // Las líneas "event:", "id:" y los comentarios (":ping") no se necesitan
+            }
+        }
+    }
+
+    private void despachar(String json) {
+        try {
+            EventoCambioDTO evento = apiClient.getGson().fromJson(json, EventoCambioDTO.class);
+            if (evento == null || evento.getEntidad() == null) {
+                return;
+            }
+            log.debug("Evento recibido: {} {} {}", evento.getEntidad(), evento.getAccion(), evento.getId());
+
+            for (Consumer<EventoCambioDTO> oyente : oyentes) {
+                try {
+                    oyente.accept(evento);
+                } catch (Exception e) {
+                    log.error("Error en oyente de eventos", e);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Evento no válido: {}", json);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.lavaderosepulveda.crm.api.service;
 
 import com.google.gson.reflect.TypeToken;
+import com.lavaderosepulveda.crm.api.client.ApiCache;
 import com.lavaderosepulveda.crm.api.client.ApiClient;
+import com.lavaderosepulveda.crm.api.client.EventosClient;
 import com.lavaderosepulveda.crm.model.dto.CitaDTO;
 import com.lavaderosepulveda.crm.model.dto.CitaApiResponseDTO;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
 import com.lavaderosepulveda.crm.config.ConfigManager;
 import com.lavaderosepulveda.crm.mapper.CitaMapper;
 import com.lavaderosepulveda.crm.model.enums.EstadoCita;
+import com.lavaderosepulveda.crm.service.ReplicaLocalService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,7 +19,10 @@ import java.lang.reflect.Type;
 import java.time.format.DateTimeFormatter;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class CitaApiService {
@@ -23,18 +30,30 @@ public class CitaApiService {
     private static final Logger log = LoggerFactory.getLogger(CitaApiService.class);
     private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter FORMATO_HORA_REPLICA = DateTimeFormatter.ofPattern("HH:mm:ss");
 
     private static CitaApiService instance;
     private final ApiClient apiClient;
     private final ConfigManager config;
     private final String baseUrl;
     private final CitaMapper citaMapper;
+    private final ApiCache cache;
+    private final ReplicaLocalService replica;
 
     private CitaApiService() {
         this.apiClient = ApiClient.getInstance();
         this.config = ConfigManager.getInstance();
         this.baseUrl = config.getCitasEndpoint();
         this.citaMapper = new CitaMapper();
+        this.cache = new ApiCache(config.getCacheTtl());
+        this.replica = ReplicaLocalService.getInstance();
+
+        // Los cambios hechos desde otros puestos (o la web) invalidan las listas cacheadas
+        EventosClient.getInstance().suscribir(evento -> {
+            if (EventoCambioDTO.CITA.equals(evento.getEntidad())) {
+                invalidarCache();
+            }
+        });
     }
 
     public static synchronized CitaApiService getInstance() {
@@ -48,6 +67,9 @@ public class CitaApiService {
      * Obtener todas las citas
      */
     public List<CitaDTO> findAll() {
+        if (replica.isSincronizada(EventoCambioDTO.CITA)) {
+            return leerReplica(null, null, null);
+        }
         try {
             String response = apiClient.getRaw(baseUrl);
             Type listType = new TypeToken<ArrayList<CitaApiResponseDTO>>(){}.getType();
@@ -58,7 +80,7 @@ public class CitaApiService {
             return citas;
         } catch (IOException e) {
             log.error("Error al obtener citas", e);
-            return new ArrayList<>();
+            return leerReplica(null, null, null);
         }
     }
 
@@ -74,13 +96,29 @@ public class CitaApiService {
         log.info("JSON a enviar: {}", apiClient.getGson().toJson(request));
 
         // Enviar el request en el formato correcto
-        String response = apiClient.postRaw(baseUrl, request);
+        String response;
+        try {
+            response = apiClient.postRaw(baseUrl, request);
+        } catch (IOException e) {
+            if (!replica.puedeEncolar(e)) {
+                throw e;
+            }
+            // Sin conexión: se creará al reenviar la cola; hasta entonces la réplica la
+            // guarda con un ID provisional para que se vea y se pueda editar
+            Long idProvisional = replica.encolarAlta(EventoCambioDTO.CITA, baseUrl, request);
+            CitaApiResponseDTO registro = registroLocal(idProvisional, cita);
+            replica.guardarLocal(EventoCambioDTO.CITA, idProvisional, registro);
+            invalidarCache();
+            return citaMapper.toDTO(registro);
+        }
 
         // La respuesta viene en formato CitaApiResponseDTO
         CitaApiResponseDTO apiResponse = apiClient.getGson().fromJson(response, CitaApiResponseDTO.class);
 
         // Convertir la respuesta a CitaDTO usando el mapper
         CitaDTO citaCreada = citaMapper.toDTO(apiResponse);
+        replica.guardarLocal(EventoCambioDTO.CITA, apiResponse.getId(), apiResponse);
+        invalidarCache();
         log.info("Cita creada con ID: {}", citaCreada.getId());
 
         return citaCreada;
@@ -136,10 +174,36 @@ public class CitaApiService {
         log.info("Actualizando cita ID: {}", id);
 
         String url = baseUrl + "/" + id;
-        CitaDTO citaActualizada = apiClient.put(url, cita, CitaDTO.class);
+        CitaApiResponseDTO apiResponse;
+        try {
+            replica.comprobarIdServidor(id);
+            apiResponse = apiClient.put(url, cita, CitaApiResponseDTO.class);
+        } catch (IOException e) {
+            if (!replica.puedeEncolar(e)) {
+                throw e;
+            }
+            replica.encolar(EventoCambioDTO.CITA, "PUT", url, cita);
+            replica.guardarLocal(EventoCambioDTO.CITA, id, registroLocal(id, cita));
+            invalidarCache();
+            return cita;
+        }
+        replica.guardarLocal(EventoCambioDTO.CITA, id, apiResponse);
+        invalidarCache();
         log.info("Cita actualizada: {}", id);
 
-        return citaActualizada;
+        return citaMapper.toDTO(apiResponse);
+    }
+
+    /**
+     * La cita en el formato de la réplica (el de la API), para reflejar un cambio sin conexión
+     */
+    private CitaApiResponseDTO registroLocal(Long id, CitaDTO cita) {
+        CitaApiResponseDTO registro = convertirACitaApiRequest(cita);
+        registro.setId(id);
+        if (cita.getFechaHora() != null) {
+            registro.setHora(cita.getFechaHora().format(FORMATO_HORA_REPLICA));
+        }
+        return registro;
     }
 
     /**
@@ -149,7 +213,17 @@ public class CitaApiService {
         log.info("Eliminando cita ID: {}", id);
 
         String url = baseUrl + "/" + id;
-        apiClient.delete(url);
+        try {
+            replica.comprobarIdServidor(id);
+            apiClient.delete(url);
+        } catch (IOException e) {
+            if (!replica.puedeEncolar(e)) {
+                throw e;
+            }
+            replica.encolar(EventoCambioDTO.CITA, "DELETE", url, null);
+        }
+        replica.eliminarLocal(EventoCambioDTO.CITA, id);
+        invalidarCache();
         log.info("Cita eliminada: {}", id);
     }
 
@@ -164,36 +238,43 @@ public class CitaApiService {
             return citaMapper.toDTO(apiResponse);
         } catch (IOException e) {
             log.error("Error al obtener cita por ID: " + id, e);
-            return null;
+            return replica.leerPorId(EventoCambioDTO.CITA, id, CitaApiResponseDTO.class)
+                    .map(CitaMapper::toDTO)
+                    .orElse(null);
         }
     }
 
     /**
-     * Filtrar citas por fecha
+     * Filtrar citas por fecha (filtrado en el servidor)
      */
     public List<CitaDTO> findByFecha(LocalDate fecha) {
-        List<CitaDTO> todasLasCitas = findAll();
-        return todasLasCitas.stream()
-                .filter(cita -> cita.getFechaHora() != null)
-                .filter(cita -> cita.getFechaHora().toLocalDate().equals(fecha))
-                .collect(Collectors.toList());
+        return obtenerListaCacheada(baseUrl + "/fecha/" + fecha.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                () -> leerReplica(fecha, fecha, null));
     }
 
     /**
-     * Filtrar citas por estado
+     * Obtener citas en un rango de fechas, ambos extremos incluidos (filtrado en el servidor)
+     */
+    public List<CitaDTO> findByRango(LocalDate inicio, LocalDate fin) {
+        return obtenerListaCacheada(baseUrl + "/rango?inicio=" + inicio.format(DateTimeFormatter.ISO_LOCAL_DATE)
+                + "&fin=" + fin.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                () -> leerReplica(inicio, fin, null));
+    }
+
+    /**
+     * Filtrar citas por estado (filtrado en el servidor)
      */
     public List<CitaDTO> findByEstado(EstadoCita estado) {
-        List<CitaDTO> todasLasCitas = findAll();
-        return todasLasCitas.stream()
-                .filter(cita -> cita.getEstado() == estado)
-                .collect(Collectors.toList());
+        return obtenerListaCacheada(baseUrl + "/estado/" + estado.name(),
+                () -> leerReplica(null, null, List.of(estado.name())));
     }
 
     /**
      * Obtener citas de hoy
      */
     public List<CitaDTO> findCitasHoy() {
-        return findByFecha(LocalDate.now());
+        LocalDate hoy = LocalDate.now();
+        return obtenerListaCacheada(baseUrl + "/hoy", () -> leerReplica(hoy, hoy, null));
     }
 
     /**
@@ -203,6 +284,14 @@ public class CitaApiService {
         return findByEstado(EstadoCita.PENDIENTE);
     }
 
+    /**
+     * Obtener citas pendientes de atender (PENDIENTE o CONFIRMADA)
+     */
+    public List<CitaDTO> findCitasPendientesOConfirmadas() {
+        return obtenerListaCacheada(baseUrl + "/pendientes", () -> leerReplica(null, null,
+                List.of(EstadoCita.PENDIENTE.name(), EstadoCita.CONFIRMADA.name())));
+    }
+
     /**
      * Obtener citas confirmadas
      */
@@ -210,6 +299,13 @@ public class CitaApiService {
         return findByEstado(EstadoCita.CONFIRMADA);
     }
 
+    /**
+     * Descarta las respuestas cacheadas tras cualquier modificación de citas
+     */
+    public void invalidarCache() {
+        cache.invalidar(baseUrl);
+    }
+
     /**
      * Cambiar estado de una cita usando el endpoint específico
      */
@@ -220,10 +316,26 @@ public class CitaApiService {
         log.info("Cambiando estado de cita {} a {}", id, estadoStr);
 
         // PUT sin body - el estado va en la URL
-        CitaDTO citaActualizada = apiClient.put(url, null, CitaDTO.class);
+        CitaApiResponseDTO apiResponse;
+        try {
+            replica.comprobarIdServidor(id);
+            apiResponse = apiClient.put(url, null, CitaApiResponseDTO.class);
+        } catch (IOException e) {
+            if (!replica.puedeEncolar(e)) {
+                throw e;
+            }
+            replica.encolar(EventoCambioDTO.CITA, "PUT", url, null);
+            replica.actualizarCampoLocal(EventoCambioDTO.CITA, id, "estado", estadoStr);
+            invalidarCache();
+            return replica.leerPorId(EventoCambioDTO.CITA, id, CitaApiResponseDTO.class)
+                    .map(CitaMapper::toDTO)
+                    .orElse(null);
+        }
+        replica.guardarLocal(EventoCambioDTO.CITA, id, apiResponse);
+        invalidarCache();
         log.info("Estado de cita {} cambiado exitosamente a {}", id, estadoStr);
 
-        return citaActualizada;
+        return citaMapper.toDTO(apiResponse);
     }
 
     /**
@@ -248,4 +360,42 @@ public class CitaApiService {
             return new ArrayList<>();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * GET de una lista de citas compartida a través de la caché de corta duración.
+     * Devuelve una copia para que cada pantalla pueda modificar su lista sin afectar al resto.
+     * Con la réplica local ya descargada se lee de ella con el mismo filtro que el servidor,
+     * y también se recurre a ella si la API no responde.
+     */
+    private List<CitaDTO> obtenerListaCacheada(String url, Supplier<List<CitaDTO>> leerLocal) {
+        if (replica.isSincronizada(EventoCambioDTO.CITA)) {
+            return leerLocal.get();
+        }
+        try {
+            List<CitaDTO> citas = cache.obtener(url, () -> {
+                String response = apiClient.getRaw(url);
+                Type listType = new TypeToken<ArrayList<CitaApiResponseDTO>>(){}.getType();
+                List<CitaApiResponseDTO> apiResponse = apiClient.getGson().fromJson(response, listType);
+                List<CitaDTO> resultado = citaMapper.toDTOList(apiResponse);
+                log.info("Obtenidas {} citas de {}", resultado.size(), url);
+                return resultado;
+            });
+            return new ArrayList<>(citas);
+        } catch (IOException e) {
+            log.error("Error al obtener citas de " + url, e);
+            return leerLocal.get();
+        }
+    }
+
+    /**
+     * Citas de la réplica local entre dos fechas (incluidas) y con alguno de los estados,
+     * por fecha y hora; el filtro se hace en SQL sobre las columnas indexadas y null no filtra
+     */
+    private List<CitaDTO> leerReplica(LocalDate desde, LocalDate hasta, Collection<String> estados) {
+        List<CitaDTO> citas = citaMapper.toDTOList(
+                replica.leer(EventoCambioDTO.CITA, CitaApiResponseDTO.class, desde, hasta, estados));
+        return citas.stream()
+                .sorted(Comparator.comparing(CitaDTO::getFechaHora, Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -2,15 +2,22 @@ package com.lavaderosepulveda.crm.api.service;
 
 import com.google.gson.reflect.TypeToken;
 import com.lavaderosepulveda.crm.api.client.ApiClient;
+import com.lavaderosepulveda.crm.api.client.ApiHttpException;
 import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
+import com.lavaderosepulveda.crm.model.dto.ImportacionClientesDTO;
 import com.lavaderosepulveda.crm.config.ConfigManager;
+import com.lavaderosepulveda.crm.service.ReplicaLocalService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 public class ClienteApiService {
@@ -21,11 +28,13 @@ public class ClienteApiService {
     private final ApiClient apiClient;
     private final ConfigManager config;
     private final String baseUrl;
+    private final ReplicaLocalService replica;
     
     private ClienteApiService() {
         this.apiClient = ApiClient.getInstance();
         this.config = ConfigManager.getInstance();
         this.baseUrl = config.getClientesEndpoint();
+        this.replica = ReplicaLocalService.getInstance();
     }
     
     public static synchronized ClienteApiService getInstance() {
@@ -50,7 +59,10 @@ public class ClienteApiService {
             return clientes != null ? clientes : new ArrayList<>();
         } catch (IOException e) {
             log.error("Error al obtener clientes", e);
-            return new ArrayList<>();
+            // Sin conexión: datos de la réplica local (sin las estadísticas de citas)
+            List<ClienteDTO> locales = replica.leer(EventoCambioDTO.CLIENTE, ClienteDTO.class);
+            locales.sort(Comparator.comparing(ClienteDTO::getNombre, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+            return locales;
         }
     }
     
@@ -65,7 +77,7 @@ public class ClienteApiService {
             return cliente;
         } catch (IOException e) {
             log.error("Error al obtener cliente: " + id, e);
-            return null;
+            return replica.leerPorId(EventoCambioDTO.CLIENTE, id, ClienteDTO.class).orElse(null);
         }
     }
     
@@ -245,20 +257,110 @@ public class ClienteApiService {
             log.info("Cliente creado: {}", nuevoCliente.getId());
             return nuevoCliente;
         } catch (IOException e) {
+            if (replica.puedeEncolar(e)) {
+                // Se creará al reenviar la cola; hasta entonces, en la réplica con ID provisional
+                Long idProvisional = replica.encolarAlta(EventoCambioDTO.CLIENTE, baseUrl, cliente);
+                cliente.setId(idProvisional);
+                replica.guardarLocal(EventoCambioDTO.CLIENTE, idProvisional, cliente);
+                return cliente;
+            }
             log.error("Error al crear cliente", e);
             return null;
         }
     }
     
+    /**
+     * Origen de los clientes de una importación: entrega cada cliente al consumidor según lo lee
+     */
+    @FunctionalInterface
+    public interface OrigenClientes {
+        void leer(Consumer<ClienteDTO> consumidor) throws IOException;
+    }
+
+    /**
+     * Importación masiva: envía los clientes a /api/clientes/bulk en bloques
+     * (una petición por bloque en lugar de una por cliente). Cada bloque se envía en
+     * cuanto se llena, así que en memoria solo hay uno aunque el origen tenga miles de filas.
+     *
+     * @param progreso recibe los clientes procesados tras cada bloque; se llama desde
+     *                 el hilo que importa, no desde el de JavaFX
+     * @throws IOException si el origen no se puede leer; los bloques ya enviados quedan guardados
+     */
+    public ImportacionClientesDTO importarClientes(OrigenClientes origen, IntConsumer progreso) throws IOException {
+        int tamanioBloque = config.getIntProperty("api.clientes.bulk.bloque", 500);
+        ImportacionClientesDTO total = new ImportacionClientesDTO();
+        List<ClienteDTO> bloque = new ArrayList<>(tamanioBloque);
+
+        origen.leer(cliente -> {
+            bloque.add(cliente);
+            if (bloque.size() >= tamanioBloque) {
+                enviarBloque(bloque, total, progreso);
+            }
+        });
+        if (!bloque.isEmpty()) {
+            enviarBloque(bloque, total, progreso);
+        }
+
+        log.info("Importación masiva terminada: {} creados, {} actualizados, {} descartados, {} rechazados, {} errores",
+                total.getCreados(), total.getActualizados(), total.getDescartados(),
+                total.getRechazadas().size(), total.getErrores());
+        return total;
+    }
+
+    private void enviarBloque(List<ClienteDTO> bloque, ImportacionClientesDTO total, IntConsumer progreso) {
+        // Las filas rechazadas vienen numeradas dentro del bloque: se desplazan por las ya enviadas
+        total.acumular(importarBloque(bloque), total.getRecibidos());
+        bloque.clear();
+        if (progreso != null) {
+            progreso.accept(total.getRecibidos());
+        }
+    }
+
+    private ImportacionClientesDTO importarBloque(List<ClienteDTO> bloque) {
+        try {
+            ImportacionClientesDTO resultado = apiClient.post(baseUrl + "/bulk", bloque, ImportacionClientesDTO.class);
+            return resultado != null ? resultado : ImportacionClientesDTO.fallido(bloque.size());
+        } catch (ApiHttpException e) {
+            if (e.getCodigo() == 404 || e.getCodigo() == 405) {
+                // Backend anterior sin /bulk: alta cliente a cliente
+                log.warn("El servidor no admite importación masiva, se envían los clientes uno a uno");
+                return importarUnoAUno(bloque);
+            }
+            log.error("Error al importar bloque de {} clientes", bloque.size(), e);
+        } catch (IOException e) {
+            log.error("Error al importar bloque de {} clientes", bloque.size(), e);
+        }
+        return ImportacionClientesDTO.fallido(bloque.size());
+    }
+
+    private ImportacionClientesDTO importarUnoAUno(List<ClienteDTO> bloque) {
+        ImportacionClientesDTO resultado = new ImportacionClientesDTO();
+        resultado.setRecibidos(bloque.size());
+        for (ClienteDTO cliente : bloque) {
+            if (crear(cliente) != null) {
+                resultado.setCreados(resultado.getCreados() + 1);
+            } else {
+                resultado.setErrores(resultado.getErrores() + 1);
+            }
+        }
+        return resultado;
+    }
+
     /**
      * Actualizar cliente (cuando esté disponible en la API)
      */
     public ClienteDTO actualizar(Long id, ClienteDTO cliente) {
         try {
+            replica.comprobarIdServidor(id);
             ClienteDTO clienteActualizado = apiClient.put(baseUrl + "/" + id, cliente, ClienteDTO.class);
             log.info("Cliente actualizado: {}", id);
             return clienteActualizado;
         } catch (IOException e) {
+            if (replica.puedeEncolar(e)) {
+                replica.encolar(EventoCambioDTO.CLIENTE, "PUT", baseUrl + "/" + id, cliente);
+                replica.guardarLocal(EventoCambioDTO.CLIENTE, id, cliente);
+                return cliente;
+            }
             log.error("Error al actualizar cliente: " + id, e);
             return null;
         }
@@ -269,10 +371,17 @@ public class ClienteApiService {
      */
     public boolean eliminar(Long id) {
         try {
+            replica.comprobarIdServidor(id);
             apiClient.delete(baseUrl + "/" + id);
+            replica.eliminarLocal(EventoCambioDTO.CLIENTE, id);
             log.info("Cliente eliminado: {}", id);
             return true;
         } catch (IOException e) {
+            if (replica.puedeEncolar(e)) {
+                replica.encolar(EventoCambioDTO.CLIENTE, "DELETE", baseUrl + "/" + id, null);
+                replica.eliminarLocal(EventoCambioDTO.CLIENTE, id);
+                return true;
+            }
             log.error("Error al eliminar cliente: " + id, e);
             return false;
         }
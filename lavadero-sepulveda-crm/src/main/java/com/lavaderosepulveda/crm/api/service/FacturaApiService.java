@@ -2,8 +2,10 @@ package com.lavaderosepulveda.crm.api.service;
 
 import com.google.gson.reflect.TypeToken;
 import com.lavaderosepulveda.crm.api.client.ApiClient;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
 import com.lavaderosepulveda.crm.model.dto.FacturaDTO;
 import com.lavaderosepulveda.crm.config.ConfigManager;
+import com.lavaderosepulveda.crm.service.ReplicaLocalService;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
@@ -21,6 +23,7 @@ public class FacturaApiService {
     private static FacturaApiService instance;
     private final ApiClient apiClient;
     private final String baseUrl;
+    private final ReplicaLocalService replica;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
@@ -28,6 +31,7 @@ public class FacturaApiService {
         this.apiClient = ApiClient.getInstance();
         ConfigManager config = ConfigManager.getInstance();
         this.baseUrl = config.getApiBaseUrl() + "/api/facturas";
+        this.replica = ReplicaLocalService.getInstance();
     }
 
     public static synchronized FacturaApiService getInstance() {
@@ -45,6 +49,9 @@ public class FacturaApiService {
      * Obtener todas las facturas
      */
     public List<FacturaDTO> findAll() {
+        if (replica.isSincronizada(EventoCambioDTO.FACTURA)) {
+            return replica.leer(EventoCambioDTO.FACTURA, FacturaDTO.class);
+        }
         try {
             String response = apiClient.getRaw(baseUrl);
             Type listType = new TypeToken<ArrayList<FacturaDTO>>() {
@@ -54,7 +61,7 @@ public class FacturaApiService {
             return facturas;
         } catch (IOException e) {
             log.error("Error al obtener facturas", e);
-            return new ArrayList<>();
+            return replica.leer(EventoCambioDTO.FACTURA, FacturaDTO.class);
         }
     }
 
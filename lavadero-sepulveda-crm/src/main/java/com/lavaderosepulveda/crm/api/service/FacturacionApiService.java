@@ -20,6 +20,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class FacturacionApiService {
 
@@ -30,6 +31,9 @@ public class FacturacionApiService {
         private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         private static final int TIMEOUT = 15000; // 15 segundos
 
+        // Avisos tras cada escritura (los servicios que guardan datos descargados los descartan)
+        private final List<Runnable> alModificar = new CopyOnWriteArrayList<>();
+
         private FacturacionApiService() {
                 this.objectMapper = new ObjectMapper();
                 this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -47,6 +51,20 @@ public class FacturacionApiService {
                 this.baseUrl = baseUrl;
         }
 
+        /**
+         * Registrar una acción que se ejecuta tras cada alta, modificación o borrado
+         * (facturas, gastos, proveedores) hecho desde el CRM
+         */
+        public void alModificarDatos(Runnable accion) {
+                alModificar.add(accion);
+        }
+
+        private void notificarModificacion() {
+                for (Runnable accion : alModificar) {
+                        accion.run();
+                }
+        }
+
         // ==================== MÉTODOS HTTP BASE ====================
 
         private String doGet(String endpoint) throws IOException {
@@ -76,7 +94,9 @@ public class FacturacionApiService {
                         }
                 }
 
-                return readResponse(conn);
+                String response = readResponse(conn);
+                notificarModificacion();
+                return response;
         }
 
         private String doPut(String endpoint, String jsonBody) throws IOException {
@@ -95,7 +115,9 @@ public class FacturacionApiService {
                         }
                 }
 
-                return readResponse(conn);
+                String response = readResponse(conn);
+                notificarModificacion();
+                return response;
         }
 
         private void doDelete(String endpoint) throws IOException {
@@ -109,6 +131,7 @@ public class FacturacionApiService {
                 if (responseCode >= 400) {
                         throw new IOException("Error en la API: " + responseCode);
                 }
+                notificarModificacion();
         }
 
         private byte[] doGetBytes(String endpoint) throws IOException {
@@ -488,6 +511,24 @@ public class FacturacionApiService {
                 return objectMapper.readValue(response, ResumenFinancieroDTO.class);
         }
 
+        // ==================== MODELOS FISCALES ====================
+
+        /**
+         * Modelo 390 calculado en el servidor con consultas agregadas
+         */
+        public Modelo390DTO obtenerModelo390(int year) throws IOException {
+                String response = doGet("/api/modelos-fiscales/390?anio=" + year);
+                return objectMapper.readValue(response, Modelo390DTO.class);
+        }
+
+        /**
+         * Modelo 347 calculado en el servidor (solo llegan los declarados que superan el umbral)
+         */
+        public Modelo347DTO obtenerModelo347(int year) throws IOException {
+                String response = doGet("/api/modelos-fiscales/347?anio=" + year);
+                return objectMapper.readValue(response, Modelo347DTO.class);
+        }
+
         // ==================== MÉTODOS DE FILTRADO COMBINADO ====================
 
         /**
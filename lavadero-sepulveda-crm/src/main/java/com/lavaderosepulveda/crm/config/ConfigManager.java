@@ -110,6 +110,18 @@ public class ConfigManager {
         return getIntProperty("api.timeout.write", 30);
     }
 
+    public int getCacheTtl() {
+        return getIntProperty("api.cache.ttl", 30);
+    }
+
+    public boolean isReplicaEnabled() {
+        return getBooleanProperty("replica.enabled", true);
+    }
+
+    public int getReplicaIntervalo() {
+        return getIntProperty("replica.intervalo", 60);
+    }
+
     public boolean isAuthEnabled() {
         return getBooleanProperty("api.auth.enabled", false);
     }
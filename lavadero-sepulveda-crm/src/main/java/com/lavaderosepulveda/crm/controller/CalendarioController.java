@@ -2,6 +2,8 @@ package com.lavaderosepulveda.crm.controller;
 
 import com.lavaderosepulveda.crm.model.dto.CitaDTO;
 import com.lavaderosepulveda.crm.api.service.CitaApiService;
+import com.lavaderosepulveda.crm.util.TareasVista;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
@@ -35,30 +37,61 @@ public class CalendarioController {
     private final CitaApiService citaApiService = CitaApiService.getInstance();
     private YearMonth mesActual;
     private List<CitaDTO> todasLasCitas;
+    private TareasVista tareas;
     private Map<Integer, Set<LocalDate>> festivosPorAnio;
     private LocalDate diaSeleccionado;
 
     @FXML
     public void initialize() {
         log.info("Inicializando CalendarioController...");
+        tareas = new TareasVista(gridCalendario);
         mesActual = YearMonth.now();
         festivosPorAnio = new HashMap<>();
         cargarCitas();
+        // Escuchar cambios del servidor mientras la ventana del calendario esté abierta
+        tareas.suscribir(this::onEventoCambio);
     }
 
-    private void cargarCitas() {
-        new Thread(() -> {
-            try {
-                todasLasCitas = citaApiService.findAll();
-                log.info("Citas cargadas para calendario: {}", todasLasCitas.size());
-                
-                Platform.runLater(() -> {
-                    mostrarCalendario();
-                });
-            } catch (Exception e) {
-                log.error("Error al cargar citas para calendario", e);
+    private void onEventoCambio(EventoCambioDTO evento) {
+        if (!EventoCambioDTO.CITA.equals(evento.getEntidad()) || evento.getId() == null) {
+            return;
+        }
+
+        CitaDTO cita = evento.esEliminacion() ? null : citaApiService.findById(evento.getId());
+        if (cita == null && !evento.esEliminacion()) {
+            return;
+        }
+
+        Platform.runLater(() -> {
+            if (todasLasCitas == null) {
+                return;
+            }
+            List<CitaDTO> citas = new ArrayList<>(todasLasCitas);
+            citas.removeIf(c -> evento.getId().equals(c.getId()));
+            if (cita != null && cita.getFechaHora() != null
+                    && YearMonth.from(cita.getFechaHora()).equals(mesActual)) {
+                citas.add(cita);
+            }
+            todasLasCitas = citas;
+            mostrarCalendario();
+            if (diaSeleccionado != null) {
+                mostrarCitasDia(diaSeleccionado);
             }
-        }).start();
+        });
+    }
+
+    /**
+     * Carga solo las citas del mes visible; el filtrado se hace en el servidor
+     */
+    private void cargarCitas() {
+        YearMonth mes = mesActual;
+        // Al cambiar de mes rápido, la carga anterior ya no interesa
+        tareas.cancelarTodas();
+        tareas.ejecutar(() -> citaApiService.findByRango(mes.atDay(1), mes.atEndOfMonth()), citas -> {
+            todasLasCitas = citas;
+            log.info("Citas cargadas para calendario ({}): {}", mes, citas.size());
+            mostrarCalendario();
+        }, e -> log.error("Error al cargar citas para calendario", e));
     }
 
     private void mostrarCalendario() {
@@ -216,6 +249,7 @@ public class CalendarioController {
     private void mesAnterior() {
         mesActual = mesActual.minusMonths(1);
         mostrarCalendario();
+        cargarCitas();
         listCitasDia.getItems().clear();
         lblCitasSeleccionadas.setText("Selecciona un día");
     }
@@ -224,6 +258,7 @@ public class CalendarioController {
     private void mesSiguiente() {
         mesActual = mesActual.plusMonths(1);
         mostrarCalendario();
+        cargarCitas();
         listCitasDia.getItems().clear();
         lblCitasSeleccionadas.setText("Selecciona un día");
     }
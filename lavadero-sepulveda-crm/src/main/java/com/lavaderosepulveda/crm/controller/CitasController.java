@@ -1,11 +1,15 @@
 package com.lavaderosepulveda.crm.controller;
 
+import com.lavaderosepulveda.crm.api.client.EventosClient;
 import com.lavaderosepulveda.crm.model.dto.CitaDTO;
+import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
 import com.lavaderosepulveda.crm.api.service.CitaApiService;
+import com.lavaderosepulveda.crm.util.FiltroTabla;
+import com.lavaderosepulveda.crm.util.TareasVista;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
 import com.lavaderosepulveda.crm.model.enums.EstadoCita;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -30,6 +34,7 @@ public class CitasController {
 
     private static final Logger log = LoggerFactory.getLogger(CitasController.class);
 
+    @FXML private TextField txtBuscar;
     @FXML private DatePicker dpFecha;
     @FXML private ComboBox<String> cmbEstado;
     @FXML private Button btnFiltrar;
@@ -45,15 +50,69 @@ public class CitasController {
     @FXML private TableColumn<CitaDTO, Double> colImporte;
     @FXML private TableColumn<CitaDTO, Void> colAcciones;
 
+    // Orden de la tabla: por fecha y hora ascendente, sin fecha al final
+    private static final Comparator<CitaDTO> ORDEN_CITAS = Comparator.comparing(
+            CitaDTO::getFechaHora, Comparator.nullsLast(Comparator.naturalOrder()));
+
     private final CitaApiService citaApiService = CitaApiService.getInstance();
-    private List<CitaDTO> todasLasCitas;
+    private final EventosClient eventosClient = EventosClient.getInstance();
+    private FiltroTabla<CitaDTO> filtro;
+    private TareasVista tareas;
 
     @FXML
     public void initialize() {
         log.info("Inicializando CitasController...");
+        tareas = new TareasVista(tblCitas);
         configurarTabla();
         configurarComboEstado();
+        configurarFiltro();
         cargarCitas();
+        tareas.suscribir(this::onEventoCambio);
+    }
+
+    /**
+     * Cambio notificado por el servidor: se pide solo la cita afectada (en el hilo de eventos)
+     */
+    private void onEventoCambio(EventoCambioDTO evento) {
+        if (!EventoCambioDTO.CITA.equals(evento.getEntidad()) || evento.getId() == null) {
+            return;
+        }
+
+        if (evento.esEliminacion()) {
+            Platform.runLater(() -> aplicarCambioCita(evento.getId(), null));
+            return;
+        }
+
+        CitaDTO cita = citaApiService.findById(evento.getId());
+        if (cita != null) {
+            Platform.runLater(() -> aplicarCambioCita(evento.getId(), cita));
+        }
+    }
+
+    /**
+     * Actualiza solo la fila afectada en lugar de recargar todas las citas
+     */
+    private void aplicarCambioCita(Long id, CitaDTO cita) {
+        // El FilteredList/SortedList de la tabla coloca la fila según el filtro y el orden actuales
+        filtro.reemplazar(c -> id.equals(c.getId()), cita);
+    }
+
+    /**
+     * Búsqueda por cliente, teléfono, NIF o matrícula mientras se escribe;
+     * la fecha y el estado se aplican con el botón Filtrar
+     */
+    private void configurarFiltro() {
+        filtro = new FiltroTabla<CitaDTO>(tblCitas, cita -> {
+            ClienteDTO cliente = cita.getCliente();
+            return Arrays.asList(
+                    cita.getMatricula(), cita.getMarcaModelo(),
+                    cliente != null ? cliente.getNombre() : null,
+                    cliente != null ? cliente.getApellidos() : null,
+                    cliente != null ? cliente.getNombreCompleto() : null,
+                    cliente != null ? cliente.getTelefono() : null,
+                    cliente != null ? cliente.getNif() : null,
+                    cliente != null ? cliente.getMatricula() : null);
+        }, ORDEN_CITAS).enlazarBusqueda(txtBuscar);
     }
 
     private void configurarTabla() {
@@ -156,48 +215,37 @@ public class CitasController {
     private void cargarCitas() {
         log.info("Cargando citas desde la API...");
         
-        new Thread(() -> {
-            try {
-                todasLasCitas = citaApiService.findAll();
-                log.info("Citas cargadas: {}", todasLasCitas.size());
-                
-                Platform.runLater(() -> {
-                    actualizarTabla(todasLasCitas);
-                });
-            } catch (Exception e) {
-                log.error("Error al cargar citas", e);
-                Platform.runLater(() -> {
-                    mostrarError("Error al cargar las citas: " + e.getMessage());
-                });
-            }
-        }).start();
+        tareas.ejecutar(citaApiService::findAll, citas -> {
+            log.info("Citas cargadas: {}", citas.size());
+            filtro.establecer(citas);
+        }, e -> mostrarError("Error al cargar las citas: " + e.getMessage()));
     }
 
     @FXML
     private void filtrarCitas() {
+        // Los valores se fijan al pulsar Filtrar; los cambios que lleguen después usan los mismos
         LocalDate fecha = dpFecha.getValue();
         String estado = cmbEstado.getValue();
-        
-        List<CitaDTO> citasFiltradas = todasLasCitas;
-        
+        filtro.setFiltroAdicional(cita -> cumpleFiltro(cita, fecha, estado));
+        log.info("Citas filtradas: {}", filtro.getVisibles().size());
+    }
+
+    /**
+     * Comprueba si una cita cumple los filtros de fecha y estado seleccionados
+     */
+    private boolean cumpleFiltro(CitaDTO cita, LocalDate fecha, String estado) {
         // Filtrar por fecha
-        if (fecha != null) {
-            citasFiltradas = citasFiltradas.stream()
-                .filter(cita -> cita.getFechaHora() != null && 
-                               cita.getFechaHora().toLocalDate().equals(fecha))
-                .collect(Collectors.toList());
+        if (fecha != null && (cita.getFechaHora() == null ||
+                !cita.getFechaHora().toLocalDate().equals(fecha))) {
+            return false;
         }
         
         // Filtrar por estado
         if (estado != null && !estado.equals("Todos")) {
-            EstadoCita estadoEnum = convertirEstado(estado);
-            citasFiltradas = citasFiltradas.stream()
-                .filter(cita -> cita.getEstado() == estadoEnum)
-                .collect(Collectors.toList());
+            return cita.getEstado() == convertirEstado(estado);
         }
         
-        actualizarTabla(citasFiltradas);
-        log.info("Citas filtradas: {}", citasFiltradas.size());
+        return true;
     }
 
     @FXML
@@ -212,7 +260,9 @@ public class CitasController {
             
             // Callback para recargar la tabla cuando se guarde
             controller.setOnCitaGuardada(() -> {
-                cargarCitas();
+                if (!eventosClient.isConectado()) {
+                    cargarCitas();
+                }
             });
             
             Stage stage = new Stage();
@@ -304,24 +354,17 @@ public class CitasController {
         resultado.ifPresent(nuevoEstado -> {
             log.info("Cambiando estado de {} a {}", cita.getEstado(), nuevoEstado);
             
-            new Thread(() -> {
-                try {
-                    // Usar endpoint específico PUT /api/citas/{id}/estado/{estado}
-                    CitaDTO citaActualizada = citaApiService.cambiarEstado(cita.getId(), nuevoEstado);
-                    
-                    Platform.runLater(() -> {
-                        mostrarInfo("Estado Actualizado", 
-                            "El estado de la cita ha sido actualizado a: " + formatearEstado(nuevoEstado));
-                        cargarCitas(); // Recargar tabla
-                    });
-                    
-                } catch (Exception e) {
-                    log.error("Error al actualizar estado de cita", e);
-                    Platform.runLater(() -> {
-                        mostrarError("Error al actualizar el estado: " + e.getMessage());
-                    });
-                }
-            }).start();
+            // Usar endpoint específico PUT /api/citas/{id}/estado/{estado}
+            tareas.ejecutarSinCancelar(() -> citaApiService.cambiarEstado(cita.getId(), nuevoEstado),
+                citaActualizada -> {
+                    mostrarInfo("Estado Actualizado", 
+                        "El estado de la cita ha sido actualizado a: " + formatearEstado(nuevoEstado));
+                    // Con eventos en tiempo real la fila se actualiza sola
+                    if (!eventosClient.isConectado()) {
+                        cargarCitas();
+                    }
+                },
+                e -> mostrarError("Error al actualizar el estado: " + e.getMessage()));
         });
     }
 
@@ -344,25 +387,19 @@ public class CitasController {
         if (resultado.isPresent() && resultado.get() == ButtonType.OK) {
             log.info("Confirmada eliminación de cita: {}", cita.getId());
             
-            new Thread(() -> {
-                try {
-                    citaApiService.delete(cita.getId());
-                    
-                    Platform.runLater(() -> {
-                        log.info("Cita eliminada exitosamente: {}", cita.getId());
-                        mostrarInfo("Cita Eliminada", 
-                            "La cita se ha eliminado correctamente.");
-                        
-                        // Recargar la lista de citas
-                        cargarCitas();
-                    });
-                } catch (Exception e) {
-                    log.error("Error al eliminar cita", e);
-                    Platform.runLater(() -> {
-                        mostrarError("Error al eliminar la cita: " + e.getMessage());
-                    });
+            tareas.ejecutarSinCancelar(() -> {
+                citaApiService.delete(cita.getId());
+                return cita.getId();
+            }, eliminada -> {
+                log.info("Cita eliminada exitosamente: {}", eliminada);
+                mostrarInfo("Cita Eliminada", 
+                    "La cita se ha eliminado correctamente.");
+                
+                // Recargar la lista de citas (si no llegan eventos del servidor)
+                if (!eventosClient.isConectado()) {
+                    cargarCitas();
                 }
-            }).start();
+            }, e -> mostrarError("Error al eliminar la cita: " + e.getMessage()));
         }
     }
 
@@ -373,21 +410,6 @@ public class CitasController {
             .collect(Collectors.joining(" "));
     }
 
-    private void actualizarTabla(List<CitaDTO> citas) {
-        // Ordenar por fecha y hora (ascendente)
-        List<CitaDTO> citasOrdenadas = citas.stream()
-            .sorted((c1, c2) -> {
-                if (c1.getFechaHora() == null && c2.getFechaHora() == null) return 0;
-                if (c1.getFechaHora() == null) return 1;
-                if (c2.getFechaHora() == null) return -1;
-                return c1.getFechaHora().compareTo(c2.getFechaHora());
-            })
-            .collect(Collectors.toList());
-        
-        ObservableList<CitaDTO> data = FXCollections.observableArrayList(citasOrdenadas);
-        tblCitas.setItems(data);
-    }
-
     private String formatearEstado(EstadoCita estado) {
         if (estado == null) return "";
         switch (estado) {
@@ -1,11 +1,12 @@
 package com.lavaderosepulveda.crm.controller;
 
 import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
+import com.lavaderosepulveda.crm.model.dto.ImportacionClientesDTO;
 import com.lavaderosepulveda.crm.api.service.ClienteApiService;
 import com.lavaderosepulveda.crm.util.ExcelClienteHandler;
+import com.lavaderosepulveda.crm.util.FiltroTabla;
+import com.lavaderosepulveda.crm.util.TareasVista;
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -24,9 +25,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 public class ClientesController {
 
@@ -55,14 +57,19 @@ public class ClientesController {
 
     @FXML private Label lblTotalClientes;
     @FXML private Label lblClientesActivos;
+    @FXML private Label lblImportacion;
+    @FXML private ProgressBar pbImportacion;
 
     private final ClienteApiService clienteApiService = ClienteApiService.getInstance();
-    private List<ClienteDTO> todosLosClientes;
+    private FiltroTabla<ClienteDTO> filtro;
+    private TareasVista tareas;
 
     @FXML
     public void initialize() {
         log.info("Inicializando ClientesController...");
+        tareas = new TareasVista(tblClientes);
         configurarTabla();
+        configurarFiltro();
         cargarClientes();
     }
 
@@ -143,76 +150,36 @@ public class ClientesController {
         });
     }
 
+    /**
+     * Búsqueda sobre los campos normalizados mientras se escribe
+     */
+    private void configurarFiltro() {
+        filtro = new FiltroTabla<ClienteDTO>(tblClientes,
+                cliente -> Arrays.asList(cliente.getNombre(), cliente.getApellidos(), cliente.getNombreCompleto(),
+                        cliente.getTelefono(), cliente.getEmail(), cliente.getNif(), cliente.getMatricula()),
+                null)
+                .enlazarBusqueda(txtBuscar)
+                .alFiltrar(this::actualizarEstadisticas);
+    }
+
     private void cargarClientes() {
         log.info("Cargando clientes desde la API...");
         
-        // Ejecutar en hilo separado para no bloquear UI
-        new Thread(() -> {
-            try {
-                todosLosClientes = clienteApiService.obtenerTodosLosClientes();
-                log.info("Clientes cargados: {}", todosLosClientes.size());
-                
-                // Actualizar UI en el hilo de JavaFX
-                Platform.runLater(() -> {
-                    actualizarTabla(todosLosClientes);
-                    actualizarEstadisticas();
-                });
-            } catch (Exception e) {
-                log.error("Error al cargar clientes", e);
-                Platform.runLater(() -> {
-                    mostrarError("Error al cargar los clientes: " + e.getMessage());
-                });
-            }
-        }).start();
+        tareas.ejecutar(clienteApiService::obtenerTodosLosClientes, clientes -> {
+            log.info("Clientes cargados: {}", clientes.size());
+            filtro.establecer(clientes);
+        }, e -> mostrarError("Error al cargar los clientes: " + e.getMessage()));
     }
 
     @FXML
     private void buscarClientes() {
-        String textoBusqueda = txtBuscar.getText();
-        
-        if (textoBusqueda == null || textoBusqueda.trim().isEmpty()) {
-            actualizarTabla(todosLosClientes);
-            return;
-        }
-        
-        String busqueda = textoBusqueda.toLowerCase().trim();
-        log.info("Buscando clientes con: {}", busqueda);
-        
-        List<ClienteDTO> clientesFiltrados = todosLosClientes.stream()
-            .filter(cliente -> {
-                String nombreCompleto = cliente.getNombre();
-                if (cliente.getApellidos() != null) {
-                    nombreCompleto += " " + cliente.getApellidos();
-                }
-                if (nombreCompleto.toLowerCase().contains(busqueda)) {
-                    return true;
-                }
-                
-                if (cliente.getTelefono() != null && 
-                    cliente.getTelefono().toLowerCase().contains(busqueda)) {
-                    return true;
-                }
-                
-                if (cliente.getEmail() != null && 
-                    cliente.getEmail().toLowerCase().contains(busqueda)) {
-                    return true;
-                }
-                
-                return false;
-            })
-            .collect(Collectors.toList());
-        
-        log.info("Clientes encontrados: {}", clientesFiltrados.size());
-        actualizarTabla(clientesFiltrados);
-        actualizarEstadisticas(clientesFiltrados.size(), 
-                              clientesFiltrados.stream().filter(ClienteDTO::getActivo).count());
+        filtro.buscar(txtBuscar.getText());
     }
 
     @FXML
     private void limpiarBusqueda() {
         txtBuscar.clear();
-        actualizarTabla(todosLosClientes);
-        actualizarEstadisticas();
+        filtro.buscar("");
         log.info("Búsqueda limpiada");
     }
 
@@ -229,53 +196,65 @@ public class ClientesController {
         File archivo = fileChooser.showOpenDialog(tblClientes.getScene().getWindow());
         
         if (archivo != null) {
-            new Thread(() -> {
-                try {
-                    List<ClienteDTO> clientesImportados = ExcelClienteHandler.importarDesdeExcel(archivo);
-                    
-                    // Guardar cada cliente en la API
-                    int guardados = 0;
-                    int errores = 0;
-                    
-                    for (ClienteDTO cliente : clientesImportados) {
-                        try {
-                            ClienteDTO clienteGuardado = clienteApiService.crear(cliente);
-                            if (clienteGuardado != null) {
-                                guardados++;
-                            } else {
-                                errores++;
-                            }
-                        } catch (Exception e) {
-                            log.error("Error al guardar cliente: {}", cliente.getNombre(), e);
-                            errores++;
-                        }
+            btnImportar.setDisable(true);
+            mostrarProgresoImportacion(true, "Leyendo Excel...");
+            pbImportacion.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+
+            // Leer el Excel en streaming y enviar a la API por bloques (/api/clientes/bulk)
+            // según se llenan: el total no se sabe hasta el final, se muestra lo enviado
+            tareas.ejecutarSinCancelar(() -> clienteApiService.importarClientes(
+                    consumidor -> ExcelClienteHandler.importarDesdeExcel(archivo, consumidor),
+                    procesados -> Platform.runLater(() ->
+                            lblImportacion.setText("Importados " + procesados + " clientes..."))),
+                resultado -> {
+                    mostrarProgresoImportacion(false, null);
+                    btnImportar.setDisable(false);
+
+                    if (resultado.getErrores() == 0 && resultado.getRechazadas().isEmpty()) {
+                        mostrarInfo("Importación Exitosa", 
+                            "Se han importado " + resultado.getGuardados() + " clientes correctamente.\n" +
+                            "Nuevos: " + resultado.getCreados() + "\n" +
+                            "Actualizados: " + resultado.getActualizados());
+                    } else {
+                        mostrarInfo("Importación Parcial", 
+                            "Clientes guardados: " + resultado.getGuardados() + "\n" +
+                            "Rechazados: " + resultado.getRechazadas().size() + "\n" +
+                            "Errores: " + resultado.getErrores() +
+                            describirRechazadas(resultado.getRechazadas()));
                     }
                     
-                    final int totalGuardados = guardados;
-                    final int totalErrores = errores;
-                    
-                    Platform.runLater(() -> {
-                        if (totalErrores == 0) {
-                            mostrarInfo("Importación Exitosa", 
-                                "Se han importado y guardado " + totalGuardados + " clientes correctamente.");
-                        } else {
-                            mostrarInfo("Importación Parcial", 
-                                "Clientes guardados: " + totalGuardados + "\n" +
-                                "Errores: " + totalErrores);
-                        }
-                        
-                        // Recargar clientes desde la API
-                        cargarClientes();
-                    });
-                    
-                } catch (Exception e) {
-                    log.error("Error al importar Excel", e);
-                    Platform.runLater(() -> {
-                        mostrarError("Error al importar: " + e.getMessage());
-                    });
-                }
-            }).start();
+                    // Recargar clientes desde la API
+                    cargarClientes();
+                },
+                e -> {
+                    mostrarProgresoImportacion(false, null);
+                    btnImportar.setDisable(false);
+                    mostrarError("Error al importar: " + e.getMessage());
+                });
+        }
+    }
+
+    /**
+     * Primeras filas rechazadas por el servidor, para el resumen de la importación
+     */
+    private String describirRechazadas(List<ImportacionClientesDTO.FilaRechazada> rechazadas) {
+        int maximo = 10;
+        StringBuilder texto = new StringBuilder();
+        for (ImportacionClientesDTO.FilaRechazada fila : rechazadas.subList(0, Math.min(maximo, rechazadas.size()))) {
+            texto.append("\n- ").append(fila.getNombre()).append(": ").append(fila.getMotivo());
+        }
+        if (rechazadas.size() > maximo) {
+            texto.append("\n... y ").append(rechazadas.size() - maximo).append(" más");
         }
+        return texto.toString();
+    }
+
+    private void mostrarProgresoImportacion(boolean visible, String texto) {
+        pbImportacion.setVisible(visible);
+        pbImportacion.setManaged(visible);
+        lblImportacion.setVisible(visible);
+        lblImportacion.setManaged(visible);
+        lblImportacion.setText(texto);
     }
 
     @FXML
@@ -292,40 +271,27 @@ public class ClientesController {
         File archivo = fileChooser.showSaveDialog(tblClientes.getScene().getWindow());
         
         if (archivo != null) {
-            new Thread(() -> {
-                try {
-                    // Obtener clientes actuales de la tabla
-                    List<ClienteDTO> clientesAExportar = tblClientes.getItems();
-                    
-                    ExcelClienteHandler.exportarAExcel(clientesAExportar, archivo);
-                    
-                    Platform.runLater(() -> {
-                        mostrarInfo("Exportación Exitosa", 
-                            "Se han exportado " + clientesAExportar.size() + " clientes a:\n" +
-                            archivo.getAbsolutePath());
-                    });
-                    
-                } catch (Exception e) {
-                    log.error("Error al exportar Excel", e);
-                    Platform.runLater(() -> {
-                        mostrarError("Error al exportar: " + e.getMessage());
-                    });
-                }
-            }).start();
+            // Clientes visibles en la tabla (copiados: la tarea no debe leer la lista de la vista)
+            List<ClienteDTO> clientesAExportar = new ArrayList<>(tblClientes.getItems());
+
+            tareas.ejecutarSinCancelar(() -> {
+                ExcelClienteHandler.exportarAExcel(clientesAExportar, archivo);
+                return archivo;
+            }, exportado -> mostrarInfo("Exportación Exitosa", 
+                    "Se han exportado " + clientesAExportar.size() + " clientes a:\n" +
+                    exportado.getAbsolutePath()),
+                e -> mostrarError("Error al exportar: " + e.getMessage()));
         }
     }
 
-    private void actualizarTabla(List<ClienteDTO> clientes) {
-        ObservableList<ClienteDTO> data = FXCollections.observableArrayList(clientes);
-        tblClientes.setItems(data);
-        log.info("Tabla actualizada con {} clientes", clientes.size());
-    }
 
+    /**
+     * Totales de los clientes visibles (todos si no hay búsqueda)
+     */
     private void actualizarEstadisticas() {
-        if (todosLosClientes != null) {
-            long activos = todosLosClientes.stream().filter(ClienteDTO::getActivo).count();
-            actualizarEstadisticas(todosLosClientes.size(), activos);
-        }
+        List<ClienteDTO> visibles = filtro.getVisibles();
+        long activos = visibles.stream().filter(c -> Boolean.TRUE.equals(c.getActivo())).count();
+        actualizarEstadisticas(visibles.size(), activos);
     }
 
     private void actualizarEstadisticas(long total, long activos) {
@@ -372,29 +338,20 @@ public class ClientesController {
             log.info("Guardando cambios del cliente: {}", clienteEditado.getNombre());
             
             // Llamar a la API para actualizar el cliente
-            new Thread(() -> {
-                try {
-                    ClienteDTO clienteActualizado = clienteApiService.actualizar(cliente.getId(), clienteEditado);
-                    
-                    Platform.runLater(() -> {
-                        if (clienteActualizado != null) {
-                            log.info("Cliente actualizado exitosamente: {}", clienteActualizado.getId());
-                            mostrarInfo("Cliente Actualizado", 
-                                "Los cambios se han guardado correctamente.");
-                            
-                            // Recargar la lista de clientes
-                            cargarClientes();
-                        } else {
-                            mostrarError("No se pudo actualizar el cliente. Verifica que el servidor esté funcionando.");
-                        }
-                    });
-                } catch (Exception e) {
-                    log.error("Error al actualizar cliente", e);
-                    Platform.runLater(() -> {
-                        mostrarError("Error al actualizar el cliente: " + e.getMessage());
-                    });
-                }
-            }).start();
+            tareas.ejecutarSinCancelar(() -> clienteApiService.actualizar(cliente.getId(), clienteEditado),
+                clienteActualizado -> {
+                    if (clienteActualizado != null) {
+                        log.info("Cliente actualizado exitosamente: {}", clienteActualizado.getId());
+                        mostrarInfo("Cliente Actualizado", 
+                            "Los cambios se han guardado correctamente.");
+                        
+                        // Recargar la lista de clientes
+                        cargarClientes();
+                    } else {
+                        mostrarError("No se pudo actualizar el cliente. Verifica que el servidor esté funcionando.");
+                    }
+                },
+                e -> mostrarError("Error al actualizar el cliente: " + e.getMessage()));
         });
     }
 
@@ -416,29 +373,20 @@ public class ClientesController {
             log.info("Confirmada eliminación de cliente: {}", cliente.getId());
             
             // Llamar a la API para eliminar el cliente
-            new Thread(() -> {
-                try {
-                    boolean eliminado = clienteApiService.eliminar(cliente.getId());
-                    
-                    Platform.runLater(() -> {
-                        if (eliminado) {
-                            log.info("Cliente eliminado exitosamente: {}", cliente.getId());
-                            mostrarInfo("Cliente Eliminado", 
-                                "El cliente se ha eliminado correctamente.");
-                            
-                            // Recargar la lista de clientes
-                            cargarClientes();
-                        } else {
-                            mostrarError("No se pudo eliminar el cliente. Puede que tenga citas asociadas.");
-                        }
-                    });
-                } catch (Exception e) {
-                    log.error("Error al eliminar cliente", e);
-                    Platform.runLater(() -> {
-                        mostrarError("Error al eliminar el cliente: " + e.getMessage());
-                    });
-                }
-            }).start();
+            tareas.ejecutarSinCancelar(() -> clienteApiService.eliminar(cliente.getId()),
+                eliminado -> {
+                    if (eliminado) {
+                        log.info("Cliente eliminado exitosamente: {}", cliente.getId());
+                        mostrarInfo("Cliente Eliminado", 
+                            "El cliente se ha eliminado correctamente.");
+                        
+                        // Recargar la lista de clientes
+                        cargarClientes();
+                    } else {
+                        mostrarError("No se pudo eliminar el cliente. Puede que tenga citas asociadas.");
+                    }
+                },
+                e -> mostrarError("Error al eliminar el cliente: " + e.getMessage()));
         }
     }
 
@@ -2,6 +2,7 @@ package com.lavaderosepulveda.crm.controller;
 
 import com.lavaderosepulveda.crm.api.service.FacturacionApiService;
 import com.lavaderosepulveda.crm.model.dto.FacturaEmitidaDTO;
+import com.lavaderosepulveda.crm.util.ExcelStreamingWriter;
 
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
@@ -28,7 +29,6 @@ import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 
 // POI imports
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -41,7 +41,6 @@ import org.apache.poi.ss.util.CellRangeAddress;
 
 import java.awt.Desktop;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.text.NumberFormat;
@@ -684,7 +683,9 @@ public class ContabilidadController implements Initializable {
         File file = fileChooser.showSaveDialog(stage);
 
         if (file != null) {
-            try (Workbook workbook = new XSSFWorkbook()) {
+            try (ExcelStreamingWriter writer = new ExcelStreamingWriter()) {
+                Workbook workbook = writer.getWorkbook();
+
                 // Crear estilos
                 CellStyle styleHeader = workbook.createCellStyle();
                 Font fontHeader = workbook.createFont();
@@ -707,18 +708,18 @@ public class ContabilidadController implements Initializable {
                 // ========================================
                 // HOJA 1: RESUMEN GENERAL
                 // ========================================
-                Sheet sheetResumen = workbook.createSheet("Resumen General");
-                int rowNum = 0;
+                ExcelStreamingWriter.Hoja hojaResumen = writer.crearHoja("Resumen General");
+                Sheet sheetResumen = hojaResumen.getSheet();
 
-                Row titleRow = sheetResumen.createRow(rowNum++);
+                Row titleRow = hojaResumen.crearFilaSinMedir();
                 org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
                 titleCell.setCellValue("RESUMEN CONTABLE - LAVADERO SEPÚLVEDA");
                 titleCell.setCellStyle(styleTitle);
                 sheetResumen.addMergedRegion(new CellRangeAddress(0, 0, 0, 3));
 
-                rowNum++; // Línea en blanco
+                hojaResumen.saltarFilas(1); // Línea en blanco
 
-                Row periodRow = sheetResumen.createRow(rowNum++);
+                Row periodRow = hojaResumen.crearFila();
                 periodRow.createCell(0).setCellValue("Período:");
                 periodRow.createCell(1).setCellValue(dpDesde != null && dpDesde.getValue() != null ? 
                     dpDesde.getValue().format(dateFormatter) : "N/A");
@@ -726,10 +727,10 @@ public class ContabilidadController implements Initializable {
                 periodRow.createCell(3).setCellValue(dpHasta != null && dpHasta.getValue() != null ? 
                     dpHasta.getValue().format(dateFormatter) : "N/A");
 
-                rowNum++; // Línea en blanco
+                hojaResumen.saltarFilas(1); // Línea en blanco
 
                 // Tarjetas de resumen
-                Row headerResumen = sheetResumen.createRow(rowNum++);
+                Row headerResumen = hojaResumen.crearFila();
                 String[] headersResumen = {"Ingresos Totales", "Base Imponible", "IVA Repercutido", "Nº Facturas"};
                 for (int i = 0; i < headersResumen.length; i++) {
                     org.apache.poi.ss.usermodel.Cell cell = headerResumen.createCell(i);
@@ -737,24 +738,18 @@ public class ContabilidadController implements Initializable {
                     cell.setCellStyle(styleHeader);
                 }
 
-                Row dataResumen = sheetResumen.createRow(rowNum++);
+                Row dataResumen = hojaResumen.crearFila();
                 dataResumen.createCell(0).setCellValue(lblIngresosTotales != null ? lblIngresosTotales.getText() : "0,00 €");
                 dataResumen.createCell(1).setCellValue(lblBaseImponible != null ? lblBaseImponible.getText() : "0,00 €");
                 dataResumen.createCell(2).setCellValue(lblIvaRepercutido != null ? lblIvaRepercutido.getText() : "0,00 €");
                 dataResumen.createCell(3).setCellValue(lblNumFacturas != null ? lblNumFacturas.getText() : "0");
 
-                sheetResumen.autoSizeColumn(0);
-                sheetResumen.autoSizeColumn(1);
-                sheetResumen.autoSizeColumn(2);
-                sheetResumen.autoSizeColumn(3);
-
                 // ========================================
                 // HOJA 2: RESUMEN MENSUAL
                 // ========================================
-                Sheet sheetMensual = workbook.createSheet("Resumen Mensual");
-                rowNum = 0;
+                ExcelStreamingWriter.Hoja hojaMensual = writer.crearHoja("Resumen Mensual");
 
-                Row headerMensual = sheetMensual.createRow(rowNum++);
+                Row headerMensual = hojaMensual.crearFila();
                 String[] headersMensual = {"Mes", "Facturas", "Base Imponible", "IVA", "Total"};
                 for (int i = 0; i < headersMensual.length; i++) {
                     org.apache.poi.ss.usermodel.Cell cell = headerMensual.createCell(i);
@@ -768,7 +763,7 @@ public class ContabilidadController implements Initializable {
                 int totalFacturasMensual = 0;
 
                 for (ResumenMensual rm : tablaResumenMensual.getItems()) {
-                    Row row = sheetMensual.createRow(rowNum++);
+                    Row row = hojaMensual.crearFila();
                     row.createCell(0).setCellValue(rm.getMes());
                     row.createCell(1).setCellValue(rm.getNumFacturas());
                     row.createCell(2).setCellValue(rm.getBase().doubleValue());
@@ -785,7 +780,7 @@ public class ContabilidadController implements Initializable {
                 }
 
                 // Fila de totales
-                Row totalRow = sheetMensual.createRow(rowNum++);
+                Row totalRow = hojaMensual.crearFila();
                 org.apache.poi.ss.usermodel.Cell cellTotalLabel = totalRow.createCell(0);
                 cellTotalLabel.setCellValue("TOTAL");
                 cellTotalLabel.setCellStyle(styleHeader);
@@ -798,18 +793,13 @@ public class ContabilidadController implements Initializable {
                 totalRow.createCell(4).setCellValue(totalGeneralMensual.doubleValue());
                 totalRow.getCell(4).setCellStyle(styleHeader);
 
-                for (int i = 0; i < headersMensual.length; i++) {
-                    sheetMensual.autoSizeColumn(i);
-                }
-
                 // ========================================
                 // HOJA 3: FACTURACIÓN POR CLIENTE
                 // ========================================
                 if (tablaPorCliente != null && !tablaPorCliente.getItems().isEmpty()) {
-                    Sheet sheetClientes = workbook.createSheet("Por Cliente");
-                    rowNum = 0;
+                    ExcelStreamingWriter.Hoja hojaClientes = writer.crearHoja("Por Cliente");
 
-                    Row headerClientes = sheetClientes.createRow(rowNum++);
+                    Row headerClientes = hojaClientes.crearFila();
                     String[] headersClientes = {"Cliente", "Facturas", "Total"};
                     for (int i = 0; i < headersClientes.length; i++) {
                         org.apache.poi.ss.usermodel.Cell cell = headerClientes.createCell(i);
@@ -821,7 +811,7 @@ public class ContabilidadController implements Initializable {
                     int totalClientesFacturas = 0;
 
                     for (ResumenCliente rc : tablaPorCliente.getItems()) {
-                        Row row = sheetClientes.createRow(rowNum++);
+                        Row row = hojaClientes.crearFila();
                         row.createCell(0).setCellValue(rc.getNombreCliente());
                         row.createCell(1).setCellValue(rc.getNumFacturas());
                         row.createCell(2).setCellValue(rc.getTotal().doubleValue());
@@ -832,7 +822,7 @@ public class ContabilidadController implements Initializable {
                     }
 
                     // Fila de totales
-                    Row totalClientesRow = sheetClientes.createRow(rowNum++);
+                    Row totalClientesRow = hojaClientes.crearFila();
                     org.apache.poi.ss.usermodel.Cell cellTotalClientesLabel = totalClientesRow.createCell(0);
                     cellTotalClientesLabel.setCellValue("TOTAL");
                     cellTotalClientesLabel.setCellStyle(styleHeader);
@@ -840,15 +830,9 @@ public class ContabilidadController implements Initializable {
                     totalClientesRow.getCell(1).setCellStyle(styleHeader);
                     totalClientesRow.createCell(2).setCellValue(totalClientesAmount.doubleValue());
                     totalClientesRow.getCell(2).setCellStyle(styleHeader);
-
-                    for (int i = 0; i < headersClientes.length; i++) {
-                        sheetClientes.autoSizeColumn(i);
-                    }
                 }
 
-                try (FileOutputStream fos = new FileOutputStream(file)) {
-                    workbook.write(fos);
-                }
+                writer.guardar(file);
                 log.info("Reporte Excel generado: {}", file.getAbsolutePath());
                 mostrarAlerta("Éxito", "Reporte exportado correctamente", Alert.AlertType.INFORMATION);
             } catch (Exception e) {
@@ -3,6 +3,8 @@ package com.lavaderosepulveda.crm.controller;
 import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
 import com.lavaderosepulveda.crm.service.DashboardService;
 import com.lavaderosepulveda.crm.service.DashboardService.DashboardMetrics;
+import com.lavaderosepulveda.crm.util.TareasVista;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -11,9 +13,11 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Duration;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class DashboardController {
@@ -36,11 +40,19 @@ public class DashboardController {
     @FXML private TableColumn<ClienteDTO, Double> colTasaNo;
 
     private final DashboardService dashboardService = DashboardService.getInstance();
+    private TareasVista tareas;
+
+    // Agrupa ráfagas de cambios del servidor en una sola recarga
+    private final PauseTransition recargaDiferida = new PauseTransition(Duration.seconds(2));
 
     @FXML
     public void initialize() {
+        tareas = new TareasVista(lblCitasHoy);
         configurarTablas();
         cargarDatos();
+
+        recargaDiferida.setOnFinished(e -> cargarDatos());
+        tareas.suscribir(evento -> Platform.runLater(recargaDiferida::playFromStart));
     }
 
     private void configurarTablas() {
@@ -60,27 +72,18 @@ public class DashboardController {
     }
 
     private void cargarDatos() {
-        // Ejecutar en hilo separado para no bloquear UI
-        new Thread(() -> {
-            try {
-                DashboardMetrics metrics = dashboardService.obtenerMetricsHoy();
-                List<ClienteDTO> topClientes = dashboardService.obtenerTopClientesPorFacturacion(10);
-                List<ClienteDTO> noPresentados = dashboardService.obtenerClientesConMasNoPresentaciones(10);
-
-                // Actualizar UI en el hilo de JavaFX
-                Platform.runLater(() -> {
-                    actualizarMetricas(metrics);
-                    actualizarTopClientes(topClientes);
-                    actualizarNoPresentados(noPresentados);
-                });
-            } catch (Exception e) {
-                log.error("Error al cargar datos del dashboard", e);
-                Platform.runLater(() -> {
-                    // Mostrar error en UI
-                    lblCitasHoy.setText("Error");
-                });
-            }
-        }).start();
+        // Las tres consultas son independientes: se lanzan a la vez fuera del hilo de JavaFX
+        CompletableFuture<DashboardMetrics> metrics = tareas.lanzar(dashboardService::obtenerMetricsHoy);
+        CompletableFuture<List<ClienteDTO>> topClientes =
+                tareas.lanzar(() -> dashboardService.obtenerTopClientesPorFacturacion(10));
+        CompletableFuture<List<ClienteDTO>> noPresentados =
+                tareas.lanzar(() -> dashboardService.obtenerClientesConMasNoPresentaciones(10));
+
+        tareas.cuandoTerminen(() -> {
+            actualizarMetricas(metrics.join());
+            actualizarTopClientes(topClientes.join());
+            actualizarNoPresentados(noPresentados.join());
+        }, e -> lblCitasHoy.setText("Error"), metrics, topClientes, noPresentados);
     }
 
     private void actualizarMetricas(DashboardMetrics metrics) {
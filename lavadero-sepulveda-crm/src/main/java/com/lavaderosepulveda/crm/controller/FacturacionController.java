@@ -5,6 +5,7 @@ import com.lavaderosepulveda.crm.model.dto.*;
 import com.lavaderosepulveda.crm.model.entity.*;
 import com.lavaderosepulveda.crm.model.enums.*;
 import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
+import com.lavaderosepulveda.crm.util.TareasVista;
 
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -38,6 +39,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class FacturacionController {
@@ -51,6 +53,8 @@ public class FacturacionController {
     private Tab tabRecibidas;
     @FXML
     private Tab tabGastos;
+    @FXML
+    private ProgressIndicator piCargando;
 
     // === FACTURAS EMITIDAS ===
     @FXML
@@ -175,6 +179,7 @@ public class FacturacionController {
     private Label lblTotalGastos;
 
     private FacturacionApiService apiService;
+    private TareasVista tareas;
     private ObservableList<FacturaEmitidaDTO> listaEmitidas = FXCollections.observableArrayList();
     private ObservableList<FacturaRecibidaDTO> listaRecibidas = FXCollections.observableArrayList();
     private ObservableList<GastoDTO> listaGastos = FXCollections.observableArrayList();
@@ -186,15 +191,19 @@ public class FacturacionController {
     public void initialize() {
         apiService = FacturacionApiService.getInstance();
 
+        // Las cargas van en segundo plano y se cancelan al salir de la pantalla
+        tareas = new TareasVista(tabPane);
+        if (piCargando != null) {
+            piCargando.visibleProperty().bind(tareas.cargandoProperty());
+        }
+
         configurarCombos();
         configurarTablaEmitidas();
         configurarTablaRecibidas();
         configurarTablaGastos();
 
         // Cargar datos iniciales
-        cargarFacturasEmitidas();
-        cargarFacturasRecibidas();
-        cargarGastos();
+        cargarDatosIniciales();
     }
 
     /**
@@ -378,43 +387,56 @@ public class FacturacionController {
 
     // === CARGA DE DATOS ===
 
+    /**
+     * Las tres listas son independientes: se piden a la vez y se pintan juntas
+     */
+    private void cargarDatosIniciales() {
+        CompletableFuture<List<FacturaEmitidaDTO>> emitidas = tareas.lanzar(apiService::obtenerFacturasEmitidas);
+        CompletableFuture<List<FacturaRecibidaDTO>> recibidas = tareas.lanzar(apiService::obtenerFacturasRecibidas);
+        CompletableFuture<List<GastoDTO>> gastos = tareas.lanzar(apiService::obtenerGastos);
+
+        tareas.cuandoTerminen(() -> {
+            mostrarEmitidas(emitidas.join());
+            mostrarRecibidas(recibidas.join());
+            mostrarGastos(gastos.join());
+        }, e -> {
+            // Si alguna falla, se pinta lo que haya llegado
+            if (!emitidas.isCompletedExceptionally()) mostrarEmitidas(emitidas.join());
+            if (!recibidas.isCompletedExceptionally()) mostrarRecibidas(recibidas.join());
+            if (!gastos.isCompletedExceptionally()) mostrarGastos(gastos.join());
+            mostrarError("Error al cargar facturación", e.getMessage());
+        }, emitidas, recibidas, gastos);
+    }
+
     private void cargarFacturasEmitidas() {
-        try {
-            List<FacturaEmitidaDTO> facturas = apiService.obtenerFacturasEmitidas();
-            log.info("=== DEBUG: Facturas emitidas cargadas: {} ===", facturas.size());
-            if (!facturas.isEmpty()) {
-                FacturaEmitidaDTO primera = facturas.get(0);
-                log.info("Primera factura - Número: {}, Fecha: {}, Cliente: {}, Concepto: {}, Total: {}",
-                        primera.getNumeroFactura(), primera.getFechaEmision(), primera.getClienteNombre(),
-                        primera.getConcepto(), primera.getTotal());
-            }
-            listaEmitidas.setAll(facturas);
-            actualizarTotalesEmitidas();
-        } catch (Exception e) {
-            log.error("Error cargando facturas", e);
-            e.printStackTrace();
-            mostrarError("Error al cargar facturas emitidas", e.getMessage());
-        }
+        tareas.ejecutar(apiService::obtenerFacturasEmitidas, this::mostrarEmitidas,
+                e -> mostrarError("Error al cargar facturas emitidas", e.getMessage()));
     }
 
     private void cargarFacturasRecibidas() {
-        try {
-            List<FacturaRecibidaDTO> facturas = apiService.obtenerFacturasRecibidas();
-            listaRecibidas.setAll(facturas);
-            actualizarTotalesRecibidas();
-        } catch (Exception e) {
-            mostrarError("Error al cargar facturas recibidas", e.getMessage());
-        }
+        tareas.ejecutar(apiService::obtenerFacturasRecibidas, this::mostrarRecibidas,
+                e -> mostrarError("Error al cargar facturas recibidas", e.getMessage()));
     }
 
     private void cargarGastos() {
-        try {
-            List<GastoDTO> gastos = apiService.obtenerGastos();
-            listaGastos.setAll(gastos);
-            actualizarTotalesGastos();
-        } catch (Exception e) {
-            mostrarError("Error al cargar gastos", e.getMessage());
-        }
+        tareas.ejecutar(apiService::obtenerGastos, this::mostrarGastos,
+                e -> mostrarError("Error al cargar gastos", e.getMessage()));
+    }
+
+    private void mostrarEmitidas(List<FacturaEmitidaDTO> facturas) {
+        log.info("Facturas emitidas cargadas: {}", facturas.size());
+        listaEmitidas.setAll(facturas);
+        actualizarTotalesEmitidas();
+    }
+
+    private void mostrarRecibidas(List<FacturaRecibidaDTO> facturas) {
+        listaRecibidas.setAll(facturas);
+        actualizarTotalesRecibidas();
+    }
+
+    private void mostrarGastos(List<GastoDTO> gastos) {
+        listaGastos.setAll(gastos);
+        actualizarTotalesGastos();
     }
 
     // === ACCIONES FACTURAS EMITIDAS ===
@@ -425,13 +447,8 @@ public class FacturacionController {
         if (termino == null || termino.isEmpty()) {
             cargarFacturasEmitidas();
         } else {
-            try {
-                List<FacturaEmitidaDTO> resultado = apiService.buscarFacturasEmitidas(termino);
-                listaEmitidas.setAll(resultado);
-                actualizarTotalesEmitidas();
-            } catch (Exception e) {
-                mostrarError("Error en búsqueda", e.getMessage());
-            }
+            tareas.ejecutar(() -> apiService.buscarFacturasEmitidas(termino), this::mostrarEmitidas,
+                    e -> mostrarError("Error en búsqueda", e.getMessage()));
         }
     }
 
@@ -441,13 +458,8 @@ public class FacturacionController {
         LocalDate desde = dpDesdeEmitida.getValue();
         LocalDate hasta = dpHastaEmitida.getValue();
 
-        try {
-            List<FacturaEmitidaDTO> resultado = apiService.filtrarFacturasEmitidas(estado, desde, hasta);
-            listaEmitidas.setAll(resultado);
-            actualizarTotalesEmitidas();
-        } catch (Exception e) {
-            mostrarError("Error al filtrar", e.getMessage());
-        }
+        tareas.ejecutar(() -> apiService.filtrarFacturasEmitidas(estado, desde, hasta), this::mostrarEmitidas,
+                e -> mostrarError("Error al filtrar", e.getMessage()));
     }
 
     @FXML
@@ -492,13 +504,10 @@ public class FacturacionController {
         cmbCliente.setPromptText("Seleccionar cliente existente...");
         cmbCliente.setPrefWidth(350);
 
-        // Cargar clientes
-        try {
-            List<ClienteDTO> clientes = apiService.obtenerClientes();
-            cmbCliente.setItems(FXCollections.observableArrayList(clientes));
-        } catch (Exception ex) {
-            log.error("Error al cargar clientes", ex);
-        }
+        // Cargar clientes sin bloquear la apertura del diálogo
+        tareas.ejecutar(apiService::obtenerClientes,
+                clientes -> cmbCliente.setItems(FXCollections.observableArrayList(clientes)),
+                ex -> log.error("Error al cargar clientes", ex));
 
         // Converter para mostrar nombre del cliente
         cmbCliente.setConverter(new javafx.util.StringConverter<ClienteDTO>() {
@@ -1049,13 +1058,8 @@ public class FacturacionController {
         if (termino == null || termino.isEmpty()) {
             cargarFacturasRecibidas();
         } else {
-            try {
-                List<FacturaRecibidaDTO> resultado = apiService.buscarFacturasRecibidas(termino);
-                listaRecibidas.setAll(resultado);
-                actualizarTotalesRecibidas();
-            } catch (Exception e) {
-                mostrarError("Error en búsqueda", e.getMessage());
-            }
+            tareas.ejecutar(() -> apiService.buscarFacturasRecibidas(termino), this::mostrarRecibidas,
+                    e -> mostrarError("Error en búsqueda", e.getMessage()));
         }
     }
 
@@ -1066,13 +1070,8 @@ public class FacturacionController {
         LocalDate desde = dpDesdeRecibida.getValue();
         LocalDate hasta = dpHastaRecibida.getValue();
 
-        try {
-            List<FacturaRecibidaDTO> resultado = apiService.filtrarFacturasRecibidas(categoria, estado, desde, hasta);
-            listaRecibidas.setAll(resultado);
-            actualizarTotalesRecibidas();
-        } catch (Exception e) {
-            mostrarError("Error al filtrar", e.getMessage());
-        }
+        tareas.ejecutar(() -> apiService.filtrarFacturasRecibidas(categoria, estado, desde, hasta),
+                this::mostrarRecibidas, e -> mostrarError("Error al filtrar", e.getMessage()));
     }
 
     @FXML
@@ -1171,13 +1170,8 @@ public class FacturacionController {
         if (termino == null || termino.isEmpty()) {
             cargarGastos();
         } else {
-            try {
-                List<GastoDTO> resultado = apiService.buscarGastos(termino);
-                listaGastos.setAll(resultado);
-                actualizarTotalesGastos();
-            } catch (Exception e) {
-                mostrarError("Error en búsqueda", e.getMessage());
-            }
+            tareas.ejecutar(() -> apiService.buscarGastos(termino), this::mostrarGastos,
+                    e -> mostrarError("Error en búsqueda", e.getMessage()));
         }
     }
 
@@ -1188,13 +1182,8 @@ public class FacturacionController {
         LocalDate hasta = dpHastaGasto.getValue();
         boolean soloRecurrentes = chkSoloRecurrentes.isSelected();
 
-        try {
-            List<GastoDTO> resultado = apiService.filtrarGastos(categoria, desde, hasta, soloRecurrentes);
-            listaGastos.setAll(resultado);
-            actualizarTotalesGastos();
-        } catch (Exception e) {
-            mostrarError("Error al filtrar", e.getMessage());
-        }
+        tareas.ejecutar(() -> apiService.filtrarGastos(categoria, desde, hasta, soloRecurrentes),
+                this::mostrarGastos, e -> mostrarError("Error al filtrar", e.getMessage()));
     }
 
     @FXML
@@ -2,7 +2,7 @@ package com.lavaderosepulveda.crm.controller;
 
 import com.lavaderosepulveda.crm.api.service.ClienteApiService;
 import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
-import javafx.application.Platform;
+import com.lavaderosepulveda.crm.util.TareasVista;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
@@ -29,10 +29,12 @@ public class FormularioClienteController {
     private ClienteDTO clienteActual;
     private boolean modoEdicion = false;
     private Runnable onClienteGuardado;
+    private TareasVista tareas;
 
     @FXML
     public void initialize() {
         clienteApiService = ClienteApiService.getInstance();
+        tareas = new TareasVista(txtNombre);
         log.info("FormularioClienteController inicializado");
     }
 
@@ -47,35 +49,26 @@ public class FormularioClienteController {
             
             log.info("Guardando cliente...");
             
-            new Thread(() -> {
-                try {
-                    ClienteDTO clienteGuardado;
-                    if (modoEdicion) {
-                        clienteGuardado = clienteApiService.actualizar(clienteActual.getId(), cliente);
-                        log.info("Cliente actualizado: {}", clienteGuardado.getId());
-                    } else {
-                        clienteGuardado = clienteApiService.crear(cliente);
-                        log.info("Cliente creado: {}", clienteGuardado.getId());
-                    }
-                    
-                    Platform.runLater(() -> {
-                        mostrarInfo("Éxito", 
-                            modoEdicion ? "Cliente actualizado correctamente" : "Cliente creado correctamente");
-                        
-                        if (onClienteGuardado != null) {
-                            onClienteGuardado.run();
-                        }
-                        
-                        cerrarVentana();
-                    });
-                    
-                } catch (Exception e) {
-                    log.error("Error al guardar cliente", e);
-                    Platform.runLater(() -> {
-                        mostrarError("Error al guardar", e.getMessage());
-                    });
+            tareas.ejecutarSinCancelar(() -> {
+                ClienteDTO clienteGuardado;
+                if (modoEdicion) {
+                    clienteGuardado = clienteApiService.actualizar(clienteActual.getId(), cliente);
+                    log.info("Cliente actualizado: {}", clienteGuardado.getId());
+                } else {
+                    clienteGuardado = clienteApiService.crear(cliente);
+                    log.info("Cliente creado: {}", clienteGuardado.getId());
                 }
-            }).start();
+                return clienteGuardado;
+            }, clienteGuardado -> {
+                mostrarInfo("Éxito", 
+                    modoEdicion ? "Cliente actualizado correctamente" : "Cliente creado correctamente");
+                
+                if (onClienteGuardado != null) {
+                    onClienteGuardado.run();
+                }
+                
+                cerrarVentana();
+            }, e -> mostrarError("Error al guardar", e.getMessage()));
             
         } catch (Exception e) {
             log.error("Error al construir DTO", e);
@@ -5,6 +5,7 @@ import com.lavaderosepulveda.crm.model.dto.CitaDTO;
 import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
 import com.lavaderosepulveda.crm.model.dto.ServicioDTO;
 import com.lavaderosepulveda.crm.model.enums.EstadoCita;
+import com.lavaderosepulveda.crm.util.TareasVista;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class FormularioNuevaCitaController {
 
@@ -38,10 +40,13 @@ public class FormularioNuevaCitaController {
     private CitaDTO citaActual;
     private boolean modoEdicion = false;
     private Runnable onCitaGuardada;
+    private TareasVista tareas;
+    private CompletableFuture<List<String>> cargaHorarios;
 
     @FXML
     public void initialize() {
         citaApiService = CitaApiService.getInstance();
+        tareas = new TareasVista(cmbHora);
         
         configurarServicios();
         configurarFecha();
@@ -107,26 +112,29 @@ public class FormularioNuevaCitaController {
         cmbHora.setDisable(true);
         cmbHora.getItems().clear();
         
-        new Thread(() -> {
-            List<String> horarios = citaApiService.obtenerHorariosDisponibles(fecha);
-            
-            Platform.runLater(() -> {
-                if (horarios != null && !horarios.isEmpty()) {
-                    cmbHora.setItems(FXCollections.observableArrayList(horarios));
-                    cmbHora.setValue(horarios.get(0));
-                    cmbHora.setDisable(false);
-                    lblHorariosStatus.setText(horarios.size() + " horarios disponibles");
-                    lblHorariosStatus.setStyle("-fx-text-fill: #4CAF50; -fx-font-size: 10px;");
-                    log.info("Horarios cargados: {}", horarios.size());
-                } else {
-                    cmbHora.setItems(FXCollections.observableArrayList());
-                    cmbHora.setDisable(true);
-                    lblHorariosStatus.setText("No hay horarios disponibles (puede ser festivo o domingo)");
-                    lblHorariosStatus.setStyle("-fx-text-fill: #f44336; -fx-font-size: 10px;");
-                    log.warn("Sin horarios para: {}", fecha);
-                }
-            });
-        }).start();
+        // Si se cambia de fecha antes de que llegue la respuesta, la anterior ya no sirve
+        if (cargaHorarios != null) {
+            cargaHorarios.cancel(true);
+        }
+        cargaHorarios = tareas.ejecutar(() -> citaApiService.obtenerHorariosDisponibles(fecha), horarios -> {
+            if (horarios != null && !horarios.isEmpty()) {
+                cmbHora.setItems(FXCollections.observableArrayList(horarios));
+                cmbHora.setValue(horarios.get(0));
+                cmbHora.setDisable(false);
+                lblHorariosStatus.setText(horarios.size() + " horarios disponibles");
+                lblHorariosStatus.setStyle("-fx-text-fill: #4CAF50; -fx-font-size: 10px;");
+                log.info("Horarios cargados: {}", horarios.size());
+            } else {
+                cmbHora.setItems(FXCollections.observableArrayList());
+                cmbHora.setDisable(true);
+                lblHorariosStatus.setText("No hay horarios disponibles (puede ser festivo o domingo)");
+                lblHorariosStatus.setStyle("-fx-text-fill: #f44336; -fx-font-size: 10px;");
+                log.warn("Sin horarios para: {}", fecha);
+            }
+        }, e -> {
+            lblHorariosStatus.setText("No se pudieron cargar los horarios");
+            lblHorariosStatus.setStyle("-fx-text-fill: #f44336; -fx-font-size: 10px;");
+        });
     }
 
     @FXML
@@ -140,33 +148,18 @@ public class FormularioNuevaCitaController {
             
             log.info("Guardando cita...");
             
-            new Thread(() -> {
-                try {
-                    CitaDTO citaGuardada;
-                    if (modoEdicion) {
-                        citaGuardada = citaApiService.update(citaActual.getId(), cita);
-                    } else {
-                        citaGuardada = citaApiService.create(cita);
-                    }
-                    
-                    Platform.runLater(() -> {
-                        mostrarInfo("Éxito", 
-                            modoEdicion ? "Cita actualizada correctamente" : "Cita creada correctamente");
-                        
-                        if (onCitaGuardada != null) {
-                            onCitaGuardada.run();
-                        }
-                        
-                        cerrarVentana();
-                    });
-                    
-                } catch (Exception e) {
-                    log.error("Error al guardar cita", e);
-                    Platform.runLater(() -> {
-                        mostrarError("Error al guardar", e.getMessage());
-                    });
+            tareas.ejecutarSinCancelar(() -> modoEdicion
+                    ? citaApiService.update(citaActual.getId(), cita)
+                    : citaApiService.create(cita), citaGuardada -> {
+                mostrarInfo("Éxito", 
+                    modoEdicion ? "Cita actualizada correctamente" : "Cita creada correctamente");
+                
+                if (onCitaGuardada != null) {
+                    onCitaGuardada.run();
                 }
-            }).start();
+                
+                cerrarVentana();
+            }, e -> mostrarError("Error al guardar", e.getMessage()));
             
         } catch (Exception e) {
             log.error("Error al construir DTO", e);
@@ -2,7 +2,7 @@ package com.lavaderosepulveda.crm.controller;
 
 import com.lavaderosepulveda.crm.model.entity.PlantillaFacturaConfig;
 import com.lavaderosepulveda.crm.service.PlantillaFacturaService;
-import javafx.application.Platform;
+import javafx.animation.PauseTransition;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
@@ -11,6 +11,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 import javafx.scene.web.WebView;
 import javafx.stage.FileChooser;
+import javafx.util.Duration;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.ByteArrayInputStream;
@@ -128,6 +129,7 @@ public class PlantillaFacturaController {
     private final PlantillaFacturaService plantillaService = PlantillaFacturaService.getInstance();
     private PlantillaFacturaConfig config;
     private String logoBase64Actual = "";
+    private final PauseTransition vistaPreviaDiferida = new PauseTransition(Duration.millis(500));
 
     @FXML
     public void initialize() {
@@ -142,6 +144,7 @@ public class PlantillaFacturaController {
         cargarDatosEnFormulario();
 
         // Listeners para actualizar vista previa
+        vistaPreviaDiferida.setOnFinished(e -> actualizarVistaPrevia());
         configurarListeners();
 
         // Vista previa inicial
@@ -254,14 +257,8 @@ public class PlantillaFacturaController {
     }
 
     private void actualizarVistaPreviaConRetraso() {
-        // Pequeño retraso para no actualizar en cada tecla
-        new Thread(() -> {
-            try {
-                Thread.sleep(500);
-                Platform.runLater(this::actualizarVistaPrevia);
-            } catch (InterruptedException ignored) {
-            }
-        }).start();
+        // Pequeño retraso para no actualizar en cada tecla: cada tecla reinicia la espera
+        vistaPreviaDiferida.playFromStart();
     }
 
     @FXML
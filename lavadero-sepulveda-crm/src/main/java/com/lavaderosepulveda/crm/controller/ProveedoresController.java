@@ -2,6 +2,7 @@ package com.lavaderosepulveda.crm.controller;
 
 import com.lavaderosepulveda.crm.api.service.FacturacionApiService;
 import com.lavaderosepulveda.crm.model.dto.ProveedorDTO;
+import com.lavaderosepulveda.crm.util.ExcelStreamingWriter;
 
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -447,8 +448,9 @@ public class ProveedoresController {
     }
 
     private void escribirExcel(File archivo, List<ProveedorDTO> proveedores) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Proveedores");
+        try (ExcelStreamingWriter writer = new ExcelStreamingWriter()) {
+            Workbook workbook = writer.getWorkbook();
+            ExcelStreamingWriter.Hoja hoja = writer.crearHoja("Proveedores");
             
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
@@ -457,7 +459,7 @@ public class ProveedoresController {
             headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
             headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
             
-            Row headerRow = sheet.createRow(0);
+            Row headerRow = hoja.crearFila();
             String[] cabeceras = {"NIF", "Nombre", "Email", "Teléfono", "Dirección", "Contacto", "IBAN", "Notas", "Activo"};
             for (int i = 0; i < cabeceras.length; i++) {
                 Cell cell = headerRow.createCell(i);
@@ -465,9 +467,8 @@ public class ProveedoresController {
                 cell.setCellStyle(headerStyle);
             }
             
-            int rowNum = 1;
             for (ProveedorDTO p : proveedores) {
-                Row row = sheet.createRow(rowNum++);
+                Row row = hoja.crearFila();
                 row.createCell(0).setCellValue(p.getNif() != null ? p.getNif() : "");
                 row.createCell(1).setCellValue(p.getNombre() != null ? p.getNombre() : "");
                 row.createCell(2).setCellValue(p.getEmail() != null ? p.getEmail() : "");
@@ -479,13 +480,7 @@ public class ProveedoresController {
                 row.createCell(8).setCellValue(p.getActivo() != null && p.getActivo() ? "Sí" : "No");
             }
             
-            for (int i = 0; i < cabeceras.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            try (FileOutputStream fos = new FileOutputStream(archivo)) {
-                workbook.write(fos);
-            }
+            writer.guardar(archivo);
         }
     }
 
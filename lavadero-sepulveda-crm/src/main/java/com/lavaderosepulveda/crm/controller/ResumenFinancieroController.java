@@ -1,10 +1,10 @@
 package com.lavaderosepulveda.crm.controller;
 
 import com.lavaderosepulveda.crm.model.dto.*;
-import com.lavaderosepulveda.crm.api.service.FacturacionApiService;
 import com.lavaderosepulveda.crm.config.StageManager;
+import com.lavaderosepulveda.crm.service.DatosPeriodoService;
+import com.lavaderosepulveda.crm.util.TareasVista;
 
-import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -47,7 +47,6 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class ResumenFinancieroController implements Initializable {
@@ -154,7 +153,8 @@ public class ResumenFinancieroController implements Initializable {
     @FXML
     private Label lblLiquidacionAnual;
 
-    private final FacturacionApiService apiService = FacturacionApiService.getInstance();
+    private final DatosPeriodoService datosPeriodoService = DatosPeriodoService.getInstance();
+    private final TareasVista tareas = new TareasVista();
     private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("es", "ES"));
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
@@ -317,24 +317,16 @@ public class ResumenFinancieroController implements Initializable {
         LocalDate desde = dpDesde.getValue();
         LocalDate hasta = dpHasta.getValue();
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                // Cargar facturas emitidas
-                facturasEmitidas = apiService.obtenerFacturasEmitidasPorPeriodo(desde, hasta);
-
-                // Cargar facturas recibidas
-                facturasRecibidas = apiService.obtenerFacturasRecibidasPorPeriodo(desde, hasta);
-
-                // Cargar gastos
-                gastos = apiService.obtenerGastosPorPeriodo(desde, hasta);
-
-                Platform.runLater(this::actualizarVista);
-
-            } catch (Exception e) {
-                log.error("Error al cargar datos financieros", e);
-                Platform.runLater(() -> mostrarError("Error al cargar datos: " + e.getMessage()));
-            }
-        });
+        // Un cambio rápido de período descarta la carga anterior
+        tareas.cancelarTodas();
+        tareas.seguir(datosPeriodoService.obtenerAsync(desde, hasta),
+                datos -> {
+                    facturasEmitidas = datos.getFacturasEmitidas();
+                    facturasRecibidas = datos.getFacturasRecibidas();
+                    gastos = datos.getGastos();
+                    actualizarVista();
+                },
+                e -> mostrarError("Error al cargar datos: " + e.getMessage()));
     }
 
     private void actualizarVista() {
@@ -0,0 +1,30 @@
+package com.lavaderosepulveda.crm.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento de cambio recibido del backend por SSE (/api/eventos)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoCambioDTO {
+
+    public static final String CITA = "cita";
+    public static final String CLIENTE = "cliente";
+    public static final String FACTURA = "factura";
+
+    public static final String CREADO = "CREADO";
+    public static final String ACTUALIZADO = "ACTUALIZADO";
+    public static final String ELIMINADO = "ELIMINADO";
+
+    private String entidad;
+    private String accion;
+    private Long id;
+
+    public boolean esEliminacion() {
+        return ELIMINADO.equals(accion);
+    }
+}
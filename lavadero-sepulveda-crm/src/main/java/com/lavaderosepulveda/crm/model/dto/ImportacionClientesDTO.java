@@ -0,0 +1,69 @@
+package com.lavaderosepulveda.crm.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de la importación masiva de clientes (POST /api/clientes/bulk).
+ * El backend devuelve uno por bloque; el CRM los va sumando.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacionClientesDTO {
+
+    private int recibidos;
+    private int creados;
+    private int actualizados;
+    private int descartados;
+
+    // Filas que el backend no guardó (p.ej. teléfono de otro cliente); el resto del bloque sí
+    private List<FilaRechazada> rechazadas = new ArrayList<>();
+
+    // Filas de bloques que no se pudieron enviar (solo en el CRM)
+    private int errores;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilaRechazada {
+        // Posición en el bloque; tras acumular, en la lista completa (desde 0)
+        private int fila;
+        private String nombre;
+        private String motivo;
+    }
+
+    /**
+     * Resultado de un bloque que no llegó a guardarse
+     */
+    public static ImportacionClientesDTO fallido(int filas) {
+        ImportacionClientesDTO resultado = new ImportacionClientesDTO();
+        resultado.setRecibidos(filas);
+        resultado.setErrores(filas);
+        return resultado;
+    }
+
+    /**
+     * Suma el resultado de un bloque que empieza en la fila {@code desplazamiento}
+     */
+    public void acumular(ImportacionClientesDTO bloque, int desplazamiento) {
+        recibidos += bloque.getRecibidos();
+        creados += bloque.getCreados();
+        actualizados += bloque.getActualizados();
+        descartados += bloque.getDescartados();
+        errores += bloque.getErrores();
+        if (bloque.getRechazadas() != null) {
+            for (FilaRechazada fila : bloque.getRechazadas()) {
+                rechazadas.add(new FilaRechazada(desplazamiento + fila.getFila(), fila.getNombre(), fila.getMotivo()));
+            }
+        }
+    }
+
+    public int getGuardados() {
+        return creados + actualizados;
+    }
+}
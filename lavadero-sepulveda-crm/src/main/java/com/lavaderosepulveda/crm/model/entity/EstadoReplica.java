@@ -0,0 +1,33 @@
+package com.lavaderosepulveda.crm.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Punto de sincronización de cada entidad replicada: cursor devuelto por
+ * /api/sync/{entidad} y si ya se ha completado la primera descarga
+ */
+@Entity
+@Table(name = "replica_estado")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoReplica {
+
+    @Id
+    @Column(length = 20)
+    private String entidad;
+
+    @Column(length = 500)
+    private String cursor;
+
+    @Column(nullable = false)
+    private Boolean completa = false;
+
+    @Column(name = "ultima_sincronizacion")
+    private LocalDateTime ultimaSincronizacion;
+}
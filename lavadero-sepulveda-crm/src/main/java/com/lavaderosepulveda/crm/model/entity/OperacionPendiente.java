@@ -0,0 +1,53 @@
+package com.lavaderosepulveda.crm.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Escritura hecha sin conexión con el backend, pendiente de reenviar.
+ * Se reenvían en orden de creación cuando la API vuelve a responder.
+ */
+@Entity
+@Table(name = "operaciones_pendientes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperacionPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String entidad;
+
+    // POST, PUT o DELETE
+    @Column(nullable = false, length = 10)
+    private String metodo;
+
+    @Column(nullable = false, length = 500)
+    private String url;
+
+    @Lob
+    private String cuerpo;
+
+    @Column(name = "creada_en", nullable = false)
+    private LocalDateTime creadaEn;
+
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    public OperacionPendiente(String entidad, String metodo, String url, String cuerpo) {
+        this.entidad = entidad;
+        this.metodo = metodo;
+        this.url = url;
+        this.cuerpo = cuerpo;
+        this.creadaEn = LocalDateTime.now();
+    }
+}
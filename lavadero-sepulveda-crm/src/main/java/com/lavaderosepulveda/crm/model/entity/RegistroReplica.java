@@ -0,0 +1,55 @@
+package com.lavaderosepulveda.crm.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Copia local de un registro del backend (cita, cliente o factura).
+ * Se guarda el JSON tal como lo devuelve la API, de modo que los servicios
+ * lo leen con los mismos DTOs que usan para las respuestas HTTP. La fecha y el
+ * estado del JSON se copian además en columnas indexadas para filtrar en SQL.
+ */
+@Entity
+@Table(name = "replica_registros", indexes = {
+    @Index(name = "idx_replica_entidad", columnList = "entidad, remoto_id"),
+    @Index(name = "idx_replica_entidad_fecha", columnList = "entidad, fecha"),
+    @Index(name = "idx_replica_entidad_estado", columnList = "entidad, estado")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistroReplica {
+
+    // "entidad:id", p.ej. "cita:125"
+    @Id
+    @Column(length = 40)
+    private String clave;
+
+    @Column(nullable = false, length = 20)
+    private String entidad;
+
+    @Column(name = "remoto_id", nullable = false)
+    private Long remotoId;
+
+    @Lob
+    @Column(nullable = false)
+    private String json;
+
+    @Column(name = "sincronizado_en")
+    private LocalDateTime sincronizadoEn;
+
+    // Campos "fecha" (dd/MM/yyyy) y "estado" del JSON, si los tiene
+    private LocalDate fecha;
+
+    @Column(length = 20)
+    private String estado;
+
+    public static String clave(String entidad, Long id) {
+        return entidad + ":" + id;
+    }
+}
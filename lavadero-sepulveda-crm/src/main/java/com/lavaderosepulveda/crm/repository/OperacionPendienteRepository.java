@@ -0,0 +1,28 @@
+package com.lavaderosepulveda.crm.repository;
+
+import com.lavaderosepulveda.crm.model.entity.OperacionPendiente;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+public class OperacionPendienteRepository extends BaseRepository<OperacionPendiente, Long> {
+
+    public OperacionPendienteRepository() {
+        super(OperacionPendiente.class);
+    }
+
+    /**
+     * Operaciones pendientes en el orden en que se hicieron
+     */
+    public List<OperacionPendiente> findPendientes() {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery(
+                "SELECT o FROM OperacionPendiente o ORDER BY o.id",
+                OperacionPendiente.class
+            ).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
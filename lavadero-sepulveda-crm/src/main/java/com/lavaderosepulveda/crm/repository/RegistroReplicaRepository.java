@@ -0,0 +1,212 @@
+package com.lavaderosepulveda.crm.repository;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.lavaderosepulveda.crm.model.entity.EstadoReplica;
+import com.lavaderosepulveda.crm.model.entity.RegistroReplica;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+public class RegistroReplicaRepository extends BaseRepository<RegistroReplica, String> {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    public RegistroReplicaRepository() {
+        super(RegistroReplica.class);
+    }
+
+    /**
+     * JSON de todos los registros replicados de una entidad, por ID remoto
+     */
+    public List<String> findJsonByEntidad(String entidad) {
+        EntityManager em = getEntityManager();
+        try {
+            return em.createQuery(
+                "SELECT r.json FROM RegistroReplica r WHERE r.entidad = :entidad ORDER BY r.remotoId",
+                String.class
+            )
+            .setParameter("entidad", entidad)
+            .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * JSON de los registros de una entidad filtrados por las columnas indexadas de fecha
+     * (ambos extremos incluidos) y estado; un filtro null no se aplica
+     */
+    public List<String> findJsonByEntidad(String entidad, LocalDate desde, LocalDate hasta,
+                                          Collection<String> estados) {
+        StringBuilder jpql = new StringBuilder("SELECT r.json FROM RegistroReplica r WHERE r.entidad = :entidad");
+        if (desde != null) {
+            jpql.append(" AND r.fecha >= :desde");
+        }
+        if (hasta != null) {
+            jpql.append(" AND r.fecha <= :hasta");
+        }
+        if (estados != null) {
+            jpql.append(" AND r.estado IN :estados");
+        }
+        jpql.append(" ORDER BY r.remotoId");
+
+        EntityManager em = getEntityManager();
+        try {
+            TypedQuery<String> query = em.createQuery(jpql.toString(), String.class)
+                    .setParameter("entidad", entidad);
+            if (desde != null) {
+                query.setParameter("desde", desde);
+            }
+            if (hasta != null) {
+                query.setParameter("hasta", hasta);
+            }
+            if (estados != null) {
+                query.setParameter("estados", estados);
+            }
+            return query.getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public Optional<String> findJson(String entidad, Long id) {
+        return findById(RegistroReplica.clave(entidad, id)).map(RegistroReplica::getJson);
+    }
+
+    public Optional<EstadoReplica> findEstado(String entidad) {
+        EntityManager em = getEntityManager();
+        try {
+            return Optional.ofNullable(em.find(EstadoReplica.class, entidad));
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Aplica una página de /api/sync en una única transacción: upserts, borrados
+     * y nuevo cursor. Si falla, el cursor no avanza y la página se vuelve a pedir.
+     */
+    public void aplicarCambios(String entidad, Map<Long, String> upserts, List<Long> eliminados,
+                               String cursor, boolean completa) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        LocalDateTime ahora = LocalDateTime.now();
+
+        try {
+            transaction.begin();
+            for (Map.Entry<Long, String> upsert : upserts.entrySet()) {
+                em.merge(nuevoRegistro(entidad, upsert.getKey(), upsert.getValue(), ahora));
+            }
+            for (Long id : eliminados) {
+                RegistroReplica registro = em.find(RegistroReplica.class, RegistroReplica.clave(entidad, id));
+                if (registro != null) {
+                    em.remove(registro);
+                }
+            }
+            em.merge(new EstadoReplica(entidad, cursor, completa, ahora));
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            log.error("Error al aplicar cambios de {} en la réplica local", entidad, e);
+            throw new RuntimeException("Error al aplicar cambios en la réplica local", e);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Cambio local hecho sin conexión: se refleja en la réplica hasta que la
+     * siguiente sincronización traiga la versión del servidor
+     */
+    public void guardarLocal(String entidad, Long id, String json) {
+        save(nuevoRegistro(entidad, id, json, LocalDateTime.now()));
+    }
+
+    /**
+     * Rellena las columnas de fecha y estado de los registros guardados antes de que
+     * existieran (una vez; después las rellena cada escritura)
+     */
+    public int rellenarColumnasFiltro(String entidad) {
+        EntityManager em = getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+
+        try {
+            transaction.begin();
+            List<RegistroReplica> registros = em.createQuery(
+                "SELECT r FROM RegistroReplica r WHERE r.entidad = :entidad AND r.fecha IS NULL AND r.estado IS NULL",
+                RegistroReplica.class
+            )
+            .setParameter("entidad", entidad)
+            .getResultList();
+            int rellenados = 0;
+            for (RegistroReplica registro : registros) {
+                copiarColumnasFiltro(registro);
+                if (registro.getFecha() != null || registro.getEstado() != null) {
+                    rellenados++;
+                }
+            }
+            transaction.commit();
+            return rellenados;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            log.error("Error al rellenar las columnas de filtro de {} en la réplica local", entidad, e);
+            return 0;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static RegistroReplica nuevoRegistro(String entidad, Long id, String json, LocalDateTime ahora) {
+        RegistroReplica registro = new RegistroReplica(RegistroReplica.clave(entidad, id), entidad, id, json,
+                ahora, null, null);
+        copiarColumnasFiltro(registro);
+        return registro;
+    }
+
+    private static void copiarColumnasFiltro(RegistroReplica registro) {
+        JsonElement json = JsonParser.parseString(registro.getJson());
+        if (!json.isJsonObject()) {
+            return;
+        }
+        JsonObject objeto = json.getAsJsonObject();
+        registro.setFecha(parsearFecha(texto(objeto, "fecha")));
+        registro.setEstado(texto(objeto, "estado"));
+    }
+
+    private static String texto(JsonObject objeto, String campo) {
+        JsonElement valor = objeto.get(campo);
+        return valor != null && valor.isJsonPrimitive() ? valor.getAsString() : null;
+    }
+
+    private static LocalDate parsearFecha(String fecha) {
+        if (fecha == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(fecha, FORMATO_FECHA);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public void eliminarLocal(String entidad, Long id) {
+        deleteById(RegistroReplica.clave(entidad, id));
+    }
+}
@@ -1,15 +1,12 @@
 package com.lavaderosepulveda.crm.service;
 
-import com.lavaderosepulveda.crm.model.dto.CitaDTO;
+import com.lavaderosepulveda.crm.api.client.ApiClient;
+import com.lavaderosepulveda.crm.config.ConfigManager;
 import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
-import com.lavaderosepulveda.crm.api.service.CitaApiService;
 import com.lavaderosepulveda.crm.api.service.ClienteApiService;
-import com.lavaderosepulveda.crm.model.enums.EstadoCita;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDate;
-import java.time.YearMonth;
 import java.util.List;
 
 public class DashboardService {
@@ -17,12 +14,14 @@ public class DashboardService {
     private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
     
     private static DashboardService instance;
-    private final CitaApiService citaApiService;
+    private final ApiClient apiClient;
     private final ClienteApiService clienteApiService;
+    private final String metricsUrl;
     
     private DashboardService() {
-        this.citaApiService = CitaApiService.getInstance();
+        this.apiClient = ApiClient.getInstance();
         this.clienteApiService = ClienteApiService.getInstance();
+        this.metricsUrl = ConfigManager.getInstance().getApiBaseUrl() + "/api/dashboard/metrics";
     }
     
     public static synchronized DashboardService getInstance() {
@@ -33,7 +32,8 @@ public class DashboardService {
     }
     
     /**
-     * Obtener métricas del dashboard para hoy
+     * Obtener métricas del dashboard para hoy.
+     * El servidor calcula todos los KPIs con una consulta agregada (/api/dashboard/metrics)
      */
     public DashboardMetrics obtenerMetricsHoy() {
         log.info("Obteniendo métricas del dashboard...");
@@ -41,61 +41,13 @@ public class DashboardService {
         DashboardMetrics metrics = new DashboardMetrics();
         
         try {
-            // Obtener todas las citas
-            List<CitaDTO> todasLasCitas = citaApiService.findAll();
-            LocalDate hoy = LocalDate.now();
-            YearMonth mesActual = YearMonth.now();
+            DashboardMetrics respuesta = apiClient.get(metricsUrl, DashboardMetrics.class);
+            if (respuesta != null) {
+                metrics = respuesta;
+            }
             
-            // Citas de hoy
-            long citasHoy = todasLasCitas.stream()
-                .filter(cita -> cita.getFechaHora() != null && 
-                               cita.getFechaHora().toLocalDate().equals(hoy))
-                .count();
-            metrics.setCitasHoy((int) citasHoy);
-            
-            // Citas pendientes (futuras y con estado PENDIENTE o CONFIRMADA)
-            long citasPendientes = todasLasCitas.stream()
-                .filter(cita -> cita.getFechaHora() != null && 
-                               !cita.getFechaHora().toLocalDate().isBefore(hoy))
-                .filter(cita -> cita.getEstado() == EstadoCita.PENDIENTE || 
-                               cita.getEstado() == EstadoCita.CONFIRMADA)
-                .count();
-            metrics.setCitasPendientes((int) citasPendientes);
-            
-            // Facturado hoy
-            double facturadoHoy = todasLasCitas.stream()
-                .filter(cita -> cita.getFechaHora() != null && 
-                               cita.getFechaHora().toLocalDate().equals(hoy))
-                .filter(cita -> cita.getEstado() == EstadoCita.COMPLETADA)
-                .mapToDouble(CitaDTO::getImporteTotal)
-                .sum();
-            metrics.setFacturadoHoy(facturadoHoy);
-            
-            // Facturado este mes
-            double facturadoMes = todasLasCitas.stream()
-                .filter(cita -> {
-                    if (cita.getFechaHora() == null) return false;
-                    YearMonth citaMes = YearMonth.from(cita.getFechaHora());
-                    return citaMes.equals(mesActual);
-                })
-                .filter(cita -> cita.getEstado() == EstadoCita.COMPLETADA)
-                .mapToDouble(CitaDTO::getImporteTotal)
-                .sum();
-            metrics.setFacturadoMes(facturadoMes);
-            
-            // Pendiente de cobro (citas completadas pero no facturadas)
-            double pendienteCobro = todasLasCitas.stream()
-                .filter(cita -> cita.getEstado() == EstadoCita.COMPLETADA)
-                .filter(cita -> cita.getFacturada() == null || !cita.getFacturada())
-                .mapToDouble(CitaDTO::getImporteTotal)
-                .sum();
-            metrics.setPendienteCobro(pendienteCobro);
-            
-            // Clientes activos
-            long clientesActivos = clienteApiService.contarClientesActivos();
-            metrics.setClientesActivos((int) clientesActivos);
-            
-            log.info("Métricas obtenidas: {} citas hoy, {} pendientes", citasHoy, citasPendientes);
+            log.info("Métricas obtenidas: {} citas hoy, {} pendientes",
+                    metrics.getCitasHoy(), metrics.getCitasPendientes());
             
         } catch (Exception e) {
             log.error("Error al obtener métricas", e);
@@ -0,0 +1,272 @@
+package com.lavaderosepulveda.crm.service;
+
+import com.lavaderosepulveda.crm.api.client.EventosClient;
+import com.lavaderosepulveda.crm.api.service.FacturacionApiService;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
+import com.lavaderosepulveda.crm.model.dto.FacturaEmitidaDTO;
+import com.lavaderosepulveda.crm.model.dto.FacturaRecibidaDTO;
+import com.lavaderosepulveda.crm.model.dto.GastoDTO;
+import com.lavaderosepulveda.crm.util.EjecutorTareas;
+import com.lavaderosepulveda.crm.util.FechaUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Facturas emitidas, facturas recibidas y gastos por período, compartidos por las
+ * pantallas de Resumen Financiero e Informe PyG.
+ *
+ * Los datos se guardan por mes: un período se compone con los meses ya descargados y
+ * solo se piden al servidor los que faltan (cada tramo seguido de meses en una llamada
+ * por tipo de documento, y todas las llamadas a la vez). Cualquier alta o modificación
+ * de facturas o gastos, desde este CRM o notificada por el servidor, descarta lo guardado.
+ */
+@Slf4j
+public class DatosPeriodoService {
+
+    private static DatosPeriodoService instance;
+
+    public static synchronized DatosPeriodoService getInstance() {
+        if (instance == null) {
+            instance = new DatosPeriodoService();
+        }
+        return instance;
+    }
+
+    // Margen por si otro equipo modifica gastos o facturas recibidas (no llegan avisos de esos cambios)
+    private static final long VIGENCIA_MES_MS = 5 * 60_000;
+
+    private final FacturacionApiService facturacionService;
+    private final Map<YearMonth, DatosMes> meses = new ConcurrentHashMap<>();
+
+    // Se incrementa al invalidar: una descarga empezada antes no guarda su resultado
+    private final AtomicLong version = new AtomicLong();
+
+    private DatosPeriodoService() {
+        this.facturacionService = FacturacionApiService.getInstance();
+
+        facturacionService.alModificarDatos(this::invalidar);
+        EventosClient.getInstance().suscribir(evento -> {
+            if (EventoCambioDTO.FACTURA.equals(evento.getEntidad())) {
+                invalidar();
+            }
+        });
+    }
+
+    /**
+     * Documentos con fecha entre desde y hasta (ambos incluidos).
+     * Bloquea mientras se descargan los meses que faltan: llamar desde segundo plano, pero
+     * no desde una tarea de {@link EjecutorTareas} (esperaría a tareas del mismo pool);
+     * ahí se usa {@link #obtenerAsync}
+     */
+    public DatosPeriodo obtener(LocalDate desde, LocalDate hasta) throws IOException {
+        return esperar(obtenerAsync(desde, hasta));
+    }
+
+    /**
+     * Como {@link #obtener}, sin bloquear: las descargas que falten se lanzan en paralelo y
+     * el período se compone cuando terminan. Cancelar el resultado cancela las descargas
+     */
+    public CompletableFuture<DatosPeriodo> obtenerAsync(LocalDate desde, LocalDate hasta) {
+        YearMonth primero = YearMonth.from(desde);
+        YearMonth ultimo = YearMonth.from(hasta);
+        long versionInicial = version.get();
+
+        Map<YearMonth, DatosMes> datosPorMes = new HashMap<>();
+        List<Tramo> queFaltan = new ArrayList<>();
+        YearMonth inicioTramo = null;
+        long ahora = System.currentTimeMillis();
+
+        for (YearMonth mes = primero; !mes.isAfter(ultimo); mes = mes.plusMonths(1)) {
+            DatosMes datos = meses.get(mes);
+            if (datos != null && ahora - datos.cargadoEn < VIGENCIA_MES_MS) {
+                datosPorMes.put(mes, datos);
+                if (inicioTramo != null) {
+                    queFaltan.add(new Tramo(inicioTramo, mes.minusMonths(1)));
+                    inicioTramo = null;
+                }
+            } else if (inicioTramo == null) {
+                inicioTramo = mes;
+            }
+        }
+        if (inicioTramo != null) {
+            queFaltan.add(new Tramo(inicioTramo, ultimo));
+        }
+
+        if (queFaltan.isEmpty()) {
+            log.debug("Período {} - {} servido desde caché", desde, hasta);
+            return CompletableFuture.completedFuture(componer(desde, hasta, datosPorMes));
+        }
+
+        CompletableFuture<Map<YearMonth, DatosMes>> descarga = descargar(queFaltan);
+        CompletableFuture<DatosPeriodo> resultado = descarga.thenApply(descargados -> {
+            datosPorMes.putAll(descargados);
+            if (version.get() == versionInicial) {
+                meses.putAll(descargados);
+            }
+            return componer(desde, hasta, datosPorMes);
+        });
+        resultado.whenComplete((datos, error) -> {
+            if (resultado.isCancelled()) {
+                descarga.cancel(true);
+            }
+        });
+        return resultado;
+    }
+
+    private static DatosPeriodo componer(LocalDate desde, LocalDate hasta, Map<YearMonth, DatosMes> datosPorMes) {
+        YearMonth primero = YearMonth.from(desde);
+        YearMonth ultimo = YearMonth.from(hasta);
+
+        // Del mes más reciente al más antiguo, como los devuelve el servidor
+        List<FacturaEmitidaDTO> emitidas = new ArrayList<>();
+        List<FacturaRecibidaDTO> recibidas = new ArrayList<>();
+        List<GastoDTO> gastos = new ArrayList<>();
+        for (YearMonth mes = ultimo; !mes.isBefore(primero); mes = mes.minusMonths(1)) {
+            DatosMes datos = datosPorMes.get(mes);
+            boolean completo = !mes.atDay(1).isBefore(desde) && !mes.atEndOfMonth().isAfter(hasta);
+            agregar(emitidas, datos.emitidas, FacturaEmitidaDTO::getFechaEmision, completo, desde, hasta);
+            agregar(recibidas, datos.recibidas, FacturaRecibidaDTO::getFechaFactura, completo, desde, hasta);
+            agregar(gastos, datos.gastos, GastoDTO::getFecha, completo, desde, hasta);
+        }
+
+        return new DatosPeriodo(emitidas, recibidas, gastos);
+    }
+
+    /**
+     * Descartar todos los meses guardados
+     */
+    public void invalidar() {
+        version.incrementAndGet();
+        meses.clear();
+        log.debug("Caché de datos por período invalidada");
+    }
+
+    private CompletableFuture<Map<YearMonth, DatosMes>> descargar(List<Tramo> tramos) {
+        log.debug("Descargando {} tramos de meses: {}", tramos.size(), tramos);
+        long cargadoEn = System.currentTimeMillis();
+
+        List<CompletableFuture<List<FacturaEmitidaDTO>>> emitidas = new ArrayList<>();
+        List<CompletableFuture<List<FacturaRecibidaDTO>>> recibidas = new ArrayList<>();
+        List<CompletableFuture<List<GastoDTO>>> gastos = new ArrayList<>();
+        for (Tramo tramo : tramos) {
+            LocalDate inicio = tramo.desde().atDay(1);
+            LocalDate fin = tramo.hasta().atEndOfMonth();
+            emitidas.add(EjecutorTareas.ejecutar(
+                    () -> facturacionService.obtenerFacturasEmitidasPorPeriodo(inicio, fin)));
+            recibidas.add(EjecutorTareas.ejecutar(
+                    () -> facturacionService.obtenerFacturasRecibidasPorPeriodo(inicio, fin)));
+            gastos.add(EjecutorTareas.ejecutar(
+                    () -> facturacionService.obtenerGastosPorPeriodo(inicio, fin)));
+        }
+
+        List<CompletableFuture<?>> todas = new ArrayList<>();
+        todas.addAll(emitidas);
+        todas.addAll(recibidas);
+        todas.addAll(gastos);
+
+        // Se reparte cuando han llegado todas; ningún hilo del pool queda esperando a otro
+        CompletableFuture<Map<YearMonth, DatosMes>> resultado = CompletableFuture
+                .allOf(todas.toArray(new CompletableFuture[0]))
+                .thenApply(vacio -> {
+                    Map<YearMonth, DatosMes> porMes = new HashMap<>();
+                    for (int i = 0; i < tramos.size(); i++) {
+                        Tramo tramo = tramos.get(i);
+                        // También los meses sin documentos, para no volver a pedirlos
+                        for (YearMonth mes = tramo.desde(); !mes.isAfter(tramo.hasta()); mes = mes.plusMonths(1)) {
+                            porMes.put(mes, new DatosMes(cargadoEn));
+                        }
+                        repartir(emitidas.get(i).join(), FacturaEmitidaDTO::getFechaEmision, porMes, d -> d.emitidas);
+                        repartir(recibidas.get(i).join(), FacturaRecibidaDTO::getFechaFactura, porMes, d -> d.recibidas);
+                        repartir(gastos.get(i).join(), GastoDTO::getFecha, porMes, d -> d.gastos);
+                    }
+                    return porMes;
+                });
+        resultado.whenComplete((porMes, error) -> {
+            if (resultado.isCancelled()) {
+                todas.forEach(descarga -> descarga.cancel(true));
+            }
+        });
+        return resultado;
+    }
+
+    private static <T> void repartir(List<T> documentos, Function<T, String> fecha,
+                                     Map<YearMonth, DatosMes> porMes, Function<DatosMes, List<T>> lista) {
+        for (T documento : documentos) {
+            LocalDate dia = FechaUtils.parseFecha(fecha.apply(documento));
+            DatosMes datos = dia != null ? porMes.get(YearMonth.from(dia)) : null;
+            if (datos != null) {
+                lista.apply(datos).add(documento);
+            }
+        }
+    }
+
+    private static <T> void agregar(List<T> destino, List<T> documentos, Function<T, String> fecha,
+                                   boolean mesCompleto, LocalDate desde, LocalDate hasta) {
+        if (mesCompleto) {
+            destino.addAll(documentos);
+            return;
+        }
+        for (T documento : documentos) {
+            LocalDate dia = FechaUtils.parseFecha(fecha.apply(documento));
+            if (!dia.isBefore(desde) && !dia.isAfter(hasta)) {
+                destino.add(documento);
+            }
+        }
+    }
+
+    private static <T> T esperar(CompletableFuture<T> futuro) throws IOException {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            if (causa instanceof IOException) {
+                throw (IOException) causa;
+            }
+            throw new IOException("Error descargando datos del período: " + causa.getMessage(), causa);
+        }
+    }
+
+    // ========================================
+    // CLASES DE DATOS
+    // ========================================
+
+    /**
+     * Documentos de un período ya compuesto
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class DatosPeriodo {
+        private final List<FacturaEmitidaDTO> facturasEmitidas;
+        private final List<FacturaRecibidaDTO> facturasRecibidas;
+        private final List<GastoDTO> gastos;
+    }
+
+    private static final class DatosMes {
+        private final long cargadoEn;
+        private final List<FacturaEmitidaDTO> emitidas = new ArrayList<>();
+        private final List<FacturaRecibidaDTO> recibidas = new ArrayList<>();
+        private final List<GastoDTO> gastos = new ArrayList<>();
+
+        private DatosMes(long cargadoEn) {
+            this.cargadoEn = cargadoEn;
+        }
+    }
+
+    private record Tramo(YearMonth desde, YearMonth hasta) {
+    }
+}
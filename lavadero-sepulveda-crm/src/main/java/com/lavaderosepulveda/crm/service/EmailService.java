@@ -2,17 +2,39 @@ package com.lavaderosepulveda.crm.service;
 
 import com.lavaderosepulveda.crm.config.ConfigManager;
 import com.lavaderosepulveda.crm.model.entity.Factura;
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import com.sun.mail.smtp.SMTPSenderFailedException;
 import jakarta.mail.*;
 import jakarta.mail.internet.*;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Properties;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Envío de emails por SMTP.
+ *
+ * La sesión se crea una vez y las conexiones SMTP se reutilizan entre envíos (un pool
+ * limitado por "email.smtp.max_conexiones"), así que enviar una factura tras otra no abre
+ * una conexión TLS por cada email. Los fallos temporales (conexión cortada, respuestas SMTP
+ * 4xx) se reintentan hasta "email.smtp.reintentos" veces; los rechazos 5xx no.
+ */
 @Slf4j
 public class EmailService {
-    
+
+    // Una conexión libre más antigua que esto se cierra en lugar de reutilizarla
+    // (los servidores SMTP cortan las conexiones inactivas)
+    private static final long INACTIVIDAD_MAX_MS = 60_000;
+
+    // Espera antes de cada reintento (se multiplica por el número de intento)
+    private static final long ESPERA_REINTENTO_MS = 2_000;
+
     private static EmailService instance;
     private final ConfigManager config;
     
@@ -23,6 +45,13 @@ public class EmailService {
     private String password;
     private String fromEmail;
     private String fromName;
+    private int maxConexiones;
+    private int maxReintentos;
+
+    // Sesión compartida (se rehace si cambia la configuración) y conexiones libres
+    private Session session;
+    private final Deque<ConexionSmtp> libres = new ArrayDeque<>();
+    private Semaphore permisos;
     
     private EmailService() {
         this.config = ConfigManager.getInstance();
@@ -43,29 +72,34 @@ public class EmailService {
         this.password = config.getProperty("email.smtp.password", "");
         this.fromEmail = config.getProperty("email.smtp.from", "");
         this.fromName = config.getProperty("email.smtp.from_name", "Lavadero Sepúlveda");
+        this.maxConexiones = Math.max(1, config.getIntProperty("email.smtp.max_conexiones", 2));
+        this.maxReintentos = Math.max(0, config.getIntProperty("email.smtp.reintentos", 2));
+        this.permisos = new Semaphore(maxConexiones);
         
-        log.info("EmailService configurado - Host: {}, Port: {}, From: {}", smtpHost, smtpPort, fromEmail);
+        log.info("EmailService configurado - Host: {}, Port: {}, From: {}, Conexiones: {}",
+                smtpHost, smtpPort, fromEmail, maxConexiones);
     }
     
-    public void configurarSmtp(String host, String port, String user, String pass, String from) {
+    public synchronized void configurarSmtp(String host, String port, String user, String pass, String from) {
         this.smtpHost = host;
         this.smtpPort = port;
         this.username = user;
         this.password = pass;
         this.fromEmail = from;
+
+        // Las conexiones abiertas son del servidor anterior
+        this.session = null;
+        cerrarConexiones();
     }
     
     public boolean enviarFactura(Factura factura, File pdfFile) {
         try {
-            if (factura.getCliente().getEmail() == null || factura.getCliente().getEmail().isEmpty()) {
-                log.warn("Cliente sin email configurado: {}", factura.getCliente().getNombreCompleto());
+            Envio envio = crearEnvioFactura(factura, pdfFile);
+            if (envio == null) {
                 return false;
             }
             
-            String asunto = "Factura " + factura.getNumeroFactura() + " - Lavadero Sepúlveda";
-            String cuerpo = construirCuerpoFactura(factura);
-            
-            enviarEmail(factura.getCliente().getEmail(), asunto, cuerpo, pdfFile);
+            enviarEmail(envio.getDestinatario(), envio.getAsunto(), envio.getCuerpo(), envio.getAdjunto());
             
             log.info("Factura {} enviada por email a {}", 
                 factura.getNumeroFactura(), 
@@ -77,37 +111,212 @@ public class EmailService {
             return false;
         }
     }
+
+    /**
+     * Email de una factura con su PDF adjunto, o null si el cliente no tiene email
+     */
+    public Envio crearEnvioFactura(Factura factura, File pdfFile) {
+        if (factura.getCliente().getEmail() == null || factura.getCliente().getEmail().isEmpty()) {
+            log.warn("Cliente sin email configurado: {}", factura.getCliente().getNombreCompleto());
+            return null;
+        }
+
+        String asunto = "Factura " + factura.getNumeroFactura() + " - Lavadero Sepúlveda";
+        return new Envio(factura.getCliente().getEmail(), asunto, construirCuerpoFactura(factura), pdfFile);
+    }
     
     public void enviarEmail(String destinatario, String asunto, String cuerpo, File adjunto) 
             throws MessagingException, UnsupportedEncodingException {
         
-        Properties props = new Properties();
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.smtp.host", smtpHost);
-        props.put("mail.smtp.port", smtpPort);
-        props.put("mail.smtp.ssl.protocols", "TLSv1.2");
-        
-        Session session = Session.getInstance(props, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(username, password);
+        Message message = construirMensaje(new Envio(destinatario, asunto, cuerpo, adjunto));
+
+        // Si la conexión reutilizada se había cortado se repite en seguida con una nueva; si el
+        // servidor respondió 4xx, tras una espera creciente
+        for (int intento = 1; ; intento++) {
+            ConexionSmtp conexion = tomarConexion();
+            boolean sana = true;
+            try {
+                conexion.enviar(message);
+                break;
+            } catch (MessagingException e) {
+                sana = conexion.estaConectada();
+                if (intento > maxReintentos || esPermanente(e)) {
+                    throw e;
+                }
+                log.debug("Fallo temporal enviando a {} (intento {}): {}", destinatario, intento, e.getMessage());
+            } finally {
+                devolverConexion(conexion, sana);
             }
-        });
-        
-        Message message = new MimeMessage(session);
+            if (sana) {
+                esperarReintento(intento);
+            }
+        }
+        log.info("Email enviado exitosamente a: {}", destinatario);
+    }
+
+    // ========================================
+    // POOL DE CONEXIONES
+    // ========================================
+
+    private synchronized Session getSession() {
+        if (session == null) {
+            Properties props = new Properties();
+            props.put("mail.smtp.auth", "true");
+            props.put("mail.smtp.starttls.enable", "true");
+            props.put("mail.smtp.host", smtpHost);
+            props.put("mail.smtp.port", smtpPort);
+            props.put("mail.smtp.ssl.protocols", "TLSv1.2");
+            props.put("mail.smtp.connectiontimeout", "10000");
+            props.put("mail.smtp.timeout", "30000");
+            props.put("mail.smtp.writetimeout", "30000");
+
+            String user = username;
+            String pass = password;
+            session = Session.getInstance(props, new Authenticator() {
+                @Override
+                protected PasswordAuthentication getPasswordAuthentication() {
+                    return new PasswordAuthentication(user, pass);
+                }
+            });
+        }
+        return session;
+    }
+
+    /**
+     * Conexión libre (o una nueva); espera si ya están todas en uso
+     */
+    private ConexionSmtp tomarConexion() throws MessagingException {
+        Semaphore limite = permisos;
+        try {
+            limite.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Envío de email interrumpido", e);
+        }
+
+        try {
+            Session actual = getSession();
+            ConexionSmtp conexion;
+            while ((conexion = sacarLibre()) != null) {
+                if (conexion.session == actual
+                        && System.currentTimeMillis() - conexion.ultimoUso < INACTIVIDAD_MAX_MS
+                        && conexion.estaConectada()) {
+                    return conexion;
+                }
+                conexion.cerrar();
+            }
+
+            Transport transport = actual.getTransport("smtp");
+            transport.connect(smtpHost, Integer.parseInt(smtpPort), username, password);
+            log.debug("Nueva conexión SMTP con {}:{}", smtpHost, smtpPort);
+            return new ConexionSmtp(actual, transport, limite);
+        } catch (MessagingException | RuntimeException e) {
+            limite.release();
+            throw e;
+        }
+    }
+
+    private void devolverConexion(ConexionSmtp conexion, boolean sana) {
+        if (sana) {
+            conexion.ultimoUso = System.currentTimeMillis();
+            synchronized (libres) {
+                libres.push(conexion);
+            }
+        } else {
+            conexion.cerrar();
+        }
+        conexion.permiso.release();
+    }
+
+    private ConexionSmtp sacarLibre() {
+        synchronized (libres) {
+            return libres.poll();
+        }
+    }
+
+    /**
+     * Cerrar las conexiones libres (al cambiar de servidor o al cerrar la aplicación)
+     */
+    public void cerrarConexiones() {
+        ConexionSmtp conexion;
+        while ((conexion = sacarLibre()) != null) {
+            conexion.cerrar();
+        }
+    }
+
+    /**
+     * Cerrar las conexiones solo si el servicio llegó a usarse
+     */
+    public static synchronized void cerrarConexionesAbiertas() {
+        if (instance != null) {
+            instance.cerrarConexiones();
+        }
+    }
+
+    private static void esperarReintento(int intento) throws MessagingException {
+        try {
+            Thread.sleep(ESPERA_REINTENTO_MS * intento);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Envío de email interrumpido", e);
+        }
+    }
+
+    /**
+     * Un fallo es definitivo si el servidor respondió 5xx o la dirección no es válida.
+     * Las respuestas 4xx (greylisting, buzón lleno, límite de envíos) y los cortes de
+     * conexión se reintentan.
+     */
+    private static boolean esPermanente(MessagingException e) {
+        if (e instanceof AddressException) {
+            return true;
+        }
+        int codigo = codigoSmtp(e);
+        if (codigo > 0) {
+            return codigo >= 500;
+        }
+        // Sin código SMTP: solo es definitivo si el propio mensaje traía direcciones inválidas
+        return e instanceof SendFailedException fallo
+                && fallo.getInvalidAddresses() != null
+                && fallo.getInvalidAddresses().length > 0;
+    }
+
+    /**
+     * Código de respuesta SMTP del fallo o de los encadenados (uno por destinatario), o -1
+     */
+    private static int codigoSmtp(MessagingException e) {
+        int codigo = -1;
+        for (Exception actual = e; actual != null; ) {
+            int propio = -1;
+            if (actual instanceof SMTPSendFailedException fallo) {
+                propio = fallo.getReturnCode();
+            } else if (actual instanceof SMTPAddressFailedException fallo) {
+                propio = fallo.getReturnCode();
+            } else if (actual instanceof SMTPSenderFailedException fallo) {
+                propio = fallo.getReturnCode();
+            }
+            // Con varios códigos manda el más grave
+            codigo = Math.max(codigo, propio);
+            actual = actual instanceof MessagingException me ? me.getNextException() : null;
+        }
+        return codigo;
+    }
+
+    private Message construirMensaje(Envio envio) throws MessagingException, UnsupportedEncodingException {
+        Message message = new MimeMessage(getSession());
         message.setFrom(new InternetAddress(fromEmail, fromName));
-        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(destinatario));
-        message.setSubject(asunto);
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(envio.getDestinatario()));
+        message.setSubject(envio.getAsunto());
         
         // Crear el cuerpo del mensaje
         MimeBodyPart messageBodyPart = new MimeBodyPart();
-        messageBodyPart.setContent(cuerpo, "text/html; charset=utf-8");
+        messageBodyPart.setContent(envio.getCuerpo(), "text/html; charset=utf-8");
         
         Multipart multipart = new MimeMultipart();
         multipart.addBodyPart(messageBodyPart);
         
         // Agregar adjunto si existe
+        File adjunto = envio.getAdjunto();
         if (adjunto != null && adjunto.exists()) {
             MimeBodyPart attachPart = new MimeBodyPart();
             try {
@@ -119,9 +328,10 @@ public class EmailService {
         }
         
         message.setContent(multipart);
-        
-        Transport.send(message);
-        log.info("Email enviado exitosamente a: {}", destinatario);
+
+        // Transport.send lo hacía solo; con sendMessage hay que generar las cabeceras aquí
+        message.saveChanges();
+        return message;
     }
     
     private String construirCuerpoFactura(Factura factura) {
@@ -167,25 +377,8 @@ public class EmailService {
     
     public boolean testConnection() {
         try {
-            Properties props = new Properties();
-            props.put("mail.smtp.auth", "true");
-            props.put("mail.smtp.starttls.enable", "true");
-            props.put("mail.smtp.host", smtpHost);
-            props.put("mail.smtp.port", smtpPort);
-            props.put("mail.smtp.ssl.protocols", "TLSv1.2");
-            props.put("mail.smtp.timeout", "5000");
-            props.put("mail.smtp.connectiontimeout", "5000");
-            
-            Session session = Session.getInstance(props, new Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(username, password);
-                }
-            });
-            
-            Transport transport = session.getTransport("smtp");
-            transport.connect(smtpHost, username, password);
-            transport.close();
+            ConexionSmtp conexion = tomarConexion();
+            devolverConexion(conexion, true);
             
             log.info("Conexión SMTP exitosa");
             return true;
@@ -194,4 +387,56 @@ public class EmailService {
             return false;
         }
     }
+
+    // ========================================
+    // CLASES AUXILIARES
+    // ========================================
+
+    /**
+     * Un email pendiente de enviar
+     */
+    @Getter
+    public static class Envio {
+        private final String destinatario;
+        private final String asunto;
+        private final String cuerpo;
+        private final File adjunto;
+
+        public Envio(String destinatario, String asunto, String cuerpo, File adjunto) {
+            this.destinatario = destinatario;
+            this.asunto = asunto;
+            this.cuerpo = cuerpo;
+            this.adjunto = adjunto;
+        }
+    }
+
+    private static final class ConexionSmtp {
+        private final Session session;
+        private final Transport transport;
+        private final Semaphore permiso;
+        private long ultimoUso;
+
+        private ConexionSmtp(Session session, Transport transport, Semaphore permiso) {
+            this.session = session;
+            this.transport = transport;
+            this.permiso = permiso;
+        }
+
+        private void enviar(Message message) throws MessagingException {
+            transport.sendMessage(message, message.getAllRecipients());
+        }
+
+        private boolean estaConectada() {
+            // En SMTP comprueba la conexión con un NOOP
+            return transport.isConnected();
+        }
+
+        private void cerrar() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error cerrando conexión SMTP: {}", e.getMessage());
+            }
+        }
+    }
 }
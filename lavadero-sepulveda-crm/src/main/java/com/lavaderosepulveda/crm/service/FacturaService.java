@@ -10,6 +10,7 @@ import java.io.File;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class FacturaService {
@@ -112,6 +113,13 @@ public class FacturaService {
     }
     
     public boolean enviarFacturaPorWhatsApp(Long facturaId) {
+        return enviarFacturaPorWhatsAppAsync(facturaId).join();
+    }
+
+    /**
+     * Encolar el envío por WhatsApp; la factura se marca como enviada cuando el proveedor lo confirma
+     */
+    public CompletableFuture<Boolean> enviarFacturaPorWhatsAppAsync(Long facturaId) {
         return facturaRepository.findById(facturaId).map(factura -> {
             // Generar PDF si no existe
             File pdfFile;
@@ -126,20 +134,19 @@ public class FacturaService {
             
             if (pdfFile == null || !pdfFile.exists()) {
                 log.error("No se pudo encontrar el PDF de la factura");
-                return false;
+                return CompletableFuture.completedFuture(false);
             }
             
             // Enviar por WhatsApp
-            boolean enviado = whatsappService.enviarFactura(factura, pdfFile);
-            
-            if (enviado) {
-                factura.setEnviadaWhatsapp(true);
-                factura.setFechaEnvioWhatsapp(LocalDateTime.now());
-                facturaRepository.save(factura);
-            }
-            
-            return enviado;
-        }).orElse(false);
+            return whatsappService.enviarFacturaAsync(factura, pdfFile).thenApply(enviado -> {
+                if (enviado) {
+                    factura.setEnviadaWhatsapp(true);
+                    factura.setFechaEnvioWhatsapp(LocalDateTime.now());
+                    facturaRepository.save(factura);
+                }
+                return enviado;
+            });
+        }).orElse(CompletableFuture.completedFuture(false));
     }
     
     public boolean enviarFacturaAutomatica(Long facturaId, boolean porEmail, boolean porWhatsApp) {
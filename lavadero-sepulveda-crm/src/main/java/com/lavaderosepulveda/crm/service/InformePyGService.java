@@ -1,6 +1,5 @@
 package com.lavaderosepulveda.crm.service;
 
-import com.lavaderosepulveda.crm.api.service.FacturacionApiService;
 import com.lavaderosepulveda.crm.model.dto.*;
 
 import lombok.AllArgsConstructor;
@@ -21,7 +20,7 @@ import java.util.*;
 public class InformePyGService {
 
     private static InformePyGService instance;
-    private final FacturacionApiService facturacionService;
+    private final DatosPeriodoService datosPeriodoService;
 
     public static synchronized InformePyGService getInstance() {
         if (instance == null) {
@@ -31,7 +30,7 @@ public class InformePyGService {
     }
 
     private InformePyGService() {
-        this.facturacionService = FacturacionApiService.getInstance();
+        this.datosPeriodoService = DatosPeriodoService.getInstance();
     }
 
     /**
@@ -46,10 +45,11 @@ public class InformePyGService {
         informe.setEjercicio(desde.getYear());
 
         try {
-            // Obtener datos usando los métodos existentes en FacturacionApiService
-            List<FacturaEmitidaDTO> facturasEmitidas = facturacionService.obtenerFacturasEmitidasPorPeriodo(desde, hasta);
-            List<FacturaRecibidaDTO> facturasRecibidas = facturacionService.obtenerFacturasRecibidasPorPeriodo(desde, hasta);
-            List<GastoDTO> gastos = facturacionService.obtenerGastosPorPeriodo(desde, hasta);
+            // Datos del período compartidos con el Resumen Financiero (solo se descargan los meses que faltan)
+            DatosPeriodoService.DatosPeriodo datos = datosPeriodoService.obtener(desde, hasta);
+            List<FacturaEmitidaDTO> facturasEmitidas = datos.getFacturasEmitidas();
+            List<FacturaRecibidaDTO> facturasRecibidas = datos.getFacturasRecibidas();
+            List<GastoDTO> gastos = datos.getGastos();
 
             // 1. INGRESOS
             BigDecimal ventasBruto = facturasEmitidas.stream()
@@ -1,20 +1,28 @@
 package com.lavaderosepulveda.crm.service;
 
+import com.lavaderosepulveda.crm.api.client.EventosClient;
 import com.lavaderosepulveda.crm.api.service.FacturacionApiService;
 import com.lavaderosepulveda.crm.model.dto.*;
+import com.lavaderosepulveda.crm.util.EjecutorTareas;
 import com.lavaderosepulveda.crm.util.FechaUtils;
 
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Servicio para la generación de modelos fiscales españoles
  * Genera datos pre-calculados para los modelos 303, 130, 390 y 347
+ *
+ * Todos los modelos de un ejercicio salen de una única descarga de facturas emitidas,
+ * gastos y facturas recibidas, repartida por trimestre en memoria (ver DatosEjercicio).
+ * Los modelos anuales 390 y 347 se piden ya calculados al servidor; la descarga solo
+ * se usa para ellos si el servidor no los ofrece.
  */
 @Slf4j
 public class ModelosFiscalesService {
@@ -46,9 +54,22 @@ public class ModelosFiscalesService {
     private static final BigDecimal IVA_REDUCIDO = new BigDecimal("10");
     private static final BigDecimal IVA_SUPERREDUCIDO = new BigDecimal("4");
 
+    // Tiempo que se reutilizan los datos de un ejercicio (p.ej. generar el 390 y luego el 347)
+    private static final long VIGENCIA_DATOS_MS = 60_000;
+
+    private volatile DatosEjercicio ultimoEjercicio;
+
     // Constructor privado para Singleton
     private ModelosFiscalesService() {
         this.facturacionService = FacturacionApiService.getInstance();
+
+        // Una factura o gasto nuevo o modificado (aquí o en el servidor) deja obsoletos los datos reutilizados
+        facturacionService.alModificarDatos(this::invalidarCache);
+        EventosClient.getInstance().suscribir(evento -> {
+            if (EventoCambioDTO.FACTURA.equals(evento.getEntidad())) {
+                invalidarCache();
+            }
+        });
     }
 
     /**
@@ -70,14 +91,21 @@ public class ModelosFiscalesService {
     public Modelo303DTO generarModelo303(int year, int trimestre) {
         log.info("Generando Modelo 303 para {}T{}", trimestre, year);
 
-        // Obtener fechas del trimestre
-        LocalDate inicioTrimestre = getInicioTrimestre(year, trimestre);
-        LocalDate finTrimestre = getFinTrimestre(year, trimestre);
+        Modelo303DTO modelo = calcularModelo303(obtenerDatosEjercicio(year), trimestre);
 
-        // Obtener facturas y gastos del período
-        List<FacturaEmitidaDTO> facturas = obtenerFacturasEmitidas(inicioTrimestre, finTrimestre);
-        List<GastoDTO> gastos = obtenerGastos(inicioTrimestre, finTrimestre);
-        List<FacturaRecibidaDTO> facturasRecibidas = obtenerFacturasRecibidas(inicioTrimestre, finTrimestre);
+        log.info("Modelo 303 generado - Resultado: {} € ({})",
+                modelo.getResultado(), modelo.getTipoResultado());
+
+        return modelo;
+    }
+
+    /**
+     * Modelo 303 de un trimestre a partir de los datos ya repartidos del ejercicio
+     */
+    private Modelo303DTO calcularModelo303(DatosEjercicio datos, int trimestre) {
+        List<FacturaEmitidaDTO> facturas = datos.emitidas(trimestre, trimestre);
+        List<GastoDTO> gastos = datos.gastos(trimestre, trimestre);
+        List<FacturaRecibidaDTO> facturasRecibidas = datos.recibidas(trimestre, trimestre);
 
         // Calcular IVA devengado (ventas)
         BigDecimal baseImponible21 = BigDecimal.ZERO;
@@ -117,7 +145,7 @@ public class ModelosFiscalesService {
 
         // Crear DTO
         Modelo303DTO modelo = Modelo303DTO.builder()
-                .ejercicio(String.valueOf(year))
+                .ejercicio(String.valueOf(datos.year))
                 .periodo(trimestre + "T")
                 .nif(nifEmisor)
                 .nombreRazonSocial(nombreEmisor)
@@ -142,10 +170,6 @@ public class ModelosFiscalesService {
 
         // Calcular resultado
         modelo.calcularResultado();
-
-        log.info("Modelo 303 generado - Resultado: {} € ({})",
-                modelo.getResultado(), modelo.getTipoResultado());
-
         return modelo;
     }
 
@@ -160,14 +184,12 @@ public class ModelosFiscalesService {
     public Modelo130DTO generarModelo130(int year, int trimestre) {
         log.info("Generando Modelo 130 para {}T{}", trimestre, year);
 
-        // Para el 130, los datos son ACUMULADOS desde 1 de enero
-        LocalDate inicioAno = LocalDate.of(year, 1, 1);
-        LocalDate finTrimestre = getFinTrimestre(year, trimestre);
+        DatosEjercicio datos = obtenerDatosEjercicio(year);
 
-        // Obtener datos acumulados
-        List<FacturaEmitidaDTO> facturas = obtenerFacturasEmitidas(inicioAno, finTrimestre);
-        List<GastoDTO> gastos = obtenerGastos(inicioAno, finTrimestre);
-        List<FacturaRecibidaDTO> facturasRecibidas = obtenerFacturasRecibidas(inicioAno, finTrimestre);
+        // Para el 130, los datos son ACUMULADOS desde 1 de enero
+        List<FacturaEmitidaDTO> facturas = datos.emitidas(1, trimestre);
+        List<GastoDTO> gastos = datos.gastos(1, trimestre);
+        List<FacturaRecibidaDTO> facturasRecibidas = datos.recibidas(1, trimestre);
 
         // Calcular ingresos acumulados
         BigDecimal ingresos = facturas.stream()
@@ -185,9 +207,8 @@ public class ModelosFiscalesService {
 
         BigDecimal gastosDeducibles = gastosTotal.add(facturasRecibidasTotal);
 
-        // Obtener datos solo del trimestre actual para info
-        LocalDate inicioTrimestreActual = getInicioTrimestre(year, trimestre);
-        List<FacturaEmitidaDTO> facturasTrimestre = obtenerFacturasEmitidas(inicioTrimestreActual, finTrimestre);
+        // Datos solo del trimestre actual para info
+        List<FacturaEmitidaDTO> facturasTrimestre = datos.emitidas(trimestre, trimestre);
 
         // Crear DTO
         Modelo130DTO modelo = Modelo130DTO.builder()
@@ -227,13 +248,22 @@ public class ModelosFiscalesService {
     public Modelo390DTO generarModelo390(int year) {
         log.info("Generando Modelo 390 para año {}", year);
 
-        LocalDate inicioAno = LocalDate.of(year, 1, 1);
-        LocalDate finAno = LocalDate.of(year, 12, 31);
+        try {
+            Modelo390DTO modelo = facturacionService.obtenerModelo390(year);
+            modelo.setNif(nifEmisor);
+            modelo.setNombreRazonSocial(nombreEmisor);
+            modelo.setDomicilioFiscal(domicilioEmisor);
+            log.info("Modelo 390 recibido del servidor - Volumen operaciones: {} €", modelo.getVolumenOperaciones());
+            return modelo;
+        } catch (Exception e) {
+            log.warn("No se pudo obtener el Modelo 390 del servidor, se calcula en local: {}", e.getMessage());
+        }
 
-        // Obtener todos los datos del año
-        List<FacturaEmitidaDTO> facturas = obtenerFacturasEmitidas(inicioAno, finAno);
-        List<GastoDTO> gastos = obtenerGastos(inicioAno, finAno);
-        List<FacturaRecibidaDTO> facturasRecibidas = obtenerFacturasRecibidas(inicioAno, finAno);
+        // Todos los datos del año (una sola descarga, también para el desglose trimestral)
+        DatosEjercicio datos = obtenerDatosEjercicio(year);
+        List<FacturaEmitidaDTO> facturas = datos.emitidas(1, 4);
+        List<GastoDTO> gastos = datos.gastos(1, 4);
+        List<FacturaRecibidaDTO> facturasRecibidas = datos.recibidas(1, 4);
 
         // Totales devengados
         BigDecimal baseDevengada21 = BigDecimal.ZERO;
@@ -266,7 +296,7 @@ public class ModelosFiscalesService {
         // Generar desglose trimestral
         List<Modelo390DTO.ResumenTrimestral> desglose = new ArrayList<>();
         for (int t = 1; t <= 4; t++) {
-            Modelo303DTO m303 = generarModelo303(year, t);
+            Modelo303DTO m303 = calcularModelo303(datos, t);
             desglose.add(Modelo390DTO.ResumenTrimestral.builder()
                     .trimestre(t + "T")
                     .baseDevengada(m303.getBaseImponible21())
@@ -324,8 +354,19 @@ public class ModelosFiscalesService {
     public Modelo347DTO generarModelo347(int year) {
         log.info("Generando Modelo 347 para año {}", year);
 
-        LocalDate inicioAno = LocalDate.of(year, 1, 1);
-        LocalDate finAno = LocalDate.of(year, 12, 31);
+        try {
+            Modelo347DTO modelo = facturacionService.obtenerModelo347(year);
+            modelo.setNif(nifEmisor);
+            modelo.setNombreRazonSocial(nombreEmisor);
+            modelo.setDomicilioFiscal(domicilioEmisor);
+            log.info("Modelo 347 recibido del servidor - {} declarados, importe total: {} €",
+                    modelo.getNumDeclarados(), modelo.getImporteTotal());
+            return modelo;
+        } catch (Exception e) {
+            log.warn("No se pudo obtener el Modelo 347 del servidor, se calcula en local: {}", e.getMessage());
+        }
+
+        DatosEjercicio datos = obtenerDatosEjercicio(year);
 
         Modelo347DTO modelo = Modelo347DTO.builder()
                 .ejercicio(String.valueOf(year))
@@ -337,7 +378,7 @@ public class ModelosFiscalesService {
                 .build();
 
         // Obtener facturas emitidas y agrupar por cliente
-        List<FacturaEmitidaDTO> facturas = obtenerFacturasEmitidas(inicioAno, finAno);
+        List<FacturaEmitidaDTO> facturas = datos.emitidas(1, 4);
 
         // Agrupar por cliente (usando NIF si está disponible, si no por nombre)
         Map<String, List<FacturaEmitidaDTO>> facturasPorCliente = facturas.stream()
@@ -356,14 +397,13 @@ public class ModelosFiscalesService {
                     .map(f -> f.getTotal() != null ? f.getTotal() : BigDecimal.ZERO)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-            // Calcular por trimestre
+            // Calcular por trimestre (con el trimestre ya calculado al repartir los datos)
             BigDecimal[] trimestres = new BigDecimal[4];
             Arrays.fill(trimestres, BigDecimal.ZERO);
 
             for (FacturaEmitidaDTO f : facturasCliente) {
-                LocalDate fecha = FechaUtils.parseFecha(f.getFechaEmision());
-                if (fecha != null && f.getTotal() != null) {
-                    int t = (fecha.getMonthValue() - 1) / 3;
+                if (f.getTotal() != null) {
+                    int t = datos.trimestreDe(f) - 1;
                     trimestres[t] = trimestres[t].add(f.getTotal());
                 }
             }
@@ -390,8 +430,8 @@ public class ModelosFiscalesService {
         }
 
         // Obtener gastos y facturas recibidas y agrupar por proveedor
-        List<GastoDTO> gastos = obtenerGastos(inicioAno, finAno);
-        List<FacturaRecibidaDTO> facturasRecibidas = obtenerFacturasRecibidas(inicioAno, finAno);
+        List<GastoDTO> gastos = datos.gastos(1, 4);
+        List<FacturaRecibidaDTO> facturasRecibidas = datos.recibidas(1, 4);
 
         // Agrupar proveedores por NIF/nombre
         Map<String, BigDecimal> totalesPorProveedor = new HashMap<>();
@@ -451,58 +491,130 @@ public class ModelosFiscalesService {
     // MÉTODOS AUXILIARES
     // ========================================
 
-    private LocalDate getInicioTrimestre(int year, int trimestre) {
-        int mes = (trimestre - 1) * 3 + 1;
-        return LocalDate.of(year, mes, 1);
+    /**
+     * Datos del ejercicio, reutilizando la última descarga si es del mismo año y reciente
+     */
+    private DatosEjercicio obtenerDatosEjercicio(int year) {
+        DatosEjercicio datos = ultimoEjercicio;
+        if (datos != null && datos.year == year
+                && System.currentTimeMillis() - datos.cargadoEn < VIGENCIA_DATOS_MS) {
+            return datos;
+        }
+
+        // Las tres listas del año (1 de enero a 31 de diciembre) se piden a la vez; cada una
+        // se descarga una sola vez por ejercicio
+        LocalDate inicio = LocalDate.of(year, 1, 1);
+        LocalDate fin = LocalDate.of(year, 12, 31);
+        CompletableFuture<List<FacturaEmitidaDTO>> emitidas =
+                EjecutorTareas.ejecutar(() -> facturacionService.obtenerFacturasEmitidasPorPeriodo(inicio, fin));
+        CompletableFuture<List<GastoDTO>> gastos =
+                EjecutorTareas.ejecutar(() -> facturacionService.obtenerGastosPorPeriodo(inicio, fin));
+        CompletableFuture<List<FacturaRecibidaDTO>> recibidas =
+                EjecutorTareas.ejecutar(() -> facturacionService.obtenerFacturasRecibidasPorPeriodo(inicio, fin));
+
+        List<FacturaEmitidaDTO> listaEmitidas = esperar(emitidas, "facturas emitidas");
+        List<GastoDTO> listaGastos = esperar(gastos, "gastos");
+        List<FacturaRecibidaDTO> listaRecibidas = esperar(recibidas, "facturas recibidas");
+        boolean completo = listaEmitidas != null && listaGastos != null && listaRecibidas != null;
+
+        datos = new DatosEjercicio(year,
+                listaEmitidas != null ? listaEmitidas : List.of(), FacturaEmitidaDTO::getFechaEmision,
+                listaGastos != null ? listaGastos : List.of(), GastoDTO::getFecha,
+                listaRecibidas != null ? listaRecibidas : List.of(), FacturaRecibidaDTO::getFechaFactura);
+
+        // Si alguna descarga ha fallado no se reutiliza el resultado
+        if (completo) {
+            ultimoEjercicio = datos;
+        }
+        return datos;
     }
 
-    private LocalDate getFinTrimestre(int year, int trimestre) {
-        int mes = trimestre * 3;
-        return YearMonth.of(year, mes).atEndOfMonth();
+    /**
+     * Descartar los datos reutilizados (tras crear o modificar facturas y gastos)
+     */
+    public void invalidarCache() {
+        ultimoEjercicio = null;
     }
 
-    private List<FacturaEmitidaDTO> obtenerFacturasEmitidas(LocalDate desde, LocalDate hasta) {
+    private <T> List<T> esperar(CompletableFuture<List<T>> futuro, String descripcion) {
         try {
-            List<FacturaEmitidaDTO> todas = facturacionService.obtenerFacturasEmitidas();
-            return todas.stream()
-                    .filter(f -> {
-                        LocalDate fecha = FechaUtils.parseFecha(f.getFechaEmision());
-                        return fecha != null && !fecha.isBefore(desde) && !fecha.isAfter(hasta);
-                    })
-                    .collect(Collectors.toList());
+            return futuro.join();
         } catch (Exception e) {
-            log.error("Error obteniendo facturas emitidas", e);
-            return new ArrayList<>();
+            log.error("Error obteniendo {}", descripcion, e.getCause() != null ? e.getCause() : e);
+            return null;
         }
     }
 
-    private List<GastoDTO> obtenerGastos(LocalDate desde, LocalDate hasta) {
-        try {
-            List<GastoDTO> todos = facturacionService.obtenerGastos();
-            return todos.stream()
-                    .filter(g -> {
-                        LocalDate fecha = FechaUtils.parseFecha(g.getFecha());
-                        return fecha != null && !fecha.isBefore(desde) && !fecha.isAfter(hasta);
-                    })
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Error obteniendo gastos", e);
-            return new ArrayList<>();
+    /**
+     * Facturas emitidas, gastos y facturas recibidas de un año, repartidos por trimestre.
+     * La fecha de cada documento se interpreta una sola vez al construirlo.
+     */
+    private static final class DatosEjercicio {
+        private final int year;
+        private final long cargadoEn = System.currentTimeMillis();
+        private final List<List<FacturaEmitidaDTO>> emitidas = trimestresVacios();
+        private final List<List<GastoDTO>> gastos = trimestresVacios();
+        private final List<List<FacturaRecibidaDTO>> recibidas = trimestresVacios();
+        private final Map<FacturaEmitidaDTO, Integer> trimestreEmitidas = new IdentityHashMap<>();
+
+        private DatosEjercicio(int year,
+                               List<FacturaEmitidaDTO> todasEmitidas, Function<FacturaEmitidaDTO, String> fechaEmitida,
+                               List<GastoDTO> todosGastos, Function<GastoDTO, String> fechaGasto,
+                               List<FacturaRecibidaDTO> todasRecibidas, Function<FacturaRecibidaDTO, String> fechaRecibida) {
+            this.year = year;
+            for (FacturaEmitidaDTO f : todasEmitidas) {
+                Integer t = repartir(f, fechaEmitida, emitidas);
+                if (t != null) {
+                    trimestreEmitidas.put(f, t);
+                }
+            }
+            todosGastos.forEach(g -> repartir(g, fechaGasto, gastos));
+            todasRecibidas.forEach(fr -> repartir(fr, fechaRecibida, recibidas));
         }
-    }
 
-    private List<FacturaRecibidaDTO> obtenerFacturasRecibidas(LocalDate desde, LocalDate hasta) {
-        try {
-            List<FacturaRecibidaDTO> todas = facturacionService.obtenerFacturasRecibidas();
-            return todas.stream()
-                    .filter(fr -> {
-                        LocalDate fecha = FechaUtils.parseFecha(fr.getFechaFactura());
-                        return fecha != null && !fecha.isBefore(desde) && !fecha.isAfter(hasta);
-                    })
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Error obteniendo facturas recibidas", e);
-            return new ArrayList<>();
+        private <T> Integer repartir(T documento, Function<T, String> fecha, List<List<T>> porTrimestre) {
+            LocalDate dia = FechaUtils.parseFecha(fecha.apply(documento));
+            if (dia == null || dia.getYear() != year) {
+                return null;
+            }
+            int trimestre = (dia.getMonthValue() - 1) / 3 + 1;
+            porTrimestre.get(trimestre - 1).add(documento);
+            return trimestre;
+        }
+
+        private List<FacturaEmitidaDTO> emitidas(int desde, int hasta) {
+            return unir(emitidas, desde, hasta);
+        }
+
+        private List<GastoDTO> gastos(int desde, int hasta) {
+            return unir(gastos, desde, hasta);
+        }
+
+        private List<FacturaRecibidaDTO> recibidas(int desde, int hasta) {
+            return unir(recibidas, desde, hasta);
+        }
+
+        private int trimestreDe(FacturaEmitidaDTO factura) {
+            return trimestreEmitidas.get(factura);
+        }
+
+        private static <T> List<T> unir(List<List<T>> porTrimestre, int desde, int hasta) {
+            if (desde == hasta) {
+                return porTrimestre.get(desde - 1);
+            }
+            List<T> resultado = new ArrayList<>();
+            for (int t = desde; t <= hasta; t++) {
+                resultado.addAll(porTrimestre.get(t - 1));
+            }
+            return resultado;
+        }
+
+        private static <T> List<List<T>> trimestresVacios() {
+            List<List<T>> trimestres = new ArrayList<>(4);
+            for (int t = 0; t < 4; t++) {
+                trimestres.add(new ArrayList<>());
+            }
+            return trimestres;
         }
     }
 
@@ -0,0 +1,412 @@
+package com.lavaderosepulveda.crm.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.lavaderosepulveda.crm.api.client.ApiClient;
+import com.lavaderosepulveda.crm.api.client.ApiHttpException;
+import com.lavaderosepulveda.crm.api.client.EventosClient;
+import com.lavaderosepulveda.crm.config.ConfigManager;
+import com.lavaderosepulveda.crm.config.DatabaseConfig;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
+import com.lavaderosepulveda.crm.model.entity.EstadoReplica;
+import com.lavaderosepulveda.crm.model.entity.OperacionPendiente;
+import com.lavaderosepulveda.crm.repository.OperacionPendienteRepository;
+import com.lavaderosepulveda.crm.repository.RegistroReplicaRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Réplica local (H2 embebida) de citas, clientes y facturas.
+ *
+ * Un hilo en segundo plano descarga solo los cambios desde la última sincronización
+ * (/api/sync/{entidad}, en orden de updated_at) y los guarda en la base local, de modo
+ * que las pantallas leen al instante y siguen funcionando sin conexión. Las escrituras
+ * hechas sin conexión se encolan y se reenvían, en orden, cuando la API vuelve a responder.
+ */
+@Slf4j
+public class ReplicaLocalService {
+
+    public static final List<String> ENTIDADES = List.of(
+            EventoCambioDTO.CLIENTE, EventoCambioDTO.CITA, EventoCambioDTO.FACTURA);
+
+    private static final int LIMITE_PAGINA = 500;
+
+    private static ReplicaLocalService instance;
+
+    private final ApiClient apiClient;
+    private final ConfigManager config;
+    private final String syncUrl;
+
+    private RegistroReplicaRepository registroRepository;
+    private OperacionPendienteRepository operacionRepository;
+    private ScheduledExecutorService executor;
+
+    private volatile boolean disponible;
+    private volatile boolean conectado = true;
+    private final Set<String> entidadesCompletas = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean sincronizacionProgramada = new AtomicBoolean();
+
+    private ReplicaLocalService() {
+        this.apiClient = ApiClient.getInstance();
+        this.config = ConfigManager.getInstance();
+        this.syncUrl = config.getApiBaseUrl() + "/api/sync/";
+    }
+
+    public static synchronized ReplicaLocalService getInstance() {
+        if (instance == null) {
+            instance = new ReplicaLocalService();
+        }
+        return instance;
+    }
+
+    /**
+     * Abrir la base local y arrancar la sincronización periódica.
+     * Si la base local no se puede abrir, el CRM sigue funcionando solo contra la API.
+     */
+    public synchronized void iniciar() {
+        if (disponible || !config.isReplicaEnabled()) {
+            return;
+        }
+
+        try {
+            registroRepository = new RegistroReplicaRepository();
+            operacionRepository = new OperacionPendienteRepository();
+            for (String entidad : ENTIDADES) {
+                registroRepository.findEstado(entidad)
+                        .filter(estado -> Boolean.TRUE.equals(estado.getCompleta()))
+                        .ifPresent(estado -> entidadesCompletas.add(entidad));
+            }
+            // Citas replicadas antes de existir las columnas de fecha y estado
+            int rellenados = registroRepository.rellenarColumnasFiltro(EventoCambioDTO.CITA);
+            if (rellenados > 0) {
+                log.info("Réplica local: columnas de filtro rellenadas en {} citas", rellenados);
+            }
+            disponible = true;
+        } catch (Exception e) {
+            log.warn("Réplica local desactivada: no se pudo abrir la base de datos local ({})", e.getMessage());
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "replica-sync");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        executor.scheduleWithFixedDelay(this::sincronizarSeguro, 0, config.getReplicaIntervalo(), TimeUnit.SECONDS);
+
+        // Un cambio en el servidor adelanta la siguiente sincronización
+        EventosClient.getInstance().suscribir(evento -> programarSincronizacion());
+
+        log.info("Réplica local iniciada ({} entidades ya descargadas)", entidadesCompletas.size());
+    }
+
+    public synchronized void detener() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (disponible) {
+            disponible = false;
+            DatabaseConfig.getInstance().close();
+        }
+    }
+
+    /**
+     * Pedir una sincronización lo antes posible; las peticiones seguidas se agrupan en una
+     */
+    public void programarSincronizacion() {
+        ScheduledExecutorService actual = executor;
+        if (actual != null && sincronizacionProgramada.compareAndSet(false, true)) {
+            actual.execute(this::sincronizarSeguro);
+        }
+    }
+
+    // ========================================
+    // LECTURA
+    // ========================================
+
+    /**
+     * Indica si la entidad se ha descargado entera al menos una vez y puede leerse de la réplica
+     */
+    public boolean isSincronizada(String entidad) {
+        return disponible && entidadesCompletas.contains(entidad);
+    }
+
+    /**
+     * Indica si la última comunicación con la API ha funcionado
+     */
+    public boolean isConectado() {
+        return conectado;
+    }
+
+    /**
+     * Registros replicados de una entidad, en el mismo formato que los devuelve la API
+     */
+    public <T> List<T> leer(String entidad, Class<T> tipo) {
+        List<T> resultado = new ArrayList<>();
+        if (!disponible) {
+            return resultado;
+        }
+        for (String json : registroRepository.findJsonByEntidad(entidad)) {
+            resultado.add(apiClient.getGson().fromJson(json, tipo));
+        }
+        return resultado;
+    }
+
+    /**
+     * Registros replicados de una entidad con fecha entre "desde" y "hasta" (incluidos) y
+     * alguno de los estados; el filtro lo hace la base local y solo se convierten los que
+     * lo cumplen. Un filtro null no se aplica
+     */
+    public <T> List<T> leer(String entidad, Class<T> tipo, LocalDate desde, LocalDate hasta,
+                            Collection<String> estados) {
+        List<T> resultado = new ArrayList<>();
+        if (!disponible) {
+            return resultado;
+        }
+        for (String json : registroRepository.findJsonByEntidad(entidad, desde, hasta, estados)) {
+            resultado.add(apiClient.getGson().fromJson(json, tipo));
+        }
+        return resultado;
+    }
+
+    public <T> Optional<T> leerPorId(String entidad, Long id, Class<T> tipo) {
+        if (!disponible || id == null) {
+            return Optional.empty();
+        }
+        return registroRepository.findJson(entidad, id).map(json -> apiClient.getGson().fromJson(json, tipo));
+    }
+
+    // ========================================
+    // ESCRITURAS SIN CONEXIÓN
+    // ========================================
+
+    /**
+     * Indica si una escritura fallida puede encolarse para reenviarla más tarde
+     */
+    public boolean puedeEncolar(IOException e) {
+        return disponible && ApiClient.esSinConexion(e);
+    }
+
+    /**
+     * Encolar una escritura para reenviarla cuando vuelva la conexión
+     */
+    public void encolar(String entidad, String metodo, String url, Object cuerpo) {
+        String json = cuerpo != null ? apiClient.getGson().toJson(cuerpo) : null;
+        operacionRepository.save(new OperacionPendiente(entidad, metodo, url, json));
+        conectado = false;
+        log.info("Sin conexión: {} {} encolado para reenviar", metodo, url);
+    }
+
+    /**
+     * Encolar un alta hecha sin conexión. Devuelve su ID provisional: el de la operación
+     * en negativo, para guardarla en la réplica y poder editarla o borrarla antes de que
+     * el servidor le asigne el suyo (al reenviarla se corrigen las operaciones siguientes)
+     */
+    public Long encolarAlta(String entidad, String url, Object cuerpo) {
+        String json = cuerpo != null ? apiClient.getGson().toJson(cuerpo) : null;
+        OperacionPendiente operacion = operacionRepository.save(new OperacionPendiente(entidad, "POST", url, json));
+        conectado = false;
+        log.info("Sin conexión: alta de {} encolada para reenviar", entidad);
+        return -operacion.getId();
+    }
+
+    /**
+     * Un registro con ID provisional solo existe en la cola: sus cambios no se pueden
+     * mandar a la API hasta reenviar el alta, así que se tratan como sin conexión
+     */
+    public void comprobarIdServidor(Long id) throws IOException {
+        if (id != null && id < 0) {
+            throw new IOException("Registro creado sin conexión, pendiente de enviar");
+        }
+    }
+
+    /**
+     * Reflejar en la réplica un registro modificado sin conexión
+     */
+    public void guardarLocal(String entidad, Long id, Object registro) {
+        if (disponible && id != null) {
+            registroRepository.guardarLocal(entidad, id, apiClient.getGson().toJson(registro));
+        }
+    }
+
+    /**
+     * Cambiar un campo de un registro replicado sin conexión (p.ej. el estado de una cita)
+     */
+    public void actualizarCampoLocal(String entidad, Long id, String campo, String valor) {
+        if (!disponible || id == null) {
+            return;
+        }
+        registroRepository.findJson(entidad, id).ifPresent(json -> {
+            JsonObject objeto = JsonParser.parseString(json).getAsJsonObject();
+            objeto.addProperty(campo, valor);
+            registroRepository.guardarLocal(entidad, id, objeto.toString());
+        });
+    }
+
+    public void eliminarLocal(String entidad, Long id) {
+        if (disponible && id != null) {
+            registroRepository.eliminarLocal(entidad, id);
+        }
+    }
+
+    public long contarPendientes() {
+        return disponible ? operacionRepository.count() : 0;
+    }
+
+    // ========================================
+    // SINCRONIZACIÓN
+    // ========================================
+
+    private void sincronizarSeguro() {
+        sincronizacionProgramada.set(false);
+        try {
+            sincronizar();
+            conectado = true;
+        } catch (IOException e) {
+            conectado = false;
+            log.debug("Sincronización aplazada, API no disponible: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Error en la sincronización de la réplica local", e);
+        }
+    }
+
+    /**
+     * Primero se reenvían las escrituras pendientes (para que el servidor tenga la última
+     * palabra) y después se descargan los cambios de cada entidad
+     */
+    private void sincronizar() throws IOException {
+        reenviarPendientes();
+        for (String entidad : ENTIDADES) {
+            sincronizarEntidad(entidad);
+        }
+    }
+
+    private void reenviarPendientes() throws IOException {
+        List<OperacionPendiente> pendientes = operacionRepository.findPendientes();
+        for (int i = 0; i < pendientes.size(); i++) {
+            OperacionPendiente operacion = pendientes.get(i);
+            try {
+                String respuesta = apiClient.ejecutarRaw(operacion.getMetodo(), operacion.getUrl(), operacion.getCuerpo());
+                operacionRepository.delete(operacion);
+                log.info("Reenviada operación pendiente: {} {}", operacion.getMetodo(), operacion.getUrl());
+                if ("POST".equals(operacion.getMetodo())) {
+                    confirmarAlta(operacion, respuesta, pendientes.subList(i + 1, pendientes.size()));
+                }
+            } catch (ApiHttpException e) {
+                if (!e.esErrorCliente()) {
+                    registrarIntento(operacion, e);
+                    throw e;
+                }
+                // El servidor la rechaza (p.ej. el registro ya no existe): reintentar no sirve
+                log.warn("Operación pendiente descartada por el servidor: {} {} - {}",
+                        operacion.getMetodo(), operacion.getUrl(), e.getMessage());
+                operacionRepository.delete(operacion);
+                if ("POST".equals(operacion.getMetodo())) {
+                    eliminarLocal(operacion.getEntidad(), -operacion.getId());
+                }
+            } catch (IOException e) {
+                // Sigue sin conexión: se conserva el orden y se reintenta en la próxima vuelta
+                registrarIntento(operacion, e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * El alta ya tiene ID del servidor: el registro provisional se sustituye por el
+     * devuelto y las operaciones siguientes sobre el ID provisional pasan a usar el real
+     */
+    private void confirmarAlta(OperacionPendiente alta, String respuesta, List<OperacionPendiente> siguientes) {
+        Long provisional = -alta.getId();
+        eliminarLocal(alta.getEntidad(), provisional);
+
+        Long id = null;
+        try {
+            JsonElement registro = JsonParser.parseString(respuesta);
+            if (registro.isJsonObject() && registro.getAsJsonObject().has("id")) {
+                id = registro.getAsJsonObject().get("id").getAsLong();
+                registroRepository.guardarLocal(alta.getEntidad(), id, registro.toString());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Respuesta sin ID al reenviar el alta de {}: {}", alta.getEntidad(), e.getMessage());
+        }
+        if (id == null) {
+            return;
+        }
+
+        Pattern urlProvisional = Pattern.compile("/" + provisional + "(?=/|\\?|$)");
+        for (OperacionPendiente operacion : siguientes) {
+            Matcher coincidencia = urlProvisional.matcher(operacion.getUrl());
+            if (coincidencia.find()) {
+                operacion.setUrl(coincidencia.replaceAll("/" + id));
+                operacionRepository.save(operacion);
+            }
+        }
+    }
+
+    private void registrarIntento(OperacionPendiente operacion, IOException e) {
+        operacion.setIntentos(operacion.getIntentos() != null ? operacion.getIntentos() + 1 : 1);
+        String mensaje = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        operacion.setUltimoError(mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje);
+        operacionRepository.save(operacion);
+    }
+
+    private void sincronizarEntidad(String entidad) throws IOException {
+        String cursor = registroRepository.findEstado(entidad).map(EstadoReplica::getCursor).orElse(null);
+        boolean hayMas = true;
+        int total = 0;
+
+        while (hayMas) {
+            String url = syncUrl + entidad + "?limite=" + LIMITE_PAGINA
+                    + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+            JsonObject pagina = JsonParser.parseString(apiClient.getRaw(url)).getAsJsonObject();
+
+            Map<Long, String> upserts = new LinkedHashMap<>();
+            for (JsonElement registro : pagina.getAsJsonArray("upserts")) {
+                JsonObject objeto = registro.getAsJsonObject();
+                upserts.put(objeto.get("id").getAsLong(), objeto.toString());
+            }
+
+            List<Long> eliminados = new ArrayList<>();
+            JsonArray ids = pagina.getAsJsonArray("eliminados");
+            if (ids != null) {
+                ids.forEach(id -> eliminados.add(id.getAsLong()));
+            }
+
+            cursor = pagina.get("siguienteCursor").getAsString();
+            hayMas = pagina.get("hayMas").getAsBoolean();
+            boolean completa = entidadesCompletas.contains(entidad) || !hayMas;
+
+            registroRepository.aplicarCambios(entidad, upserts, eliminados, cursor, completa);
+            if (completa) {
+                entidadesCompletas.add(entidad);
+            }
+            total += upserts.size() + eliminados.size();
+        }
+
+        if (total > 0) {
+            log.info("Réplica local: {} cambios de {} sincronizados", total, entidad);
+        }
+    }
+}
@@ -1,30 +1,84 @@
 package com.lavaderosepulveda.crm.service;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.lavaderosepulveda.crm.api.client.ApiClient;
+import com.lavaderosepulveda.crm.config.ConfigManager;
 import com.lavaderosepulveda.crm.model.entity.Cita;
 import com.lavaderosepulveda.crm.model.entity.Factura;
+import com.lavaderosepulveda.crm.util.EjecutorTareas;
+import com.lavaderosepulveda.crm.util.LimitadorTasa;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Envío de facturas y avisos de citas por WhatsApp Business API.
+ *
+ * Los envíos se encolan y los hacen unos pocos hilos propios ("whatsapp.hilos_envio"),
+ * así que quien llama no se queda esperando la subida del PDF. Las peticiones usan el
+ * pool de conexiones de {@link ApiClient}, respetan el límite de mensajes por segundo del
+ * proveedor ("whatsapp.mensajes_por_segundo") y reintentan las respuestas 429. Cada PDF
+ * se sube una sola vez: el ID de media se guarda por el contenido del archivo.
+ */
 @Slf4j
 public class WhatsAppService {
     
     private static WhatsAppService instance;
+
+    // Meta borra los media subidos a los 30 días
+    private static final long VIGENCIA_MEDIA_MS = TimeUnit.DAYS.toMillis(29);
+
+    // Reintentos cuando el proveedor responde 429 (demasiadas peticiones)
+    private static final int MAX_REINTENTOS_LIMITE = 3;
     
     // Configuración de WhatsApp Business API (configurar según proveedor)
-    private String apiUrl = "https://graph.facebook.com/v18.0"; // Meta WhatsApp API
-    private String phoneNumberId = ""; // ID del número de teléfono de WhatsApp Business
-    private String accessToken = ""; // Token de acceso
+    private String apiUrl; // Meta WhatsApp API
+    private String phoneNumberId; // ID del número de teléfono de WhatsApp Business
+    private String accessToken; // Token de acceso
     
     private final OkHttpClient httpClient;
     private final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final ExecutorService cola;
+    private final LimitadorTasa limitador;
+    private final AtomicInteger pendientes = new AtomicInteger();
+
+    // Contenido del PDF (SHA-256) -> media ya subido
+    private final Map<String, MediaSubido> mediaPorContenido = new ConcurrentHashMap<>();
     
     private WhatsAppService() {
-        this.httpClient = new OkHttpClient();
+        ConfigManager config = ConfigManager.getInstance();
+        this.apiUrl = config.getProperty("whatsapp.api.url", "https://graph.facebook.com/v18.0");
+        this.phoneNumberId = config.getProperty("whatsapp.phone_number_id", "");
+        this.accessToken = config.getProperty("whatsapp.access_token", "");
+
+        this.httpClient = ApiClient.getInstance().crearClienteExterno();
+        this.limitador = new LimitadorTasa(config.getIntProperty("whatsapp.mensajes_por_segundo", 20));
+
+        int hilos = Math.max(1, config.getIntProperty("whatsapp.hilos_envio", 2));
+        AtomicInteger contador = new AtomicInteger();
+        this.cola = Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "crm-whatsapp-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
     }
     
     public static synchronized WhatsAppService getInstance() {
@@ -35,76 +89,159 @@ public class WhatsAppService {
     }
     
     public void configurarApi(String phoneNumberId, String accessToken) {
+        configurarApi(apiUrl, phoneNumberId, accessToken);
+    }
+
+    /**
+     * Configurar también la URL base (p.ej. el servidor simulado de pruebas)
+     */
+    public void configurarApi(String apiUrl, String phoneNumberId, String accessToken) {
+        this.apiUrl = apiUrl;
         this.phoneNumberId = phoneNumberId;
         this.accessToken = accessToken;
+
+        // Los media subidos pertenecen a la cuenta anterior
+        mediaPorContenido.clear();
     }
-    
-    public boolean enviarFactura(Factura factura, File pdfFile) {
+
+    /**
+     * Envíos encolados que aún no han terminado
+     */
+    public int getPendientes() {
+        return pendientes.get();
+    }
+
+    // ========================================
+    // ENVÍOS (ENCOLADOS)
+    // ========================================
+
+    /**
+     * Encolar el envío de una factura con su PDF; el resultado indica si se entregó al proveedor
+     */
+    public CompletableFuture<Boolean> enviarFacturaAsync(Factura factura, File pdfFile) {
+        String telefono;
+        String mensaje;
+        String numero;
         try {
-            String telefono = limpiarNumeroTelefono(factura.getCliente().getTelefono());
-            
+            if (factura.getCliente() == null) {
+                log.warn("Factura {} sin cliente, no se envía por WhatsApp", factura.getNumeroFactura());
+                return CompletableFuture.completedFuture(false);
+            }
+            telefono = limpiarNumeroTelefono(factura.getCliente().getTelefono());
+
             if (telefono == null || telefono.isEmpty()) {
                 log.warn("Cliente sin teléfono configurado: {}", factura.getCliente().getNombreCompleto());
-                return false;
+                return CompletableFuture.completedFuture(false);
             }
+
+            // El texto se prepara ya, con la factura tal como está ahora
+            mensaje = construirMensajeFactura(factura);
+            numero = factura.getNumeroFactura();
+        } catch (Exception e) {
+            log.error("Error al preparar la factura para WhatsApp", e);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return encolar("factura " + numero, () -> {
+            String huella = huella(pdfFile);
+            MediaSubido media = obtenerMedia(pdfFile, huella);
             
-            // Primero subir el documento PDF
-            String mediaId = subirDocumento(pdfFile);
-            
-            if (mediaId == null) {
+            if (media == null) {
                 log.error("No se pudo subir el documento PDF");
                 return false;
             }
             
-            // Enviar mensaje con el documento
-            String mensaje = construirMensajeFactura(factura);
-            boolean enviado = enviarDocumento(telefono, mediaId, mensaje, "Factura_" + factura.getNumeroFactura() + ".pdf");
+            boolean enviado = enviarDocumento(telefono, media.id().join(), mensaje, "Factura_" + numero + ".pdf");
             
             if (enviado) {
-                log.info("Factura {} enviada por WhatsApp a {}", factura.getNumeroFactura(), telefono);
+                log.info("Factura {} enviada por WhatsApp a {}", numero, telefono);
+            } else {
+                // Puede que el media ya no exista en el proveedor: se volverá a subir la próxima vez
+                // (solo si sigue siendo este: otro hilo puede haberlo sustituido ya)
+                mediaPorContenido.remove(huella, media);
             }
             
             return enviado;
-            
+        });
+    }
+
+    /**
+     * Enviar una factura esperando el resultado (no llamar desde el hilo de JavaFX)
+     */
+    public boolean enviarFactura(Factura factura, File pdfFile) {
+        return esperar(enviarFacturaAsync(factura, pdfFile));
+    }
+
+    public CompletableFuture<Boolean> enviarRecordatorioCitaAsync(Cita cita) {
+        String telefono;
+        String mensaje;
+        try {
+            telefono = cita.getCliente() != null ? limpiarNumeroTelefono(cita.getCliente().getTelefono()) : null;
+
+            if (telefono == null || telefono.isEmpty()) {
+                return CompletableFuture.completedFuture(false);
+            }
+
+            mensaje = construirMensajeRecordatorio(cita);
         } catch (Exception e) {
-            log.error("Error al enviar factura por WhatsApp", e);
-            return false;
+            log.error("Error al preparar recordatorio de cita para WhatsApp", e);
+            return CompletableFuture.completedFuture(false);
         }
+        return encolar("recordatorio de cita", () -> enviarMensajeTexto(telefono, mensaje));
     }
     
     public boolean enviarRecordatorioCita(Cita cita) {
+        return esperar(enviarRecordatorioCitaAsync(cita));
+    }
+
+    public CompletableFuture<Boolean> enviarConfirmacionCitaAsync(Cita cita) {
+        String telefono;
+        String mensaje;
         try {
-            String telefono = limpiarNumeroTelefono(cita.getCliente().getTelefono());
-            
+            telefono = cita.getCliente() != null ? limpiarNumeroTelefono(cita.getCliente().getTelefono()) : null;
+
             if (telefono == null || telefono.isEmpty()) {
-                return false;
+                return CompletableFuture.completedFuture(false);
             }
-            
-            String mensaje = construirMensajeRecordatorio(cita);
-            return enviarMensajeTexto(telefono, mensaje);
-            
+
+            mensaje = construirMensajeConfirmacion(cita);
         } catch (Exception e) {
-            log.error("Error al enviar recordatorio por WhatsApp", e);
-            return false;
+            log.error("Error al preparar confirmación de cita para WhatsApp", e);
+            return CompletableFuture.completedFuture(false);
         }
+        return encolar("confirmación de cita", () -> enviarMensajeTexto(telefono, mensaje));
     }
     
     public boolean enviarConfirmacionCita(Cita cita) {
-        try {
-            String telefono = limpiarNumeroTelefono(cita.getCliente().getTelefono());
-            
-            if (telefono == null || telefono.isEmpty()) {
+        return esperar(enviarConfirmacionCitaAsync(cita));
+    }
+
+    private CompletableFuture<Boolean> encolar(String descripcion, EjecutorTareas.Tarea<Boolean> envio) {
+        pendientes.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return envio.ejecutar();
+            } catch (Exception e) {
+                log.error("Error al enviar {} por WhatsApp", descripcion, e);
                 return false;
+            } finally {
+                pendientes.decrementAndGet();
             }
-            
-            String mensaje = construirMensajeConfirmacion(cita);
-            return enviarMensajeTexto(telefono, mensaje);
-            
+        }, cola);
+    }
+
+    private boolean esperar(CompletableFuture<Boolean> envio) {
+        try {
+            return envio.join();
         } catch (Exception e) {
-            log.error("Error al enviar confirmación por WhatsApp", e);
+            log.error("Error esperando el envío por WhatsApp", e);
             return false;
         }
     }
+
+    // ========================================
+    // LLAMADAS A LA API
+    // ========================================
     
     private boolean enviarMensajeTexto(String telefono, String mensaje) throws IOException {
         JsonObject json = new JsonObject();
@@ -124,7 +261,7 @@ public class WhatsAppService {
             .post(body)
             .build();
         
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = ejecutar(request)) {
             boolean success = response.isSuccessful();
             if (success) {
                 log.info("Mensaje enviado a {}", telefono);
@@ -135,6 +272,41 @@ public class WhatsAppService {
             return success;
         }
     }
+
+    /**
+     * Media del PDF: el ya subido si hay uno vigente con el mismo contenido, o null si no se
+     * pudo subir. Si otro hilo está subiendo ese mismo PDF, se espera a su resultado.
+     */
+    private MediaSubido obtenerMedia(File file, String huella) throws IOException {
+        while (true) {
+            long ahora = System.currentTimeMillis();
+            MediaSubido nuevo = new MediaSubido(new CompletableFuture<>(), ahora);
+            MediaSubido actual = mediaPorContenido.compute(huella, (clave, previo) ->
+                    previo != null && ahora - previo.subidoEn < VIGENCIA_MEDIA_MS ? previo : nuevo);
+
+            if (actual != nuevo) {
+                String mediaId = actual.id.join();
+                if (mediaId != null) {
+                    log.debug("PDF {} ya subido (media {})", file.getName(), mediaId);
+                    return actual;
+                }
+                // La subida anterior falló y ya se quitó de la caché: se intenta de nuevo
+                continue;
+            }
+
+            String mediaId = null;
+            try {
+                mediaId = subirDocumento(file);
+            } finally {
+                // Se quita antes de completar, para que quien esperaba no vuelva a encontrarla
+                if (mediaId == null) {
+                    mediaPorContenido.remove(huella, nuevo);
+                }
+                nuevo.id.complete(mediaId);
+            }
+            return mediaId != null ? nuevo : null;
+        }
+    }
     
     private String subirDocumento(File file) throws IOException {
         // Este método varía según el proveedor de WhatsApp API
@@ -153,13 +325,13 @@ public class WhatsAppService {
             .post(requestBody)
             .build();
         
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = ejecutar(request)) {
             if (response.isSuccessful() && response.body() != null) {
-                String responseBody = response.body().string();
-                // Parsear el ID del media de la respuesta JSON
-                // Esto depende de la estructura de la respuesta de la API
-                log.info("Documento subido exitosamente");
-                return responseBody; // Simplificado, debería extraer el media_id del JSON
+                // Respuesta de Meta: {"id": "<media_id>"}
+                String mediaId = JsonParser.parseString(response.body().string())
+                        .getAsJsonObject().get("id").getAsString();
+                log.info("Documento subido exitosamente (media {})", mediaId);
+                return mediaId;
             } else {
                 log.error("Error al subir documento: {}", response.message());
                 return null;
@@ -188,10 +360,65 @@ public class WhatsAppService {
             .post(body)
             .build();
         
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = ejecutar(request)) {
             return response.isSuccessful();
         }
     }
+
+    /**
+     * Ejecutar una petición respetando el límite de envíos; si el proveedor responde 429
+     * se espera lo que indique (Retry-After, o un segundo) y se repite
+     */
+    private Response ejecutar(Request request) throws IOException {
+        for (int intento = 0; ; intento++) {
+            try {
+                limitador.adquirir();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Envío por WhatsApp interrumpido");
+            }
+
+            Response response = httpClient.newCall(request).execute();
+            if (response.code() != 429 || intento >= MAX_REINTENTOS_LIMITE) {
+                return response;
+            }
+
+            long espera = segundosDeEspera(response.header("Retry-After"));
+            response.close();
+            log.warn("WhatsApp limita los envíos (429), reintentando en {} s", espera);
+            try {
+                TimeUnit.SECONDS.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Envío por WhatsApp interrumpido");
+            }
+        }
+    }
+
+    private static long segundosDeEspera(String retryAfter) {
+        try {
+            return retryAfter != null ? Math.max(1, Long.parseLong(retryAfter.trim())) : 1;
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * SHA-256 del contenido, para reconocer el mismo PDF aunque se haya regenerado
+     */
+    private static String huella(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int leidos;
+            while ((leidos = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, leidos);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
     
     private String limpiarNumeroTelefono(String telefono) {
         if (telefono == null) return null;
@@ -296,4 +523,10 @@ public class WhatsAppService {
             return false;
         }
     }
+
+    /**
+     * Subida de un PDF: el ID se completa al terminar (null si falló)
+     */
+    private record MediaSubido(CompletableFuture<String> id, long subidoEn) {
+    }
 }
@@ -0,0 +1,86 @@
+package com.lavaderosepulveda.crm.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecutor compartido para el trabajo en segundo plano del CRM (llamadas a la API,
+ * cálculos, exportaciones). Sustituye a los "new Thread(...)" sueltos de cada pantalla:
+ * el número de hilos está acotado y las tareas devuelven CompletableFuture, de modo
+ * que varias cargas independientes se pueden lanzar a la vez y esperar con allOf.
+ */
+@Slf4j
+public final class EjecutorTareas {
+
+    // Las tareas son casi siempre esperas de red, así que se permiten más hilos que núcleos
+    private static final int MAX_HILOS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final ThreadPoolExecutor EXECUTOR = crearExecutor();
+
+    private EjecutorTareas() {
+    }
+
+    /**
+     * Trabajo en segundo plano que puede lanzar excepciones comprobadas (IOException de la API)
+     */
+    @FunctionalInterface
+    public interface Tarea<T> {
+        T ejecutar() throws Exception;
+    }
+
+    /**
+     * Ejecutar una tarea en el pool. Cancelar el CompletableFuture devuelto
+     * interrumpe el hilo si la tarea todavía está en marcha.
+     */
+    public static <T> CompletableFuture<T> ejecutar(Tarea<T> tarea) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        Future<?> trabajo = EXECUTOR.submit(() -> {
+            if (resultado.isDone()) {
+                return;
+            }
+            try {
+                resultado.complete(tarea.ejecutar());
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        resultado.whenComplete((valor, error) -> {
+            if (resultado.isCancelled()) {
+                trabajo.cancel(true);
+            }
+        });
+        return resultado;
+    }
+
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Parar el pool al cerrar la aplicación
+     */
+    public static void detener() {
+        EXECUTOR.shutdownNow();
+    }
+
+    private static ThreadPoolExecutor crearExecutor() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_HILOS, MAX_HILOS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread hilo = new Thread(r, "crm-tarea-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    hilo.setUncaughtExceptionHandler((t, e) -> log.error("Error no controlado en {}", t.getName(), e));
+                    return hilo;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
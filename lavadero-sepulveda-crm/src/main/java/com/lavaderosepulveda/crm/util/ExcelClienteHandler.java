@@ -1,17 +1,33 @@
 package com.lavaderosepulveda.crm.util;
 
 import com.lavaderosepulveda.crm.model.dto.ClienteDTO;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * Utilidad para importar y exportar clientes desde/hacia Excel
@@ -43,12 +59,25 @@ public class ExcelClienteHandler {
     private static final int FILA_CABECERA = 3;        // Fila 4 en Excel
     private static final int FILA_DATOS_INICIO = 4;    // Fila 5 en Excel
 
+    // Filas que se revisan para detectar el formato y la cabecera
+    private static final int FILAS_DETECCION_FORMATO = 5;
+    private static final int FILAS_BUSQUEDA_CABECERA = 10;
+
+    // Columnas que se leen (hasta R: NOTAS PRIVADAS)
+    private static final int NUM_COLUMNAS = COL_NOTAS + 1;
+
     /**
      * Importar clientes desde un archivo Excel (formato contabilidad)
+     * Los .xlsx se leen en modo streaming; los .xls antiguos, con el modelo completo
      */
     public static List<ClienteDTO> importarDesdeExcel(File archivo) throws IOException {
         List<ClienteDTO> clientes = new ArrayList<>();
 
+        if (esXlsx(archivo)) {
+            importarDesdeExcel(archivo, clientes::add);
+            return clientes;
+        }
+
         try (FileInputStream fis = new FileInputStream(archivo);
              Workbook workbook = WorkbookFactory.create(fis)) {
 
@@ -77,27 +106,214 @@ public class ExcelClienteHandler {
         return clientes;
     }
 
+    /**
+     * Importar clientes de un .xlsx en modo streaming (API de eventos XSSF/SAX).
+     * Cada cliente se entrega al consumidor según se lee, sin cargar el libro en memoria,
+     * así que el consumo es constante aunque la hoja tenga cientos de miles de filas.
+     * Mantiene la detección de formato y el mapeo de columnas de la importación normal.
+     *
+     * @return número de clientes entregados al consumidor
+     */
+    public static int importarDesdeExcel(File archivo, Consumer<ClienteDTO> consumidor) throws IOException {
+        if (!esXlsx(archivo)) {
+            List<ClienteDTO> clientes = importarDesdeExcel(archivo);
+            clientes.forEach(consumidor);
+            return clientes.size();
+        }
+
+        try (OPCPackage pkg = OPCPackage.open(archivo, PackageAccess.READ)) {
+            ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable estilos = reader.getStylesTable();
+
+            LectorClientesStreaming lector = new LectorClientesStreaming(consumidor);
+            try (InputStream hoja = abrirHojaClientes(reader)) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(estilos, textos, lector, new DataFormatter(), false));
+                parser.parse(new InputSource(hoja));
+            }
+            lector.terminar();
+
+            log.info("Clientes importados (streaming): {}", lector.getImportados());
+            return lector.getImportados();
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("No se pudo leer el Excel: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean esXlsx(File archivo) {
+        return archivo.getName().toLowerCase().endsWith(".xlsx");
+    }
+
+    /**
+     * Hoja "Clientes" si existe; si no, la primera del libro
+     */
+    private static InputStream abrirHojaClientes(XSSFReader reader) throws IOException, OpenXML4JException {
+        XSSFReader.SheetIterator hojas = (XSSFReader.SheetIterator) reader.getSheetsData();
+        InputStream primera = null;
+        String nombrePrimera = null;
+
+        while (hojas.hasNext()) {
+            InputStream hoja = hojas.next();
+            if ("Clientes".equals(hojas.getSheetName())) {
+                if (primera != null) {
+                    primera.close();
+                }
+                log.info("Leyendo hoja: Clientes");
+                return hoja;
+            }
+            if (primera == null) {
+                primera = hoja;
+                nombrePrimera = hojas.getSheetName();
+            } else {
+                hoja.close();
+            }
+        }
+
+        if (primera == null) {
+            throw new IOException("El Excel no contiene hojas");
+        }
+        log.info("Hoja 'Clientes' no encontrada, usando primera hoja: {}", nombrePrimera);
+        return primera;
+    }
+
+    /**
+     * Recibe las celdas de la hoja fila a fila. Las primeras filas se guardan hasta
+     * poder decidir el formato (igual que detectarFormatoContabilidad/encontrarFilaCabecera);
+     * a partir de ahí cada fila se convierte y se entrega sin acumularla.
+     */
+    private static final class LectorClientesStreaming implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Consumer<ClienteDTO> consumidor;
+        private final List<String[]> filasIniciales = new ArrayList<>();
+        private final List<Integer> indicesIniciales = new ArrayList<>();
+        private final String[] fila = new String[NUM_COLUMNAS];
+
+        private Boolean formatoContabilidad;
+        private int filaCabecera;
+        private int siguienteColumna;
+        private int importados;
+
+        private LectorClientesStreaming(Consumer<ClienteDTO> consumidor) {
+            this.consumidor = consumidor;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(fila, null);
+            siguienteColumna = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int columna = cellReference != null ? new CellReference(cellReference).getCol() : siguienteColumna;
+            siguienteColumna = columna + 1;
+            if (columna < NUM_COLUMNAS) {
+                fila[columna] = normalizar(formattedValue);
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (formatoContabilidad != null) {
+                procesar(rowNum, fila);
+                return;
+            }
+
+            filasIniciales.add(fila.clone());
+            indicesIniciales.add(rowNum);
+            if (rowNum >= FILAS_BUSQUEDA_CABECERA) {
+                decidirFormato();
+            }
+        }
+
+        private void terminar() {
+            if (formatoContabilidad == null) {
+                decidirFormato();
+            }
+        }
+
+        private void decidirFormato() {
+            formatoContabilidad = false;
+            filaCabecera = FILA_CABECERA;
+            boolean cabeceraEncontrada = false;
+
+            for (int i = 0; i < filasIniciales.size(); i++) {
+                int indice = indicesIniciales.get(i);
+                String[] valores = filasIniciales.get(i);
+                if (indice <= FILAS_DETECCION_FORMATO && esCabeceraContabilidad(valores[0], valores[1])) {
+                    formatoContabilidad = true;
+                }
+                if (!cabeceraEncontrada && indice <= FILAS_BUSQUEDA_CABECERA && esCabecera(valores[0])) {
+                    filaCabecera = indice;
+                    cabeceraEncontrada = true;
+                }
+            }
+            log.info("Formato detectado: {}", formatoContabilidad ? "Contabilidad" : "Simple");
+
+            for (int i = 0; i < filasIniciales.size(); i++) {
+                procesar(indicesIniciales.get(i), filasIniciales.get(i));
+            }
+            filasIniciales.clear();
+            indicesIniciales.clear();
+        }
+
+        private void procesar(int rowNum, String[] valores) {
+            try {
+                ClienteDTO cliente;
+                if (formatoContabilidad) {
+                    if (rowNum <= filaCabecera) {
+                        return;
+                    }
+                    cliente = parsearFilaContabilidad(columna -> valores[columna]);
+                } else {
+                    if (rowNum < 1) {
+                        return;
+                    }
+                    cliente = parsearFilaSimple(columna -> valores[columna]);
+                }
+                if (cliente != null) {
+                    consumidor.accept(cliente);
+                    importados++;
+                }
+            } catch (Exception e) {
+                log.error("Error al parsear fila {}: {}", rowNum + 1, e.getMessage());
+            }
+        }
+
+        private int getImportados() {
+            return importados;
+        }
+    }
+
+    private static String normalizar(String valor) {
+        return valor != null && !valor.trim().isEmpty() ? valor.trim() : null;
+    }
+
     /**
      * Detectar si el Excel es formato de contabilidad
      */
     private static boolean detectarFormatoContabilidad(Sheet sheet) {
         // Buscar la fila de cabecera que contenga "NIF" y "NOMBRE O RAZÓN SOCIAL"
-        for (int i = 0; i <= 5; i++) {
+        for (int i = 0; i <= FILAS_DETECCION_FORMATO; i++) {
             Row row = sheet.getRow(i);
-            if (row != null) {
-                String primeraCelda = getCellValueAsString(row, 0);
-                String segundaCelda = getCellValueAsString(row, 1);
-                if (primeraCelda != null && segundaCelda != null) {
-                    if (primeraCelda.toUpperCase().contains("NIF") && 
-                        segundaCelda.toUpperCase().contains("NOMBRE")) {
-                        return true;
-                    }
-                }
+            if (row != null && esCabeceraContabilidad(getCellValueAsString(row, 0), getCellValueAsString(row, 1))) {
+                return true;
             }
         }
         return false;
     }
 
+    private static boolean esCabeceraContabilidad(String primeraCelda, String segundaCelda) {
+        return primeraCelda != null && segundaCelda != null
+                && primeraCelda.toUpperCase().contains("NIF")
+                && segundaCelda.toUpperCase().contains("NOMBRE");
+    }
+
+    private static boolean esCabecera(String primeraCelda) {
+        return primeraCelda != null && primeraCelda.toUpperCase().contains("NIF");
+    }
+
     /**
      * Importar desde formato de contabilidad
      */
@@ -114,7 +330,7 @@ public class ExcelClienteHandler {
             if (row == null) continue;
 
             try {
-                ClienteDTO cliente = parsearFilaContabilidad(row);
+                ClienteDTO cliente = parsearFilaContabilidad(columna -> getCellValueAsString(row, columna));
                 if (cliente != null) {
                     clientes.add(cliente);
                     log.debug("Cliente importado: {} - {}", cliente.getNif(), cliente.getNombre());
@@ -131,13 +347,10 @@ public class ExcelClienteHandler {
      * Encontrar la fila que contiene la cabecera
      */
     private static int encontrarFilaCabecera(Sheet sheet) {
-        for (int i = 0; i <= 10; i++) {
+        for (int i = 0; i <= FILAS_BUSQUEDA_CABECERA; i++) {
             Row row = sheet.getRow(i);
-            if (row != null) {
-                String celda = getCellValueAsString(row, 0);
-                if (celda != null && celda.toUpperCase().contains("NIF")) {
-                    return i;
-                }
+            if (row != null && esCabecera(getCellValueAsString(row, 0))) {
+                return i;
             }
         }
         return FILA_CABECERA; // Por defecto fila 4
@@ -146,9 +359,9 @@ public class ExcelClienteHandler {
     /**
      * Parsear una fila del formato de contabilidad
      */
-    private static ClienteDTO parsearFilaContabilidad(Row row) {
-        String nif = getCellValueAsString(row, COL_NIF);
-        String nombre = getCellValueAsString(row, COL_NOMBRE);
+    private static ClienteDTO parsearFilaContabilidad(IntFunction<String> celda) {
+        String nif = celda.apply(COL_NIF);
+        String nombre = celda.apply(COL_NOMBRE);
 
         // Ignorar filas vacías o cabeceras duplicadas
         if (nombre == null || nombre.trim().isEmpty()) {
@@ -168,22 +381,22 @@ public class ExcelClienteHandler {
         cliente.setApellidos(null); // Las empresas no tienen apellidos
         
         // Contacto
-        String telefono = getCellValueAsString(row, COL_TELEFONO);
-        String movil = getCellValueAsString(row, COL_MOVIL);
+        String telefono = celda.apply(COL_TELEFONO);
+        String movil = celda.apply(COL_MOVIL);
         // Usar el que tenga valor, priorizando móvil
         cliente.setTelefono(movil != null && !movil.isEmpty() ? movil.trim() : 
                           (telefono != null ? telefono.trim() : null));
         
-        cliente.setEmail(getCellValueAsString(row, COL_EMAIL));
+        cliente.setEmail(celda.apply(COL_EMAIL));
         
         // Dirección completa
-        cliente.setDireccion(getCellValueAsString(row, COL_DIRECCION));
-        cliente.setCodigoPostal(getCellValueAsString(row, COL_CODIGO_POSTAL));
-        cliente.setCiudad(getCellValueAsString(row, COL_POBLACION));
-        cliente.setProvincia(getCellValueAsString(row, COL_PROVINCIA));
+        cliente.setDireccion(celda.apply(COL_DIRECCION));
+        cliente.setCodigoPostal(celda.apply(COL_CODIGO_POSTAL));
+        cliente.setCiudad(celda.apply(COL_POBLACION));
+        cliente.setProvincia(celda.apply(COL_PROVINCIA));
         
         // Notas
-        cliente.setNotas(getCellValueAsString(row, COL_NOTAS));
+        cliente.setNotas(celda.apply(COL_NOTAS));
         
         // Valores por defecto
         cliente.setActivo(true);
@@ -205,7 +418,7 @@ public class ExcelClienteHandler {
             if (row == null) continue;
 
             try {
-                ClienteDTO cliente = parsearFilaSimple(row);
+                ClienteDTO cliente = parsearFilaSimple(columna -> getCellValueAsString(row, columna));
                 if (cliente != null) {
                     clientes.add(cliente);
                 }
@@ -220,9 +433,9 @@ public class ExcelClienteHandler {
     /**
      * Parsear fila del formato simple
      */
-    private static ClienteDTO parsearFilaSimple(Row row) {
-        String nombre = getCellValueAsString(row, 0);
-        String telefono = getCellValueAsString(row, 2);
+    private static ClienteDTO parsearFilaSimple(IntFunction<String> celda) {
+        String nombre = celda.apply(0);
+        String telefono = celda.apply(2);
 
         if (nombre == null || nombre.trim().isEmpty()) {
             return null;
@@ -230,10 +443,10 @@ public class ExcelClienteHandler {
 
         ClienteDTO cliente = new ClienteDTO();
         cliente.setNombre(nombre.trim());
-        cliente.setApellidos(getCellValueAsString(row, 1));
+        cliente.setApellidos(celda.apply(1));
         cliente.setTelefono(telefono);
-        cliente.setEmail(getCellValueAsString(row, 3));
-        cliente.setVehiculoHabitual(getCellValueAsString(row, 4));
+        cliente.setEmail(celda.apply(3));
+        cliente.setVehiculoHabitual(celda.apply(4));
         cliente.setActivo(true);
         cliente.setTotalCitas(0);
         cliente.setTotalFacturado(0.0);
@@ -245,8 +458,9 @@ public class ExcelClienteHandler {
      * Exportar clientes a un archivo Excel
      */
     public static void exportarAExcel(List<ClienteDTO> clientes, File archivo) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Clientes");
+        try (ExcelStreamingWriter writer = new ExcelStreamingWriter()) {
+            Workbook workbook = writer.getWorkbook();
+            ExcelStreamingWriter.Hoja hoja = writer.crearHoja("Clientes");
 
             // Crear estilos
             CellStyle headerStyle = crearEstiloHeader(workbook);
@@ -254,7 +468,7 @@ public class ExcelClienteHandler {
             CellStyle moneyStyle = crearEstiloMoney(workbook);
 
             // Crear cabecera
-            Row headerRow = sheet.createRow(0);
+            Row headerRow = hoja.crearFila();
             String[] headers = {
                 "NIF", "Nombre", "Apellidos", "Teléfono", "Email", 
                 "Dirección", "Cód. Postal", "Población", "Provincia",
@@ -268,9 +482,8 @@ public class ExcelClienteHandler {
             }
 
             // Agregar datos
-            int rowNum = 1;
             for (ClienteDTO cliente : clientes) {
-                Row row = sheet.createRow(rowNum++);
+                Row row = hoja.crearFila();
                 int col = 0;
                 
                 createCell(row, col++, cliente.getNif(), dataStyle);
@@ -288,15 +501,8 @@ public class ExcelClienteHandler {
                 createCell(row, col++, cliente.getActivo() != null && cliente.getActivo() ? "Sí" : "No", dataStyle);
             }
 
-            // Ajustar anchos de columna
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            // Guardar archivo
-            try (FileOutputStream fos = new FileOutputStream(archivo)) {
-                workbook.write(fos);
-            }
+            // Guardar archivo (los anchos de columna se calculan con las primeras filas)
+            writer.guardar(archivo);
 
             log.info("Clientes exportados a: {}", archivo.getAbsolutePath());
         }
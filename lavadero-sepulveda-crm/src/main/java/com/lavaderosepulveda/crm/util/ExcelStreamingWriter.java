@@ -0,0 +1,168 @@
+package com.lavaderosepulveda.crm.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Escritura de Excel (.xlsx) en streaming para las exportaciones del CRM.
+ *
+ * Usa SXSSFWorkbook con una ventana fija de filas: las filas antiguas se vuelcan a un
+ * temporal en disco, así que la memoria no depende del número de filas exportadas.
+ * Como las filas volcadas ya no se pueden leer, el ancho de las columnas se calcula
+ * con una muestra de las primeras filas en lugar de con autoSizeColumn.
+ */
+public class ExcelStreamingWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ExcelStreamingWriter.class);
+
+    // Filas que se mantienen en memoria antes de volcarlas a disco
+    private static final int VENTANA_FILAS = 200;
+
+    // Filas por hoja que se usan para estimar el ancho de las columnas
+    private static final int FILAS_MUESTRA = 500;
+
+    // Ancho en caracteres (margen incluido) entre el que se ajustan las columnas
+    private static final int ANCHO_MINIMO = 8;
+    private static final int ANCHO_MAXIMO = 60;
+
+    private final SXSSFWorkbook workbook;
+    private final DataFormatter formatter = new DataFormatter();
+    private final List<Hoja> hojas = new ArrayList<>();
+
+    public ExcelStreamingWriter() {
+        this.workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        this.workbook.setCompressTempFiles(true);
+    }
+
+    /**
+     * Libro para crear estilos y formatos (los estilos se comparten entre hojas)
+     */
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+
+    public Hoja crearHoja(String nombre) {
+        Hoja hoja = new Hoja(workbook.createSheet(nombre));
+        hojas.add(hoja);
+        return hoja;
+    }
+
+    /**
+     * Aplicar los anchos calculados y escribir el libro en el archivo
+     */
+    public void guardar(File archivo) throws IOException {
+        for (Hoja hoja : hojas) {
+            hoja.aplicarAnchos();
+        }
+        try (FileOutputStream fos = new FileOutputStream(archivo)) {
+            workbook.write(fos);
+        }
+        log.debug("Excel escrito en streaming: {} ({} hojas)", archivo.getName(), hojas.size());
+    }
+
+    /**
+     * Liberar los temporales de disco del libro
+     */
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    /**
+     * Hoja en la que las filas se crean en orden. Las filas de la muestra se miden
+     * cuando se pide la siguiente (la anterior sigue en la ventana y ya está rellena).
+     */
+    public final class Hoja {
+
+        private final SXSSFSheet sheet;
+        private int[] anchos = new int[0];
+        private int siguienteFila;
+        private int filasMedidas;
+        private Row pendienteDeMedir;
+
+        private Hoja(SXSSFSheet sheet) {
+            this.sheet = sheet;
+        }
+
+        public SXSSFSheet getSheet() {
+            return sheet;
+        }
+
+        /**
+         * Crear la siguiente fila; su contenido cuenta para el ancho de las columnas
+         */
+        public Row crearFila() {
+            medirPendiente();
+            Row row = sheet.createRow(siguienteFila++);
+            if (filasMedidas < FILAS_MUESTRA) {
+                pendienteDeMedir = row;
+            }
+            return row;
+        }
+
+        /**
+         * Crear la siguiente fila sin tenerla en cuenta para los anchos
+         * (títulos combinados en varias columnas, igual que hace autoSizeColumn)
+         */
+        public Row crearFilaSinMedir() {
+            medirPendiente();
+            return sheet.createRow(siguienteFila++);
+        }
+
+        /**
+         * Dejar filas en blanco
+         */
+        public void saltarFilas(int filas) {
+            medirPendiente();
+            siguienteFila += filas;
+        }
+
+        public int getFilaActual() {
+            return siguienteFila;
+        }
+
+        private void medirPendiente() {
+            if (pendienteDeMedir == null) {
+                return;
+            }
+            Row row = pendienteDeMedir;
+            pendienteDeMedir = null;
+            filasMedidas++;
+
+            asegurarColumnas(row.getLastCellNum());
+            for (Cell cell : row) {
+                int columna = cell.getColumnIndex();
+                anchos[columna] = Math.max(anchos[columna], formatter.formatCellValue(cell).length());
+            }
+        }
+
+        private void asegurarColumnas(int columnas) {
+            if (columnas > anchos.length) {
+                anchos = Arrays.copyOf(anchos, columnas);
+            }
+        }
+
+        private void aplicarAnchos() {
+            medirPendiente();
+            for (int columna = 0; columna < anchos.length; columna++) {
+                int caracteres = Math.min(ANCHO_MAXIMO, Math.max(ANCHO_MINIMO, anchos[columna] + 2));
+                sheet.setColumnWidth(columna, caracteres * 256);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.lavaderosepulveda.crm.util;
+
+import javafx.animation.PauseTransition;
+import javafx.beans.binding.Bindings;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextInputControl;
+import javafx.util.Duration;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Filtrado y ordenación de una TableView sin reconstruir su lista.
+ *
+ * La tabla muestra un SortedList sobre un FilteredList de los datos cargados: filtrar
+ * solo cambia el predicado (la tabla ya virtualiza las filas visibles) y los cambios
+ * sueltos se aplican sobre la lista de origen. La búsqueda de texto usa un
+ * {@link IndiceBusqueda} y se aplica cuando el usuario deja de escribir.
+ */
+@Slf4j
+public class FiltroTabla<T> {
+
+    private static final Duration ESPERA_ESCRITURA = Duration.millis(200);
+
+    private final ObservableList<T> origen = FXCollections.observableArrayList();
+    private final FilteredList<T> filtrados = new FilteredList<>(origen);
+    private final SortedList<T> ordenados = new SortedList<>(filtrados);
+    private final IndiceBusqueda<T> indice;
+    private final PauseTransition espera = new PauseTransition(ESPERA_ESCRITURA);
+
+    private String textoBusqueda = "";
+    private Predicate<T> filtroAdicional = elemento -> true;
+    private Runnable alFiltrar = () -> { };
+
+    /**
+     * @param tabla      tabla que mostrará los datos
+     * @param campos     textos buscables de cada elemento
+     * @param ordenBase  orden cuando el usuario no ha ordenado por ninguna columna (puede ser null)
+     */
+    public FiltroTabla(TableView<T> tabla, Function<T, List<String>> campos, Comparator<T> ordenBase) {
+        this.indice = new IndiceBusqueda<>(campos);
+
+        ordenados.comparatorProperty().bind(Bindings.createObjectBinding(
+                () -> tabla.getComparator() != null ? tabla.getComparator() : ordenBase,
+                tabla.comparatorProperty()));
+        tabla.setItems(ordenados);
+
+        espera.setOnFinished(e -> aplicar());
+    }
+
+    /**
+     * Filtrar mientras se escribe en el campo, esperando a que se deje de teclear
+     */
+    public FiltroTabla<T> enlazarBusqueda(TextInputControl campo) {
+        campo.textProperty().addListener((obs, anterior, texto) -> {
+            textoBusqueda = texto != null ? texto : "";
+            espera.playFromStart();
+        });
+        return this;
+    }
+
+    /**
+     * Acción tras cada filtrado (p.ej. actualizar contadores)
+     */
+    public FiltroTabla<T> alFiltrar(Runnable accion) {
+        this.alFiltrar = accion;
+        return this;
+    }
+
+    /**
+     * Sustituir todos los datos (carga inicial o recarga completa)
+     */
+    public void establecer(List<T> elementos) {
+        indice.establecer(elementos);
+        origen.setAll(elementos);
+        aplicar();
+    }
+
+    /**
+     * Añadir o sustituir un elemento (cambio notificado por el servidor)
+     */
+    public void reemplazar(Predicate<T> esElMismo, T nuevo) {
+        eliminar(esElMismo);
+        if (nuevo != null) {
+            indice.agregar(nuevo);
+            origen.add(nuevo);
+            aplicar();
+        }
+    }
+
+    public void eliminar(Predicate<T> esElMismo) {
+        origen.stream().filter(esElMismo).toList().forEach(indice::eliminar);
+        origen.removeIf(esElMismo);
+    }
+
+    /**
+     * Buscar ya, sin esperar (botón Buscar o Intro)
+     */
+    public void buscar(String texto) {
+        espera.stop();
+        textoBusqueda = texto != null ? texto : "";
+        aplicar();
+    }
+
+    /**
+     * Filtro que se combina con la búsqueda de texto (fecha, estado...)
+     */
+    public void setFiltroAdicional(Predicate<T> filtro) {
+        this.filtroAdicional = filtro != null ? filtro : elemento -> true;
+        aplicar();
+    }
+
+    public List<T> getTodos() {
+        return origen;
+    }
+
+    public List<T> getVisibles() {
+        return filtrados;
+    }
+
+    private void aplicar() {
+        long inicio = System.nanoTime();
+        IndiceBusqueda<T>.Coincidencias coincidencias = indice.buscar(textoBusqueda);
+        Predicate<T> adicional = filtroAdicional;
+
+        filtrados.setPredicate(coincidencias == null
+                ? adicional
+                : elemento -> coincidencias.contiene(elemento) && adicional.test(elemento));
+
+        log.debug("Filtro aplicado: {} de {} filas en {} ms", filtrados.size(), origen.size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+        alFiltrar.run();
+    }
+}
@@ -0,0 +1,186 @@
+package com.lavaderosepulveda.crm.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de trigramas para buscar texto dentro de listas grandes (clientes, citas).
+ *
+ * Los campos buscables de cada elemento se normalizan una sola vez (minúsculas, sin
+ * tildes, teléfonos y matrículas también sin espacios ni guiones). Una búsqueda cruza
+ * los trigramas del texto para obtener los candidatos y solo comprueba esos, en lugar
+ * de recorrer y normalizar todos los elementos en cada pulsación.
+ */
+public class IndiceBusqueda<T> {
+
+    private static final int N = 3;
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[\\s\\-./]+");
+
+    private final Function<T, List<String>> campos;
+
+    // Posición de cada elemento; las posiciones de los eliminados quedan libres (texto null)
+    private final Map<T, Integer> posiciones = new IdentityHashMap<>();
+    private final List<String> textos = new ArrayList<>();
+    private final Map<String, BitSet> trigramas = new HashMap<>();
+
+    /**
+     * @param campos textos buscables de cada elemento (los null se ignoran)
+     */
+    public IndiceBusqueda(Function<T, List<String>> campos) {
+        this.campos = campos;
+    }
+
+    /**
+     * Reconstruir el índice con una lista nueva
+     */
+    public void establecer(List<T> elementos) {
+        posiciones.clear();
+        textos.clear();
+        trigramas.clear();
+        for (T elemento : elementos) {
+            agregar(elemento);
+        }
+    }
+
+    public void agregar(T elemento) {
+        if (posiciones.containsKey(elemento)) {
+            return;
+        }
+        int posicion = textos.size();
+        String texto = textoIndexado(elemento);
+        posiciones.put(elemento, posicion);
+        textos.add(texto);
+
+        for (int i = 0; i + N <= texto.length(); i++) {
+            trigramas.computeIfAbsent(texto.substring(i, i + N), k -> new BitSet()).set(posicion);
+        }
+    }
+
+    public void eliminar(T elemento) {
+        Integer posicion = posiciones.remove(elemento);
+        if (posicion != null) {
+            // Los bits del trigrama se dejan: la comprobación final descarta la posición vacía
+            textos.set(posicion, null);
+        }
+    }
+
+    /**
+     * Elementos que contienen el texto buscado; null si la búsqueda está vacía (todos valen).
+     * La consulta se busca tal cual y también compactada como los campos, para que
+     * "600 123 456" encuentre "600123456"
+     */
+    public Coincidencias buscar(String busqueda) {
+        String consulta = normalizar(busqueda);
+        if (consulta.isEmpty()) {
+            return null;
+        }
+
+        BitSet resultado = posicionesCon(consulta);
+        String compacta = compactar(consulta);
+        if (!compacta.isEmpty() && !compacta.equals(consulta)) {
+            resultado.or(posicionesCon(compacta));
+        }
+        return new Coincidencias(resultado);
+    }
+
+    private BitSet posicionesCon(String consulta) {
+        BitSet resultado;
+        if (consulta.length() < N) {
+            // Demasiado corto para trigramas: se recorren los textos ya normalizados
+            resultado = new BitSet(textos.size());
+            for (int i = 0; i < textos.size(); i++) {
+                String texto = textos.get(i);
+                if (texto != null && texto.contains(consulta)) {
+                    resultado.set(i);
+                }
+            }
+            return resultado;
+        }
+
+        resultado = null;
+        for (int i = 0; i + N <= consulta.length(); i++) {
+            BitSet conTrigrama = trigramas.get(consulta.substring(i, i + N));
+            if (conTrigrama == null) {
+                return new BitSet();
+            }
+            if (resultado == null) {
+                resultado = (BitSet) conTrigrama.clone();
+            } else {
+                resultado.and(conTrigrama);
+            }
+        }
+
+        // Tener todos los trigramas no garantiza que estén seguidos: se confirma cada candidato
+        for (int i = resultado.nextSetBit(0); i >= 0; i = resultado.nextSetBit(i + 1)) {
+            String texto = textos.get(i);
+            if (texto == null || !texto.contains(consulta)) {
+                resultado.clear(i);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Resultado de una búsqueda, consultable por elemento en tiempo constante
+     */
+    public final class Coincidencias {
+        private final BitSet posicionesEncontradas;
+
+        private Coincidencias(BitSet posicionesEncontradas) {
+            this.posicionesEncontradas = posicionesEncontradas;
+        }
+
+        public boolean contiene(T elemento) {
+            Integer posicion = posiciones.get(elemento);
+            return posicion != null && posicionesEncontradas.get(posicion);
+        }
+
+        public int total() {
+            return posicionesEncontradas.cardinality();
+        }
+    }
+
+    private String textoIndexado(T elemento) {
+        StringBuilder texto = new StringBuilder();
+        for (String campo : campos.apply(elemento)) {
+            if (campo == null || campo.isBlank()) {
+                continue;
+            }
+            String normalizado = normalizar(campo);
+            String compacto = compactar(normalizado);
+            // Separador que nunca aparece en la consulta, para no casar entre campos
+            texto.append('\u0001').append(normalizado);
+            if (!compacto.equals(normalizado)) {
+                texto.append('\u0001').append(compacto);
+            }
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Sin espacios, guiones, puntos ni barras (teléfonos, matrículas, NIF)
+     */
+    private static String compactar(String normalizado) {
+        return SEPARADORES.matcher(normalizado).replaceAll("");
+    }
+
+    /**
+     * Minúsculas y sin tildes, para que "jose" encuentre "José"
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto.trim(), Normalizer.Form.NFD))
+                .replaceAll("");
+        return sinTildes.toLowerCase();
+    }
+}
@@ -0,0 +1,53 @@
+package com.lavaderosepulveda.crm.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de peticiones por segundo (cubeta de fichas) para APIs externas con cuota.
+ *
+ * La cubeta se rellena a ritmo constante hasta un máximo (la ráfaga permitida). Cada
+ * petición toma una ficha; si no quedan, reserva la siguiente y espera a que llegue, de
+ * modo que varios hilos esperando salen en orden y sin superar el ritmo.
+ */
+public class LimitadorTasa {
+
+    private final double capacidad;
+    private final double fichasPorNano;
+
+    private double disponibles;
+    private long ultimaRecarga;
+
+    public LimitadorTasa(int porSegundo) {
+        this(porSegundo, porSegundo);
+    }
+
+    /**
+     * @param porSegundo ritmo sostenido
+     * @param rafaga     peticiones seguidas permitidas tras un rato sin uso
+     */
+    public LimitadorTasa(int porSegundo, int rafaga) {
+        this.capacidad = Math.max(1, rafaga);
+        this.fichasPorNano = Math.max(1, porSegundo) / (double) TimeUnit.SECONDS.toNanos(1);
+        this.disponibles = capacidad;
+        this.ultimaRecarga = System.nanoTime();
+    }
+
+    /**
+     * Tomar una ficha, esperando lo necesario
+     */
+    public void adquirir() throws InterruptedException {
+        long espera;
+        synchronized (this) {
+            long ahora = System.nanoTime();
+            disponibles = Math.min(capacidad, disponibles + (ahora - ultimaRecarga) * fichasPorNano);
+            ultimaRecarga = ahora;
+
+            disponibles -= 1;
+            if (disponibles >= 0) {
+                return;
+            }
+            espera = (long) Math.ceil(-disponibles / fichasPorNano);
+        }
+        TimeUnit.NANOSECONDS.sleep(espera);
+    }
+}
@@ -0,0 +1,208 @@
+package com.lavaderosepulveda.crm.util;
+
+import com.lavaderosepulveda.crm.api.client.EventosClient;
+import com.lavaderosepulveda.crm.model.dto.EventoCambioDTO;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.scene.Node;
+import javafx.stage.WindowEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Tareas en segundo plano de una pantalla del CRM.
+ *
+ * Lanza el trabajo en {@link EjecutorTareas}, entrega el resultado (o el error) en el hilo
+ * de JavaFX y expone una propiedad "cargando" para enlazar indicadores de carga. Cuando la
+ * vista sale de la escena (el usuario cambia de pantalla) o se cierra su ventana se cancelan
+ * las tareas pendientes y sus resultados se descartan, así que no se pintan datos en una
+ * pantalla que ya no se ve. Las suscripciones a {@link EventosClient} hechas con
+ * {@link #suscribir} se cancelan a la vez: el cliente de eventos es único y, si no, seguiría
+ * guardando cada controlador que se ha cargado.
+ */
+@Slf4j
+public class TareasVista {
+
+    private final Set<CompletableFuture<?>> pendientes = ConcurrentHashMap.newKeySet();
+    private final ReadOnlyBooleanWrapper cargando = new ReadOnlyBooleanWrapper(false);
+    private int enCurso;
+
+    private final List<Consumer<EventoCambioDTO>> oyentes = new ArrayList<>();
+    private boolean escuchando = true;
+
+    public TareasVista() {
+    }
+
+    /**
+     * Cancelar automáticamente las tareas cuando el nodo deja de estar en una escena
+     */
+    public TareasVista(Node vista) {
+        vista.sceneProperty().addListener((obs, anterior, actual) -> {
+            if (anterior != null && actual == null) {
+                detener();
+            } else if (anterior == null && actual != null) {
+                reanudarSuscripciones();
+            }
+        });
+        // Vistas en su propia ventana (p.ej. el calendario): al cerrarla siguen en su escena
+        vista.sceneProperty().flatMap(escena -> escena.windowProperty()).addListener((obs, anterior, ventana) -> {
+            if (ventana != null) {
+                ventana.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> detener());
+            }
+        });
+    }
+
+    public ReadOnlyBooleanProperty cargandoProperty() {
+        return cargando.getReadOnlyProperty();
+    }
+
+    public boolean isCargando() {
+        return cargando.get();
+    }
+
+    /**
+     * Ejecutar en segundo plano y entregar el resultado en el hilo de JavaFX
+     */
+    public <T> CompletableFuture<T> ejecutar(EjecutorTareas.Tarea<T> tarea, Consumer<T> alTerminar,
+                                             Consumer<Throwable> alFallar) {
+        return registrar(EjecutorTareas.ejecutar(tarea), alTerminar, alFallar);
+    }
+
+    /**
+     * Entregar en el hilo de JavaFX el resultado de una operación que ya es asíncrona (que
+     * lanza y combina sus propias tareas); se cancela con la vista igual que el resto
+     */
+    public <T> CompletableFuture<T> seguir(CompletableFuture<T> futuro, Consumer<T> alTerminar,
+                                           Consumer<Throwable> alFallar) {
+        return registrar(futuro, alTerminar, alFallar);
+    }
+
+    /**
+     * Como {@link #ejecutar}, para escrituras (guardar, eliminar, importar, exportar): no se
+     * cancela al salir de la vista, porque interrumpirla podría dejar el cambio a medias
+     */
+    public <T> CompletableFuture<T> ejecutarSinCancelar(EjecutorTareas.Tarea<T> tarea, Consumer<T> alTerminar,
+                                                        Consumer<Throwable> alFallar) {
+        return entregar(EjecutorTareas.ejecutar(tarea), alTerminar, alFallar);
+    }
+
+    /**
+     * Esperar a varias tareas lanzadas con {@link #lanzar} (en paralelo) y continuar
+     * en el hilo de JavaFX cuando todas hayan terminado
+     */
+    public CompletableFuture<Void> cuandoTerminen(Runnable alTerminar, Consumer<Throwable> alFallar,
+                                                  CompletableFuture<?>... tareas) {
+        return registrar(CompletableFuture.allOf(tareas), vacio -> alTerminar.run(), alFallar);
+    }
+
+    /**
+     * Lanzar una tarea sin callbacks propios (para combinarla con {@link #cuandoTerminen});
+     * se cancela con la vista igual que el resto
+     */
+    public <T> CompletableFuture<T> lanzar(EjecutorTareas.Tarea<T> tarea) {
+        CompletableFuture<T> futuro = EjecutorTareas.ejecutar(tarea);
+        pendientes.add(futuro);
+        futuro.whenComplete((valor, error) -> pendientes.remove(futuro));
+        return futuro;
+    }
+
+    /**
+     * Escuchar los cambios del servidor mientras la vista esté en pantalla (llamar desde el
+     * hilo de JavaFX). Sin vista (constructor vacío) la suscripción no se cancela sola
+     */
+    public void suscribir(Consumer<EventoCambioDTO> oyente) {
+        oyentes.add(oyente);
+        if (escuchando) {
+            EventosClient.getInstance().suscribir(oyente);
+        }
+    }
+
+    /**
+     * Cancelar las tareas pendientes y dejar de escuchar los cambios del servidor
+     */
+    public void detener() {
+        cancelarTodas();
+        if (escuchando) {
+            escuchando = false;
+            oyentes.forEach(EventosClient.getInstance()::cancelarSuscripcion);
+        }
+    }
+
+    private void reanudarSuscripciones() {
+        if (!escuchando) {
+            escuchando = true;
+            oyentes.forEach(EventosClient.getInstance()::suscribir);
+        }
+    }
+
+    /**
+     * Cancelar todas las tareas pendientes de la vista
+     */
+    public void cancelarTodas() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        log.debug("Cancelando {} tareas pendientes de la vista", pendientes.size());
+        for (CompletableFuture<?> futuro : pendientes) {
+            futuro.cancel(true);
+        }
+        pendientes.clear();
+    }
+
+    private <T> CompletableFuture<T> registrar(CompletableFuture<T> futuro, Consumer<T> alTerminar,
+                                               Consumer<Throwable> alFallar) {
+        pendientes.add(futuro);
+        return entregar(futuro, alTerminar, alFallar);
+    }
+
+    private <T> CompletableFuture<T> entregar(CompletableFuture<T> futuro, Consumer<T> alTerminar,
+                                              Consumer<Throwable> alFallar) {
+        cambiarEnCurso(1);
+
+        futuro.whenComplete((valor, error) -> {
+            pendientes.remove(futuro);
+            Platform.runLater(() -> {
+                cambiarEnCurso(-1);
+                if (futuro.isCancelled()) {
+                    return;
+                }
+                Throwable causa = causaReal(error);
+                if (causa == null) {
+                    alTerminar.accept(valor);
+                } else if (!(causa instanceof CancellationException)) {
+                    log.error("Error en tarea en segundo plano", causa);
+                    if (alFallar != null) {
+                        alFallar.accept(causa);
+                    }
+                }
+            });
+        });
+        return futuro;
+    }
+
+    private void cambiarEnCurso(int delta) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> cambiarEnCurso(delta));
+            return;
+        }
+        enCurso += delta;
+        cargando.set(enCurso > 0);
+    }
+
+    private static Throwable causaReal(Throwable error) {
+        Throwable causa = error;
+        while (causa instanceof CompletionException && causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        return causa;
+    }
+}
@@ -0,0 +1,162 @@
+package com.lavaderosepulveda.crm.service;
+
+import com.lavaderosepulveda.crm.model.entity.Cliente;
+import com.lavaderosepulveda.crm.model.entity.Factura;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor local que imita la API de WhatsApp Business para probar los envíos sin
+ * tocar la cuenta real.
+ *
+ * Responde como Meta a la subida de media ({"id": ...}), al envío de mensajes y a la
+ * consulta del número, y cuenta las peticiones recibidas. Opcionalmente contesta 429
+ * cada N peticiones para comprobar los reintentos.
+ *
+ * No es un test: se ejecuta a mano, por ejemplo
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.lavaderosepulveda.crm.service.WhatsAppStubServer
+ * Envía varias veces la misma factura y comprueba que el PDF se ha subido una sola vez.
+ */
+public class WhatsAppStubServer {
+
+    private static final String PHONE_NUMBER_ID = "123456789";
+
+    private final AtomicInteger subidas = new AtomicInteger();
+    private final AtomicInteger mensajes = new AtomicInteger();
+    private final AtomicInteger peticiones = new AtomicInteger();
+    private final int limiteCada;
+
+    private HttpServer server;
+
+    /**
+     * @param limiteCada responder 429 a una de cada N peticiones (0 = nunca)
+     */
+    public WhatsAppStubServer(int limiteCada) {
+        this.limiteCada = limiteCada;
+    }
+
+    public void iniciar(int puerto) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", puerto), 0);
+        server.createContext("/", this::atender);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getSubidas() {
+        return subidas.get();
+    }
+
+    public int getMensajes() {
+        return mensajes.get();
+    }
+
+    public void detener() {
+        server.stop(0);
+    }
+
+    private void atender(HttpExchange exchange) throws IOException {
+        try (InputStream cuerpo = exchange.getRequestBody()) {
+            cuerpo.readAllBytes();
+        }
+
+        if (limiteCada > 0 && peticiones.incrementAndGet() % limiteCada == 0) {
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            responder(exchange, 429, "{\"error\":{\"code\":130429,\"message\":\"Rate limit hit\"}}");
+            return;
+        }
+
+        String ruta = exchange.getRequestURI().getPath();
+        String metodo = exchange.getRequestMethod();
+
+        if ("POST".equals(metodo) && ruta.endsWith("/media")) {
+            responder(exchange, 200, "{\"id\":\"media-" + subidas.incrementAndGet() + "\"}");
+        } else if ("POST".equals(metodo) && ruta.endsWith("/messages")) {
+            responder(exchange, 200, "{\"messaging_product\":\"whatsapp\",\"messages\":[{\"id\":\"wamid."
+                    + mensajes.incrementAndGet() + "\"}]}");
+        } else if ("GET".equals(metodo) && ruta.equals("/" + PHONE_NUMBER_ID)) {
+            responder(exchange, 200, "{\"id\":\"" + PHONE_NUMBER_ID + "\"}");
+        } else {
+            responder(exchange, 404, "{\"error\":{\"message\":\"Unknown path\"}}");
+        }
+    }
+
+    private static void responder(HttpExchange exchange, int estado, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        WhatsAppStubServer stub = new WhatsAppStubServer(5);
+        stub.iniciar(0);
+
+        File pdf = File.createTempFile("factura-prueba", ".pdf");
+        try {
+            Files.writeString(pdf.toPath(), "%PDF-1.4 factura de prueba");
+
+            WhatsAppService whatsapp = WhatsAppService.getInstance();
+            whatsapp.configurarApi(stub.getUrl(), PHONE_NUMBER_ID, "token-prueba");
+            System.out.println("Conexión: " + (whatsapp.testConnection() ? "OK" : "FALLO"));
+
+            Factura factura = crearFactura();
+            int envios = 10;
+            CompletableFuture<?>[] futuros = new CompletableFuture<?>[envios];
+            long inicio = System.nanoTime();
+            for (int i = 0; i < envios; i++) {
+                futuros[i] = whatsapp.enviarFacturaAsync(factura, pdf);
+            }
+            CompletableFuture.allOf(futuros).join();
+
+            long enviados = 0;
+            for (CompletableFuture<?> futuro : futuros) {
+                if (Boolean.TRUE.equals(futuro.join())) {
+                    enviados++;
+                }
+            }
+
+            System.out.printf("Envíos correctos: %d de %d en %d ms%n", enviados, envios,
+                    (System.nanoTime() - inicio) / 1_000_000);
+            System.out.printf("PDF subidos: %d (esperado 1), mensajes: %d%n",
+                    stub.getSubidas(), stub.getMensajes());
+        } finally {
+            Files.deleteIfExists(pdf.toPath());
+            stub.detener();
+        }
+    }
+
+    private static Factura crearFactura() {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente");
+        cliente.setApellidos("De Prueba");
+        cliente.setTelefono("600 000 000");
+
+        Factura factura = new Factura();
+        factura.setCliente(cliente);
+        factura.setNumeroFactura("A-PRUEBA-1");
+        factura.setFechaFactura(LocalDate.now());
+        factura.setTotalFactura(42.0);
+        factura.setPagada(false);
+        return factura;
+    }
+}
@@ -0,0 +1,135 @@
+package com.lavaderosepulveda.crm.util;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Medición manual del consumo de memoria de la importación de clientes en streaming.
+ *
+ * Genera hojas con el formato de contabilidad (10.000 y 100.000 filas) y las importa
+ * descartando cada cliente, midiendo el pico de heap. Con la lectura SAX el pico debe
+ * ser prácticamente el mismo en las dos hojas; solo crece con la tabla de textos
+ * compartidos, que es proporcional a los textos distintos y no al número de filas.
+ *
+ * No es un test: se ejecuta a mano con el heap limitado, por ejemplo
+ *   mvn test-compile
+ *   java -Xmx256m -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.lavaderosepulveda.crm.util.ExcelClienteHandlerBenchmark
+ * Añadir el argumento "dom" para comparar con la carga completa del libro (WorkbookFactory),
+ * que con 100.000 filas suele agotar ese heap.
+ */
+public class ExcelClienteHandlerBenchmark {
+
+    private static final int[] FILAS = {10_000, 100_000};
+
+    public static void main(String[] args) throws Exception {
+        boolean compararDom = args.length > 0 && "dom".equalsIgnoreCase(args[0]);
+
+        for (int filas : FILAS) {
+            File archivo = generarHoja(filas);
+            try {
+                medir("streaming", filas, () -> ExcelClienteHandler.importarDesdeExcel(archivo, cliente -> { }));
+                if (compararDom) {
+                    medir("dom", filas, () -> ExcelClienteHandler.importarDesdeExcel(renombrarXls(archivo)).size());
+                }
+            } finally {
+                archivo.delete();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Importacion {
+        int ejecutar() throws IOException;
+    }
+
+    private static void medir(String modo, int filas, Importacion importacion) throws Exception {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long base = memoria.getHeapMemoryUsage().getUsed();
+
+        // Muestreo del heap en paralelo para quedarse con el pico
+        AtomicLong pico = new AtomicLong(base);
+        Thread muestreo = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                pico.accumulateAndGet(memoria.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        muestreo.setDaemon(true);
+        muestreo.start();
+
+        long inicio = System.nanoTime();
+        int importados = importacion.ejecutar();
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+        muestreo.interrupt();
+        muestreo.join();
+
+        System.out.printf("%-9s %,8d filas -> %,8d clientes en %,6d ms, pico heap +%,d MB%n",
+                modo, filas, importados, ms, (pico.get() - base) / (1024 * 1024));
+    }
+
+    /**
+     * Hoja "Clientes" con el formato de contabilidad: título, cabecera en la fila 4 y datos
+     */
+    private static File generarHoja(int filas) throws IOException {
+        File archivo = File.createTempFile("clientes-benchmark-", ".xlsx");
+
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            Sheet sheet = workbook.createSheet("Clientes");
+            sheet.createRow(0).createCell(0).setCellValue("LISTADO DE CLIENTES");
+
+            String[] cabecera = {"NIF", "NOMBRE O RAZÓN SOCIAL", "EMAIL", "TELF.", "MÓVIL", "FAX",
+                    "DIRECCIÓN", "COD. POSTAL", "POBLACIÓN", "PROVINCIA"};
+            Row filaCabecera = sheet.createRow(3);
+            for (int i = 0; i < cabecera.length; i++) {
+                filaCabecera.createCell(i).setCellValue(cabecera[i]);
+            }
+
+            for (int i = 0; i < filas; i++) {
+                Row row = sheet.createRow(4 + i);
+                row.createCell(0).setCellValue(String.format("%08dX", i));
+                row.createCell(1).setCellValue("Cliente " + i);
+                row.createCell(2).setCellValue("cliente" + i + "@correo.es");
+                row.createCell(4).setCellValue(600_000_000d + i);
+                row.createCell(6).setCellValue("Calle Mayor " + (i % 200));
+                row.createCell(7).setCellValue(41_000d + (i % 100));
+                row.createCell(8).setCellValue("Sevilla");
+                row.createCell(9).setCellValue("Sevilla");
+            }
+
+            try (FileOutputStream fos = new FileOutputStream(archivo)) {
+                workbook.write(fos);
+            }
+            workbook.dispose();
+        }
+
+        return archivo;
+    }
+
+    /**
+     * La importación en lista usa streaming para .xlsx; para medir la carga completa
+     * se pasa el mismo fichero con otra extensión (WorkbookFactory detecta el formato por contenido)
+     */
+    private static File renombrarXls(File archivo) throws IOException {
+        File copia = new File(archivo.getParentFile(), archivo.getName().replace(".xlsx", ".xls"));
+        Files.copy(archivo.toPath(), copia.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        copia.deleteOnExit();
+        return copia;
+    }
+}
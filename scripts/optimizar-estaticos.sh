@@ -0,0 +1,50 @@
+#!/bin/sh
+# Genera las variantes optimizadas de los recursos estáticos (se ejecuta en el Dockerfile).
+#
+#   - Fotos de más de 200 KB: versiones WebP de 480 y 960 px de ancho (la galería las
+#     ofrece con <picture> y deja el original como respaldo)
+#   - GIF animados: vídeo MP4 (H.264) y WebM (VP9) más un fotograma de portada
+#   - CSS y JS: copias precomprimidas .gz y .br que Spring sirve según Accept-Encoding
+#
+# Las plantillas solo usan una variante si existe, así que sin ejecutar este script
+# (p.ej. en desarrollo) se siguen sirviendo los originales.
+#
+# Uso: optimizar-estaticos.sh <directorio static>
+# Necesita: cwebp (libwebp-tools), ffmpeg, gzip, brotli
+
+set -eu
+
+STATIC="${1:?Uso: optimizar-estaticos.sh <directorio static>}"
+
+echo "Imágenes -> WebP"
+find "$STATIC/images" -type f \( -iname '*.jpg' -o -iname '*.jpeg' -o -iname '*.png' \) -size +200k |
+while read -r imagen; do
+    base="${imagen%.*}"
+    for ancho in 480 960; do
+        cwebp -quiet -q 78 -resize "$ancho" 0 "$imagen" -o "$base-$ancho.webp"
+    done
+    echo "  $(basename "$imagen")"
+done
+
+echo "GIF -> vídeo"
+find "$STATIC/images" -type f -iname '*.gif' |
+while read -r gif; do
+    base="${gif%.*}"
+    # H.264 necesita dimensiones pares
+    escala="scale=trunc(iw/2)*2:trunc(ih/2)*2"
+    ffmpeg -loglevel error -y -i "$gif" -vf "$escala" -c:v libx264 -pix_fmt yuv420p \
+        -crf 26 -movflags +faststart -an "$base.mp4"
+    ffmpeg -loglevel error -y -i "$gif" -vf "$escala" -c:v libvpx-vp9 -b:v 0 -crf 38 \
+        -an "$base.webm"
+    ffmpeg -loglevel error -y -i "$gif" -vf "$escala" -frames:v 1 -q:v 4 "$base-poster.jpg"
+    echo "  $(basename "$gif")"
+done
+
+echo "CSS/JS -> gzip y brotli"
+find "$STATIC/css" "$STATIC/js" -type f \( -name '*.css' -o -name '*.js' \) |
+while read -r archivo; do
+    gzip -9 -k -f "$archivo"
+    brotli -q 11 -k -f "$archivo"
+done
+
+echo "Recursos estáticos optimizados"
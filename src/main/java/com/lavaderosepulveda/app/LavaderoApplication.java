@@ -2,13 +2,19 @@ package com.lavaderosepulveda.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
+@EnableAsync
 public class LavaderoApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(LavaderoApplication.class, args);
+        SpringApplication application = new SpringApplication(LavaderoApplication.class);
+        // Cronología del arranque (qué bean tarda cuánto) en /actuator/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.lavaderosepulveda.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * Propiedades del driver JDBC según la base de datos de la URL: caché de sentencias
+ * preparadas en el servidor y reescritura de lotes (app.jdbc.postgresql.* y
+ * app.jdbc.mysql.* en application.properties).
+ *
+ * No se ponen en spring.datasource.hikari.data-source-properties porque se pasarían a
+ * cualquier driver, y H2 (pruebas y entrenamiento de CDS en el Dockerfile) rechaza las
+ * propiedades que no conoce.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Bean
+    public static BeanPostProcessor propiedadesDriverJdbc(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && dataSource.getJdbcUrl() != null) {
+                    String url = dataSource.getJdbcUrl();
+                    String driver = url.startsWith("jdbc:postgresql:") ? "postgresql"
+                            : url.startsWith("jdbc:mysql:") ? "mysql" : null;
+                    if (driver != null) {
+                        Map<String, String> propiedades = Binder.get(environment)
+                                .bind("app.jdbc." + driver, Bindable.mapOf(String.class, String.class))
+                                .orElse(Map.of());
+                        propiedades.forEach(dataSource::addDataSourceProperty);
+                        logger.info("Driver {}: {}", driver, propiedades);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
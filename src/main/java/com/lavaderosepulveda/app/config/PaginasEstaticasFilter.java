@@ -0,0 +1,103 @@
+package com.lavaderosepulveda.app.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sirve desde memoria las páginas públicas que no dependen de la petición (inicio,
+ * tarifas, productos, política, horario).
+ *
+ * La primera visita las renderiza normalmente (así las URLs de CSS/JS llevan su hash) y
+ * guarda los bytes; las siguientes los devuelven sin pasar por el controlador ni por
+ * Thymeleaf, con ETag para que el navegador reciba un 304 si ya tiene la misma versión.
+ * La caché vive en memoria, así que cada despliegue la vacía; también se descarta una
+ * página si cambia la configuración de horarios desde que se renderizó.
+ *
+ * Solo se activa con app.paginas-estaticas.cache=true (desactivado en el perfil dev).
+ */
+@Component
+@ConditionalOnProperty(name = "app.paginas-estaticas.cache", havingValue = "true")
+public class PaginasEstaticasFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaginasEstaticasFilter.class);
+
+    private final HorariosConfig horariosConfig;
+    private final Set<String> rutas;
+    private final Map<String, Pagina> paginas = new ConcurrentHashMap<>();
+
+    public PaginasEstaticasFilter(HorariosConfig horariosConfig,
+                                  @Value("${app.paginas-estaticas.rutas:/,/tarifas,/productos,/policy,/horario}") Set<String> rutas) {
+        this.horariosConfig = horariosConfig;
+        this.rutas = rutas;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !rutas.contains(ruta(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String ruta = ruta(request);
+        String horarios = horariosConfig.toString();
+
+        Pagina pagina = paginas.get(ruta);
+        if (pagina == null || !pagina.horarios().equals(horarios)) {
+            ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, respuesta);
+
+            String contentType = respuesta.getContentType();
+            if (respuesta.getStatus() != HttpServletResponse.SC_OK
+                    || contentType == null || !contentType.startsWith("text/html")) {
+                respuesta.copyBodyToResponse();
+                return;
+            }
+
+            byte[] contenido = respuesta.getContentAsByteArray();
+            pagina = new Pagina(contenido, contentType, "\"" + DigestUtils.md5DigestAsHex(contenido) + "\"", horarios);
+            paginas.put(ruta, pagina);
+            logger.info("Página {} guardada en caché ({} bytes)", ruta, contenido.length);
+        }
+
+        servir(pagina, request, response);
+    }
+
+    private void servir(Pagina pagina, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Se puede guardar pero hay que revalidarla: así un despliegue se ve en la siguiente visita
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(pagina.etag())) {
+            return;
+        }
+
+        response.setContentType(pagina.contentType());
+        response.setContentLength(pagina.contenido().length);
+        response.getOutputStream().write(pagina.contenido());
+    }
+
+    private static String ruta(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record Pagina(byte[] contenido, String contentType, String etag, String horarios) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.lavaderosepulveda.app.config;
+
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consulta desde las plantillas si existe una variante optimizada de un recurso estático.
+ *
+ * Las versiones WebP y los vídeos se generan al construir la imagen Docker
+ * (scripts/optimizar-estaticos.sh); en desarrollo no existen y la plantilla se queda con
+ * el original. Uso: ${@recursosEstaticos.existe('/images/foto-960.webp')}
+ */
+@Component("recursosEstaticos")
+public class RecursosEstaticos {
+
+    private final ResourceLoader resourceLoader;
+
+    // Los recursos del jar no cambian mientras la aplicación está arrancada
+    private final Map<String, Boolean> existentes = new ConcurrentHashMap<>();
+
+    public RecursosEstaticos(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * @param ruta ruta pública del recurso, p.ej. "/images/limpio.mp4"
+     */
+    public boolean existe(String ruta) {
+        return existentes.computeIfAbsent(ruta,
+                r -> resourceLoader.getResource("classpath:static" + (r.startsWith("/") ? r : "/" + r)).exists());
+    }
+}
@@ -95,6 +95,7 @@ public class SecurityConfig {
 
                         // Admin protegido
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/startup").hasRole("ADMIN")
 
                         // Resto público
                         .anyRequest().permitAll()
@@ -1,11 +1,13 @@
 package com.lavaderosepulveda.app.controller;
 
 import com.lavaderosepulveda.app.dto.ClienteEstadisticaDTO;
+import com.lavaderosepulveda.app.dto.DashboardMetricsDTO;
 import com.lavaderosepulveda.app.model.Cita;
 import com.lavaderosepulveda.app.model.enums.EstadoCita;
 import com.lavaderosepulveda.app.model.VehicleModel;
 import com.lavaderosepulveda.app.repository.VehicleModelRepository;
 import com.lavaderosepulveda.app.service.CitaService;
+import com.lavaderosepulveda.app.service.DashboardService;
 import com.lavaderosepulveda.app.service.EmailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +33,9 @@ public class AdminController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private DashboardService dashboardService;
+
     @Autowired
     private VehicleModelRepository vehicleModelRepository;
 
@@ -249,28 +254,22 @@ public class AdminController {
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
         try {
-            List<Cita> todasLasCitas = citaService.obtenerTodasLasCitas();
+            // Estadísticas básicas (una única consulta agregada)
+            DashboardMetricsDTO metricas = dashboardService.obtenerMetricas();
+            Map<String, Long> porEstado = metricas.getCitasPorEstado();
 
-            // Estadísticas básicas
-            long totalCitas = todasLasCitas.size();
-            long citasPendientes = todasLasCitas.stream()
-                    .filter(c -> c.getEstado() == EstadoCita.PENDIENTE)
-                    .count();
-            long citasConfirmadas = todasLasCitas.stream()
-                    .filter(c -> c.getEstado() == EstadoCita.CONFIRMADA)
-                    .count();
-            long citasCompletadas = todasLasCitas.stream()
-                    .filter(c -> c.getEstado() == EstadoCita.COMPLETADA)
-                    .count();
-            long citasNoPresentados = todasLasCitas.stream()
-                    .filter(c -> c.getEstado() == EstadoCita.NO_PRESENTADO)
-                    .count();
+            long totalCitas = metricas.getTotalCitas();
+            long citasPendientes = porEstado.getOrDefault(EstadoCita.PENDIENTE.name(), 0L);
+            long citasConfirmadas = porEstado.getOrDefault(EstadoCita.CONFIRMADA.name(), 0L);
+            long citasCompletadas = porEstado.getOrDefault(EstadoCita.COMPLETADA.name(), 0L);
+            long citasNoPresentados = porEstado.getOrDefault(EstadoCita.NO_PRESENTADO.name(), 0L);
 
             model.addAttribute("totalCitas", totalCitas);
             model.addAttribute("citasPendientes", citasPendientes);
             model.addAttribute("citasConfirmadas", citasConfirmadas);
             model.addAttribute("citasCompletadas", citasCompletadas);
             model.addAttribute("citasNoPresentados", citasNoPresentados);
+            model.addAttribute("metricas", metricas);
 
             return "admin/dashboard";
 
@@ -0,0 +1,38 @@
+package com.lavaderosepulveda.app.controller;
+
+import com.lavaderosepulveda.app.dto.ResultadoBusquedaDTO;
+import com.lavaderosepulveda.app.service.BusquedaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Búsqueda unificada (clientes, citas, facturas, facturas recibidas y proveedores)
+ */
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = {
+        "https://lavadero-sepulveda-production.up.railway.app",
+        "http://localhost:8080",
+        "http://localhost:3000"
+})
+public class BusquedaApiController {
+
+    private static final int MAX_POR_TIPO = 50;
+
+    @Autowired
+    private BusquedaService busquedaService;
+
+    /**
+     * Sin tildes ni mayúsculas, por prefijo de palabra y por fragmento de teléfono,
+     * matrícula, NIF o número de factura
+     */
+    @GetMapping
+    public ResponseEntity<List<ResultadoBusquedaDTO>> buscar(
+            @RequestParam("q") String texto,
+            @RequestParam(value = "limite", defaultValue = "10") int limite) {
+        return ResponseEntity.ok(busquedaService.buscar(texto, Math.max(1, Math.min(limite, MAX_POR_TIPO))));
+    }
+}
@@ -52,9 +52,6 @@ public class CitaApiController {
     @Autowired
     private CitaMapper citaMapper;
 
-    @Autowired
-    private javax.sql.DataSource dataSource;
-
     // ========================================
     // ENDPOINTS DE DIAGNÓSTICO
     // ========================================
@@ -616,70 +613,6 @@ public class CitaApiController {
         return ResponseEntity.ok(resumen);
     }
 
-    // ========================================
-    // ENDPOINTS DE MIGRACIÓN
-    // ========================================
-
-    /**
-     * POST /api/citas/migrar-email
-     * Permitir NULL en columna email
-     */
-    @PostMapping("/citas/migrar-email")
-    public ResponseEntity<Map<String, String>> migrarColumnaEmail() {
-        try (java.sql.Connection connection = dataSource.getConnection();
-                java.sql.Statement statement = connection.createStatement()) {
-
-            // Cambiar la columna para permitir NULL
-            String sql = "ALTER TABLE citas MODIFY COLUMN email VARCHAR(255) NULL";
-            statement.executeUpdate(sql);
-
-            logger.info("Migración de columna email completada exitosamente");
-
-            Map<String, String> response = new HashMap<>();
-            response.put("mensaje", "Migración completada");
-            response.put("detalle", "Columna 'email' ahora permite NULL");
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error en migración de columna email: {}", e.getMessage());
-
-            Map<String, String> response = new HashMap<>();
-            response.put("error", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
-    }
-
-    /**
-     * POST /api/citas/migrar-estado
-     * Migrar columna estado de ENUM a VARCHAR para permitir nuevos valores
-     */
-    @PostMapping("/citas/migrar-estado")
-    public ResponseEntity<Map<String, String>> migrarColumnaEstado() {
-        try (java.sql.Connection connection = dataSource.getConnection();
-                java.sql.Statement statement = connection.createStatement()) {
-
-            // Cambiar la columna de ENUM a VARCHAR(20)
-            String sql = "ALTER TABLE citas MODIFY COLUMN estado VARCHAR(20)";
-            statement.executeUpdate(sql);
-
-            logger.info("Migración de columna estado completada exitosamente");
-
-            Map<String, String> response = new HashMap<>();
-            response.put("mensaje", "Migración completada");
-            response.put("detalle", "Columna 'estado' cambiada a VARCHAR(20)");
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Error en migración de columna estado: {}", e.getMessage());
-
-            Map<String, String> response = new HashMap<>();
-            response.put("error", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
-    }
-
     // ========================================
     // MÉTODOS PRIVADOS
     // ========================================
@@ -699,14 +632,10 @@ public class CitaApiController {
         logger.info("========================");
 
         if (emailService != null && cita.getEmail() != null && !cita.getEmail().trim().isEmpty()) {
-            try {
-                emailService.enviarEmailConfirmacion(cita);
-                logger.info("✅ Email de confirmación enviado a: {}", cita.getEmail());
-            } catch (Exception emailError) {
-                // Log del error pero no afecta la creación de la cita
-                logger.error("❌ Error al enviar email de confirmación a {}: {}",
-                        cita.getEmail(), emailError.getMessage(), emailError);
-            }
+            // En segundo plano: la respuesta no espera al servidor SMTP y un error
+            // no afecta a la creación de la cita
+            emailService.enviarEmailConfirmacionEnSegundoPlano(cita);
+            logger.info("✅ Email de confirmación en cola para: {}", cita.getEmail());
         } else {
             logger.warn("⚠️ No se envió email - EmailService: {}, Email cita: {}",
                     emailService != null, cita.getEmail());
@@ -168,17 +168,12 @@ public class CitaController {
      */
     private void enviarEmailConfirmacionSiEsPosible(Cita cita) {
         if (emailService != null && emailService.isServicioDisponible()) {
-            try {
-                if (cita.getEmail() != null && !cita.getEmail().trim().isEmpty()) {
-                    emailService.enviarEmailConfirmacion(cita);
-                    logger.info("Email de confirmación enviado a: {}", cita.getEmail());
-                } else {
-                    logger.debug("No se envía email: dirección vacía para cita ID {}", cita.getId());
-                }
-            } catch (Exception e) {
-                // Error en email no debe afectar la creación de la cita
-                logger.warn("Error enviando email de confirmación para cita ID {}: {}",
-                        cita.getId(), e.getMessage());
+            if (cita.getEmail() != null && !cita.getEmail().trim().isEmpty()) {
+                // En segundo plano: un error en el email no afecta a la creación de la cita
+                emailService.enviarEmailConfirmacionEnSegundoPlano(cita);
+                logger.info("Email de confirmación en cola para: {}", cita.getEmail());
+            } else {
+                logger.debug("No se envía email: dirección vacía para cita ID {}", cita.getId());
             }
         } else {
             logger.debug("Servicio de email no disponible - no se envía confirmación");
@@ -5,6 +5,7 @@ import com.lavaderosepulveda.app.service.ClienteService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +22,9 @@ public class ClienteApiController {
     @Autowired
     private ClienteService clienteService;
 
+    @Value("${app.clientes.bulk.max-bloque:1000}")
+    private int maxBloqueImportacion;
+
     /**
      * GET /api/clientes
      * Obtener todos los clientes
@@ -153,6 +157,30 @@ public class ClienteApiController {
         }
     }
 
+    /**
+     * POST /api/clientes/bulk
+     * Importación masiva por bloques (Excel del CRM): crea o actualiza por NIF/teléfono.
+     * El cliente envía la lista troceada en bloques de como mucho app.clientes.bulk.max-bloque
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> importarClientes(@RequestBody List<ClienteDTO> clientes) {
+        if (clientes == null || clientes.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "El bloque está vacío"));
+        }
+        if (clientes.size() > maxBloqueImportacion) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("error", "Máximo " + maxBloqueImportacion + " clientes por bloque"));
+        }
+
+        try {
+            return ResponseEntity.ok(clienteService.importarClientes(clientes));
+        } catch (Exception e) {
+            log.error("Error en la importación masiva de clientes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al importar clientes: " + e.getMessage()));
+        }
+    }
+
     /**
      * POST /api/clientes/migrar
      * Migrar clientes desde citas (ejecutar una sola vez)
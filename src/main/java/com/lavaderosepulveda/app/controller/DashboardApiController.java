@@ -0,0 +1,37 @@
+package com.lavaderosepulveda.app.controller;
+
+import com.lavaderosepulveda.app.dto.DashboardMetricsDTO;
+import com.lavaderosepulveda.app.service.DashboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardApiController {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardApiController.class);
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    /**
+     * GET /api/dashboard/metrics
+     * KPIs del dashboard: citas de hoy, pendientes, facturado hoy/mes,
+     * pendiente de cobro, citas por estado y clientes activos
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<DashboardMetricsDTO> obtenerMetricas() {
+        try {
+            return ResponseEntity.ok(dashboardService.obtenerMetricas());
+        } catch (Exception e) {
+            log.error("Error calculando métricas del dashboard", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
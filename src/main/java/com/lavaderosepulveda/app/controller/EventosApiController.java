@@ -0,0 +1,28 @@
+package com.lavaderosepulveda.app.controller;
+
+import com.lavaderosepulveda.app.service.EventosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/eventos")
+public class EventosApiController {
+
+    @Autowired
+    private EventosService eventosService;
+
+    /**
+     * GET /api/eventos
+     * Flujo Server-Sent Events con los cambios de citas, clientes y facturas.
+     * Cada evento se llama como la entidad ("cita", "cliente", "factura") y su
+     * data es un EventoCambioDTO en JSON
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir() {
+        return eventosService.suscribir();
+    }
+}
@@ -2,6 +2,8 @@ package com.lavaderosepulveda.app.controller;
 
 import com.lavaderosepulveda.app.dto.Modelo130DTO;
 import com.lavaderosepulveda.app.dto.Modelo303DTO;
+import com.lavaderosepulveda.app.dto.Modelo347DTO;
+import com.lavaderosepulveda.app.dto.Modelo390DTO;
 import com.lavaderosepulveda.app.service.ModelosFiscalesService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -47,4 +49,22 @@ public class ModelosFiscalesApiController {
         Modelo130DTO dto = modelosFiscalesService.generarModelo130(anio, trimestre);
         return ResponseEntity.ok(dto);
     }
+
+    @GetMapping("/390")
+    public ResponseEntity<Modelo390DTO> getModelo390(@RequestParam(required = false) Integer anio) {
+        if (anio == null)
+            anio = java.time.LocalDate.now().getYear();
+
+        Modelo390DTO dto = modelosFiscalesService.generarModelo390(anio);
+        return ResponseEntity.ok(dto);
+    }
+
+    @GetMapping("/347")
+    public ResponseEntity<Modelo347DTO> getModelo347(@RequestParam(required = false) Integer anio) {
+        if (anio == null)
+            anio = java.time.LocalDate.now().getYear();
+
+        Modelo347DTO dto = modelosFiscalesService.generarModelo347(anio);
+        return ResponseEntity.ok(dto);
+    }
 }
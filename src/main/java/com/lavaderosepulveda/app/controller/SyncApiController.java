@@ -0,0 +1,48 @@
+package com.lavaderosepulveda.app.controller;
+
+import com.lavaderosepulveda.app.dto.SyncResponseDTO;
+import com.lavaderosepulveda.app.service.SyncService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sync")
+public class SyncApiController {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncApiController.class);
+
+    @Autowired
+    private SyncService syncService;
+
+    /**
+     * GET /api/sync/{entidad}?since=2025-01-31T10:00:00&cursor=...&limite=500
+     * Cambios de citas, clientes o facturas desde la última sincronización:
+     * upserts en orden de actualización e IDs eliminados. La primera vez se
+     * llama sin parámetros; después basta con enviar el cursor recibido.
+     */
+    @GetMapping("/{entidad}")
+    public ResponseEntity<?> obtenerCambios(
+            @PathVariable String entidad,
+            @RequestParam(value = "since", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", required = false) Integer limite) {
+        try {
+            SyncResponseDTO<?> respuesta = syncService.obtenerCambios(entidad, since, cursor, limite);
+            return ResponseEntity.ok(respuesta);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error obteniendo cambios de {}", entidad, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
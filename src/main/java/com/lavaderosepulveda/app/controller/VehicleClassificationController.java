@@ -1,22 +1,30 @@
 package com.lavaderosepulveda.app.controller;
 
+import com.lavaderosepulveda.app.dto.SugerenciaModeloDTO;
 import com.lavaderosepulveda.app.model.enums.TipoLavado;
 import com.lavaderosepulveda.app.model.VehicleModel;
 import com.lavaderosepulveda.app.repository.VehicleModelRepository;
 import com.lavaderosepulveda.app.service.VehicleClassificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
 public class VehicleClassificationController {
 
+    // El catálogo de modelos apenas cambia: el navegador puede reutilizar las respuestas
+    private static final CacheControl CACHE_CATALOGO = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+    private static final int MAX_SUGERENCIAS = 20;
+
     @Autowired
     private VehicleClassificationService vehicleClassificationService;
 
@@ -42,16 +50,38 @@ public class VehicleClassificationController {
     }
 
     @GetMapping("/models/all")
-    public ResponseEntity<Map<String, List<String>>> getAllModels() {
-        List<VehicleModel> allModels = modelRepository.findAll();
+    public ResponseEntity<Map<String, List<String>>> getAllModels(WebRequest request) {
+        String etag = "\"" + vehicleClassificationService.getVersionCatalogo() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CACHE_CATALOGO)
+                .eTag(etag)
+                .body(vehicleClassificationService.getModelosPorCategoria());
+    }
+
+    /**
+     * Autocompletado del modelo en el formulario de reserva (tolera errores de escritura)
+     */
+    @GetMapping("/models/suggest")
+    public ResponseEntity<List<SugerenciaModeloDTO>> suggestModels(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "8") int limit,
+            WebRequest request) {
+        String etag = "\"" + vehicleClassificationService.getVersionCatalogo() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
 
-        Map<String, List<String>> modelsByCategory = allModels.stream()
-                .collect(Collectors.groupingBy(
-                        vm -> vm.getCategory().getName(),
-                        Collectors.mapping(VehicleModel::getName, Collectors.toList())
-                ));
+        List<SugerenciaModeloDTO> sugerencias = vehicleClassificationService.sugerirModelos(
+                query, Math.max(1, Math.min(limit, MAX_SUGERENCIAS)));
 
-        return ResponseEntity.ok(modelsByCategory);
+        return ResponseEntity.ok()
+                .cacheControl(CACHE_CATALOGO)
+                .eTag(etag)
+                .body(sugerencias);
     }
 
     @GetMapping("/debug/buscar-modelo")
@@ -0,0 +1,43 @@
+package com.lavaderosepulveda.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO con los indicadores del dashboard (CRM y panel de administración)
+ * Se calcula en el servidor con una única consulta agregada
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardMetricsDTO {
+
+    // ========================================
+    // CITAS
+    // ========================================
+    private Long totalCitas;
+    private Long citasHoy;
+    private Long citasPendientes; // Desde hoy, PENDIENTE o CONFIRMADA
+    private Map<String, Long> citasPorEstado;
+
+    // ========================================
+    // IMPORTES (citas completadas, IVA incluido)
+    // ========================================
+    private BigDecimal facturadoHoy;
+    private BigDecimal facturadoMes;
+    private BigDecimal pendienteCobro; // Completadas sin facturar
+
+    // ========================================
+    // CLIENTES
+    // ========================================
+    private Long clientesActivos;
+
+    private LocalDateTime calculadoEn;
+}
@@ -0,0 +1,38 @@
+package com.lavaderosepulveda.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de cambio publicado por la capa de servicio y enviado por SSE al CRM.
+ * Solo lleva la referencia a la entidad: el cliente pide el registro actualizado por ID
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoCambioDTO {
+
+    public static final String CITA = "cita";
+    public static final String CLIENTE = "cliente";
+    public static final String FACTURA = "factura";
+    public static final String FACTURA_RECIBIDA = "factura_recibida";
+    public static final String PROVEEDOR = "proveedor";
+
+    public enum Accion {
+        CREADO,
+        ACTUALIZADO,
+        ELIMINADO
+    }
+
+    private String entidad;
+    private Accion accion;
+    private Long id;
+    private LocalDateTime fecha;
+
+    public EventoCambioDTO(String entidad, Accion accion, Long id) {
+        this(entidad, accion, id, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,41 @@
+package com.lavaderosepulveda.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de un bloque de la importación masiva de clientes (POST /api/clientes/bulk)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacionClientesDTO {
+
+    private int recibidos;
+    private int creados;
+    private int actualizados;
+
+    // Filas sin nombre o repetidas dentro del mismo bloque
+    private int descartados;
+
+    // Filas que no se pueden guardar sin romper una restricción (p.ej. el teléfono ya
+    // es de otro cliente); el resto del bloque se guarda igual
+    @Builder.Default
+    private List<FilaRechazada> rechazadas = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilaRechazada {
+        // Posición en el bloque recibido (desde 0)
+        private int fila;
+        private String nombre;
+        private String motivo;
+    }
+}
@@ -0,0 +1,23 @@
+package com.lavaderosepulveda.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Resultado de la búsqueda unificada: referencia al registro y lo necesario para mostrarlo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBusquedaDTO {
+
+    // Mismos nombres de entidad que EventoCambioDTO ("cliente", "cita", "factura"...)
+    private String tipo;
+    private Long id;
+    private String titulo;
+    private String detalle;
+    private LocalDate fecha;
+}
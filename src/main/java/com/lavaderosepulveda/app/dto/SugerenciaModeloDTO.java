@@ -0,0 +1,20 @@
+package com.lavaderosepulveda.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Modelo de vehículo sugerido al escribir en el formulario de reserva
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaModeloDTO {
+
+    private String modelo;
+    private String categoria;
+
+    // Errores de escritura corregidos (0 si lo escrito coincide con el principio del nombre)
+    private int distancia;
+}
@@ -0,0 +1,35 @@
+package com.lavaderosepulveda.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página de cambios de la sincronización incremental (GET /api/sync/{entidad})
+ * El cliente aplica los upserts y borra los IDs eliminados; después guarda
+ * siguienteCursor y lo envía en la próxima petición. Si hayMas es true debe
+ * pedir la siguiente página inmediatamente.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO<T> {
+
+    private String entidad;
+
+    // Registros creados o modificados, en orden de actualización
+    private List<T> upserts;
+
+    // IDs de registros eliminados (tombstones), en orden de borrado
+    private List<Long> eliminados;
+
+    private String siguienteCursor;
+    private boolean hayMas;
+
+    private LocalDateTime servidorHora;
+}
@@ -12,10 +12,12 @@ import java.time.LocalTime;
 
 @Entity
 @Table(name = "citas", indexes = {
-        @Index(name = "idx_citas_fecha", columnList = "fecha"),
-        @Index(name = "idx_citas_estado", columnList = "estado"),
         @Index(name = "idx_citas_telefono", columnList = "telefono"),
-        @Index(name = "idx_citas_cliente_id", columnList = "cliente_id")
+        @Index(name = "idx_citas_cliente_id", columnList = "cliente_id"),
+        @Index(name = "idx_citas_updated_at", columnList = "updated_at, id"),
+        @Index(name = "idx_citas_fecha_hora", columnList = "fecha, hora"),
+        @Index(name = "idx_citas_estado_facturada_fecha", columnList = "estado, facturada, fecha"),
+        @Index(name = "idx_citas_recordatorio", columnList = "fecha, recordatorio_enviado, estado")
 })
 public class Cita {
 
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
         @Index(name = "idx_clientes_telefono", columnList = "telefono"),
         @Index(name = "idx_clientes_email", columnList = "email"),
         @Index(name = "idx_clientes_activo", columnList = "activo"),
-        @Index(name = "idx_clientes_nif", columnList = "nif")
+        @Index(name = "idx_clientes_nif", columnList = "nif"),
+        @Index(name = "idx_clientes_updated_at", columnList = "updated_at, id")
 })
 
 public class Cliente {
@@ -22,7 +23,7 @@ public class Cliente {
 
     private String apellidos;
 
-    @Column(nullable = false, unique = true)
+    @Column(unique = true)
     private String telefono;
 
     private String email;
@@ -13,7 +13,9 @@ import java.util.List;
     @Index(name = "idx_facturas_numero", columnList = "numero", unique = true),
     @Index(name = "idx_facturas_fecha", columnList = "fecha"),
     @Index(name = "idx_facturas_cliente_id", columnList = "cliente_id"),
-    @Index(name = "idx_facturas_estado", columnList = "estado")
+    @Index(name = "idx_facturas_estado", columnList = "estado"),
+    @Index(name = "idx_facturas_updated_at", columnList = "updated_at, id"),
+    @Index(name = "idx_facturas_anio_secuencial", columnList = "anio, numero_secuencial")
 })
 public class Factura {
 
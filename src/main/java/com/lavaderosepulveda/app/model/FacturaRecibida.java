@@ -7,7 +7,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "facturas_recibidas")
+@Table(name = "facturas_recibidas", indexes = {
+        @Index(name = "idx_facturas_recibidas_fecha", columnList = "fecha_factura")
+})
 public class FacturaRecibida {
 
     @Id
@@ -7,7 +7,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "gastos")
+@Table(name = "gastos", indexes = {
+        @Index(name = "idx_gastos_fecha_categoria", columnList = "fecha, categoria")
+})
 public class Gasto {
 
     @Id
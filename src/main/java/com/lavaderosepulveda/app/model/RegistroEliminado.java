@@ -0,0 +1,78 @@
+package com.lavaderosepulveda.app.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de borrado (tombstone) de citas, clientes y facturas.
+ * Permite a la sincronización incremental informar a los clientes
+ * de los registros que ya no existen en el servidor.
+ */
+@Entity
+@Table(name = "registros_eliminados", indexes = {
+        @Index(name = "idx_registros_eliminados_entidad_fecha", columnList = "entidad, eliminado_en, id")
+})
+public class RegistroEliminado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String entidad;
+
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    @Column(name = "eliminado_en", nullable = false)
+    private LocalDateTime eliminadoEn;
+
+    // Constructores
+    public RegistroEliminado() {
+    }
+
+    public RegistroEliminado(String entidad, Long entidadId) {
+        this.entidad = entidad;
+        this.entidadId = entidadId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (eliminadoEn == null) {
+            eliminadoEn = LocalDateTime.now();
+        }
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public void setEntidad(String entidad) {
+        this.entidad = entidad;
+    }
+
+    public Long getEntidadId() {
+        return entidadId;
+    }
+
+    public void setEntidadId(Long entidadId) {
+        this.entidadId = entidadId;
+    }
+
+    public LocalDateTime getEliminadoEn() {
+        return eliminadoEn;
+    }
+
+    public void setEliminadoEn(LocalDateTime eliminadoEn) {
+        this.eliminadoEn = eliminadoEn;
+    }
+}
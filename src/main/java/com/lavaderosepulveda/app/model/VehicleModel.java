@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 
 @Entity
 @Table(name = "vehicle_models")
+@EntityListeners(VehicleModelListener.class)
 public class VehicleModel {
 
     @Id
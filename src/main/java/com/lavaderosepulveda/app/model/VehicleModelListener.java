@@ -0,0 +1,34 @@
+package com.lavaderosepulveda.app.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Avisa de altas, cambios y bajas de modelos de vehículo para que el clasificador
+ * en memoria se reconstruya (Hibernate obtiene este listener del contexto de Spring)
+ */
+@Component
+public class VehicleModelListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public VehicleModelListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCambio(VehicleModel model) {
+        eventPublisher.publishEvent(new ModelosModificados());
+    }
+
+    /**
+     * Evento publicado al modificar cualquier modelo
+     */
+    public record ModelosModificados() {
+    }
+}
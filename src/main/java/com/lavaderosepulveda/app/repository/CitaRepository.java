@@ -2,12 +2,15 @@ package com.lavaderosepulveda.app.repository;
 
 import com.lavaderosepulveda.app.model.Cita;
 import com.lavaderosepulveda.app.model.enums.EstadoCita;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -92,16 +95,38 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
     List<Cita> findCitasEnProceso();
 
     /**
-     * Buscar citas del mes actual
+     * Buscar citas de un mes: [inicioMes, inicioMesSiguiente), sin funciones sobre la
+     * columna para que se use el índice por fecha
      */
-    @Query("SELECT c FROM Cita c WHERE YEAR(c.fecha) = :anio AND MONTH(c.fecha) = :mes ORDER BY c.fecha, c.hora")
-    List<Cita> findCitasByMes(@Param("anio") int anio, @Param("mes") int mes);
+    @Query("SELECT c FROM Cita c WHERE c.fecha >= :inicioMes AND c.fecha < :inicioMesSiguiente ORDER BY c.fecha, c.hora")
+    List<Cita> findCitasByMes(@Param("inicioMes") LocalDate inicioMes,
+                              @Param("inicioMesSiguiente") LocalDate inicioMesSiguiente);
 
     /**
      * Contar citas del mes por estado
      */
-    @Query("SELECT COUNT(c) FROM Cita c WHERE YEAR(c.fecha) = :anio AND MONTH(c.fecha) = :mes AND c.estado = :estado")
-    long countCitasByMesAndEstado(@Param("anio") int anio, @Param("mes") int mes, @Param("estado") EstadoCita estado);
+    @Query("SELECT COUNT(c) FROM Cita c WHERE c.fecha >= :inicioMes AND c.fecha < :inicioMesSiguiente AND c.estado = :estado")
+    long countCitasByMesAndEstado(@Param("inicioMes") LocalDate inicioMes,
+                                  @Param("inicioMesSiguiente") LocalDate inicioMesSiguiente,
+                                  @Param("estado") EstadoCita estado);
+
+    /**
+     * Métricas del dashboard en una sola consulta con agregación condicional.
+     * Devuelve una fila por (estado, tipoLavado) con:
+     * total, citas de hoy, citas desde hoy, citas del mes y citas facturadas
+     */
+    @Query("""
+        SELECT c.estado, c.tipoLavado, COUNT(c),
+            SUM(CASE WHEN c.fecha = :hoy THEN 1 ELSE 0 END),
+            SUM(CASE WHEN c.fecha >= :hoy THEN 1 ELSE 0 END),
+            SUM(CASE WHEN c.fecha >= :inicioMes AND c.fecha < :inicioMesSiguiente THEN 1 ELSE 0 END),
+            SUM(CASE WHEN c.facturada = true THEN 1 ELSE 0 END)
+        FROM Cita c
+        GROUP BY c.estado, c.tipoLavado
+        """)
+    List<Object[]> obtenerMetricasDashboard(@Param("hoy") LocalDate hoy,
+                                            @Param("inicioMes") LocalDate inicioMes,
+                                            @Param("inicioMesSiguiente") LocalDate inicioMesSiguiente);
 
     // ==================== MÉTODOS PARA ESTADÍSTICAS (Native Queries) ====================
 
@@ -202,4 +227,27 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
         LIMIT 1
         """, nativeQuery = true)
     String findServicioMasPopular(@Param("fechaInicio") LocalDate fechaInicio);
-}
\ No newline at end of file
+
+    // ========================================
+    // SINCRONIZACIÓN INCREMENTAL
+    // ========================================
+
+    /**
+     * Cambios posteriores a la posición (updatedAt, id), en orden de actualización.
+     * "hasta" deja fuera lo modificado en los últimos segundos para no saltarse
+     * transacciones que aún no han hecho commit
+     */
+    @Query("SELECT c FROM Cita c WHERE (c.updatedAt > :desde OR (c.updatedAt = :desde AND c.id > :desdeId)) " +
+            "AND c.updatedAt < :hasta ORDER BY c.updatedAt, c.id")
+    List<Cita> findCambiosDesde(@Param("desde") LocalDateTime desde,
+                                @Param("desdeId") Long desdeId,
+                                @Param("hasta") LocalDateTime hasta,
+                                Pageable pageable);
+
+    /**
+     * Rellena updatedAt en registros antiguos creados antes de que existiera la columna
+     */
+    @Modifying
+    @Query("UPDATE Cita c SET c.updatedAt = COALESCE(c.createdAt, CURRENT_TIMESTAMP) WHERE c.updatedAt IS NULL")
+    int rellenarUpdatedAtNulos();
+}
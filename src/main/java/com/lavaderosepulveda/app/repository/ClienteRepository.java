@@ -1,11 +1,15 @@
 package com.lavaderosepulveda.app.repository;
 
 import com.lavaderosepulveda.app.model.Cliente;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -88,4 +92,34 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
      * Buscar clientes por marca de vehículo
      */
     List<Cliente> findByMarcaIgnoreCase(String marca);
-}
\ No newline at end of file
+
+    /**
+     * Clientes que coinciden por NIF o por teléfono con un bloque de importación (una sola consulta)
+     */
+    @Query("SELECT c FROM Cliente c WHERE c.nif IN :nifs OR c.telefono IN :telefonos")
+    List<Cliente> findByNifInOrTelefonoIn(@Param("nifs") Collection<String> nifs,
+                                          @Param("telefonos") Collection<String> telefonos);
+
+    // ========================================
+    // SINCRONIZACIÓN INCREMENTAL
+    // ========================================
+
+    /**
+     * Cambios posteriores a la posición (updatedAt, id), en orden de actualización.
+     * "hasta" deja fuera lo modificado en los últimos segundos para no saltarse
+     * transacciones que aún no han hecho commit
+     */
+    @Query("SELECT c FROM Cliente c WHERE (c.updatedAt > :desde OR (c.updatedAt = :desde AND c.id > :desdeId)) " +
+            "AND c.updatedAt < :hasta ORDER BY c.updatedAt, c.id")
+    List<Cliente> findCambiosDesde(@Param("desde") LocalDateTime desde,
+                                   @Param("desdeId") Long desdeId,
+                                   @Param("hasta") LocalDateTime hasta,
+                                   Pageable pageable);
+
+    /**
+     * Rellena updatedAt en registros antiguos creados antes de que existiera la columna
+     */
+    @Modifying
+    @Query("UPDATE Cliente c SET c.updatedAt = COALESCE(c.createdAt, CURRENT_TIMESTAMP) WHERE c.updatedAt IS NULL")
+    int rellenarUpdatedAtNulos();
+}
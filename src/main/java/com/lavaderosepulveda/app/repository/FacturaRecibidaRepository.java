@@ -66,9 +66,28 @@ public interface FacturaRecibidaRepository extends JpaRepository<FacturaRecibida
                      "WHERE f.fechaFactura BETWEEN :inicio AND :fin GROUP BY f.proveedorNombre ORDER BY SUM(f.total) DESC")
        List<Object[]> resumenPorProveedor(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
 
-       // Facturas del mes actual
-       @Query("SELECT f FROM FacturaRecibida f WHERE YEAR(f.fechaFactura) = :year AND MONTH(f.fechaFactura) = :month ORDER BY f.fechaFactura DESC")
-       List<FacturaRecibida> findByMes(@Param("year") int year, @Param("month") int month);
+       // Modelo 390: número de facturas, base e IVA soportado por trimestre
+       // Filas: [trimestre, numFacturas, baseImponible, cuotaIva]
+       @Query("SELECT EXTRACT(QUARTER FROM f.fechaFactura), COUNT(f), SUM(f.baseImponible), SUM(f.cuotaIva) " +
+                     "FROM FacturaRecibida f WHERE f.fechaFactura BETWEEN :inicio AND :fin " +
+                     "GROUP BY EXTRACT(QUARTER FROM f.fechaFactura)")
+       List<Object[]> resumenIvaPorTrimestre(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+       // Modelo 347: compras con IVA por proveedor (NIF o, si no tiene, nombre)
+       // Filas: [nif, nombre, numFacturas, total, totalT1, totalT2, totalT3, totalT4]
+       @Query("SELECT MAX(f.proveedorNif), MAX(f.proveedorNombre), COUNT(f), SUM(f.total), " +
+                     "SUM(CASE WHEN EXTRACT(QUARTER FROM f.fechaFactura) = 1 THEN f.total ELSE 0 END), " +
+                     "SUM(CASE WHEN EXTRACT(QUARTER FROM f.fechaFactura) = 2 THEN f.total ELSE 0 END), " +
+                     "SUM(CASE WHEN EXTRACT(QUARTER FROM f.fechaFactura) = 3 THEN f.total ELSE 0 END), " +
+                     "SUM(CASE WHEN EXTRACT(QUARTER FROM f.fechaFactura) = 4 THEN f.total ELSE 0 END) " +
+                     "FROM FacturaRecibida f WHERE f.fechaFactura BETWEEN :inicio AND :fin " +
+                     "GROUP BY COALESCE(NULLIF(f.proveedorNif, ''), NULLIF(f.proveedorNombre, ''), 'Sin proveedor')")
+       List<Object[]> resumen347PorProveedor(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+       // Facturas de un mes: [inicioMes, inicioMesSiguiente)
+       @Query("SELECT f FROM FacturaRecibida f WHERE f.fechaFactura >= :inicioMes AND f.fechaFactura < :inicioMesSiguiente ORDER BY f.fechaFactura DESC")
+       List<FacturaRecibida> findByMes(@Param("inicioMes") LocalDate inicioMes,
+                     @Param("inicioMesSiguiente") LocalDate inicioMesSiguiente);
 
        // Próximos vencimientos
        @Query("SELECT f FROM FacturaRecibida f WHERE f.estado = 'PENDIENTE' AND f.fechaVencimiento BETWEEN :hoy AND :limite ORDER BY f.fechaVencimiento ASC")
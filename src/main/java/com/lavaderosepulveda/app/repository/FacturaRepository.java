@@ -2,35 +2,55 @@ package com.lavaderosepulveda.app.repository;
 
 import com.lavaderosepulveda.app.model.enums.EstadoFactura;
 import com.lavaderosepulveda.app.model.Factura;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FacturaRepository extends JpaRepository<Factura, Long> {
 
+    // Las consultas que acaban convertidas a DTO en el controlador traen cliente y
+    // líneas en la misma SELECT: sin open-in-view ya no hay sesión para cargarlos después
+
+    // Todas las facturas con las líneas, para el listado de la API (findAll se queda sin
+    // JOIN: la reconstrucción del índice de búsqueda no necesita las líneas)
+    @EntityGraph(attributePaths = {"cliente", "lineas"})
+    List<Factura> findConLineasByOrderByFechaDesc();
+
     // Buscar por número de factura
+    @EntityGraph(attributePaths = {"cliente", "lineas"})
     Optional<Factura> findByNumero(String numero);
 
-    // Buscar factura con sus líneas (para eliminación en cascada)
-    @Query("SELECT f FROM Factura f LEFT JOIN FETCH f.lineas WHERE f.id = :id")
+    // Buscar factura con su cliente y sus líneas (detalle, PDF y eliminación en cascada)
+    @Query("SELECT f FROM Factura f LEFT JOIN FETCH f.cliente LEFT JOIN FETCH f.lineas WHERE f.id = :id")
     Optional<Factura> findByIdWithLineas(@Param("id") Long id);
 
     // Buscar por estado
+    @EntityGraph(attributePaths = {"cliente", "lineas"})
     List<Factura> findByEstadoOrderByFechaDesc(EstadoFactura estado);
 
     // Buscar por cliente
+    @EntityGraph(attributePaths = {"cliente", "lineas"})
     List<Factura> findByClienteIdOrderByFechaDesc(Long clienteId);
 
-    // Buscar por rango de fechas
+    // Buscar por rango de fechas (informes: solo necesitan el cliente)
+    @EntityGraph(attributePaths = "cliente")
     List<Factura> findByFechaBetweenOrderByFechaDesc(LocalDate fechaInicio, LocalDate fechaFin);
 
+    // Buscar por rango de fechas con las líneas, para el listado de la API
+    @EntityGraph(attributePaths = {"cliente", "lineas"})
+    List<Factura> findConLineasByFechaBetweenOrderByFechaDesc(LocalDate fechaInicio, LocalDate fechaFin);
+
     // Buscar por año
     List<Factura> findByAnioOrderByNumeroSecuencialDesc(Integer anio);
 
@@ -39,6 +59,7 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
     Optional<Integer> findMaxNumeroSecuencialByAnio(@Param("anio") Integer anio);
 
     // Buscar facturas pendientes
+    @EntityGraph(attributePaths = {"cliente", "lineas"})
     @Query("SELECT f FROM Factura f WHERE f.estado = 'PENDIENTE' ORDER BY f.fecha")
     List<Factura> findFacturasPendientes();
 
@@ -56,11 +77,12 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
     // Contar facturas por estado
     long countByEstado(EstadoFactura estado);
 
-    // Contar facturas del mes actual
-    @Query("SELECT COUNT(f) FROM Factura f WHERE YEAR(f.fecha) = :anio AND MONTH(f.fecha) = :mes")
-    long countByMes(@Param("anio") int anio, @Param("mes") int mes);
+    // Contar facturas de un mes: [inicioMes, inicioMesSiguiente)
+    @Query("SELECT COUNT(f) FROM Factura f WHERE f.fecha >= :inicioMes AND f.fecha < :inicioMesSiguiente")
+    long countByMes(@Param("inicioMes") LocalDate inicioMes, @Param("inicioMesSiguiente") LocalDate inicioMesSiguiente);
 
     // Buscar facturas de hoy
+    @EntityGraph(attributePaths = {"cliente", "lineas"})
     List<Factura> findByFechaOrderByCreatedAtDesc(LocalDate fecha);
 
     // Total pendiente de cobro
@@ -68,6 +90,59 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
     BigDecimal sumTotalPendiente();
 
     // Búsqueda por texto (número o nombre cliente)
+    @EntityGraph(attributePaths = {"cliente", "lineas"})
     @Query("SELECT f FROM Factura f WHERE f.numero LIKE %:texto% OR f.clienteNombre LIKE %:texto% ORDER BY f.fecha DESC")
     List<Factura> buscarPorTexto(@Param("texto") String texto);
-}
\ No newline at end of file
+
+    // ========================================
+    // MODELOS FISCALES (agregados en base de datos)
+    // ========================================
+
+    /**
+     * Modelo 390: número de facturas, base e IVA devengado por trimestre.
+     * Filas: [trimestre, numFacturas, baseImponible, importeIva]
+     */
+    @Query("SELECT EXTRACT(QUARTER FROM f.fecha), COUNT(f), SUM(f.baseImponible), SUM(f.importeIva) " +
+            "FROM Factura f WHERE f.fecha BETWEEN :inicio AND :fin " +
+            "GROUP BY EXTRACT(QUARTER FROM f.fecha)")
+    List<Object[]> resumenIvaPorTrimestre(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    /**
+     * Modelo 347: ventas con IVA por cliente (NIF o, si no tiene, nombre) que superan el umbral.
+     * Filas: [nif, nombre, numFacturas, total, totalT1, totalT2, totalT3, totalT4]
+     */
+    @Query("SELECT MAX(f.clienteNif), MAX(f.clienteNombre), COUNT(f), SUM(f.total), " +
+            "SUM(CASE WHEN EXTRACT(QUARTER FROM f.fecha) = 1 THEN f.total ELSE 0 END), " +
+            "SUM(CASE WHEN EXTRACT(QUARTER FROM f.fecha) = 2 THEN f.total ELSE 0 END), " +
+            "SUM(CASE WHEN EXTRACT(QUARTER FROM f.fecha) = 3 THEN f.total ELSE 0 END), " +
+            "SUM(CASE WHEN EXTRACT(QUARTER FROM f.fecha) = 4 THEN f.total ELSE 0 END) " +
+            "FROM Factura f WHERE f.fecha BETWEEN :inicio AND :fin " +
+            "AND f.clienteNombre IS NOT NULL AND f.clienteNombre <> '' " +
+            "GROUP BY COALESCE(NULLIF(f.clienteNif, ''), f.clienteNombre) " +
+            "HAVING ABS(SUM(f.total)) >= :umbral")
+    List<Object[]> resumen347PorCliente(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin,
+            @Param("umbral") BigDecimal umbral);
+
+    // ========================================
+    // SINCRONIZACIÓN INCREMENTAL
+    // ========================================
+
+    /**
+     * Cambios posteriores a la posición (updatedAt, id), en orden de actualización.
+     * "hasta" deja fuera lo modificado en los últimos segundos para no saltarse
+     * transacciones que aún no han hecho commit
+     */
+    @Query("SELECT f FROM Factura f WHERE (f.updatedAt > :desde OR (f.updatedAt = :desde AND f.id > :desdeId)) " +
+            "AND f.updatedAt < :hasta ORDER BY f.updatedAt, f.id")
+    List<Factura> findCambiosDesde(@Param("desde") LocalDateTime desde,
+                                   @Param("desdeId") Long desdeId,
+                                   @Param("hasta") LocalDateTime hasta,
+                                   Pageable pageable);
+
+    /**
+     * Rellena updatedAt en registros antiguos creados antes de que existiera la columna
+     */
+    @Modifying
+    @Query("UPDATE Factura f SET f.updatedAt = COALESCE(f.createdAt, CURRENT_TIMESTAMP) WHERE f.updatedAt IS NULL")
+    int rellenarUpdatedAtNulos();
+}
@@ -42,9 +42,10 @@ public interface GastoRepository extends JpaRepository<Gasto, Long> {
                      "WHERE g.fecha BETWEEN :inicio AND :fin GROUP BY g.categoria ORDER BY SUM(g.importe) DESC")
        List<Object[]> resumenPorCategoria(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
 
-       // Gastos del mes actual
-       @Query("SELECT g FROM Gasto g WHERE YEAR(g.fecha) = :year AND MONTH(g.fecha) = :month ORDER BY g.fecha DESC")
-       List<Gasto> findByMes(@Param("year") int year, @Param("month") int month);
+       // Gastos de un mes: [inicioMes, inicioMesSiguiente)
+       @Query("SELECT g FROM Gasto g WHERE g.fecha >= :inicioMes AND g.fecha < :inicioMesSiguiente ORDER BY g.fecha DESC")
+       List<Gasto> findByMes(@Param("inicioMes") LocalDate inicioMes,
+                     @Param("inicioMesSiguiente") LocalDate inicioMesSiguiente);
 
        // Total base imponible por período (para IVA soportado)
        @Query("SELECT SUM(g.baseImponible) FROM Gasto g WHERE g.fecha BETWEEN :inicio AND :fin")
@@ -54,6 +55,24 @@ public interface GastoRepository extends JpaRepository<Gasto, Long> {
        @Query("SELECT SUM(g.cuotaIva) FROM Gasto g WHERE g.fecha BETWEEN :inicio AND :fin")
        BigDecimal totalIvaSoportado(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
 
+       // Modelo 390: número de gastos, base e IVA soportado por trimestre
+       // Filas: [trimestre, numGastos, baseImponible, cuotaIva]
+       @Query("SELECT EXTRACT(QUARTER FROM g.fecha), COUNT(g), SUM(g.baseImponible), SUM(g.cuotaIva) " +
+                     "FROM Gasto g WHERE g.fecha BETWEEN :inicio AND :fin " +
+                     "GROUP BY EXTRACT(QUARTER FROM g.fecha)")
+       List<Object[]> resumenIvaPorTrimestre(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+       // Modelo 347: gastos sin factura agrupados por concepto (hace de proveedor)
+       // Filas: [concepto, numGastos, total, totalT1, totalT2, totalT3, totalT4]
+       @Query("SELECT COALESCE(NULLIF(g.concepto, ''), 'Sin proveedor'), COUNT(g), SUM(g.importe), " +
+                     "SUM(CASE WHEN EXTRACT(QUARTER FROM g.fecha) = 1 THEN g.importe ELSE 0 END), " +
+                     "SUM(CASE WHEN EXTRACT(QUARTER FROM g.fecha) = 2 THEN g.importe ELSE 0 END), " +
+                     "SUM(CASE WHEN EXTRACT(QUARTER FROM g.fecha) = 3 THEN g.importe ELSE 0 END), " +
+                     "SUM(CASE WHEN EXTRACT(QUARTER FROM g.fecha) = 4 THEN g.importe ELSE 0 END) " +
+                     "FROM Gasto g WHERE g.fecha BETWEEN :inicio AND :fin " +
+                     "GROUP BY COALESCE(NULLIF(g.concepto, ''), 'Sin proveedor')")
+       List<Object[]> resumen347PorConcepto(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
        // Gastos sin pagar
        @Query("SELECT g FROM Gasto g WHERE g.pagado = false ORDER BY g.fecha ASC")
        List<Gasto> findPendientesPago();
@@ -62,8 +81,8 @@ public interface GastoRepository extends JpaRepository<Gasto, Long> {
        @Query("SELECT g FROM Gasto g WHERE g.recurrente = true AND g.diaRecurrencia = :dia")
        List<Gasto> findRecurrentesPorDia(@Param("dia") Integer dia);
 
-       // Evolución mensual
+       // Evolución mensual entre [inicio, fin); YEAR/MONTH solo para agrupar, el filtro es por rango
        @Query("SELECT YEAR(g.fecha), MONTH(g.fecha), SUM(g.importe) FROM Gasto g " +
-                     "WHERE g.fecha BETWEEN :inicio AND :fin GROUP BY YEAR(g.fecha), MONTH(g.fecha) ORDER BY YEAR(g.fecha), MONTH(g.fecha)")
+                     "WHERE g.fecha >= :inicio AND g.fecha < :fin GROUP BY YEAR(g.fecha), MONTH(g.fecha) ORDER BY YEAR(g.fecha), MONTH(g.fecha)")
        List<Object[]> evolucionMensual(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
 }
@@ -0,0 +1,27 @@
+package com.lavaderosepulveda.app.repository;
+
+import com.lavaderosepulveda.app.model.RegistroEliminado;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RegistroEliminadoRepository extends JpaRepository<RegistroEliminado, Long> {
+
+    /**
+     * Borrados de una entidad posteriores a la posición (fecha, id), en orden de borrado
+     */
+    @Query("SELECT r FROM RegistroEliminado r WHERE r.entidad = :entidad " +
+            "AND (r.eliminadoEn > :desde OR (r.eliminadoEn = :desde AND r.id > :desdeId)) " +
+            "AND r.eliminadoEn < :hasta ORDER BY r.eliminadoEn, r.id")
+    List<RegistroEliminado> findEliminadosDesde(@Param("entidad") String entidad,
+                                                @Param("desde") LocalDateTime desde,
+                                                @Param("desdeId") Long desdeId,
+                                                @Param("hasta") LocalDateTime hasta,
+                                                Pageable pageable);
+}
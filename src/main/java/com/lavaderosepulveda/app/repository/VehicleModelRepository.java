@@ -1,22 +1,29 @@
 package com.lavaderosepulveda.app.repository;
 
 import com.lavaderosepulveda.app.model.VehicleModel;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
 public interface VehicleModelRepository extends JpaRepository<VehicleModel, Long> {
 
     /**
-     * Busca un modelo de vehículo cuyo nombre coincida o contenga el término de búsqueda normalizado.
-     * La normalización en la base de datos se hace reemplazando caracteres no alfanuméricos y espacios.
-     * Ejemplo: "Serie 3" se buscaría como "serie3".
+     * Todos los modelos con su categoría ya cargada: la pantalla de administración los
+     * agrupa por categoría fuera de la transacción
      */
-    @Query("SELECT vm FROM VehicleModel vm WHERE LOWER(REPLACE(REPLACE(vm.name, ' ', ''), '-', '')) LIKE LOWER(CONCAT('%', :name, '%'))")
-    Optional<VehicleModel> findFirstByNameContainingNormalized(@Param("name") String name);
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<VehicleModel> findAll();
+
+    /**
+     * Nombre de cada modelo con el de su categoría, en orden de alta, para construir
+     * el clasificador en memoria. Cada fila: [nombreModelo, nombreCategoria]
+     */
+    @Query("SELECT vm.name, c.name FROM VehicleModel vm JOIN vm.category c ORDER BY vm.id")
+    List<Object[]> findNombresConCategoria();
 
 }
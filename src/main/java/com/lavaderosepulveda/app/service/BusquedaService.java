@@ -0,0 +1,341 @@
+package com.lavaderosepulveda.app.service;
+
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import com.lavaderosepulveda.app.dto.ResultadoBusquedaDTO;
+import com.lavaderosepulveda.app.model.Cita;
+import com.lavaderosepulveda.app.model.Cliente;
+import com.lavaderosepulveda.app.model.Factura;
+import com.lavaderosepulveda.app.model.FacturaRecibida;
+import com.lavaderosepulveda.app.model.Proveedor;
+import com.lavaderosepulveda.app.repository.CitaRepository;
+import com.lavaderosepulveda.app.repository.ClienteRepository;
+import com.lavaderosepulveda.app.repository.FacturaRecibidaRepository;
+import com.lavaderosepulveda.app.repository.FacturaRepository;
+import com.lavaderosepulveda.app.repository.ProveedorRepository;
+import com.lavaderosepulveda.app.util.IndiceInvertido;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda unificada de clientes, citas (matrículas), facturas emitidas, facturas
+ * recibidas y proveedores sobre un índice invertido en memoria.
+ *
+ * El índice se construye al arrancar y se mantiene con los eventos de cambio que ya
+ * publican los servicios (tras el commit). Como red de seguridad para escrituras que no
+ * publican evento (importaciones, migraciones), se reconstruye entero periódicamente.
+ */
+@Service
+@Lazy(false) // con el perfil lazy no se programaría la reconstrucción
+public class BusquedaService {
+
+    private static final Logger log = LoggerFactory.getLogger(BusquedaService.class);
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Orden de los grupos en la respuesta
+    private static final List<String> TIPOS = List.of(
+            EventoCambioDTO.CLIENTE, EventoCambioDTO.CITA, EventoCambioDTO.FACTURA,
+            EventoCambioDTO.FACTURA_RECIBIDA, EventoCambioDTO.PROVEEDOR);
+
+    private static final int MIN_CARACTERES = 2;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private FacturaRecibidaRepository facturaRecibidaRepository;
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private volatile Indice indice = new Indice();
+
+    // Cambios recibidos mientras se reconstruye: se aplican también al índice nuevo
+    private final List<EventoCambioDTO> cambiosDuranteReconstruccion = new ArrayList<>();
+    private boolean reconstruyendo;
+
+    /**
+     * Buscar en todas las entidades; hasta "limitePorTipo" resultados de cada una,
+     * los más recientes primero
+     */
+    public List<ResultadoBusquedaDTO> buscar(String texto, int limitePorTipo) {
+        if (texto == null || texto.trim().length() < MIN_CARACTERES) {
+            return List.of();
+        }
+
+        Indice actual = indice;
+        Map<String, List<ResultadoBusquedaDTO>> porTipo = new LinkedHashMap<>();
+        for (String clave : actual.texto.buscar(texto)) {
+            ResultadoBusquedaDTO resultado = actual.resultados.get(clave);
+            if (resultado != null) {
+                porTipo.computeIfAbsent(resultado.getTipo(), t -> new ArrayList<>()).add(resultado);
+            }
+        }
+
+        List<ResultadoBusquedaDTO> respuesta = new ArrayList<>();
+        for (String tipo : TIPOS) {
+            List<ResultadoBusquedaDTO> delTipo = porTipo.getOrDefault(tipo, List.of());
+            delTipo.stream()
+                    .sorted(Comparator.comparing(ResultadoBusquedaDTO::getId).reversed())
+                    .limit(limitePorTipo)
+                    .forEach(respuesta::add);
+        }
+        return respuesta;
+    }
+
+    /**
+     * Reconstruir el índice completo (al arrancar y periódicamente)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.busqueda.reconstruir-ms:3600000}",
+            fixedDelayString = "${app.busqueda.reconstruir-ms:3600000}")
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        synchronized (cambiosDuranteReconstruccion) {
+            reconstruyendo = true;
+            cambiosDuranteReconstruccion.clear();
+        }
+
+        Indice nuevo = new Indice();
+        try {
+            transactionTemplate.execute(status -> {
+                TIPOS.forEach(tipo -> cargarTodos(tipo).forEach(nuevo::indexar));
+                return null;
+            });
+        } catch (Exception e) {
+            synchronized (cambiosDuranteReconstruccion) {
+                reconstruyendo = false;
+            }
+            log.error("No se pudo construir el índice de búsqueda: {}", e.getMessage(), e);
+            return;
+        }
+
+        List<EventoCambioDTO> pendientes;
+        synchronized (cambiosDuranteReconstruccion) {
+            indice = nuevo;
+            reconstruyendo = false;
+            pendientes = new ArrayList<>(cambiosDuranteReconstruccion);
+            cambiosDuranteReconstruccion.clear();
+        }
+        pendientes.forEach(evento -> aplicar(nuevo, evento));
+
+        log.info("Índice de búsqueda construido: {} registros en {} ms",
+                nuevo.texto.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Mantener el índice al día con los cambios confirmados. Un evento sin id (cambios en
+     * bloque, como la importación de clientes) reindexa todos los registros de su tipo.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambio(EventoCambioDTO evento) {
+        if (!TIPOS.contains(evento.getEntidad())) {
+            return;
+        }
+        synchronized (cambiosDuranteReconstruccion) {
+            if (reconstruyendo) {
+                cambiosDuranteReconstruccion.add(evento);
+            }
+        }
+        aplicar(indice, evento);
+    }
+
+    private void aplicar(Indice destino, EventoCambioDTO evento) {
+        try {
+            aplicarCambio(destino, evento);
+        } catch (Exception e) {
+            log.warn("No se pudo actualizar el índice de búsqueda para {} {}: {}",
+                    evento.getEntidad(), evento.getId(), e.getMessage());
+        }
+    }
+
+    private void aplicarCambio(Indice destino, EventoCambioDTO evento) {
+        if (evento.getId() == null) {
+            reindexar(destino, evento.getEntidad());
+            return;
+        }
+
+        String clave = clave(evento.getEntidad(), evento.getId());
+        if (evento.getAccion() == EventoCambioDTO.Accion.ELIMINADO) {
+            destino.eliminar(clave);
+            return;
+        }
+
+        Documento documento = transactionTemplate.execute(status -> cargar(evento.getEntidad(), evento.getId()));
+        if (documento != null) {
+            destino.indexar(documento);
+        } else {
+            destino.eliminar(clave);
+        }
+    }
+
+    /**
+     * Volver a indexar todos los registros de un tipo y quitar los que ya no existen
+     */
+    private void reindexar(Indice destino, String tipo) {
+        List<Documento> documentos = transactionTemplate.execute(status -> cargarTodos(tipo));
+        if (documentos == null) {
+            return;
+        }
+
+        Set<String> vigentes = new HashSet<>();
+        for (Documento documento : documentos) {
+            destino.indexar(documento);
+            vigentes.add(clave(tipo, documento.resultado().getId()));
+        }
+
+        String prefijo = tipo + ":";
+        List<String> borrados = destino.resultados.keySet().stream()
+                .filter(clave -> clave.startsWith(prefijo) && !vigentes.contains(clave))
+                .toList();
+        borrados.forEach(destino::eliminar);
+
+        log.debug("Índice de búsqueda: {} registros de {} reindexados, {} quitados",
+                documentos.size(), tipo, borrados.size());
+    }
+
+    private List<Documento> cargarTodos(String tipo) {
+        return switch (tipo) {
+            case EventoCambioDTO.CLIENTE -> clienteRepository.findAll().stream().map(this::documento).toList();
+            case EventoCambioDTO.CITA -> citaRepository.findAll().stream().map(this::documento).toList();
+            case EventoCambioDTO.FACTURA -> facturaRepository.findAll().stream().map(this::documento).toList();
+            case EventoCambioDTO.FACTURA_RECIBIDA ->
+                    facturaRecibidaRepository.findAll().stream().map(this::documento).toList();
+            case EventoCambioDTO.PROVEEDOR -> proveedorRepository.findAll().stream().map(this::documento).toList();
+            default -> List.of();
+        };
+    }
+
+    private Documento cargar(String tipo, Long id) {
+        return switch (tipo) {
+            case EventoCambioDTO.CLIENTE -> clienteRepository.findById(id).map(this::documento).orElse(null);
+            case EventoCambioDTO.CITA -> citaRepository.findById(id).map(this::documento).orElse(null);
+            case EventoCambioDTO.FACTURA -> facturaRepository.findById(id).map(this::documento).orElse(null);
+            case EventoCambioDTO.FACTURA_RECIBIDA ->
+                    facturaRecibidaRepository.findById(id).map(this::documento).orElse(null);
+            case EventoCambioDTO.PROVEEDOR -> proveedorRepository.findById(id).map(this::documento).orElse(null);
+            default -> null;
+        };
+    }
+
+    // ========================================
+    // DOCUMENTOS POR ENTIDAD
+    // ========================================
+
+    private Documento documento(Cliente c) {
+        String nombre = unir(" ", c.getNombre(), c.getApellidos());
+        return new Documento(
+                new ResultadoBusquedaDTO(EventoCambioDTO.CLIENTE, c.getId(), nombre,
+                        unir(" · ", c.getTelefono(), c.getMatricula(), c.getEmail()), null),
+                Arrays.asList(c.getNombre(), c.getApellidos(), c.getEmail(), c.getCiudad(),
+                        c.getMarca(), c.getModelo(), c.getVehiculoHabitual()),
+                Arrays.asList(c.getTelefono(), c.getMatricula(), c.getNif()));
+    }
+
+    private Documento documento(Cita c) {
+        String cuando = c.getFecha() != null ? c.getFecha().format(FORMATO_FECHA) : null;
+        return new Documento(
+                new ResultadoBusquedaDTO(EventoCambioDTO.CITA, c.getId(), c.getNombre(),
+                        unir(" · ", cuando, c.getModeloVehiculo(), c.getMatricula()), c.getFecha()),
+                Arrays.asList(c.getNombre(), c.getEmail(), c.getModeloVehiculo()),
+                Arrays.asList(c.getTelefono(), c.getMatricula(), c.getReferenciaPago()));
+    }
+
+    private Documento documento(Factura f) {
+        return new Documento(
+                new ResultadoBusquedaDTO(EventoCambioDTO.FACTURA, f.getId(), f.getNumero(),
+                        unir(" · ", f.getClienteNombre(), importe(f.getTotal())), f.getFecha()),
+                Arrays.asList(f.getClienteNombre(), f.getClienteEmail()),
+                Arrays.asList(f.getNumero(), f.getClienteNif(), f.getClienteTelefono()));
+    }
+
+    private Documento documento(FacturaRecibida f) {
+        return new Documento(
+                new ResultadoBusquedaDTO(EventoCambioDTO.FACTURA_RECIBIDA, f.getId(),
+                        unir(" - ", f.getNumeroFactura(), f.getProveedorNombre()),
+                        unir(" · ", f.getConcepto(), importe(f.getTotal())), f.getFechaFactura()),
+                Arrays.asList(f.getProveedorNombre(), f.getConcepto()),
+                Arrays.asList(f.getNumeroFactura(), f.getProveedorNif()));
+    }
+
+    private Documento documento(Proveedor p) {
+        return new Documento(
+                new ResultadoBusquedaDTO(EventoCambioDTO.PROVEEDOR, p.getId(), p.getNombre(),
+                        unir(" · ", p.getNif(), p.getTelefono(), p.getEmail()), null),
+                Arrays.asList(p.getNombre(), p.getContacto(), p.getEmail(), p.getCiudad(), p.getCategoria()),
+                Arrays.asList(p.getNif(), p.getTelefono()));
+    }
+
+    private static String unir(String separador, String... partes) {
+        return Arrays.stream(partes)
+                .filter(Objects::nonNull)
+                .filter(parte -> !parte.isBlank())
+                .collect(Collectors.joining(separador));
+    }
+
+    private static String importe(BigDecimal total) {
+        return total != null ? String.format("%.2f €", total) : null;
+    }
+
+    private static String clave(String tipo, Long id) {
+        return tipo + ":" + id;
+    }
+
+    // ========================================
+    // CLASES INTERNAS
+    // ========================================
+
+    private record Documento(ResultadoBusquedaDTO resultado, List<String> textos, List<String> codigos) {
+    }
+
+    /**
+     * Índice de texto más el resultado a devolver por cada clave
+     */
+    private static final class Indice {
+        private final IndiceInvertido texto = new IndiceInvertido();
+        private final Map<String, ResultadoBusquedaDTO> resultados = new ConcurrentHashMap<>();
+
+        private void indexar(Documento documento) {
+            String clave = clave(documento.resultado().getTipo(), documento.resultado().getId());
+            resultados.put(clave, documento.resultado());
+            texto.indexar(clave, documento.textos(), documento.codigos());
+        }
+
+        private void eliminar(String clave) {
+            texto.eliminar(clave);
+            resultados.remove(clave);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.lavaderosepulveda.app.service;
 
 import com.lavaderosepulveda.app.dto.ClienteEstadisticaDTO;
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import com.lavaderosepulveda.app.dto.EventoCambioDTO.Accion;
 import com.lavaderosepulveda.app.model.Cita;
 import com.lavaderosepulveda.app.model.enums.EstadoCita;
 import com.lavaderosepulveda.app.model.enums.TipoLavado;
@@ -9,6 +11,7 @@ import com.lavaderosepulveda.app.util.DateTimeFormatUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +37,9 @@ public class CitaService {
     @Autowired
     private HorarioService horarioService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Crear una nueva cita con validaciones de negocio
      */
@@ -49,7 +55,9 @@ public class CitaService {
         // Validar que la fecha no sea en el pasado
         validarFechaFutura(cita.getFecha());
 
-        return citaRepository.save(cita);
+        Cita nuevaCita = citaRepository.save(cita);
+        publicarCambio(Accion.CREADO, nuevaCita.getId());
+        return nuevaCita;
     }
 
     /**
@@ -100,7 +108,7 @@ public class CitaService {
                         citaExistente.setHora(citaActualizada.getHora());
                     }
 
-                    return citaRepository.save(citaExistente);
+                    return guardarYPublicar(citaExistente);
                 })
                 .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + id));
     }
@@ -108,6 +116,7 @@ public class CitaService {
     /**
      * Eliminar cita por ID
      */
+    @Transactional
     public void eliminarCita(Long id) {
         if (id == null) {
             throw new IllegalArgumentException("El ID no puede ser nulo");
@@ -118,6 +127,7 @@ public class CitaService {
         }
 
         citaRepository.deleteById(id);
+        publicarCambio(Accion.ELIMINADO, id);
     }
 
     /**
@@ -294,7 +304,7 @@ public class CitaService {
                     }
 
                     log.info("Cita {} cambió de estado: {} -> {}", id, estadoAnterior, nuevoEstado);
-                    return citaRepository.save(cita);
+                    return guardarYPublicar(cita);
                 })
                 .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + id));
     }
@@ -322,7 +332,7 @@ public class CitaService {
                     }
 
                     log.info("Cita {} cancelada. Motivo: {}", id, motivo);
-                    return citaRepository.save(cita);
+                    return guardarYPublicar(cita);
                 })
                 .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + id));
     }
@@ -369,7 +379,7 @@ public class CitaService {
                     cita.setFacturada(true);
                     cita.setFacturaId(facturaId);
                     log.info("Cita {} marcada como facturada. Factura ID: {}", citaId, facturaId);
-                    return citaRepository.save(cita);
+                    return guardarYPublicar(cita);
                 })
                 .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + citaId));
     }
@@ -383,7 +393,7 @@ public class CitaService {
                 .map(cita -> {
                     cita.setHoraLlegada(LocalTime.now());
                     log.info("Llegada registrada para cita {}", id);
-                    return citaRepository.save(cita);
+                    return guardarYPublicar(cita);
                 })
                 .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + id));
     }
@@ -446,7 +456,7 @@ public class CitaService {
     public void marcarRecordatorioEnviado(Long citaId) {
         citaRepository.findById(citaId).ifPresent(cita -> {
             cita.setRecordatorioEnviado(true);
-            citaRepository.save(cita);
+            guardarYPublicar(cita);
             log.info("Recordatorio marcado como enviado para cita {}", citaId);
         });
     }
@@ -458,7 +468,7 @@ public class CitaService {
     public void marcarConfirmacionEnviada(Long citaId) {
         citaRepository.findById(citaId).ifPresent(cita -> {
             cita.setConfirmacionEnviada(true);
-            citaRepository.save(cita);
+            guardarYPublicar(cita);
             log.info("Confirmación marcada como enviada para cita {}", citaId);
         });
     }
@@ -467,7 +477,8 @@ public class CitaService {
      * Obtener citas del mes
      */
     public List<Cita> obtenerCitasDelMes(int anio, int mes) {
-        return citaRepository.findCitasByMes(anio, mes);
+        LocalDate inicioMes = LocalDate.of(anio, mes, 1);
+        return citaRepository.findCitasByMes(inicioMes, inicioMes.plusMonths(1));
     }
 
     /**
@@ -647,4 +658,20 @@ public class CitaService {
             throw new RuntimeException("No se pueden crear citas en fechas pasadas");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Guardar una cita modificada y notificar el cambio a los clientes suscritos
+     */
+    private Cita guardarYPublicar(Cita cita) {
+        Cita guardada = citaRepository.save(cita);
+        publicarCambio(Accion.ACTUALIZADO, guardada.getId());
+        return guardada;
+    }
+
+    /**
+     * Publicar el cambio como evento de Spring (EventosService lo envía tras el commit)
+     */
+    private void publicarCambio(Accion accion, Long id) {
+        eventPublisher.publishEvent(new EventoCambioDTO(EventoCambioDTO.CITA, accion, id));
+    }
+}
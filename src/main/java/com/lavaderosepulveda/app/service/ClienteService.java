@@ -1,6 +1,9 @@
 package com.lavaderosepulveda.app.service;
 
 import com.lavaderosepulveda.app.dto.ClienteDTO;
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import com.lavaderosepulveda.app.dto.EventoCambioDTO.Accion;
+import com.lavaderosepulveda.app.dto.ImportacionClientesDTO;
 import com.lavaderosepulveda.app.model.Cliente;
 import com.lavaderosepulveda.app.model.Cita;
 import com.lavaderosepulveda.app.model.enums.EstadoCita;
@@ -9,10 +12,14 @@ import com.lavaderosepulveda.app.repository.CitaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -27,6 +34,24 @@ public class ClienteService {
     @Autowired
     private CitaRepository citaRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String SQL_INSERTAR_CLIENTE =
+            "INSERT INTO clientes (nombre, apellidos, telefono, email, vehiculo_habitual, activo, nif, direccion, " +
+            "codigo_postal, ciudad, provincia, matricula, marca, modelo, color, notas, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Las celdas vacías del Excel no borran lo que ya se tenía del cliente
+    private static final String SQL_ACTUALIZAR_CLIENTE =
+            "UPDATE clientes SET nombre = ?, apellidos = COALESCE(?, apellidos), telefono = COALESCE(?, telefono), " +
+            "email = COALESCE(?, email), nif = COALESCE(?, nif), direccion = COALESCE(?, direccion), " +
+            "codigo_postal = COALESCE(?, codigo_postal), ciudad = COALESCE(?, ciudad), " +
+            "provincia = COALESCE(?, provincia), notas = COALESCE(?, notas), updated_at = ? WHERE id = ?";
+
     /**
      * Obtener todos los clientes (desde tabla clientes + estadísticas de citas)
      */
@@ -103,6 +128,7 @@ public class ClienteService {
         Cliente clienteGuardado = clienteRepository.save(cliente);
         log.info("Cliente creado: {} - {} - {}", clienteGuardado.getId(),
                 clienteGuardado.getNif(), clienteGuardado.getNombre());
+        publicarCambio(Accion.CREADO, clienteGuardado.getId());
 
         return convertirADTO(clienteGuardado);
     }
@@ -140,6 +166,7 @@ public class ClienteService {
 
         Cliente clienteActualizado = clienteRepository.save(cliente);
         log.info("Cliente actualizado: {} - {}", clienteActualizado.getId(), clienteActualizado.getNombre());
+        publicarCambio(Accion.ACTUALIZADO, clienteActualizado.getId());
 
         return convertirADTO(clienteActualizado);
     }
@@ -160,12 +187,161 @@ public class ClienteService {
                         id, citasCliente.size());
                 cliente.setActivo(false);
                 clienteRepository.save(cliente);
+                publicarCambio(Accion.ACTUALIZADO, id);
                 return;
             }
         }
 
         clienteRepository.deleteById(id);
         log.info("Cliente eliminado: {} - {}", id, cliente.getNombre());
+        publicarCambio(Accion.ELIMINADO, id);
+    }
+
+    /**
+     * Importación masiva de un bloque de clientes (Excel del CRM).
+     * Resuelve los existentes con una única consulta IN por NIF/teléfono y escribe
+     * altas y actualizaciones con dos lotes JDBC, en lugar de una petición por cliente.
+     * Criterio de coincidencia: por NIF; si no, por teléfono siempre que el existente
+     * no tenga un NIF distinto.
+     * El teléfono es único en la tabla: una fila que lo daría a un cliente distinto del
+     * que ya lo tiene (otro NIF, otra fila nueva del bloque, o un cambio de teléfono) se
+     * rechaza y se informa en la respuesta, sin deshacer el resto del bloque.
+     */
+    @Transactional
+    public ImportacionClientesDTO importarClientes(List<ClienteDTO> bloque) {
+        // Normalizar y quitar repetidos dentro del bloque (la última fila manda).
+        // Se guarda la posición de cada fila para poder informar de las rechazadas
+        Map<String, Integer> porClave = new LinkedHashMap<>();
+        int descartados = 0;
+        for (int fila = 0; fila < bloque.size(); fila++) {
+            ClienteDTO dto = bloque.get(fila);
+            if (dto == null || vacio(dto.getNombre())) {
+                descartados++;
+                continue;
+            }
+            dto.setNombre(dto.getNombre().trim());
+            dto.setNif(limpiar(dto.getNif()));
+            dto.setTelefono(limpiar(dto.getTelefono()));
+            String clave = dto.getNif() != null ? "N:" + dto.getNif()
+                    : dto.getTelefono() != null ? "T:" + dto.getTelefono()
+                    : "S:" + fila;
+            if (porClave.put(clave, fila) != null) {
+                descartados++;
+            }
+        }
+
+        Set<String> nifs = new HashSet<>();
+        Set<String> telefonos = new HashSet<>();
+        for (int fila : porClave.values()) {
+            ClienteDTO dto = bloque.get(fila);
+            if (dto.getNif() != null) {
+                nifs.add(dto.getNif());
+            }
+            if (dto.getTelefono() != null) {
+                telefonos.add(dto.getTelefono());
+            }
+        }
+
+        Map<String, Cliente> existentesPorNif = new HashMap<>();
+        Map<String, Cliente> existentesPorTelefono = new HashMap<>();
+        if (!nifs.isEmpty() || !telefonos.isEmpty()) {
+            for (Cliente existente : clienteRepository.findByNifInOrTelefonoIn(nifs, telefonos)) {
+                if (existente.getNif() != null) {
+                    existentesPorNif.putIfAbsent(existente.getNif(), existente);
+                }
+                if (existente.getTelefono() != null) {
+                    existentesPorTelefono.putIfAbsent(existente.getTelefono(), existente);
+                }
+            }
+        }
+
+        // Quién tiene cada teléfono: id del cliente existente, o un id negativo para las
+        // altas del bloque. Un teléfono que se libera en este bloque no se reasigna hasta
+        // el siguiente (las altas se escriben antes que las actualizaciones)
+        Map<String, Long> duenoTelefono = new HashMap<>();
+        existentesPorTelefono.forEach((telefono, cliente) -> duenoTelefono.put(telefono, cliente.getId()));
+        long siguienteAlta = -1;
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> altas = new ArrayList<>();
+        List<Object[]> actualizaciones = new ArrayList<>();
+        List<ImportacionClientesDTO.FilaRechazada> rechazadas = new ArrayList<>();
+        Set<Long> actualizados = new HashSet<>();
+
+        for (int fila : porClave.values()) {
+            ClienteDTO dto = bloque.get(fila);
+            Cliente existente = dto.getNif() != null ? existentesPorNif.get(dto.getNif()) : null;
+            if (existente == null && dto.getTelefono() != null) {
+                Cliente porTelefono = existentesPorTelefono.get(dto.getTelefono());
+                if (porTelefono != null && (porTelefono.getNif() == null || dto.getNif() == null)) {
+                    existente = porTelefono;
+                }
+            }
+
+            Long destino = existente != null ? existente.getId() : siguienteAlta--;
+            if (dto.getTelefono() != null) {
+                Long dueno = duenoTelefono.putIfAbsent(dto.getTelefono(), destino);
+                if (dueno != null && !dueno.equals(destino)) {
+                    rechazadas.add(new ImportacionClientesDTO.FilaRechazada(fila, dto.getNombre(),
+                            "El teléfono " + dto.getTelefono() + " ya pertenece a otro cliente"));
+                    continue;
+                }
+            }
+
+            if (existente != null) {
+                // Dos filas del bloque pueden apuntar al mismo cliente (por NIF y por teléfono)
+                if (!actualizados.add(existente.getId())) {
+                    descartados++;
+                    continue;
+                }
+                actualizaciones.add(new Object[]{
+                        dto.getNombre(), limpiar(dto.getApellidos()), dto.getTelefono(), limpiar(dto.getEmail()),
+                        dto.getNif(), limpiar(dto.getDireccion()), limpiar(dto.getCodigoPostal()),
+                        limpiar(dto.getCiudad()), limpiar(dto.getProvincia()), limpiar(dto.getNotas()),
+                        ahora, existente.getId()
+                });
+            } else {
+                altas.add(new Object[]{
+                        dto.getNombre(), limpiar(dto.getApellidos()), dto.getTelefono(), limpiar(dto.getEmail()),
+                        limpiar(dto.getVehiculoHabitual()), dto.getActivo() != null ? dto.getActivo() : true,
+                        dto.getNif(), limpiar(dto.getDireccion()), limpiar(dto.getCodigoPostal()),
+                        limpiar(dto.getCiudad()), limpiar(dto.getProvincia()), limpiar(dto.getMatricula()),
+                        limpiar(dto.getMarca()), limpiar(dto.getModelo()), limpiar(dto.getColor()),
+                        limpiar(dto.getNotas()), ahora, ahora
+                });
+            }
+        }
+
+        if (!altas.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERTAR_CLIENTE, altas);
+        }
+        if (!actualizaciones.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_ACTUALIZAR_CLIENTE, actualizaciones);
+        }
+
+        log.info("Importación de clientes: {} recibidos, {} nuevos, {} actualizados, {} descartados, {} rechazados",
+                bloque.size(), altas.size(), actualizaciones.size(), descartados, rechazadas.size());
+
+        // Un único aviso por bloque: los clientes conectados recargan la lista una vez
+        if (!altas.isEmpty() || !actualizaciones.isEmpty()) {
+            publicarCambio(Accion.ACTUALIZADO, null);
+        }
+
+        return ImportacionClientesDTO.builder()
+                .recibidos(bloque.size())
+                .creados(altas.size())
+                .actualizados(actualizaciones.size())
+                .descartados(descartados)
+                .rechazadas(rechazadas)
+                .build();
+    }
+
+    private static boolean vacio(String valor) {
+        return valor == null || valor.trim().isEmpty();
+    }
+
+    private static String limpiar(String valor) {
+        return vacio(valor) ? null : valor.trim();
     }
 
     /**
@@ -379,4 +555,11 @@ public class ClienteService {
 
         return dto;
     }
-}
\ No newline at end of file
+
+    /**
+     * Notificar el cambio a los clientes suscritos (se envía tras el commit)
+     */
+    private void publicarCambio(Accion accion, Long id) {
+        eventPublisher.publishEvent(new EventoCambioDTO(EventoCambioDTO.CLIENTE, accion, id));
+    }
+}
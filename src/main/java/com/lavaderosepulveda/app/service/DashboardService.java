@@ -0,0 +1,143 @@
+package com.lavaderosepulveda.app.service;
+
+import com.lavaderosepulveda.app.dto.DashboardMetricsDTO;
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import com.lavaderosepulveda.app.model.enums.EstadoCita;
+import com.lavaderosepulveda.app.model.enums.TipoLavado;
+import com.lavaderosepulveda.app.repository.CitaRepository;
+import com.lavaderosepulveda.app.repository.ClienteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio de métricas del dashboard
+ * Calcula todos los KPIs con una única consulta agregada, de modo que el coste
+ * no depende del histórico de citas que haya que transferir
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Value("${app.dashboard.cache-segundos:15}")
+    private long cacheSegundos;
+
+    private volatile DashboardMetricsDTO ultimasMetricas;
+
+    /**
+     * Obtener métricas del dashboard, reutilizando el último cálculo si es reciente
+     */
+    public DashboardMetricsDTO obtenerMetricas() {
+        DashboardMetricsDTO cacheadas = ultimasMetricas;
+        if (cacheadas != null && cacheadas.getCalculadoEn().toLocalDate().equals(LocalDate.now())
+                && cacheadas.getCalculadoEn().plusSeconds(cacheSegundos).isAfter(LocalDateTime.now())) {
+            return cacheadas;
+        }
+
+        DashboardMetricsDTO metricas = calcularMetricas();
+        ultimasMetricas = metricas;
+        return metricas;
+    }
+
+    /**
+     * Descartar las métricas cacheadas (tras cambios en citas o clientes)
+     */
+    public void invalidarCache() {
+        ultimasMetricas = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambio(EventoCambioDTO evento) {
+        invalidarCache();
+    }
+
+    @Transactional(readOnly = true)
+    public DashboardMetricsDTO calcularMetricas() {
+        LocalDate hoy = LocalDate.now();
+        YearMonth mesActual = YearMonth.from(hoy);
+
+        List<Object[]> filas = citaRepository.obtenerMetricasDashboard(
+                hoy, mesActual.atDay(1), mesActual.plusMonths(1).atDay(1));
+
+        long totalCitas = 0;
+        long citasHoy = 0;
+        long citasPendientes = 0;
+        double facturadoHoy = 0;
+        double facturadoMes = 0;
+        double pendienteCobro = 0;
+
+        Map<String, Long> citasPorEstado = new LinkedHashMap<>();
+        for (EstadoCita estado : EstadoCita.values()) {
+            citasPorEstado.put(estado.name(), 0L);
+        }
+
+        // Una fila por (estado, tipoLavado): los importes salen del precio del enum
+        for (Object[] fila : filas) {
+            EstadoCita estado = (EstadoCita) fila[0];
+            TipoLavado tipoLavado = (TipoLavado) fila[1];
+            long total = toLong(fila[2]);
+            long deHoy = toLong(fila[3]);
+            long desdeHoy = toLong(fila[4]);
+            long delMes = toLong(fila[5]);
+            long facturadas = toLong(fila[6]);
+            double precio = tipoLavado != null ? tipoLavado.getPrecio() : 0.0;
+
+            totalCitas += total;
+            citasHoy += deHoy;
+            if (estado != null) {
+                citasPorEstado.merge(estado.name(), total, Long::sum);
+            }
+
+            if (estado == EstadoCita.PENDIENTE || estado == EstadoCita.CONFIRMADA) {
+                citasPendientes += desdeHoy;
+            } else if (estado == EstadoCita.COMPLETADA) {
+                facturadoHoy += deHoy * precio;
+                facturadoMes += delMes * precio;
+                pendienteCobro += (total - facturadas) * precio;
+            }
+        }
+
+        DashboardMetricsDTO metricas = DashboardMetricsDTO.builder()
+                .totalCitas(totalCitas)
+                .citasHoy(citasHoy)
+                .citasPendientes(citasPendientes)
+                .citasPorEstado(citasPorEstado)
+                .facturadoHoy(redondear(facturadoHoy))
+                .facturadoMes(redondear(facturadoMes))
+                .pendienteCobro(redondear(pendienteCobro))
+                .clientesActivos(clienteRepository.countByActivoTrue())
+                .calculadoEn(LocalDateTime.now())
+                .build();
+
+        log.debug("Métricas dashboard calculadas: {} citas hoy, {} pendientes", citasHoy, citasPendientes);
+        return metricas;
+    }
+
+    private long toLong(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : 0L;
+    }
+
+    private BigDecimal redondear(double valor) {
+        return BigDecimal.valueOf(valor).setScale(2, RoundingMode.HALF_UP);
+    }
+}
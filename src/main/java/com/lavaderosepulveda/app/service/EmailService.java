@@ -2,6 +2,7 @@ package com.lavaderosepulveda.app.service;
 
 import com.lavaderosepulveda.app.model.Cita;
 import com.lavaderosepulveda.app.util.DateTimeFormatUtils;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
@@ -10,15 +11,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Servicio refactorizado para envío de emails
  * Usa DateTimeFormatUtils para formateo consistente de fechas y horas
+ *
+ * El envío SMTP se hace en dos hilos de plataforma propios: JavaMail sincroniza la
+ * conexión mientras espera al servidor y, en un hilo virtual, eso bloquearía el hilo
+ * portador (en producción solo hay uno) y con él al resto de peticiones.
  */
 @Service
 public class EmailService {
@@ -37,6 +47,28 @@ public class EmailService {
     @Value("${app.empresa.nombre:Lavadero Sepúlveda}")
     private String nombreEmpresa;
 
+    private final ExecutorService envios = Executors.newFixedThreadPool(2,
+            Thread.ofPlatform().name("smtp-", 1).daemon(true).factory());
+
+    @PreDestroy
+    void cerrar() {
+        envios.shutdown();
+    }
+
+    /**
+     * Confirmación de reserva sin hacer esperar a quien reserva: el error se registra y
+     * no afecta a la cita ya guardada
+     */
+    @Async
+    public void enviarEmailConfirmacionEnSegundoPlano(Cita cita) {
+        try {
+            enviarEmailConfirmacion(cita);
+        } catch (Exception e) {
+            logger.error("Error al enviar email de confirmación para cita ID {}: {}",
+                    cita.getId(), e.getMessage(), e);
+        }
+    }
+
     /**
      * Envía un email de confirmación con los detalles de la cita
      * Usa DateTimeFormatUtils para formateo consistente
@@ -69,7 +101,7 @@ public class EmailService {
             helper.setText(contenido, true);
 
             // Enviar email
-            emailSender.send(message);
+            enviar(message);
             logger.info("Email de confirmación enviado exitosamente a: {}", cita.getEmail());
 
         } catch (MessagingException e) {
@@ -111,7 +143,7 @@ public class EmailService {
             helper.setText(contenido, true);
 
             // Enviar email
-            emailSender.send(message);
+            enviar(message);
             logger.info("Recordatorio enviado exitosamente a: {}", cita.getEmail());
 
         } catch (MessagingException e) {
@@ -143,7 +175,7 @@ public class EmailService {
             String contenido = templateEngine.process("emails/cancelacion-cita", context);
             helper.setText(contenido, true);
 
-            emailSender.send(message);
+            enviar(message);
             logger.info("Email de cancelación enviado a: {}", cita.getEmail());
 
         } catch (MessagingException e) {
@@ -171,7 +203,7 @@ public class EmailService {
             String contenido = templateEngine.process(plantilla, contexto);
             helper.setText(contenido, true);
 
-            emailSender.send(message);
+            enviar(message);
             logger.info("Email personalizado enviado a: {}", destinatario);
 
         } catch (MessagingException e) {
@@ -212,6 +244,21 @@ public class EmailService {
         return emailSender.createMimeMessage();
     }
 
+    /**
+     * Envía por SMTP en un hilo de plataforma y espera el resultado (el hilo virtual que
+     * espera no ocupa el portador)
+     */
+    private void enviar(MimeMessage message) {
+        try {
+            CompletableFuture.runAsync(() -> emailSender.send(message), envios).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Verifica si el servicio de email está configurado
      */
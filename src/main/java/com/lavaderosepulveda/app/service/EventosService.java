@@ -0,0 +1,103 @@
+package com.lavaderosepulveda.app.service;
+
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Difusión de cambios (citas, clientes, facturas, proveedores) a los clientes conectados por Server-Sent Events.
+ * Los servicios publican un EventoCambioDTO como evento de Spring; se reenvía tras el commit
+ * de la transacción para que el cliente nunca lea un estado sin confirmar.
+ */
+@Service
+@Lazy(false) // el heartbeat necesita el bean creado también con el perfil lazy
+public class EventosService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventosService.class);
+
+    private final List<SseEmitter> suscriptores = new CopyOnWriteArrayList<>();
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @Value("${app.eventos.timeout-minutos:30}")
+    private long timeoutMinutos;
+
+    /**
+     * Registrar un nuevo suscriptor al flujo de eventos
+     */
+    public SseEmitter suscribir() {
+        SseEmitter emitter = new SseEmitter(timeoutMinutos * 60_000L);
+        emitter.onCompletion(() -> suscriptores.remove(emitter));
+        emitter.onTimeout(() -> suscriptores.remove(emitter));
+        emitter.onError(e -> suscriptores.remove(emitter));
+        suscriptores.add(emitter);
+
+        try {
+            emitter.send(SseEmitter.event().comment("conectado"));
+        } catch (IOException e) {
+            suscriptores.remove(emitter);
+        }
+
+        log.info("Nuevo suscriptor de eventos. Total: {}", suscriptores.size());
+        return emitter;
+    }
+
+    /**
+     * Reenvía a todos los suscriptores los cambios publicados por la capa de servicio
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambio(EventoCambioDTO evento) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+
+        String id = String.valueOf(secuencia.incrementAndGet());
+        enviar(() -> SseEmitter.event()
+                .id(id)
+                .name(evento.getEntidad())
+                .data(evento, MediaType.APPLICATION_JSON));
+        log.debug("Evento {} {} {} enviado a {} suscriptores",
+                evento.getEntidad(), evento.getAccion(), evento.getId(), suscriptores.size());
+    }
+
+    /**
+     * Latido periódico para que proxies y balanceadores no cierren conexiones inactivas
+     */
+    @Scheduled(fixedDelayString = "${app.eventos.heartbeat-ms:25000}")
+    public void enviarLatido() {
+        if (!suscriptores.isEmpty()) {
+            enviar(() -> SseEmitter.event().comment("ping"));
+        }
+    }
+
+    public int contarSuscriptores() {
+        return suscriptores.size();
+    }
+
+    /**
+     * El builder acumula estado al construirse, así que se crea uno por suscriptor
+     */
+    private void enviar(Supplier<SseEmitter.SseEventBuilder> mensaje) {
+        for (SseEmitter emitter : suscriptores) {
+            try {
+                emitter.send(mensaje.get());
+            } catch (IOException | IllegalStateException e) {
+                // Conexión cerrada por el cliente
+                suscriptores.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
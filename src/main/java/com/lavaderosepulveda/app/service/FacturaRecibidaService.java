@@ -1,11 +1,14 @@
 package com.lavaderosepulveda.app.service;
 
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import com.lavaderosepulveda.app.dto.EventoCambioDTO.Accion;
 import com.lavaderosepulveda.app.dto.FacturaRecibidaDTO;
 import com.lavaderosepulveda.app.model.*;
 import com.lavaderosepulveda.app.model.enums.*;
 import com.lavaderosepulveda.app.repository.FacturaRecibidaRepository;
 import com.lavaderosepulveda.app.repository.ProveedorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +30,9 @@ public class FacturaRecibidaService {
     @Autowired
     private ProveedorRepository proveedorRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<FacturaRecibidaDTO> listarTodas() {
         return facturaRecibidaRepository.findByOrderByFechaFacturaDesc()
                 .stream()
@@ -81,7 +87,8 @@ public class FacturaRecibidaService {
     }
 
     public List<FacturaRecibidaDTO> listarPorMes(int year, int month) {
-        return facturaRecibidaRepository.findByMes(year, month)
+        LocalDate inicioMes = LocalDate.of(year, month, 1);
+        return facturaRecibidaRepository.findByMes(inicioMes, inicioMes.plusMonths(1))
                 .stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
@@ -103,14 +110,18 @@ public class FacturaRecibidaService {
     public FacturaRecibidaDTO crear(FacturaRecibidaDTO dto) {
         FacturaRecibida factura = new FacturaRecibida();
         actualizarDesdeDTO(factura, dto);
-        return toDTO(facturaRecibidaRepository.save(factura));
+        FacturaRecibida guardada = facturaRecibidaRepository.save(factura);
+        publicarCambio(Accion.CREADO, guardada.getId());
+        return toDTO(guardada);
     }
 
     public FacturaRecibidaDTO actualizar(Long id, FacturaRecibidaDTO dto) {
         FacturaRecibida factura = facturaRecibidaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada"));
         actualizarDesdeDTO(factura, dto);
-        return toDTO(facturaRecibidaRepository.save(factura));
+        FacturaRecibida guardada = facturaRecibidaRepository.save(factura);
+        publicarCambio(Accion.ACTUALIZADO, id);
+        return toDTO(guardada);
     }
 
     public FacturaRecibidaDTO marcarPagada(Long id, String metodoPago) {
@@ -121,11 +132,14 @@ public class FacturaRecibidaService {
         if (metodoPago != null && !metodoPago.isEmpty()) {
             factura.setMetodoPago(MetodoPago.valueOf(metodoPago));
         }
-        return toDTO(facturaRecibidaRepository.save(factura));
+        FacturaRecibida guardada = facturaRecibidaRepository.save(factura);
+        publicarCambio(Accion.ACTUALIZADO, id);
+        return toDTO(guardada);
     }
 
     public void eliminar(Long id) {
         facturaRecibidaRepository.deleteById(id);
+        publicarCambio(Accion.ELIMINADO, id);
     }
 
     // Resúmenes
@@ -255,4 +269,11 @@ public class FacturaRecibidaService {
         
         return dto;
     }
+
+    /**
+     * Notificar el cambio a los clientes suscritos (se envía tras el commit)
+     */
+    private void publicarCambio(Accion accion, Long id) {
+        eventPublisher.publishEvent(new EventoCambioDTO(EventoCambioDTO.FACTURA_RECIBIDA, accion, id));
+    }
 }
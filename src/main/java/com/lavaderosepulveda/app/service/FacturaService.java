@@ -1,5 +1,7 @@
 package com.lavaderosepulveda.app.service;
 
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import com.lavaderosepulveda.app.dto.EventoCambioDTO.Accion;
 import com.lavaderosepulveda.app.model.*;
 import com.lavaderosepulveda.app.model.enums.*;
 import com.lavaderosepulveda.app.repository.CitaRepository;
@@ -8,6 +10,7 @@ import com.lavaderosepulveda.app.repository.FacturaRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +39,9 @@ public class FacturaService {
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // ========================================
     // CRUD BÁSICO
     // ========================================
@@ -44,14 +50,14 @@ public class FacturaService {
      * Obtener todas las facturas
      */
     public List<Factura> obtenerTodas() {
-        return facturaRepository.findAll();
+        return facturaRepository.findConLineasByOrderByFechaDesc();
     }
 
     /**
      * Obtener factura por ID
      */
     public Optional<Factura> obtenerPorId(Long id) {
-        return facturaRepository.findById(id);
+        return facturaRepository.findByIdWithLineas(id);
     }
 
     /**
@@ -77,6 +83,7 @@ public class FacturaService {
                     cita.setFacturada(false);
                     cita.setFacturaId(null);
                     citaRepository.save(cita);
+                    publicarCambio(EventoCambioDTO.CITA, Accion.ACTUALIZADO, cita.getId());
                 });
             }
         }
@@ -84,6 +91,7 @@ public class FacturaService {
         // IMPORTANTE: usar delete(factura) en lugar de deleteById(id)
         facturaRepository.delete(factura);
         log.info("Factura {} eliminada", factura.getNumero());
+        publicarCambio(EventoCambioDTO.FACTURA, Accion.ELIMINADO, id);
     }
 
     // ========================================
@@ -128,6 +136,8 @@ public class FacturaService {
         citaRepository.save(cita);
 
         log.info("Factura simplificada {} creada desde cita {}", factura.getNumero(), citaId);
+        publicarCambio(EventoCambioDTO.FACTURA, Accion.CREADO, factura.getId());
+        publicarCambio(EventoCambioDTO.CITA, Accion.ACTUALIZADO, citaId);
         return factura;
     }
 
@@ -182,6 +192,10 @@ public class FacturaService {
         }
 
         log.info("Factura completa {} creada para cliente {}", factura.getNumero(), clienteId);
+        publicarCambio(EventoCambioDTO.FACTURA, Accion.CREADO, factura.getId());
+        for (Long citaId : citaIds) {
+            publicarCambio(EventoCambioDTO.CITA, Accion.ACTUALIZADO, citaId);
+        }
         return factura;
     }
 
@@ -214,6 +228,7 @@ public class FacturaService {
 
         factura = facturaRepository.save(factura);
         log.info("Factura manual {} creada", factura.getNumero());
+        publicarCambio(EventoCambioDTO.FACTURA, Accion.CREADO, factura.getId());
         return factura;
     }
 
@@ -226,13 +241,15 @@ public class FacturaService {
      */
     @Transactional
     public Factura marcarComoPagada(Long id, MetodoPago metodoPago) {
-        Factura factura = facturaRepository.findById(id)
+        // Con las líneas: el controlador la devuelve completa cuando ya no hay sesión
+        Factura factura = facturaRepository.findByIdWithLineas(id)
                 .orElseThrow(() -> new RuntimeException("Factura no encontrada"));
 
         factura.marcarComoPagada(metodoPago);
         factura = facturaRepository.save(factura);
 
         log.info("Factura {} marcada como pagada con {}", factura.getNumero(), metodoPago);
+        publicarCambio(EventoCambioDTO.FACTURA, Accion.ACTUALIZADO, factura.getId());
         return factura;
     }
 
@@ -265,7 +282,7 @@ public class FacturaService {
      * Obtener facturas por rango de fechas
      */
     public List<Factura> obtenerPorFechas(LocalDate fechaInicio, LocalDate fechaFin) {
-        return facturaRepository.findByFechaBetweenOrderByFechaDesc(fechaInicio, fechaFin);
+        return facturaRepository.findConLineasByFechaBetweenOrderByFechaDesc(fechaInicio, fechaFin);
     }
 
     /**
@@ -320,7 +337,7 @@ public class FacturaService {
         resumen.put("facturasPendientes", facturasPendientes);
 
         // Número de facturas este mes
-        long facturasMes = facturaRepository.countByMes(hoy.getYear(), hoy.getMonthValue());
+        long facturasMes = facturaRepository.countByMes(inicioMes, inicioMes.plusMonths(1));
         resumen.put("facturasMes", facturasMes);
 
         return resumen;
@@ -392,4 +409,11 @@ public class FacturaService {
             return "Servicio de lavado";
         return tipoLavado.getDescripcion();
     }
-}
\ No newline at end of file
+
+    /**
+     * Notificar el cambio a los clientes suscritos (se envía tras el commit)
+     */
+    private void publicarCambio(String entidad, Accion accion, Long id) {
+        eventPublisher.publishEvent(new EventoCambioDTO(entidad, accion, id));
+    }
+}
@@ -60,7 +60,8 @@ public class GastoService {
     }
 
     public List<GastoDTO> listarPorMes(int year, int month) {
-        return gastoRepository.findByMes(year, month)
+        LocalDate inicioMes = LocalDate.of(year, month, 1);
+        return gastoRepository.findByMes(inicioMes, inicioMes.plusMonths(1))
                 .stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
@@ -161,7 +162,8 @@ public class GastoService {
     public List<Object[]> evolucionMensual(String fechaInicio, String fechaFin) {
         LocalDate inicio = LocalDate.parse(fechaInicio, FORMATO_FECHA);
         LocalDate fin = LocalDate.parse(fechaFin, FORMATO_FECHA);
-        return gastoRepository.evolucionMensual(inicio, fin);
+        // fechaFin incluida
+        return gastoRepository.evolucionMensual(inicio, fin.plusDays(1));
     }
 
     private void actualizarDesdeDTO(Gasto gasto, GastoDTO dto) {
@@ -2,6 +2,8 @@ package com.lavaderosepulveda.app.service;
 
 import com.lavaderosepulveda.app.dto.Modelo130DTO;
 import com.lavaderosepulveda.app.dto.Modelo303DTO;
+import com.lavaderosepulveda.app.dto.Modelo347DTO;
+import com.lavaderosepulveda.app.dto.Modelo390DTO;
 import com.lavaderosepulveda.app.model.Factura;
 import com.lavaderosepulveda.app.model.FacturaRecibida;
 import com.lavaderosepulveda.app.model.Gasto;
@@ -17,11 +19,17 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Servicio para calcular Modelos Fiscales (303, 130).
+ * Servicio para calcular Modelos Fiscales (303, 130, 390, 347).
  * Lógica portada desde CRM Desktop (ModelosFiscalesService.java).
+ *
+ * Los modelos anuales (390 y 347) se calculan con consultas agregadas (GROUP BY por
+ * trimestre, cliente o proveedor), así que no se cargan las facturas del año.
  */
 @Service
 public class ModelosFiscalesService {
@@ -177,6 +185,137 @@ public class ModelosFiscalesService {
         return modelo;
     }
 
+    // ========================================
+    // MODELO 390 - RESUMEN ANUAL IVA
+    // ========================================
+    public Modelo390DTO generarModelo390(int year) {
+        log.info("Generando Modelo 390 para año {}", year);
+
+        LocalDate inicio = LocalDate.of(year, 1, 1);
+        LocalDate fin = LocalDate.of(year, 12, 31);
+
+        // Totales por trimestre de ventas (devengado) y de gastos y compras (deducible)
+        ResumenTrimestre[] devengado = resumenPorTrimestre(facturaRepository.resumenIvaPorTrimestre(inicio, fin));
+        ResumenTrimestre[] deducibleGastos = resumenPorTrimestre(gastoRepository.resumenIvaPorTrimestre(inicio, fin));
+        ResumenTrimestre[] deducibleCompras = resumenPorTrimestre(
+                facturaRecibidaRepository.resumenIvaPorTrimestre(inicio, fin));
+
+        BigDecimal baseDevengada = BigDecimal.ZERO;
+        BigDecimal cuotaDevengada = BigDecimal.ZERO;
+        BigDecimal baseDeducible = BigDecimal.ZERO;
+        BigDecimal cuotaDeducible = BigDecimal.ZERO;
+        int numEmitidas = 0;
+        int numRecibidas = 0;
+
+        List<Modelo390DTO.ResumenTrimestral> desglose = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            ResumenTrimestre ventas = devengado[t];
+            ResumenTrimestre gastos = deducibleGastos[t];
+            ResumenTrimestre compras = deducibleCompras[t];
+
+            BigDecimal baseDeducibleTrimestre = gastos.base().add(compras.base());
+            BigDecimal cuotaDeducibleTrimestre = gastos.cuota().add(compras.cuota());
+
+            desglose.add(Modelo390DTO.ResumenTrimestral.builder()
+                    .trimestre((t + 1) + "T")
+                    .baseDevengada(ventas.base())
+                    .cuotaDevengada(ventas.cuota())
+                    .baseDeducible(baseDeducibleTrimestre)
+                    .cuotaDeducible(cuotaDeducibleTrimestre)
+                    .resultado(ventas.cuota().subtract(cuotaDeducibleTrimestre))
+                    .numFacturasEmitidas(ventas.num())
+                    .numFacturasRecibidas(gastos.num() + compras.num())
+                    .build());
+
+            baseDevengada = baseDevengada.add(ventas.base());
+            cuotaDevengada = cuotaDevengada.add(ventas.cuota());
+            baseDeducible = baseDeducible.add(baseDeducibleTrimestre);
+            cuotaDeducible = cuotaDeducible.add(cuotaDeducibleTrimestre);
+            numEmitidas += ventas.num();
+            numRecibidas += gastos.num() + compras.num();
+        }
+
+        Modelo390DTO modelo = Modelo390DTO.builder()
+                .ejercicio(String.valueOf(year))
+                .nif(nifEmisor)
+                .nombreRazonSocial(nombreEmisor)
+                .cnae("4520") // Mantenimiento y reparación de vehículos
+                .baseDevengada21(baseDevengada)
+                .cuotaDevengada21(cuotaDevengada)
+                .baseDevengada10(BigDecimal.ZERO)
+                .cuotaDevengada10(BigDecimal.ZERO)
+                .baseDevengada4(BigDecimal.ZERO)
+                .cuotaDevengada4(BigDecimal.ZERO)
+                .baseDeducibleInteriores(baseDeducible)
+                .cuotaDeducibleInteriores(cuotaDeducible)
+                .baseDeducibleInversion(BigDecimal.ZERO)
+                .cuotaDeducibleInversion(BigDecimal.ZERO)
+                .baseDeducibleImportaciones(BigDecimal.ZERO)
+                .cuotaDeducibleImportaciones(BigDecimal.ZERO)
+                .operacionesExentas(BigDecimal.ZERO)
+                .operacionesNoSujetas(BigDecimal.ZERO)
+                .numFacturasEmitidas(numEmitidas)
+                .numFacturasRecibidas(numRecibidas)
+                .desgloseTrimestral(desglose)
+                .sectoresDiferenciados(false)
+                .build();
+
+        modelo.calcularTotales();
+        return modelo;
+    }
+
+    // ========================================
+    // MODELO 347 - OPERACIONES CON TERCEROS
+    // ========================================
+    public Modelo347DTO generarModelo347(int year) {
+        log.info("Generando Modelo 347 para año {}", year);
+
+        LocalDate inicio = LocalDate.of(year, 1, 1);
+        LocalDate fin = LocalDate.of(year, 12, 31);
+
+        Modelo347DTO modelo = Modelo347DTO.builder()
+                .ejercicio(String.valueOf(year))
+                .nif(nifEmisor)
+                .nombreRazonSocial(nombreEmisor)
+                .tipoDeclaracion("")
+                .declarados(new ArrayList<>())
+                .build();
+
+        // Clientes: la consulta ya descarta los que no llegan al umbral
+        for (Object[] fila : facturaRepository.resumen347PorCliente(inicio, fin, Modelo347DTO.UMBRAL_MINIMO)) {
+            String nif = (String) fila[0];
+            modelo.addDeclaradoSiSupera(crearDeclarado347(
+                    nif != null ? nif : "", (String) fila[1], "B", // Ventas
+                    ((Number) fila[2]).intValue(), fila, 3));
+        }
+
+        // Proveedores: facturas recibidas por NIF/nombre y gastos sueltos por concepto,
+        // sumados por identificador antes de aplicar el umbral
+        Map<String, Modelo347DTO.Declarado347> proveedores = new LinkedHashMap<>();
+
+        for (Object[] fila : facturaRecibidaRepository.resumen347PorProveedor(inicio, fin)) {
+            String nif = (String) fila[0];
+            String nombre = (String) fila[1];
+            String id = !vacio(nif) ? nif : (!vacio(nombre) ? nombre : "Sin proveedor");
+            acumularProveedor(proveedores, id, nombre, ((Number) fila[2]).intValue(), fila, 3);
+        }
+
+        for (Object[] fila : gastoRepository.resumen347PorConcepto(inicio, fin)) {
+            String concepto = (String) fila[0];
+            acumularProveedor(proveedores, concepto, concepto, ((Number) fila[1]).intValue(), fila, 2);
+        }
+
+        for (Modelo347DTO.Declarado347 declarado : proveedores.values()) {
+            modelo.addDeclaradoSiSupera(declarado);
+        }
+
+        modelo.calcularTotales();
+
+        log.info("Modelo 347 generado - {} declarados, importe total: {} €",
+                modelo.getNumDeclarados(), modelo.getImporteTotal());
+        return modelo;
+    }
+
     // ========================================
     // MÉTODOS AUXILIARES
     // ========================================
@@ -190,4 +329,73 @@ public class ModelosFiscalesService {
         int mes = trimestre * 3;
         return YearMonth.of(year, mes).atEndOfMonth();
     }
-}
\ No newline at end of file
+
+    /**
+     * Filas [trimestre, num, base, cuota] de una consulta agregada, indexadas por trimestre
+     * (los trimestres sin movimientos quedan a cero)
+     */
+    private ResumenTrimestre[] resumenPorTrimestre(List<Object[]> filas) {
+        ResumenTrimestre[] trimestres = new ResumenTrimestre[4];
+        for (int t = 0; t < 4; t++) {
+            trimestres[t] = new ResumenTrimestre(0, BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+        for (Object[] fila : filas) {
+            int t = ((Number) fila[0]).intValue() - 1;
+            trimestres[t] = new ResumenTrimestre(((Number) fila[1]).intValue(), importe(fila[2]), importe(fila[3]));
+        }
+        return trimestres;
+    }
+
+    /**
+     * Declarado a partir de una fila agregada con [total, totalT1..totalT4] desde la columna indicada
+     */
+    private Modelo347DTO.Declarado347 crearDeclarado347(String nif, String nombre, String clave,
+            int numOperaciones, Object[] fila, int columnaTotal) {
+        return Modelo347DTO.Declarado347.builder()
+                .nif(nif)
+                .nombreRazonSocial(nombre)
+                .codigoProvincia("14") // Córdoba
+                .claveOperacion(clave)
+                .importeAnual(importe(fila[columnaTotal]))
+                .importeTrimestre1(importe(fila[columnaTotal + 1]))
+                .importeTrimestre2(importe(fila[columnaTotal + 2]))
+                .importeTrimestre3(importe(fila[columnaTotal + 3]))
+                .importeTrimestre4(importe(fila[columnaTotal + 4]))
+                .numOperaciones(numOperaciones)
+                .operacionSeguro(false)
+                .arrendamientoLocal(false)
+                .build();
+    }
+
+    private void acumularProveedor(Map<String, Modelo347DTO.Declarado347> proveedores, String id, String nombre,
+            int numOperaciones, Object[] fila, int columnaTotal) {
+        Modelo347DTO.Declarado347 nuevo = crearDeclarado347(
+                id.matches("\\d{8}[A-Z]|[A-Z]\\d{8}|[A-Z]\\d{7}[A-Z]") ? id : "",
+                nombre, "A", // Compras
+                numOperaciones, fila, columnaTotal);
+
+        Modelo347DTO.Declarado347 existente = proveedores.putIfAbsent(id, nuevo);
+        if (existente != null) {
+            existente.setImporteTrimestre1(existente.getImporteTrimestre1().add(nuevo.getImporteTrimestre1()));
+            existente.setImporteTrimestre2(existente.getImporteTrimestre2().add(nuevo.getImporteTrimestre2()));
+            existente.setImporteTrimestre3(existente.getImporteTrimestre3().add(nuevo.getImporteTrimestre3()));
+            existente.setImporteTrimestre4(existente.getImporteTrimestre4().add(nuevo.getImporteTrimestre4()));
+            existente.setImporteAnual(existente.getImporteAnual().add(nuevo.getImporteAnual()));
+            existente.setNumOperaciones(existente.getNumOperaciones() + numOperaciones);
+        }
+    }
+
+    private static BigDecimal importe(Object valor) {
+        if (valor == null) {
+            return BigDecimal.ZERO;
+        }
+        return valor instanceof BigDecimal ? (BigDecimal) valor : new BigDecimal(valor.toString());
+    }
+
+    private static boolean vacio(String texto) {
+        return texto == null || texto.isEmpty();
+    }
+
+    private record ResumenTrimestre(int num, BigDecimal base, BigDecimal cuota) {
+    }
+}
@@ -1,9 +1,12 @@
 package com.lavaderosepulveda.app.service;
 
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import com.lavaderosepulveda.app.dto.EventoCambioDTO.Accion;
 import com.lavaderosepulveda.app.dto.ProveedorDTO;
 import com.lavaderosepulveda.app.model.Proveedor;
 import com.lavaderosepulveda.app.repository.ProveedorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +20,9 @@ public class ProveedorService {
     @Autowired
     private ProveedorRepository proveedorRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<ProveedorDTO> listarActivos() {
         return proveedorRepository.findByActivoTrueOrderByNombreAsc()
                 .stream()
@@ -48,14 +54,18 @@ public class ProveedorService {
         Proveedor proveedor = new Proveedor();
         actualizarDesdeDTO(proveedor, dto);
         proveedor.setActivo(true);
-        return toDTO(proveedorRepository.save(proveedor));
+        Proveedor guardado = proveedorRepository.save(proveedor);
+        publicarCambio(Accion.CREADO, guardado.getId());
+        return toDTO(guardado);
     }
 
     public ProveedorDTO actualizar(Long id, ProveedorDTO dto) {
         Proveedor proveedor = proveedorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Proveedor no encontrado"));
         actualizarDesdeDTO(proveedor, dto);
-        return toDTO(proveedorRepository.save(proveedor));
+        Proveedor guardado = proveedorRepository.save(proveedor);
+        publicarCambio(Accion.ACTUALIZADO, id);
+        return toDTO(guardado);
     }
 
     public void desactivar(Long id) {
@@ -63,6 +73,7 @@ public class ProveedorService {
                 .orElseThrow(() -> new RuntimeException("Proveedor no encontrado"));
         proveedor.setActivo(false);
         proveedorRepository.save(proveedor);
+        publicarCambio(Accion.ACTUALIZADO, id);
     }
 
     public void activar(Long id) {
@@ -70,10 +81,12 @@ public class ProveedorService {
                 .orElseThrow(() -> new RuntimeException("Proveedor no encontrado"));
         proveedor.setActivo(true);
         proveedorRepository.save(proveedor);
+        publicarCambio(Accion.ACTUALIZADO, id);
     }
 
     public void eliminar(Long id) {
         proveedorRepository.deleteById(id);
+        publicarCambio(Accion.ELIMINADO, id);
     }
 
     private void actualizarDesdeDTO(Proveedor proveedor, ProveedorDTO dto) {
@@ -104,4 +117,11 @@ public class ProveedorService {
         dto.setActivo(proveedor.getActivo());
         return dto;
     }
+
+    /**
+     * Notificar el cambio a los clientes suscritos (se envía tras el commit)
+     */
+    private void publicarCambio(Accion accion, Long id) {
+        eventPublisher.publishEvent(new EventoCambioDTO(EventoCambioDTO.PROVEEDOR, accion, id));
+    }
 }
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +17,7 @@ import java.util.List;
  * Servicio para programar y enviar recordatorios automáticos de citas
  */
 @Service
+@Lazy(false) // con el perfil lazy no se programarían los recordatorios
 public class ReminderSchedulerService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReminderSchedulerService.class);
@@ -0,0 +1,243 @@
+package com.lavaderosepulveda.app.service;
+
+import com.lavaderosepulveda.app.dto.EventoCambioDTO;
+import com.lavaderosepulveda.app.dto.SyncResponseDTO;
+import com.lavaderosepulveda.app.mapper.CitaMapper;
+import com.lavaderosepulveda.app.mapper.ClienteMapper;
+import com.lavaderosepulveda.app.mapper.FacturaMapper;
+import com.lavaderosepulveda.app.model.Cita;
+import com.lavaderosepulveda.app.model.Cliente;
+import com.lavaderosepulveda.app.model.Factura;
+import com.lavaderosepulveda.app.model.RegistroEliminado;
+import com.lavaderosepulveda.app.repository.CitaRepository;
+import com.lavaderosepulveda.app.repository.ClienteRepository;
+import com.lavaderosepulveda.app.repository.FacturaRepository;
+import com.lavaderosepulveda.app.repository.RegistroEliminadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sincronización incremental ("cambios desde") de citas, clientes y facturas.
+ *
+ * Los cambios se recorren con paginación por clave (updatedAt, id) sobre los índices
+ * idx_*_updated_at, y los borrados con la tabla registros_eliminados. La posición de
+ * ambos recorridos viaja en un cursor opaco, de modo que el cliente solo descarga
+ * lo que ha cambiado desde su última sincronización.
+ */
+@Service
+public class SyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    public static final Set<String> ENTIDADES = Set.of(
+            EventoCambioDTO.CITA, EventoCambioDTO.CLIENTE, EventoCambioDTO.FACTURA);
+
+    // Posición inicial: anterior a cualquier registro
+    private static final LocalDateTime ORIGEN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private RegistroEliminadoRepository registroEliminadoRepository;
+
+    @Autowired
+    private CitaMapper citaMapper;
+
+    @Autowired
+    private ClienteMapper clienteMapper;
+
+    @Autowired
+    private FacturaMapper facturaMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.sync.limite-por-defecto:500}")
+    private int limitePorDefecto;
+
+    @Value("${app.sync.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    @Value("${app.sync.margen-segundos:2}")
+    private long margenSegundos;
+
+    /**
+     * Registrar el tombstone dentro de la misma transacción que el borrado
+     * (listener síncrono: si el borrado hace rollback, el tombstone también)
+     */
+    @EventListener
+    public void onCambio(EventoCambioDTO evento) {
+        if (evento.getAccion() != EventoCambioDTO.Accion.ELIMINADO
+                || evento.getId() == null || !ENTIDADES.contains(evento.getEntidad())) {
+            return;
+        }
+        registroEliminadoRepository.save(new RegistroEliminado(evento.getEntidad(), evento.getId()));
+    }
+
+    /**
+     * Los registros anteriores a la columna updated_at quedarían fuera del recorrido
+     * por clave: se les asigna su fecha de creación una sola vez al arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rellenarUpdatedAt() {
+        try {
+            Integer total = transactionTemplate.execute(status ->
+                    citaRepository.rellenarUpdatedAtNulos()
+                            + clienteRepository.rellenarUpdatedAtNulos()
+                            + facturaRepository.rellenarUpdatedAtNulos());
+            if (total != null && total > 0) {
+                log.info("Sincronización: asignado updated_at a {} registros antiguos", total);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo rellenar updated_at: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtener una página de cambios de la entidad.
+     *
+     * @param entidad "cita", "cliente" o "factura"
+     * @param desde   fecha de la última sincronización (solo si no hay cursor)
+     * @param cursor  cursor devuelto por la página anterior (tiene prioridad sobre desde)
+     * @param limite  máximo de upserts y de eliminados por página
+     */
+    @Transactional(readOnly = true)
+    public SyncResponseDTO<?> obtenerCambios(String entidad, LocalDateTime desde, String cursor, Integer limite) {
+        if (!ENTIDADES.contains(entidad)) {
+            throw new IllegalArgumentException("Entidad no sincronizable: " + entidad);
+        }
+
+        Posicion posicion = cursor != null && !cursor.isBlank()
+                ? Posicion.decodificar(cursor)
+                : Posicion.desde(desde != null ? desde : ORIGEN);
+
+        int tamanio = limite == null || limite <= 0 ? limitePorDefecto : Math.min(limite, limiteMaximo);
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime hasta = ahora.minusSeconds(margenSegundos);
+        // Se pide un registro más para saber si quedan páginas sin otra consulta
+        Pageable pagina = PageRequest.of(0, tamanio + 1);
+
+        switch (entidad) {
+            case EventoCambioDTO.CITA:
+                return construirRespuesta(entidad, posicion, tamanio, hasta, ahora,
+                        citaRepository.findCambiosDesde(posicion.upsertFecha, posicion.upsertId, hasta, pagina),
+                        Cita::getUpdatedAt, Cita::getId, citaMapper::toDTO, pagina);
+            case EventoCambioDTO.CLIENTE:
+                return construirRespuesta(entidad, posicion, tamanio, hasta, ahora,
+                        clienteRepository.findCambiosDesde(posicion.upsertFecha, posicion.upsertId, hasta, pagina),
+                        Cliente::getUpdatedAt, Cliente::getId, clienteMapper::toDTO, pagina);
+            default:
+                return construirRespuesta(entidad, posicion, tamanio, hasta, ahora,
+                        facturaRepository.findCambiosDesde(posicion.upsertFecha, posicion.upsertId, hasta, pagina),
+                        Factura::getUpdatedAt, Factura::getId, facturaMapper::toDTO, pagina);
+        }
+    }
+
+    private <E, D> SyncResponseDTO<D> construirRespuesta(String entidad, Posicion posicion, int tamanio,
+                                                         LocalDateTime hasta, LocalDateTime ahora,
+                                                         List<E> cambios,
+                                                         Function<E, LocalDateTime> fechaDe,
+                                                         Function<E, Long> idDe,
+                                                         Function<E, D> mapper,
+                                                         Pageable pagina) {
+        List<RegistroEliminado> borrados = registroEliminadoRepository.findEliminadosDesde(
+                entidad, posicion.eliminadoFecha, posicion.eliminadoId, hasta, pagina);
+
+        boolean hayMas = cambios.size() > tamanio || borrados.size() > tamanio;
+        if (cambios.size() > tamanio) {
+            cambios = cambios.subList(0, tamanio);
+        }
+        if (borrados.size() > tamanio) {
+            borrados = borrados.subList(0, tamanio);
+        }
+
+        Posicion siguiente = new Posicion(posicion);
+        if (!cambios.isEmpty()) {
+            E ultimo = cambios.get(cambios.size() - 1);
+            siguiente.upsertFecha = fechaDe.apply(ultimo);
+            siguiente.upsertId = idDe.apply(ultimo);
+        }
+        if (!borrados.isEmpty()) {
+            RegistroEliminado ultimo = borrados.get(borrados.size() - 1);
+            siguiente.eliminadoFecha = ultimo.getEliminadoEn();
+            siguiente.eliminadoId = ultimo.getId();
+        }
+
+        log.debug("Sync {}: {} upserts, {} eliminados, hayMas={}", entidad, cambios.size(), borrados.size(), hayMas);
+
+        return SyncResponseDTO.<D>builder()
+                .entidad(entidad)
+                .upserts(cambios.stream().map(mapper).collect(Collectors.toList()))
+                .eliminados(borrados.stream().map(RegistroEliminado::getEntidadId).collect(Collectors.toList()))
+                .siguienteCursor(siguiente.codificar())
+                .hayMas(hayMas)
+                .servidorHora(ahora)
+                .build();
+    }
+
+    /**
+     * Posición de los dos recorridos (cambios y eliminados) codificada en el cursor
+     */
+    private static final class Posicion {
+        private LocalDateTime upsertFecha;
+        private Long upsertId;
+        private LocalDateTime eliminadoFecha;
+        private Long eliminadoId;
+
+        private Posicion(LocalDateTime upsertFecha, Long upsertId, LocalDateTime eliminadoFecha, Long eliminadoId) {
+            this.upsertFecha = upsertFecha;
+            this.upsertId = upsertId;
+            this.eliminadoFecha = eliminadoFecha;
+            this.eliminadoId = eliminadoId;
+        }
+
+        private Posicion(Posicion otra) {
+            this(otra.upsertFecha, otra.upsertId, otra.eliminadoFecha, otra.eliminadoId);
+        }
+
+        private static Posicion desde(LocalDateTime fecha) {
+            return new Posicion(fecha, 0L, fecha, 0L);
+        }
+
+        private String codificar() {
+            String valor = upsertFecha + "|" + upsertId + "|" + eliminadoFecha + "|" + eliminadoId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Posicion decodificar(String cursor) {
+            try {
+                String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] partes = valor.split("\\|");
+                return new Posicion(
+                        LocalDateTime.parse(partes[0]), Long.parseLong(partes[1]),
+                        LocalDateTime.parse(partes[2]), Long.parseLong(partes[3]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de sincronización no válido");
+            }
+        }
+    }
+}
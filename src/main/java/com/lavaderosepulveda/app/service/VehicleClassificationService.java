@@ -1,57 +1,147 @@
 package com.lavaderosepulveda.app.service;
 
+import com.lavaderosepulveda.app.dto.SugerenciaModeloDTO;
 import com.lavaderosepulveda.app.model.enums.TipoLavado;
 import com.lavaderosepulveda.app.model.VehicleCategory;
-import com.lavaderosepulveda.app.model.VehicleModel;
+import com.lavaderosepulveda.app.model.VehicleModelListener;
 import com.lavaderosepulveda.app.repository.VehicleCategoryRepository;
 import com.lavaderosepulveda.app.repository.VehicleModelRepository;
+import com.lavaderosepulveda.app.util.VehicleModelAutocomplete;
+import com.lavaderosepulveda.app.util.VehicleModelMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
 public class VehicleClassificationService {
 
+    private static final Logger log = LoggerFactory.getLogger(VehicleClassificationService.class);
+
     private final VehicleModelRepository modelRepository;
     private final VehicleCategoryRepository categoryRepository;
 
-    
+    // Catálogo de modelos en memoria; se reconstruye en la siguiente consulta tras un cambio
+    private volatile Catalogo catalogo;
+    private volatile boolean modelosModificados = true;
+    private final ReentrantLock cargaCatalogo = new ReentrantLock();
+
     public VehicleClassificationService(VehicleModelRepository modelRepository, VehicleCategoryRepository categoryRepository) {
         this.modelRepository = modelRepository;
         this.categoryRepository = categoryRepository;
     }
 
     /**
-     * Clasifica un vehículo basándose en su modelo, consultando la base de datos.
+     * Clasifica un vehículo basándose en su modelo, con el catálogo de modelos en memoria.
      */
     public String classifyVehicle(String vehicleModel) {
         if (vehicleModel == null || vehicleModel.trim().isEmpty()) {
             return "turismo"; // Categoría por defecto
         }
 
-        String normalizedModel = normalizeVehicleModel(vehicleModel);
+        VehicleModelMatcher.Coincidencia coincidencia = getCatalogo().matcher().buscarModelo(vehicleModel);
+        String porPalabrasClave = detectByKeywords(VehicleModelMatcher.normalizar(vehicleModel));
+        if (coincidencia != null) {
+            // Un número suelto no pesa más que el tipo escrito: "furgoneta 2 plazas" no es un Mazda 2
+            if (coincidencia.soloNumero() && !"turismo".equals(porPalabrasClave)) {
+                return porPalabrasClave;
+            }
+            return coincidencia.categoria();
+        }
 
-        // Buscar el modelo en la base de datos
-        Optional<VehicleModel> modelOpt = modelRepository.findFirstByNameContainingNormalized(normalizedModel);
+        // Si no se encuentra, detección por palabras clave como fallback
+        return porPalabrasClave;
+    }
 
-        if (modelOpt.isPresent()) {
-            return modelOpt.get().getCategory().getName();
-        }
+    /**
+     * Modelos parecidos a lo escrito (admite errores de escritura), del más parecido al menos
+     */
+    public List<SugerenciaModeloDTO> sugerirModelos(String texto, int limite) {
+        return getCatalogo().autocompletado().sugerir(texto, limite).stream()
+                .map(s -> new SugerenciaModeloDTO(s.modelo(), s.categoria(), s.distancia()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Nombres de modelo agrupados por categoría
+     */
+    public Map<String, List<String>> getModelosPorCategoria() {
+        return getCatalogo().modelosPorCategoria();
+    }
+
+    /**
+     * Identifica el contenido del catálogo (cambia al modificarse los modelos), para ETag
+     */
+    public String getVersionCatalogo() {
+        return getCatalogo().version();
+    }
 
-        // Si no se encuentra, intentar detección por palabras clave como fallback
-        return detectByKeywords(normalizedModel);
+    /**
+     * Construir el catálogo al arrancar (los modelos los siembra la migración V2)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargarModelos() {
+        getCatalogo();
     }
 
     /**
-     * Normaliza el modelo del vehículo para la búsqueda.
+     * Tras confirmarse un cambio de modelos, reconstruir en la siguiente consulta
+     * (un alta masiva publica un evento por modelo: así se reconstruye una sola vez)
      */
-    private String normalizeVehicleModel(String vehicleModel) {
-        return vehicleModel.toLowerCase()
-                .trim()
-                .replaceAll("[^a-zA-Z0-9]", ""); // Quita espacios y caracteres especiales
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onModelosModificados(VehicleModelListener.ModelosModificados evento) {
+        modelosModificados = true;
+    }
+
+    private Catalogo getCatalogo() {
+        if (modelosModificados || catalogo == null) {
+            // Lock y no synchronized: la carga consulta la BD y un hilo virtual que
+            // espera dentro de un monitor no suelta el hilo portador
+            cargaCatalogo.lock();
+            try {
+                if (modelosModificados || catalogo == null) {
+                    // Se baja antes de leer: un cambio durante la carga vuelve a marcarla
+                    modelosModificados = false;
+                    catalogo = construirCatalogo();
+                }
+            } finally {
+                cargaCatalogo.unlock();
+            }
+        }
+        return catalogo;
+    }
+
+    private Catalogo construirCatalogo() {
+        long inicio = System.nanoTime();
+        Map<String, String> categoriaPorModelo = new LinkedHashMap<>();
+        for (Object[] fila : modelRepository.findNombresConCategoria()) {
+            categoriaPorModelo.putIfAbsent((String) fila[0], (String) fila[1]);
+        }
+
+        Map<String, List<String>> modelosPorCategoria = new LinkedHashMap<>();
+        categoriaPorModelo.forEach((modelo, categoria) ->
+                modelosPorCategoria.computeIfAbsent(categoria, c -> new ArrayList<>()).add(modelo));
+        modelosPorCategoria.replaceAll((categoria, modelos) -> List.copyOf(modelos));
+
+        Catalogo nuevo = new Catalogo(
+                new VehicleModelMatcher(categoriaPorModelo),
+                new VehicleModelAutocomplete(categoriaPorModelo),
+                Collections.unmodifiableMap(modelosPorCategoria),
+                Integer.toHexString(categoriaPorModelo.hashCode()));
+        log.info("Catálogo de vehículos cargado: {} modelos en {} ms", nuevo.matcher().size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+        return nuevo;
     }
 
     /**
@@ -132,4 +222,8 @@ public class VehicleClassificationService {
                 .map(VehicleCategory::getDescription)
                 .orElse("Turismo"); // Devuelve 'Turismo' si la categoría no se encuentra
     }
-}
\ No newline at end of file
+
+    private record Catalogo(VehicleModelMatcher matcher, VehicleModelAutocomplete autocompletado,
+                            Map<String, List<String>> modelosPorCategoria, String version) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.lavaderosepulveda.app.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria para búsquedas de texto sin LIKE '%x%' en la base de datos.
+ *
+ * Cada documento (identificado por una clave) aporta términos normalizados: minúsculas y
+ * sin tildes, de modo que "jose" encuentra "José". Los textos libres se indexan por
+ * palabras y se buscan por prefijo ("pep" encuentra "Pepe"). Los códigos (teléfonos,
+ * matrículas, NIF, números de factura) se indexan sin separadores y con todos sus
+ * sufijos, así que cualquier fragmento los encuentra: "345" en "+34 612 345 678".
+ *
+ * Una consulta con varias palabras exige todas; escrita con espacios también se prueba
+ * junta, para teléfonos y matrículas tecleados por grupos ("612 34", "1234 BCD").
+ */
+public class IndiceInvertido {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_SUFIJO = 2;
+
+    private final NavigableMap<String, Set<String>> documentosPorTermino = new TreeMap<>();
+    private final Map<String, Set<String>> terminosPorDocumento = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Añadir o sustituir un documento
+     *
+     * @param textos   textos libres (nombres, conceptos...), los null se ignoran
+     * @param codigos  teléfonos, matrículas, NIF, números de factura... (los null se ignoran)
+     */
+    public void indexar(String clave, Collection<String> textos, Collection<String> codigos) {
+        Set<String> terminos = new HashSet<>();
+        for (String texto : textos) {
+            for (String palabra : palabras(texto)) {
+                terminos.add(palabra);
+            }
+        }
+        for (String codigo : codigos) {
+            String compacto = compactar(codigo);
+            for (int i = 0; i + MIN_SUFIJO <= compacto.length(); i++) {
+                terminos.add(compacto.substring(i));
+            }
+            // Los códigos de un carácter solo se encuentran enteros
+            if (compacto.length() == 1) {
+                terminos.add(compacto);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            eliminarSinBloqueo(clave);
+            terminosPorDocumento.put(clave, terminos);
+            for (String termino : terminos) {
+                documentosPorTermino.computeIfAbsent(termino, t -> new HashSet<>()).add(clave);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(String clave) {
+        lock.writeLock().lock();
+        try {
+            eliminarSinBloqueo(clave);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Claves de los documentos que contienen todas las palabras de la consulta
+     */
+    public Set<String> buscar(String consulta) {
+        List<String> palabras = palabras(consulta);
+        if (palabras.isEmpty()) {
+            return Set.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<String> resultado = null;
+            for (String palabra : palabras) {
+                Set<String> conPalabra = conPrefijo(palabra);
+                if (resultado == null) {
+                    resultado = conPalabra;
+                } else {
+                    resultado.retainAll(conPalabra);
+                }
+                if (resultado.isEmpty()) {
+                    break;
+                }
+            }
+
+            if (palabras.size() > 1) {
+                resultado.addAll(conPrefijo(String.join("", palabras)));
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return terminosPorDocumento.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Minúsculas y sin tildes
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto.trim(), Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase();
+    }
+
+    private Set<String> conPrefijo(String prefijo) {
+        Set<String> documentos = new HashSet<>();
+        for (Set<String> conTermino : documentosPorTermino.subMap(prefijo, true, prefijo + Character.MAX_VALUE, false).values()) {
+            documentos.addAll(conTermino);
+        }
+        return documentos;
+    }
+
+    private void eliminarSinBloqueo(String clave) {
+        Set<String> anteriores = terminosPorDocumento.remove(clave);
+        if (anteriores == null) {
+            return;
+        }
+        for (String termino : anteriores) {
+            Set<String> documentos = documentosPorTermino.get(termino);
+            if (documentos != null) {
+                documentos.remove(clave);
+                if (documentos.isEmpty()) {
+                    documentosPorTermino.remove(termino);
+                }
+            }
+        }
+    }
+
+    private static List<String> palabras(String texto) {
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : NO_ALFANUMERICO.split(normalizar(texto))) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
+    private static String compactar(String codigo) {
+        return NO_ALFANUMERICO.matcher(normalizar(codigo)).replaceAll("");
+    }
+}
@@ -0,0 +1,185 @@
+package com.lavaderosepulveda.app.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Autocompletado de modelos de vehículo tolerante a errores de escritura.
+ *
+ * Cada nombre normalizado se indexa por sus bigramas (con una marca de inicio, para que
+ * lo escrito al principio pese más). Una consulta toma como candidatos los modelos que
+ * comparten suficientes bigramas con el texto y solo a esos les calcula la distancia de
+ * edición, acotada según la longitud de lo escrito: "berligo" y "c4 picaso" encuentran
+ * "berlingo" y "c4 picasso". Coincidir con el principio del nombre cuenta como distancia 0.
+ *
+ * Es inmutable: para cambiar los modelos se construye uno nuevo.
+ */
+public final class VehicleModelAutocomplete {
+
+    private static final int N = 2;
+    private static final char INICIO = '^';
+
+    private static final Comparator<Sugerencia> ORDEN = Comparator
+            .comparingInt(Sugerencia::distancia)
+            .thenComparing(sugerencia -> !sugerencia.desdeElPrincipio())
+            .thenComparingInt(sugerencia -> sugerencia.clave().length())
+            .thenComparing(Sugerencia::modelo);
+
+    private final List<Entrada> entradas = new ArrayList<>();
+    private final Map<String, int[]> bigramas = new HashMap<>();
+
+    /**
+     * @param categoriaPorModelo nombre del modelo -> categoría; si un nombre normalizado
+     *                           se repite (en el orden del mapa) se queda el primero
+     */
+    public VehicleModelAutocomplete(Map<String, String> categoriaPorModelo) {
+        Map<String, List<Integer>> posiciones = new HashMap<>();
+        Set<String> claves = new HashSet<>();
+
+        for (Map.Entry<String, String> modelo : categoriaPorModelo.entrySet()) {
+            String clave = VehicleModelMatcher.normalizar(modelo.getKey());
+            if (clave.isEmpty() || !claves.add(clave)) {
+                continue;
+            }
+            int posicion = entradas.size();
+            entradas.add(new Entrada(modelo.getKey().trim(), clave, modelo.getValue()));
+            for (String bigrama : bigramasDe(clave)) {
+                posiciones.computeIfAbsent(bigrama, b -> new ArrayList<>()).add(posicion);
+            }
+        }
+
+        posiciones.forEach((bigrama, lista) ->
+                bigramas.put(bigrama, lista.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Hasta "limite" modelos para lo escrito, del más parecido al menos
+     */
+    public List<Sugerencia> sugerir(String texto, int limite) {
+        String consulta = VehicleModelMatcher.normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        int maxDistancia = maxDistancia(consulta.length());
+        Set<String> bigramasConsulta = bigramasDe(consulta);
+
+        // Cada error de escritura rompe como mucho tres bigramas (una transposición:
+        // "glof" pierde "gl", "lo" y "of"), y el de inicio solo lo comparten los nombres
+        // que empiezan igual. Si con eso no se exige ninguno, se miran todos los modelos
+        int minComunes = Math.max(0, bigramasConsulta.size() - 1 - 3 * maxDistancia);
+        int[] comunes = new int[entradas.size()];
+        if (minComunes > 0) {
+            for (String bigrama : bigramasConsulta) {
+                int[] conBigrama = bigramas.get(bigrama);
+                if (conBigrama != null) {
+                    for (int posicion : conBigrama) {
+                        comunes[posicion]++;
+                    }
+                }
+            }
+        }
+
+        List<Sugerencia> sugerencias = new ArrayList<>();
+        for (int i = 0; i < comunes.length; i++) {
+            if (comunes[i] < minComunes) {
+                continue;
+            }
+            Entrada entrada = entradas.get(i);
+            int desdeInicio = distancia(consulta, entrada.clave(), true, maxDistancia);
+            int enCualquierParte = desdeInicio == 0 ? 0 : distancia(consulta, entrada.clave(), false, maxDistancia);
+            int mejor = Math.min(desdeInicio, enCualquierParte);
+            if (mejor <= maxDistancia) {
+                sugerencias.add(new Sugerencia(entrada.modelo(), entrada.clave(), entrada.categoria(),
+                        mejor, desdeInicio <= mejor));
+            }
+        }
+
+        sugerencias.sort(ORDEN);
+        return sugerencias.size() > limite ? List.copyOf(sugerencias.subList(0, limite)) : sugerencias;
+    }
+
+    public int size() {
+        return entradas.size();
+    }
+
+    /**
+     * Con pocas letras no se corrige nada: cualquier cambio daría otro modelo
+     */
+    private static int maxDistancia(int longitud) {
+        if (longitud <= 3) {
+            return 0;
+        }
+        return longitud <= 6 ? 1 : 2;
+    }
+
+    private static Set<String> bigramasDe(String clave) {
+        String conInicio = INICIO + clave;
+        Set<String> resultado = new LinkedHashSet<>();
+        for (int i = 0; i + N <= conInicio.length(); i++) {
+            resultado.add(conInicio.substring(i, i + N));
+        }
+        return resultado;
+    }
+
+    /**
+     * Menor distancia de edición (con transposiciones) entre la consulta y un trozo del
+     * nombre: su principio si "anclada", cualquier parte si no. Devuelve max + 1 en cuanto
+     * se sabe que no baja del máximo.
+     */
+    private static int distancia(String consulta, String nombre, boolean anclada, int max) {
+        int n = nombre.length();
+        int[] anterior2 = new int[n + 1];
+        int[] anterior = new int[n + 1];
+        int[] actual = new int[n + 1];
+
+        for (int j = 0; j <= n; j++) {
+            anterior[j] = anclada ? j : 0;
+        }
+
+        for (int i = 1; i <= consulta.length(); i++) {
+            char c = consulta.charAt(i - 1);
+            actual[0] = i;
+            int minFila = actual[0];
+            for (int j = 1; j <= n; j++) {
+                int coste = c == nombre.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + coste);
+                if (i > 1 && j > 1 && c == nombre.charAt(j - 2) && consulta.charAt(i - 2) == nombre.charAt(j - 1)) {
+                    valor = Math.min(valor, anterior2[j - 2] + 1);
+                }
+                actual[j] = valor;
+                minFila = Math.min(minFila, valor);
+            }
+            if (minFila > max) {
+                return max + 1;
+            }
+            int[] libre = anterior2;
+            anterior2 = anterior;
+            anterior = actual;
+            actual = libre;
+        }
+
+        // Lo que quede del nombre tras el trozo coincidente no cuenta
+        int mejor = max + 1;
+        for (int j = 0; j <= n; j++) {
+            mejor = Math.min(mejor, anterior[j]);
+        }
+        return mejor;
+    }
+
+    /**
+     * Modelo sugerido; "clave" es su nombre normalizado
+     */
+    public record Sugerencia(String modelo, String clave, String categoria, int distancia,
+                             boolean desdeElPrincipio) {
+    }
+
+    private record Entrada(String modelo, String clave, String categoria) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.lavaderosepulveda.app.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Búsqueda en memoria de modelos de vehículo dentro del texto escrito por el usuario.
+ *
+ * Los nombres normalizados (minúsculas, solo letras y dígitos) forman un autómata de
+ * Aho-Corasick: el texto se recorre una sola vez y se queda la coincidencia más larga,
+ * de modo que "range rover sport" gana a "range rover" y "golf 2015" a "2". Solo cuentan
+ * las coincidencias que empiezan y acaban entre palabras del texto: "lt" no está en
+ * "Seat Altea" ni "a2" en "furgoneta 2 plazas". Si el texto no contiene ningún modelo
+ * completo (el usuario aún está escribiendo), se busca el modelo más corto que lo
+ * contenga, igual que hacía la consulta LIKE '%x%'.
+ *
+ * Es inmutable: para cambiar los modelos se construye uno nuevo.
+ */
+public final class VehicleModelMatcher {
+
+    private final Nodo raiz = new Nodo(0);
+
+    // Para la búsqueda por texto parcial, del nombre más corto al más largo
+    private final List<Modelo> modelos = new ArrayList<>();
+
+    /**
+     * @param categoriaPorModelo nombre del modelo -> categoría; si un nombre se repite
+     *                           (en el orden del mapa) se queda la primera categoría
+     */
+    public VehicleModelMatcher(Map<String, String> categoriaPorModelo) {
+        for (Map.Entry<String, String> entrada : categoriaPorModelo.entrySet()) {
+            String nombre = normalizar(entrada.getKey());
+            if (!nombre.isEmpty()) {
+                agregar(nombre, entrada.getValue());
+            }
+        }
+        modelos.sort(Comparator.comparingInt(modelo -> modelo.nombre().length()));
+        enlazarFallos();
+    }
+
+    /**
+     * Categoría del modelo encontrado en el texto, o null si no hay ninguno
+     */
+    public String buscar(String texto) {
+        Coincidencia coincidencia = buscarModelo(texto);
+        return coincidencia != null ? coincidencia.categoria() : null;
+    }
+
+    /**
+     * Modelo encontrado en el texto (nombre normalizado y categoría), o null si no hay ninguno
+     */
+    public Coincidencia buscarModelo(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        // Texto normalizado y, para cada posición, si cae entre dos palabras del original
+        StringBuilder normalizado = new StringBuilder(texto.length());
+        boolean[] limites = new boolean[texto.length() + 1];
+        boolean separado = true;
+        for (int i = 0; i < texto.length(); i++) {
+            char original = texto.charAt(i);
+            char c = Character.toLowerCase(original);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                limites[normalizado.length()] |= separado;
+                normalizado.append(c);
+                separado = false;
+            } else if (!Character.isLetterOrDigit(original)) {
+                // Espacios y signos separan palabras; las letras con tilde se quitan sin separar
+                separado = true;
+            }
+        }
+        if (normalizado.length() == 0) {
+            return null;
+        }
+        limites[normalizado.length()] = true;
+
+        Nodo mejor = null;
+        Nodo actual = raiz;
+        for (int i = 0; i < normalizado.length(); i++) {
+            char c = normalizado.charAt(i);
+            while (actual != raiz && !actual.hijos.containsKey(c)) {
+                actual = actual.fallo;
+            }
+            actual = actual.hijos.getOrDefault(c, raiz);
+            if (!limites[i + 1]) {
+                continue;
+            }
+
+            // Modelos que acaban aquí, del más largo al más corto: el primero que además
+            // empieza al principio de una palabra
+            for (Nodo encontrado = actual.categoria != null ? actual : actual.salida;
+                 encontrado != null && (mejor == null || encontrado.profundidad > mejor.profundidad);
+                 encontrado = encontrado.salida) {
+                if (limites[i + 1 - encontrado.profundidad]) {
+                    mejor = encontrado;
+                    break;
+                }
+            }
+        }
+        if (mejor != null) {
+            return new Coincidencia(mejor.nombre, mejor.categoria);
+        }
+
+        String consulta = normalizado.toString();
+        for (Modelo modelo : modelos) {
+            if (modelo.nombre().contains(consulta)) {
+                return new Coincidencia(modelo.nombre(), modelo.categoria());
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return modelos.size();
+    }
+
+    /**
+     * Minúsculas, sin espacios ni signos: "Serie 3" y "serie-3" quedan como "serie3"
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        StringBuilder normalizado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = Character.toLowerCase(texto.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                normalizado.append(c);
+            }
+        }
+        return normalizado.toString();
+    }
+
+    private void agregar(String nombre, String categoria) {
+        Nodo nodo = raiz;
+        for (int i = 0; i < nombre.length(); i++) {
+            int profundidad = i + 1;
+            nodo = nodo.hijos.computeIfAbsent(nombre.charAt(i), c -> new Nodo(profundidad));
+        }
+        if (nodo.categoria == null) {
+            nodo.nombre = nombre;
+            nodo.categoria = categoria;
+            modelos.add(new Modelo(nombre, categoria));
+        }
+    }
+
+    /**
+     * Enlaces de fallo y de salida, por niveles desde la raíz
+     */
+    private void enlazarFallos() {
+        Deque<Nodo> pendientes = new ArrayDeque<>();
+        for (Nodo hijo : raiz.hijos.values()) {
+            hijo.fallo = raiz;
+            pendientes.add(hijo);
+        }
+
+        while (!pendientes.isEmpty()) {
+            Nodo nodo = pendientes.poll();
+            for (Map.Entry<Character, Nodo> entrada : nodo.hijos.entrySet()) {
+                char c = entrada.getKey();
+                Nodo hijo = entrada.getValue();
+
+                Nodo fallo = nodo.fallo;
+                while (fallo != raiz && !fallo.hijos.containsKey(c)) {
+                    fallo = fallo.fallo;
+                }
+                Nodo destino = fallo.hijos.get(c);
+                hijo.fallo = destino != null && destino != hijo ? destino : raiz;
+                hijo.salida = hijo.fallo.categoria != null ? hijo.fallo : hijo.fallo.salida;
+
+                pendientes.add(hijo);
+            }
+        }
+    }
+
+    private static final class Nodo {
+        private final Map<Character, Nodo> hijos = new HashMap<>();
+        private final int profundidad;
+        private Nodo fallo;
+        // Nodo terminal más largo alcanzable por los enlaces de fallo
+        private Nodo salida;
+        private String nombre;
+        private String categoria;
+
+        private Nodo(int profundidad) {
+            this.profundidad = profundidad;
+        }
+    }
+
+    private record Modelo(String nombre, String categoria) {
+    }
+
+    /**
+     * @param modelo nombre normalizado del modelo encontrado
+     */
+    public record Coincidencia(String modelo, String categoria) {
+
+        /**
+         * Modelos que son solo un número ("2", "308"): la pista más débil del texto
+         */
+        public boolean soloNumero() {
+            for (int i = 0; i < modelo.length(); i++) {
+                if (!Character.isDigit(modelo.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+-- ========================================
+-- Categorías y modelos de vehículos
+-- ? Antes los sembraba DataInitializer en cada arranque (si la tabla estaba vacía).
+--   Las bases de datos existentes ya los tienen y Flyway no ejecuta esta migración
+--   en ellas (baseline-version=2)
+-- ? SQL común a PostgreSQL, MySQL y H2
+-- ========================================
+
+INSERT INTO vehicle_categories (name, description) VALUES
+    ('turismo', 'Turismo'),
+    ('ranchera', 'Turismo Ranchera'),
+    ('monovolumen', 'Monovolumen/Todoterreno Pequeño'),
+    ('todoterreno', 'Todoterreno Grande'),
+    ('furgoneta_pequena', 'Furgoneta Pequeña'),
+    ('furgoneta_grande', 'Furgoneta Grande');
+
+-- todoterreno
+INSERT INTO vehicle_models (name, category_id)
+SELECT m.name, c.id
+FROM vehicle_categories c
+CROSS JOIN (
+    SELECT 'touareg' AS name UNION ALL SELECT 'cayenne' UNION ALL SELECT 'macan'
+    UNION ALL SELECT 'tarraco' UNION ALL SELECT 'edge' UNION ALL SELECT 'explorer'
+    UNION ALL SELECT 'antara' UNION ALL SELECT 'grandland' UNION ALL SELECT 'koleos'
+    UNION ALL SELECT '5008' UNION ALL SELECT '4008' UNION ALL SELECT 'c5 aircross'
+    UNION ALL SELECT 'ds7' UNION ALL SELECT 'x3' UNION ALL SELECT 'x4' UNION ALL SELECT 'x5'
+    UNION ALL SELECT 'x6' UNION ALL SELECT 'x7' UNION ALL SELECT 'gle' UNION ALL SELECT 'gls'
+    UNION ALL SELECT 'q7' UNION ALL SELECT 'q8' UNION ALL SELECT 'rav4'
+    UNION ALL SELECT 'highlander' UNION ALL SELECT 'land cruiser' UNION ALL SELECT 'x-trail'
+    UNION ALL SELECT 'pathfinder' UNION ALL SELECT 'patrol' UNION ALL SELECT 'cr-v'
+    UNION ALL SELECT 'crv' UNION ALL SELECT 'hr-v' UNION ALL SELECT 'hrv'
+    UNION ALL SELECT 'santa fe' UNION ALL SELECT 'sorento' UNION ALL SELECT 'cx-5'
+    UNION ALL SELECT 'cx-7' UNION ALL SELECT 'cx-9' UNION ALL SELECT 'kodiaq'
+    UNION ALL SELECT 'karoq' UNION ALL SELECT 'xc90' UNION ALL SELECT 'range rover'
+    UNION ALL SELECT 'discovery' UNION ALL SELECT 'defender' UNION ALL SELECT 'freelander'
+    UNION ALL SELECT 'range rover sport' UNION ALL SELECT 'range rover evoque'
+    UNION ALL SELECT 'range rover velar' UNION ALL SELECT 'discovery sport'
+    UNION ALL SELECT 'f-pace' UNION ALL SELECT 'e-pace' UNION ALL SELECT 'i-pace'
+) m
+WHERE c.name = 'todoterreno';
+
+-- monovolumen
+INSERT INTO vehicle_models (name, category_id)
+SELECT m.name, c.id
+FROM vehicle_categories c
+CROSS JOIN (
+    SELECT 'golf sportsvan' AS name UNION ALL SELECT 'touran' UNION ALL SELECT 'sharan'
+    UNION ALL SELECT 'altea xl' UNION ALL SELECT 'alhambra' UNION ALL SELECT 'b-max'
+    UNION ALL SELECT 'c-max' UNION ALL SELECT 's-max' UNION ALL SELECT 'galaxy'
+    UNION ALL SELECT 'zafira' UNION ALL SELECT 'meriva' UNION ALL SELECT 'scenic'
+    UNION ALL SELECT 'grand scenic' UNION ALL SELECT 'espace' UNION ALL SELECT 'modus'
+    UNION ALL SELECT '1007' UNION ALL SELECT '807' UNION ALL SELECT '5008'
+    UNION ALL SELECT 'c3 picasso' UNION ALL SELECT 'c4 picasso' UNION ALL SELECT 'grand c4 picasso'
+    UNION ALL SELECT 'c8' UNION ALL SELECT 'xsara picasso' UNION ALL SELECT 'serie 2 active tourer'
+    UNION ALL SELECT 'serie 2 gran tourer' UNION ALL SELECT 'i3' UNION ALL SELECT 'clase b'
+    UNION ALL SELECT 'clase r' UNION ALL SELECT 'clase v' UNION ALL SELECT 'viano'
+    UNION ALL SELECT 'vaneo' UNION ALL SELECT 'a2' UNION ALL SELECT 'verso'
+    UNION ALL SELECT 'previa' UNION ALL SELECT 'picnic' UNION ALL SELECT 'yaris verso'
+    UNION ALL SELECT 'corolla verso' UNION ALL SELECT 'avensis verso'
+    UNION ALL SELECT 'proace verso' UNION ALL SELECT 'iq' UNION ALL SELECT 'note'
+    UNION ALL SELECT 'cube' UNION ALL SELECT 'tiida' UNION ALL SELECT 'almera tino'
+    UNION ALL SELECT 'primera traveller' UNION ALL SELECT 'serena' UNION ALL SELECT 'fr-v'
+    UNION ALL SELECT 'stream' UNION ALL SELECT 'odyssey' UNION ALL SELECT 'shuttle'
+    UNION ALL SELECT 'matrix' UNION ALL SELECT 'trajet' UNION ALL SELECT 'h1'
+    UNION ALL SELECT 'ix20' UNION ALL SELECT 'carens' UNION ALL SELECT 'carnival'
+    UNION ALL SELECT 'sedona' UNION ALL SELECT 'venga' UNION ALL SELECT 'soul'
+    UNION ALL SELECT 'premacy' UNION ALL SELECT 'mpv' UNION ALL SELECT '5' UNION ALL SELECT 'biante'
+    UNION ALL SELECT 'roomster' UNION ALL SELECT 'multipla' UNION ALL SELECT 'ulysse'
+    UNION ALL SELECT 'idea' UNION ALL SELECT 'doblo' UNION ALL SELECT 'qubo' UNION ALL SELECT '500l'
+    UNION ALL SELECT 'phedra' UNION ALL SELECT 't-cross' UNION ALL SELECT 't-roc'
+    UNION ALL SELECT 'tiguan' UNION ALL SELECT 'arona' UNION ALL SELECT 'ateca'
+    UNION ALL SELECT 'tarraco' UNION ALL SELECT 'kuga' UNION ALL SELECT 'ecosport'
+    UNION ALL SELECT 'puma' UNION ALL SELECT 'mokka' UNION ALL SELECT 'crossland'
+    UNION ALL SELECT 'grandland' UNION ALL SELECT 'captur' UNION ALL SELECT 'kadjar'
+    UNION ALL SELECT 'arkana' UNION ALL SELECT 'koleos' UNION ALL SELECT '3008'
+    UNION ALL SELECT '2008' UNION ALL SELECT 'c3 aircross' UNION ALL SELECT 'c4 aircross'
+    UNION ALL SELECT 'c5 aircross' UNION ALL SELECT 'x1' UNION ALL SELECT 'x2' UNION ALL SELECT 'x3'
+    UNION ALL SELECT 'gla' UNION ALL SELECT 'glb' UNION ALL SELECT 'glc' UNION ALL SELECT 'q2'
+    UNION ALL SELECT 'q3' UNION ALL SELECT 'q5' UNION ALL SELECT 'c-hr' UNION ALL SELECT 'rav4'
+    UNION ALL SELECT 'juke' UNION ALL SELECT 'qashqai' UNION ALL SELECT 'x-trail'
+    UNION ALL SELECT 'murano' UNION ALL SELECT 'cr-v' UNION ALL SELECT 'hr-v'
+    UNION ALL SELECT 'pilot' UNION ALL SELECT 'tucson' UNION ALL SELECT 'santa fe'
+    UNION ALL SELECT 'kona' UNION ALL SELECT 'nexo' UNION ALL SELECT 'sportage'
+    UNION ALL SELECT 'sorento' UNION ALL SELECT 'niro' UNION ALL SELECT 'stonic'
+    UNION ALL SELECT 'xceed' UNION ALL SELECT 'cx-3' UNION ALL SELECT 'cx-5' UNION ALL SELECT 'cx-7'
+    UNION ALL SELECT 'cx-9' UNION ALL SELECT 'cx-30' UNION ALL SELECT 'yeti'
+    UNION ALL SELECT 'kamiq' UNION ALL SELECT 'karoq' UNION ALL SELECT 'kodiaq'
+    UNION ALL SELECT '500x' UNION ALL SELECT 'stelvio' UNION ALL SELECT 'tonale'
+) m
+WHERE c.name = 'monovolumen';
+
+-- ranchera
+INSERT INTO vehicle_models (name, category_id)
+SELECT m.name, c.id
+FROM vehicle_categories c
+CROSS JOIN (
+    SELECT 'golf variant' AS name UNION ALL SELECT 'golf sportsvan'
+    UNION ALL SELECT 'passat variant' UNION ALL SELECT 'passat alltrack' UNION ALL SELECT 'leon st'
+    UNION ALL SELECT 'leon x-perience' UNION ALL SELECT 'focus sw'
+    UNION ALL SELECT 'focus sportbreak' UNION ALL SELECT 'astra sports tourer'
+    UNION ALL SELECT 'astra caravan' UNION ALL SELECT 'insignia sports tourer'
+    UNION ALL SELECT 'megane estate' UNION ALL SELECT 'megane grandtour'
+    UNION ALL SELECT 'laguna estate' UNION ALL SELECT 'talisman estate' UNION ALL SELECT '308 sw'
+    UNION ALL SELECT '407 sw' UNION ALL SELECT '508 sw' UNION ALL SELECT 'c5 tourer'
+    UNION ALL SELECT 'serie 3 touring' UNION ALL SELECT 'serie 5 touring'
+    UNION ALL SELECT 'clase c estate' UNION ALL SELECT 'clase e estate' UNION ALL SELECT 'a4 avant'
+    UNION ALL SELECT 'a6 avant' UNION ALL SELECT 'a3 sportback' UNION ALL SELECT 'corolla touring'
+    UNION ALL SELECT 'corolla estate' UNION ALL SELECT 'octavia combi'
+    UNION ALL SELECT 'superb combi' UNION ALL SELECT 'fabia combi'
+) m
+WHERE c.name = 'ranchera';
+
+-- furgoneta_grande
+INSERT INTO vehicle_models (name, category_id)
+SELECT m.name, c.id
+FROM vehicle_categories c
+CROSS JOIN (
+    SELECT 'crafter' AS name UNION ALL SELECT 'sprinter' UNION ALL SELECT 'transit'
+    UNION ALL SELECT 'movano' UNION ALL SELECT 'master' UNION ALL SELECT 'ducato'
+    UNION ALL SELECT 'expert' UNION ALL SELECT 'boxer' UNION ALL SELECT 'jumper'
+    UNION ALL SELECT 'daily' UNION ALL SELECT 'lt' UNION ALL SELECT 'trafic'
+    UNION ALL SELECT 'vivaro' UNION ALL SELECT 'primastar' UNION ALL SELECT 'vito'
+    UNION ALL SELECT 'viano' UNION ALL SELECT 'marco polo' UNION ALL SELECT 'california'
+) m
+WHERE c.name = 'furgoneta_grande';
+
+-- turismo
+INSERT INTO vehicle_models (name, category_id)
+SELECT m.name, c.id
+FROM vehicle_categories c
+CROSS JOIN (
+    SELECT 'golf' AS name UNION ALL SELECT 'polo' UNION ALL SELECT 'passat' UNION ALL SELECT 'jetta'
+    UNION ALL SELECT 'arteon' UNION ALL SELECT 'vento' UNION ALL SELECT 'bora'
+    UNION ALL SELECT 'ibiza' UNION ALL SELECT 'leon' UNION ALL SELECT 'toledo'
+    UNION ALL SELECT 'cordoba' UNION ALL SELECT 'exeo' UNION ALL SELECT 'fiesta'
+    UNION ALL SELECT 'focus' UNION ALL SELECT 'mondeo' UNION ALL SELECT 'fusion'
+    UNION ALL SELECT 'escort' UNION ALL SELECT 'sierra' UNION ALL SELECT 'corsa'
+    UNION ALL SELECT 'astra' UNION ALL SELECT 'insignia' UNION ALL SELECT 'vectra'
+    UNION ALL SELECT 'calibra' UNION ALL SELECT 'omega' UNION ALL SELECT 'clio'
+    UNION ALL SELECT 'megane' UNION ALL SELECT 'laguna' UNION ALL SELECT 'fluence'
+    UNION ALL SELECT 'talisman' UNION ALL SELECT 'symbol' UNION ALL SELECT '105'
+    UNION ALL SELECT '205' UNION ALL SELECT '106' UNION ALL SELECT '206' UNION ALL SELECT '207'
+    UNION ALL SELECT '208' UNION ALL SELECT '306' UNION ALL SELECT '307' UNION ALL SELECT '308'
+    UNION ALL SELECT '406' UNION ALL SELECT '407' UNION ALL SELECT '408' UNION ALL SELECT '508'
+    UNION ALL SELECT 'c1' UNION ALL SELECT 'c2' UNION ALL SELECT 'c3' UNION ALL SELECT 'c4'
+    UNION ALL SELECT 'c5' UNION ALL SELECT 'xsara' UNION ALL SELECT 'saxo' UNION ALL SELECT 'ax'
+    UNION ALL SELECT 'zx' UNION ALL SELECT 'serie 1' UNION ALL SELECT 'serie 2'
+    UNION ALL SELECT 'serie 3' UNION ALL SELECT 'serie 4' UNION ALL SELECT 'serie 5'
+    UNION ALL SELECT 'serie 6' UNION ALL SELECT 'serie 7' UNION ALL SELECT 'serie 8'
+    UNION ALL SELECT '118' UNION ALL SELECT '120' UNION ALL SELECT '316' UNION ALL SELECT '318'
+    UNION ALL SELECT '320' UNION ALL SELECT '325' UNION ALL SELECT '330' UNION ALL SELECT '520'
+    UNION ALL SELECT '525' UNION ALL SELECT '530' UNION ALL SELECT 'clase a'
+    UNION ALL SELECT 'clase b' UNION ALL SELECT 'clase c' UNION ALL SELECT 'clase e'
+    UNION ALL SELECT 'clase s' UNION ALL SELECT 'cla' UNION ALL SELECT 'cls' UNION ALL SELECT 'a180'
+    UNION ALL SELECT 'a200' UNION ALL SELECT 'c180' UNION ALL SELECT 'c200' UNION ALL SELECT 'c220'
+    UNION ALL SELECT 'e200' UNION ALL SELECT 'e220' UNION ALL SELECT 'e300' UNION ALL SELECT 'a1'
+    UNION ALL SELECT 'a3' UNION ALL SELECT 'a4' UNION ALL SELECT 'a5' UNION ALL SELECT 'a6'
+    UNION ALL SELECT 'a7' UNION ALL SELECT 'a8' UNION ALL SELECT 'tt' UNION ALL SELECT 'yaris'
+    UNION ALL SELECT 'corolla' UNION ALL SELECT 'auris' UNION ALL SELECT 'avensis'
+    UNION ALL SELECT 'camry' UNION ALL SELECT 'prius' UNION ALL SELECT 'micra'
+    UNION ALL SELECT 'almera' UNION ALL SELECT 'primera' UNION ALL SELECT 'maxima'
+    UNION ALL SELECT 'sentra' UNION ALL SELECT 'civic' UNION ALL SELECT 'accord'
+    UNION ALL SELECT 'jazz' UNION ALL SELECT 'insight' UNION ALL SELECT 'i10' UNION ALL SELECT 'i20'
+    UNION ALL SELECT 'i30' UNION ALL SELECT 'i40' UNION ALL SELECT 'elantra'
+    UNION ALL SELECT 'sonata' UNION ALL SELECT 'ioniq' UNION ALL SELECT 'accent'
+    UNION ALL SELECT 'rio' UNION ALL SELECT 'ceed' UNION ALL SELECT 'cerato'
+    UNION ALL SELECT 'optima' UNION ALL SELECT '2' UNION ALL SELECT '3' UNION ALL SELECT '6'
+    UNION ALL SELECT 'mx5' UNION ALL SELECT 'mx-5' UNION ALL SELECT 'fabia'
+    UNION ALL SELECT 'octavia' UNION ALL SELECT 'superb' UNION ALL SELECT 'rapid'
+    UNION ALL SELECT 'punto' UNION ALL SELECT 'bravo' UNION ALL SELECT 'tipo'
+    UNION ALL SELECT 'linea'
+) m
+WHERE c.name = 'turismo';
+
+-- furgoneta_pequena
+INSERT INTO vehicle_models (name, category_id)
+SELECT m.name, c.id
+FROM vehicle_categories c
+CROSS JOIN (
+    SELECT 'caddy' AS name UNION ALL SELECT 'combo' UNION ALL SELECT 'berlingo'
+    UNION ALL SELECT 'partner' UNION ALL SELECT 'kangoo' UNION ALL SELECT 'doblo'
+    UNION ALL SELECT 'bipper' UNION ALL SELECT 'nemo' UNION ALL SELECT 'citan'
+    UNION ALL SELECT 'connect' UNION ALL SELECT 'courier'
+) m
+WHERE c.name = 'furgoneta_pequena';
@@ -0,0 +1,19 @@
+-- ========================================
+-- Índices compuestos para las consultas más frecuentes
+-- ? Comprobados con PlanesConsultaTest (EXPLAIN en H2 y, si se configura, PostgreSQL)
+-- ========================================
+
+-- Hueco libre al reservar: CitaRepository.existsByFechaAndHora
+CREATE INDEX idx_citas_fecha_hora ON citas (fecha, hora);
+
+-- Citas completadas pendientes de facturar: CitaRepository.findCitasCompletadasSinFacturar
+CREATE INDEX idx_citas_estado_facturada_fecha ON citas (estado, facturada, fecha);
+
+-- Recordatorios del día siguiente: CitaRepository.findCitasParaRecordatorio
+CREATE INDEX idx_citas_recordatorio ON citas (fecha, recordatorio_enviado, estado);
+
+-- Numeración correlativa por año: FacturaRepository.findMaxNumeroSecuencialByAnio
+CREATE INDEX idx_facturas_anio_secuencial ON facturas (anio, numero_secuencial);
+
+-- Gastos por periodo y categoría: GastoRepository
+CREATE INDEX idx_gastos_fecha_categoria ON gastos (fecha, categoria);
@@ -0,0 +1,3 @@
+-- Facturas recibidas de un mes o periodo (FacturaRecibidaRepository.findByMes y los
+-- resúmenes trimestrales): la tabla no tenía ningún índice por fecha
+CREATE INDEX idx_facturas_recibidas_fecha ON facturas_recibidas (fecha_factura);
@@ -0,0 +1,232 @@
+-- ========================================
+-- Esquema inicial (MySQL)
+-- ? Equivale a lo que creaba ddl-auto=update a partir de las entidades. En las bases
+--   de datos que ya existían Flyway no lo ejecuta (baseline-version=2, ver
+--   application.properties); solo se aplica en instalaciones nuevas
+-- ? Por eso aquí solo está lo que ya existía antes de Flyway: lo añadido después
+--   (tabla de borrados, índices de sincronización) va en V6, que corre en todas
+-- ? Los enums se guardan como ENUM de MySQL, igual que los mapea Hibernate
+-- ========================================
+
+CREATE TABLE clientes (
+    id                BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre            VARCHAR(255) NOT NULL,
+    apellidos         VARCHAR(255),
+    telefono          VARCHAR(255) NOT NULL,
+    email             VARCHAR(255),
+    vehiculo_habitual VARCHAR(255),
+    activo            BIT          NOT NULL,
+    nif               VARCHAR(255),
+    direccion         VARCHAR(255),
+    codigo_postal     VARCHAR(255),
+    ciudad            VARCHAR(255),
+    provincia         VARCHAR(255),
+    matricula         VARCHAR(255),
+    marca             VARCHAR(255),
+    modelo            VARCHAR(255),
+    color             VARCHAR(255),
+    notas             TEXT,
+    created_at        DATETIME(6),
+    updated_at        DATETIME(6),
+    CONSTRAINT uk_clientes_telefono UNIQUE (telefono),
+    CONSTRAINT uk_clientes_nif UNIQUE (nif)
+) ENGINE = InnoDB;
+CREATE INDEX idx_clientes_telefono ON clientes (telefono);
+CREATE INDEX idx_clientes_email ON clientes (email);
+CREATE INDEX idx_clientes_activo ON clientes (activo);
+CREATE INDEX idx_clientes_nif ON clientes (nif);
+
+CREATE TABLE citas (
+    id                   BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre               VARCHAR(255) NOT NULL,
+    email                VARCHAR(255),
+    telefono             VARCHAR(255) NOT NULL,
+    modelo_vehiculo      VARCHAR(255) NOT NULL,
+    tipo_lavado          VARCHAR(255) NOT NULL,
+    fecha                DATE         NOT NULL,
+    hora                 TIME(6)      NOT NULL,
+    estado               ENUM('PENDIENTE','CONFIRMADA','EN_PROCESO','COMPLETADA','NO_PRESENTADO','CANCELADA') NOT NULL,
+    pago_adelantado      BIT          NOT NULL,
+    referencia_pago      VARCHAR(255),
+    observaciones        TEXT,
+    cliente_id           BIGINT,
+    duracion_estimada    INTEGER,
+    hora_llegada         TIME(6),
+    hora_inicio          TIME(6),
+    hora_fin             TIME(6),
+    recordatorio_enviado BIT,
+    confirmacion_enviada BIT,
+    facturada            BIT,
+    factura_id           BIGINT,
+    matricula            VARCHAR(255),
+    created_at           DATETIME(6),
+    updated_at           DATETIME(6)
+) ENGINE = InnoDB;
+CREATE INDEX idx_citas_fecha ON citas (fecha);
+CREATE INDEX idx_citas_estado ON citas (estado);
+CREATE INDEX idx_citas_telefono ON citas (telefono);
+CREATE INDEX idx_citas_cliente_id ON citas (cliente_id);
+
+CREATE TABLE facturas (
+    id                BIGINT AUTO_INCREMENT PRIMARY KEY,
+    numero            VARCHAR(20)    NOT NULL,
+    anio              INTEGER        NOT NULL,
+    numero_secuencial INTEGER        NOT NULL,
+    fecha             DATE           NOT NULL,
+    tipo              ENUM('SIMPLIFICADA','COMPLETA')    NOT NULL,
+    estado            ENUM('PENDIENTE','PAGADA')    NOT NULL,
+    metodo_pago       ENUM('EFECTIVO','TARJETA','BIZUM','TRANSFERENCIA','DOMICILIACION'),
+    cliente_id        BIGINT,
+    cliente_nombre    VARCHAR(255),
+    cliente_nif       VARCHAR(20),
+    cliente_direccion VARCHAR(255),
+    cliente_email     VARCHAR(255),
+    cliente_telefono  VARCHAR(20),
+    base_imponible    DECIMAL(10, 2) NOT NULL,
+    tipo_iva          DECIMAL(5, 2)  NOT NULL,
+    importe_iva       DECIMAL(10, 2) NOT NULL,
+    total             DECIMAL(10, 2) NOT NULL,
+    fecha_pago        DATE,
+    observaciones     TEXT,
+    created_at        DATETIME(6),
+    updated_at        DATETIME(6),
+    CONSTRAINT fk_facturas_cliente FOREIGN KEY (cliente_id) REFERENCES clientes (id)
+) ENGINE = InnoDB;
+CREATE UNIQUE INDEX idx_facturas_numero ON facturas (numero);
+CREATE INDEX idx_facturas_fecha ON facturas (fecha);
+CREATE INDEX idx_facturas_cliente_id ON facturas (cliente_id);
+CREATE INDEX idx_facturas_estado ON facturas (estado);
+
+CREATE TABLE lineas_factura (
+    id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+    factura_id      BIGINT         NOT NULL,
+    cita_id         BIGINT,
+    concepto        VARCHAR(255)   NOT NULL,
+    cantidad        INTEGER        NOT NULL,
+    precio_unitario DECIMAL(10, 2) NOT NULL,
+    subtotal        DECIMAL(10, 2) NOT NULL,
+    CONSTRAINT fk_lineas_factura_factura FOREIGN KEY (factura_id) REFERENCES facturas (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE proveedores (
+    id            BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre        VARCHAR(255) NOT NULL,
+    nif           VARCHAR(20),
+    direccion     VARCHAR(255),
+    ciudad        VARCHAR(255),
+    codigo_postal VARCHAR(10),
+    telefono      VARCHAR(255),
+    email         VARCHAR(255),
+    contacto      VARCHAR(255),
+    categoria     VARCHAR(255),
+    forma_pago    VARCHAR(255),
+    iban          VARCHAR(34),
+    notas         VARCHAR(255),
+    activo        BIT,
+    created_at    DATETIME(6),
+    updated_at    DATETIME(6)
+) ENGINE = InnoDB;
+
+CREATE TABLE facturas_recibidas (
+    id                BIGINT AUTO_INCREMENT PRIMARY KEY,
+    numero_factura    VARCHAR(255)   NOT NULL,
+    proveedor_id      BIGINT,
+    proveedor_nombre  VARCHAR(255),
+    proveedor_nif     VARCHAR(255),
+    fecha_factura     DATE           NOT NULL,
+    fecha_vencimiento DATE,
+    fecha_pago        DATE,
+    categoria         ENUM('AGUA','ALQUILER','ASOCIACIONES','BANCARIOS','COMBUSTIBLE','IMPUESTOS','LUZ',
+                                   'MANTENIMIENTO','MAQUINARIA','MATERIAL_OFICINA','OTROS','PERSONAL','PRODUCTOS',
+                                   'PUBLICIDAD','REPARACIONES','SEGURIDAD_SOCIAL','SEGURIDAD_SOCIAL_A_CARGO_EMPRESA',
+                                   'SEGUROS','SUMINISTROS','TELEFONIA','VEHICULOS')   NOT NULL,
+    concepto          VARCHAR(255),
+    base_imponible    DECIMAL(10, 2) NOT NULL,
+    tipo_iva          DECIMAL(5, 2),
+    cuota_iva         DECIMAL(10, 2),
+    tipo_irpf         DECIMAL(5, 2),
+    cuota_irpf        DECIMAL(10, 2),
+    total             DECIMAL(10, 2) NOT NULL,
+    estado            ENUM('PENDIENTE','PAGADA')   NOT NULL,
+    metodo_pago       ENUM('EFECTIVO','TARJETA','BIZUM','TRANSFERENCIA','DOMICILIACION'),
+    documento_adjunto VARCHAR(255),
+    notas             VARCHAR(255),
+    created_at        DATETIME(6),
+    updated_at        DATETIME(6),
+    CONSTRAINT fk_facturas_recibidas_proveedor FOREIGN KEY (proveedor_id) REFERENCES proveedores (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE gastos (
+    id                  BIGINT AUTO_INCREMENT PRIMARY KEY,
+    concepto            VARCHAR(255)   NOT NULL,
+    fecha               DATE           NOT NULL,
+    categoria           ENUM('AGUA','ALQUILER','ASOCIACIONES','BANCARIOS','COMBUSTIBLE','IMPUESTOS','LUZ',
+                                   'MANTENIMIENTO','MAQUINARIA','MATERIAL_OFICINA','OTROS','PERSONAL','PRODUCTOS',
+                                   'PUBLICIDAD','REPARACIONES','SEGURIDAD_SOCIAL','SEGURIDAD_SOCIAL_A_CARGO_EMPRESA',
+                                   'SEGUROS','SUMINISTROS','TELEFONIA','VEHICULOS')   NOT NULL,
+    importe             DECIMAL(10, 2) NOT NULL,
+    iva_incluido        BIT,
+    base_imponible      DECIMAL(10, 2),
+    cuota_iva           DECIMAL(10, 2),
+    factura_recibida_id BIGINT,
+    metodo_pago         ENUM('EFECTIVO','TARJETA','BIZUM','TRANSFERENCIA','DOMICILIACION'),
+    recurrente          BIT,
+    dia_recurrencia     INTEGER,
+    notas               VARCHAR(255),
+    pagado              BIT,
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    CONSTRAINT fk_gastos_factura_recibida FOREIGN KEY (factura_recibida_id) REFERENCES facturas_recibidas (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE config_plantilla_factura (
+    id                          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    emisor_nombre               VARCHAR(255),
+    emisor_nif                  VARCHAR(255),
+    emisor_direccion            VARCHAR(255),
+    emisor_codigo_postal        VARCHAR(255),
+    emisor_ciudad               VARCHAR(255),
+    emisor_provincia            VARCHAR(255),
+    emisor_telefono             VARCHAR(255),
+    emisor_email                VARCHAR(255),
+    emisor_web                  VARCHAR(255),
+    logo_base64                 LONGTEXT,
+    logo_ancho                  INTEGER,
+    logo_alto                   INTEGER,
+    color_primario              VARCHAR(255),
+    color_secundario            VARCHAR(255),
+    color_texto                 VARCHAR(255),
+    color_texto_claro           VARCHAR(255),
+    color_fondo                 VARCHAR(255),
+    color_fondo_alt             VARCHAR(255),
+    color_borde                 VARCHAR(255),
+    color_exito                 VARCHAR(255),
+    titulo_factura              VARCHAR(255),
+    titulo_factura_simplificada VARCHAR(255),
+    pie_factura                 TEXT,
+    condiciones_pago            VARCHAR(255),
+    cuenta_bancaria             VARCHAR(255),
+    texto_gracias               VARCHAR(255),
+    texto_iva                   VARCHAR(255),
+    mostrar_logo                BIT,
+    mostrar_datos_contacto      BIT,
+    mostrar_cuenta_bancaria     BIT,
+    mostrar_condiciones_pago    BIT,
+    mostrar_texto_gracias       BIT,
+    mostrar_marca_agua          BIT,
+    usar_filas_alternas         BIT
+) ENGINE = InnoDB;
+
+CREATE TABLE vehicle_categories (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_vehicle_categories_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE vehicle_models (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    category_id BIGINT       NOT NULL,
+    CONSTRAINT fk_vehicle_models_category FOREIGN KEY (category_id) REFERENCES vehicle_categories (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,48 @@
+-- ========================================
+-- Borrados para la sincronización incremental (/api/sync) e índices añadidos después
+-- del esquema original
+-- ? Las bases de datos anteriores a Flyway empiezan en la V2 y no tienen nada de esto;
+--   las creadas con V1 ya pueden tenerlo. Se puede volver a ejecutar: MySQL no admite
+--   CREATE INDEX IF NOT EXISTS, así que cada índice se crea solo si no aparece en
+--   information_schema
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS registros_eliminados (
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entidad      VARCHAR(20)  NOT NULL,
+    entidad_id   BIGINT       NOT NULL,
+    eliminado_en DATETIME(6) NOT NULL
+) ENGINE = InnoDB;
+
+SET @sql = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+                  AND table_name = 'registros_eliminados' AND index_name = 'idx_registros_eliminados_entidad_fecha') = 0,
+              'CREATE INDEX idx_registros_eliminados_entidad_fecha ON registros_eliminados (entidad, eliminado_en, id)',
+              'DO 0');
+PREPARE sentencia FROM @sql;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
+
+-- Cambios desde la posición (updated_at, id) de cada cliente de sincronización
+SET @sql = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+                  AND table_name = 'clientes' AND index_name = 'idx_clientes_updated_at') = 0,
+              'CREATE INDEX idx_clientes_updated_at ON clientes (updated_at, id)',
+              'DO 0');
+PREPARE sentencia FROM @sql;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
+
+SET @sql = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+                  AND table_name = 'citas' AND index_name = 'idx_citas_updated_at') = 0,
+              'CREATE INDEX idx_citas_updated_at ON citas (updated_at, id)',
+              'DO 0');
+PREPARE sentencia FROM @sql;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
+
+SET @sql = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+                  AND table_name = 'facturas' AND index_name = 'idx_facturas_updated_at') = 0,
+              'CREATE INDEX idx_facturas_updated_at ON facturas (updated_at, id)',
+              'DO 0');
+PREPARE sentencia FROM @sql;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
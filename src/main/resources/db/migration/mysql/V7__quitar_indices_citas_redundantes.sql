@@ -0,0 +1,24 @@
+-- ========================================
+-- Índices de una sola columna que ya cubren los compuestos de la V3
+-- ? idx_citas_fecha es el prefijo de idx_citas_fecha_hora e idx_citas_recordatorio, e
+--   idx_citas_estado el de idx_citas_estado_facturada_fecha: el planificador los elegía
+--   por ser más pequeños y cada escritura en citas mantenía dos índices de más.
+--   Comprobado con PlanesConsultaTest. MySQL no admite DROP INDEX IF EXISTS, así que
+--   cada índice se borra solo si aparece en information_schema
+-- ========================================
+
+SET @sql = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+                  AND table_name = 'citas' AND index_name = 'idx_citas_fecha') > 0,
+              'DROP INDEX idx_citas_fecha ON citas',
+              'DO 0');
+PREPARE sentencia FROM @sql;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
+
+SET @sql = IF((SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()
+                  AND table_name = 'citas' AND index_name = 'idx_citas_estado') > 0,
+              'DROP INDEX idx_citas_estado ON citas',
+              'DO 0');
+PREPARE sentencia FROM @sql;
+EXECUTE sentencia;
+DEALLOCATE PREPARE sentencia;
@@ -0,0 +1,4 @@
+-- Clientes sin teléfono (importados del CRM o dados de alta en mostrador).
+-- Sustituye a POST /api/admin/migracion/telefono-nullable; la restricción UNIQUE se
+-- mantiene porque admite varios NULL
+ALTER TABLE clientes ALTER COLUMN telefono DROP NOT NULL;
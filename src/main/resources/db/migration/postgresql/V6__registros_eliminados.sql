@@ -0,0 +1,23 @@
+-- ========================================
+-- Borrados para la sincronización incremental (/api/sync) e índices añadidos después
+-- del esquema original
+-- ? Las bases de datos anteriores a Flyway empiezan en la V2 y no tienen nada de esto;
+--   las creadas con V1 ya pueden tenerlo. Por eso todo es IF NOT EXISTS y se puede
+--   volver a ejecutar
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS registros_eliminados (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entidad      VARCHAR(20)  NOT NULL,
+    entidad_id   BIGINT       NOT NULL,
+    eliminado_en TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_registros_eliminados_entidad_fecha ON registros_eliminados (entidad, eliminado_en, id);
+
+-- Cambios desde la posición (updated_at, id) de cada cliente de sincronización
+CREATE INDEX IF NOT EXISTS idx_clientes_updated_at ON clientes (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_citas_updated_at ON citas (updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_facturas_updated_at ON facturas (updated_at, id);
+
+-- PostgreSQL no indexa las claves ajenas por su cuenta
+CREATE INDEX IF NOT EXISTS idx_lineas_factura_factura_id ON lineas_factura (factura_id);
@@ -0,0 +1,10 @@
+-- ========================================
+-- Índices de una sola columna que ya cubren los compuestos de la V3
+-- ? idx_citas_fecha es el prefijo de idx_citas_fecha_hora e idx_citas_recordatorio, e
+--   idx_citas_estado el de idx_citas_estado_facturada_fecha: el planificador los elegía
+--   por ser más pequeños y cada escritura en citas mantenía dos índices de más.
+--   Comprobado con PlanesConsultaTest
+-- ========================================
+
+DROP INDEX IF EXISTS idx_citas_fecha;
+DROP INDEX IF EXISTS idx_citas_estado;
@@ -0,0 +1,125 @@
+package com.lavaderosepulveda.app;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las dos formas de llegar al esquema actual con las migraciones de PostgreSQL (en H2
+ * modo PostgreSQL):
+ *
+ *   - Instalación nueva: Flyway ejecuta todo desde la V1.
+ *   - Base de datos anterior a Flyway, creada por ddl-auto=update: tiene las tablas de
+ *     la V1 pero no el historial de Flyway, que la marca en la V2 (baseline) y ejecuta
+ *     de la V3 en adelante. Todo lo que se añadió al esquema después tiene que llegar
+ *     por esas migraciones, o ddl-auto=validate falla al arrancar.
+ */
+class ActualizacionBaseDatosTest {
+
+    private static final String[] UBICACIONES = {"classpath:db/migration/comun", "classpath:db/migration/postgresql"};
+
+    private static final List<String> INDICES_POSTERIORES = List.of(
+            "idx_registros_eliminados_entidad_fecha",
+            "idx_clientes_updated_at",
+            "idx_citas_updated_at",
+            "idx_facturas_updated_at",
+            "idx_lineas_factura_factura_id");
+
+    // Cubiertos por los compuestos de la V3; la V7 los quita
+    private static final List<String> INDICES_QUITADOS = List.of("idx_citas_fecha", "idx_citas_estado");
+
+    @Test
+    void instalacionNuevaCreaElEsquemaCompleto() throws SQLException {
+        String url = url("nueva");
+        flyway(url).load().migrate();
+
+        try (Connection conexion = DriverManager.getConnection(url, "sa", "")) {
+            assertTrue(existeTabla(conexion, "registros_eliminados"));
+            for (String indice : INDICES_POSTERIORES) {
+                assertTrue(existeIndice(conexion, indice), indice);
+            }
+            for (String indice : INDICES_QUITADOS) {
+                assertFalse(existeIndice(conexion, indice), indice);
+            }
+        }
+    }
+
+    @Test
+    void baseDeDatosAnteriorAFlywayRecibeLoQueLeFalta() throws SQLException {
+        String url = url("anterior");
+
+        // Lo que dejaba ddl-auto=update: el esquema de la V1 sin historial de Flyway
+        flyway(url).target("1").load().migrate();
+        try (Connection conexion = DriverManager.getConnection(url, "sa", "");
+             Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("DROP TABLE flyway_schema_history");
+            assertFalse(existeTabla(conexion, "registros_eliminados"));
+        }
+
+        MigrateResult resultado = flyway(url)
+                .baselineOnMigrate(true)
+                .baselineVersion("2")
+                .load()
+                .migrate();
+        assertTrue(resultado.success);
+        assertEquals("7", resultado.targetSchemaVersion);
+
+        try (Connection conexion = DriverManager.getConnection(url, "sa", "");
+             Statement sentencia = conexion.createStatement()) {
+            assertTrue(existeTabla(conexion, "registros_eliminados"));
+            for (String indice : INDICES_POSTERIORES) {
+                assertTrue(existeIndice(conexion, indice), indice);
+            }
+            for (String indice : INDICES_QUITADOS) {
+                assertFalse(existeIndice(conexion, indice), indice);
+            }
+            assertEquals(1, sentencia.executeUpdate("INSERT INTO registros_eliminados (entidad, entidad_id, eliminado_en) " +
+                    "VALUES ('CITA', 1, CURRENT_TIMESTAMP)"));
+
+            // Volver a ejecutarla (p.ej. tras un baseline manual) no falla ni duplica nada
+            ScriptUtils.executeSqlScript(conexion,
+                    new ClassPathResource("db/migration/postgresql/V6__registros_eliminados.sql"));
+            assertTrue(existeIndice(conexion, "idx_registros_eliminados_entidad_fecha"));
+        }
+    }
+
+    private static String url(String nombre) {
+        return "jdbc:h2:mem:" + nombre + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    private static FluentConfiguration flyway(String url) {
+        return Flyway.configure().dataSource(url, "sa", "").locations(UBICACIONES);
+    }
+
+    private static boolean existeTabla(Connection conexion, String tabla) throws SQLException {
+        return existe(conexion, "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = ?", tabla);
+    }
+
+    private static boolean existeIndice(Connection conexion, String indice) throws SQLException {
+        return existe(conexion, "SELECT COUNT(*) FROM information_schema.indexes WHERE LOWER(index_name) = ?", indice);
+    }
+
+    private static boolean existe(Connection conexion, String sql, String nombre) throws SQLException {
+        try (PreparedStatement consulta = conexion.prepareStatement(sql)) {
+            consulta.setString(1, nombre);
+            try (ResultSet filas = consulta.executeQuery()) {
+                return filas.next() && filas.getInt(1) > 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.lavaderosepulveda.app;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Prueba de carga manual contra una instancia arrancada: lanza peticiones HTTP con N
+ * clientes concurrentes y muestra peticiones por segundo, percentiles de latencia y
+ * códigos de respuesta.
+ *
+ * Escenario "lectura": recorre los endpoints de consulta que más usan el CRM y el panel
+ * (facturas con líneas, pendientes, métricas, citas de hoy, horarios libres, clientes),
+ * que son los que dependen del pool de conexiones y de la caché de sentencias.
+ *
+ * Escenario "reservas": POST /api/citas con huecos distintos a partir de la fecha
+ * -Dreservas.desde=dd/MM/yyyy (por defecto dentro de un año), cada una con email para
+ * que se envíe la confirmación. Crea citas de verdad: usar una base de datos de pruebas
+ * y un SMTP de pruebas (p.ej. SPRING_MAIL_HOST/PORT apuntando a un MailHog). Para
+ * comparar hilos virtuales con el pool de Tomcat, mismo comando contra la aplicación
+ * arrancada con SPRING_THREADS_VIRTUAL_ENABLED=true y =false, cambiando reservas.desde.
+ *
+ * No es un test: se ejecuta a mano con la aplicación arrancada (mejor con los mismos
+ * límites que en producción, p.ej. docker run --cpus=1 --memory=1g), por ejemplo
+ *   mvn test-compile
+ *   java -cp target/test-classes com.lavaderosepulveda.app.PruebaCarga lectura http://localhost:8080 20 5000
+ *   java -cp target/test-classes com.lavaderosepulveda.app.PruebaCarga reservas http://localhost:8080 200 200
+ * Para comparar una configuración con otra se lanza igual contra cada una.
+ */
+public class PruebaCarga {
+
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    public static void main(String[] args) throws Exception {
+        String escenario = args.length > 0 ? args[0] : "lectura";
+        String urlBase = args.length > 1 ? args[1] : "http://localhost:8080";
+        int concurrencia = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int peticiones = args.length > 3 ? Integer.parseInt(args[3]) : 5000;
+
+        IntFunction<HttpRequest> peticion = switch (escenario) {
+            case "lectura" -> lectura(urlBase);
+            case "reservas" -> reservas(urlBase,
+                    LocalDate.parse(System.getProperty("reservas.desde",
+                            LocalDate.now().plusYears(1).format(FECHA)), FECHA));
+            default -> throw new IllegalArgumentException("Escenario desconocido: " + escenario);
+        };
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        // Calentamiento: JIT, plantillas y sentencias preparadas; no cuenta en el resultado.
+        // Las peticiones se numeran seguidas, así las reservas no repiten hueco
+        int calentamiento = Math.max(peticiones / 10, concurrencia);
+        ejecutar(cliente, peticion, 0, concurrencia, calentamiento);
+
+        Resultado resultado = ejecutar(cliente, peticion, calentamiento, concurrencia, peticiones);
+        resultado.imprimir(escenario, concurrencia);
+    }
+
+    private static IntFunction<HttpRequest> lectura(String urlBase) {
+        String manana = LocalDate.now().plusDays(1).format(FECHA);
+        List<String> rutas = List.of(
+                "/api/facturas",
+                "/api/facturas/pendientes",
+                "/api/dashboard/metrics",
+                "/api/citas/hoy",
+                "/api/citas/horarios-disponibles?fecha=" + manana,
+                "/api/clientes");
+        return n -> HttpRequest.newBuilder(URI.create(urlBase + rutas.get(n % rutas.size())))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static IntFunction<HttpRequest> reservas(String urlBase, LocalDate desde) {
+        List<LocalDateTime> huecos = huecos(desde, 20_000);
+        return n -> {
+            LocalDateTime hueco = huecos.get(n);
+            String json = String.format("{\"nombre\":\"Carga %d\",\"email\":\"carga%d@example.com\","
+                            + "\"telefono\":\"6%08d\",\"modeloVehiculo\":\"Seat Ibiza\","
+                            + "\"tipoLavado\":\"LAVADO_COMPLETO_TURISMO\",\"fecha\":\"%s\",\"hora\":\"%s\"}",
+                    n, n, n, hueco.toLocalDate().format(FECHA), hueco.toLocalTime());
+            return HttpRequest.newBuilder(URI.create(urlBase + "/api/citas"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        };
+    }
+
+    /**
+     * Huecos reservables consecutivos según el horario por defecto: de lunes a viernes de
+     * 8:00 a 14:00 y los sábados de 9:00 a 13:00, cada hora
+     */
+    private static List<LocalDateTime> huecos(LocalDate desde, int cuantos) {
+        List<LocalDateTime> huecos = new ArrayList<>(cuantos);
+        for (LocalDate dia = desde; huecos.size() < cuantos; dia = dia.plusDays(1)) {
+            if (dia.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            boolean sabado = dia.getDayOfWeek() == DayOfWeek.SATURDAY;
+            for (int hora = sabado ? 9 : 8; hora <= (sabado ? 13 : 14); hora++) {
+                huecos.add(dia.atTime(hora, 0));
+            }
+        }
+        return huecos;
+    }
+
+    private static Resultado ejecutar(HttpClient cliente, IntFunction<HttpRequest> peticionN, int primera,
+                                      int concurrencia, int peticiones) throws InterruptedException {
+        long[] latencias = new long[peticiones];
+        int[] estados = new int[peticiones];
+        AtomicInteger siguiente = new AtomicInteger();
+
+        long inicio = System.nanoTime();
+        try (ExecutorService clientes = Executors.newFixedThreadPool(concurrencia)) {
+            for (int c = 0; c < concurrencia; c++) {
+                clientes.submit(() -> {
+                    int i;
+                    while ((i = siguiente.getAndIncrement()) < peticiones) {
+                        HttpRequest peticion = peticionN.apply(primera + i);
+                        long t0 = System.nanoTime();
+                        try {
+                            estados[i] = cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            estados[i] = -1;
+                        }
+                        latencias[i] = System.nanoTime() - t0;
+                    }
+                });
+            }
+        }
+        return new Resultado(latencias, estados, System.nanoTime() - inicio);
+    }
+
+    private record Resultado(long[] latencias, int[] estados, long duracionNanos) {
+
+        void imprimir(String escenario, int concurrencia) {
+            long[] ordenadas = latencias.clone();
+            Arrays.sort(ordenadas);
+            Map<Integer, Integer> porEstado = new TreeMap<>();
+            for (int estado : estados) {
+                porEstado.merge(estado, 1, Integer::sum);
+            }
+
+            System.out.printf("Escenario %s: %d peticiones, %d concurrentes%n", escenario, ordenadas.length, concurrencia);
+            System.out.printf("  %,.0f peticiones/s%n", ordenadas.length / (duracionNanos / 1e9));
+            System.out.printf("  p50 %.1f ms  p95 %.1f ms  p99 %.1f ms  máx %.1f ms%n",
+                    percentil(ordenadas, 50), percentil(ordenadas, 95), percentil(ordenadas, 99),
+                    ordenadas[ordenadas.length - 1] / 1e6);
+            System.out.println("  Respuestas (-1 = error de conexión o tiempo agotado): " + porEstado);
+        }
+
+        private static double percentil(long[] ordenadas, int percentil) {
+            int indice = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+            return ordenadas[Math.max(indice, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.lavaderosepulveda.app.repository;
+
+import com.lavaderosepulveda.app.model.enums.CategoriaGasto;
+import com.lavaderosepulveda.app.model.enums.EstadoCita;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con EXPLAIN que las consultas más frecuentes de los repositorios usan un
+ * índice en lugar de recorrer la tabla entera.
+ *
+ * Cada caso ejecuta el método del repositorio, captura el SQL que genera Hibernate y
+ * pide su plan a la base de datos. Por defecto usa H2 en modo PostgreSQL con las
+ * migraciones de PostgreSQL; para comprobarlo contra un PostgreSQL de verdad (vacío,
+ * Flyway crea el esquema):
+ *
+ *   PLANES_POSTGRES_URL=jdbc:postgresql://localhost:5432/lavadero_planes \
+ *   PLANES_POSTGRES_USER=postgres PLANES_POSTGRES_PASSWORD=... \
+ *   mvn test -Dtest=PlanesConsultaTest
+ *
+ * En PostgreSQL se desactiva el recorrido secuencial: con las pocas filas de la prueba el
+ * planificador lo elegiría aunque hubiera índice, y lo que se comprueba es que haya uno
+ * que la consulta pueda usar.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PlanesConsultaTest {
+
+    private static final String POSTGRES_URL = System.getenv("PLANES_POSTGRES_URL");
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 3, 14);
+    private static final LocalTime HORA = LocalTime.of(10, 0);
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private GastoRepository gastoRepository;
+
+    @Autowired
+    private FacturaRecibidaRepository facturaRecibidaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registry) {
+        if (POSTGRES_URL != null) {
+            registry.add("spring.datasource.url", () -> POSTGRES_URL);
+            registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("PLANES_POSTGRES_USER", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("PLANES_POSTGRES_PASSWORD", ""));
+            registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        } else {
+            registry.add("spring.datasource.url", () -> "jdbc:h2:mem:planes;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+            registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+            registry.add("spring.flyway.locations", () -> "classpath:db/migration/comun,classpath:db/migration/postgresql");
+            // H2 lee las columnas TEXT como CLOB y la validación del esquema no pasaría
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        }
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector", CapturaSql.class::getName);
+    }
+
+    @BeforeEach
+    void poblar() {
+        List<Object[]> citas = new ArrayList<>();
+        EstadoCita[] estados = EstadoCita.values();
+        for (int i = 0; i < 500; i++) {
+            citas.add(new Object[]{"Cliente " + i, "600" + String.format("%06d", i), "golf", "ENCERADO",
+                    FECHA.plusDays(i % 120), LocalTime.of(8 + i % 7, 0), estados[i % estados.length].name(),
+                    false, i % 2 == 0, i % 3 == 0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO citas (nombre, telefono, modelo_vehiculo, tipo_lavado, fecha, hora, " +
+                "estado, pago_adelantado, recordatorio_enviado, facturada) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", citas);
+
+        List<Object[]> facturas = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int anio = 2023 + i % 3;
+            facturas.add(new Object[]{"F" + anio + "-" + i, anio, i, FECHA.minusDays(i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO facturas (numero, anio, numero_secuencial, fecha, tipo, estado, " +
+                "base_imponible, tipo_iva, importe_iva, total) " +
+                "VALUES (?, ?, ?, ?, 'SIMPLIFICADA', 'PENDIENTE', 10, 21, 2.10, 12.10)", facturas);
+
+        List<Object[]> gastos = new ArrayList<>();
+        CategoriaGasto[] categorias = CategoriaGasto.values();
+        for (int i = 0; i < 200; i++) {
+            gastos.add(new Object[]{"Gasto " + i, FECHA.minusDays(i), categorias[i % categorias.length].name()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO gastos (concepto, fecha, categoria, importe) VALUES (?, ?, ?, 50)", gastos);
+
+        List<Object[]> recibidas = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            recibidas.add(new Object[]{"R-" + i, FECHA.minusDays(i), categorias[i % categorias.length].name()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO facturas_recibidas (numero_factura, fecha_factura, categoria, " +
+                "base_imponible, total, estado) VALUES (?, ?, ?, 100, 121, 'PENDIENTE')", recibidas);
+
+        if (POSTGRES_URL != null) {
+            jdbcTemplate.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @Test
+    void huecoLibreUsaIndiceFechaHora() {
+        // El tercer parámetro es el límite que añade Spring Data a las consultas exists
+        String sql = sqlDe(() -> citaRepository.existsByFechaAndHora(FECHA, HORA));
+        assertUsaIndice(plan(sql, FECHA, HORA, 1), "citas", "idx_citas_fecha_hora");
+    }
+
+    @Test
+    void citasSinFacturarUsanIndiceEstado() {
+        String sql = sqlDe(() -> citaRepository.findCitasCompletadasSinFacturar());
+        assertUsaIndice(plan(sql), "citas", "idx_citas_estado_facturada_fecha");
+    }
+
+    @Test
+    void recordatoriosUsanIndiceFecha() {
+        // Solo la fecha es una igualdad indexable (recordatorio_enviado va en un OR con IS NULL),
+        // así que vale cualquiera de los compuestos que empiezan por fecha
+        String sql = sqlDe(() -> citaRepository.findCitasParaRecordatorio(FECHA));
+        assertUsaIndice(plan(sql, FECHA), "citas", "idx_citas_recordatorio", "idx_citas_fecha_hora");
+    }
+
+    @Test
+    void siguienteNumeroDeFacturaUsaIndiceAnio() {
+        String sql = sqlDe(() -> facturaRepository.findMaxNumeroSecuencialByAnio(2025));
+        assertUsaIndice(plan(sql, 2025), "facturas", "idx_facturas_anio_secuencial");
+    }
+
+    @Test
+    void facturasDelAnioUsanIndiceAnio() {
+        String sql = sqlDe(() -> facturaRepository.findByAnioOrderByNumeroSecuencialDesc(2025));
+        assertUsaIndice(plan(sql, 2025), "facturas", "idx_facturas_anio_secuencial");
+    }
+
+    @Test
+    void gastosDelPeriodoUsanIndiceFecha() {
+        String sql = sqlDe(() -> gastoRepository.findByFechaBetween(FECHA.minusDays(30), FECHA));
+        assertUsaIndice(plan(sql, FECHA.minusDays(30), FECHA), "gastos", "idx_gastos_fecha_categoria");
+    }
+
+    @Test
+    void totalPorCategoriaUsaIndiceFecha() {
+        String sql = sqlDe(() -> gastoRepository.totalPorCategoria(CategoriaGasto.AGUA, FECHA.minusDays(30), FECHA));
+        assertUsaIndice(plan(sql, CategoriaGasto.AGUA.name(), FECHA.minusDays(30), FECHA),
+                "gastos", "idx_gastos_fecha_categoria");
+    }
+
+    // Consultas por mes: rango [inicio del mes, inicio del siguiente) sobre la columna,
+    // nunca YEAR()/MONTH(), que obligan a recorrer la tabla
+
+    @Test
+    void citasDelMesUsanIndiceFecha() {
+        // Ordena por fecha y hora: el índice (fecha, hora) sirve el rango y el orden
+        LocalDate inicioMes = FECHA.withDayOfMonth(1);
+        String sql = sqlDe(() -> citaRepository.findCitasByMes(inicioMes, inicioMes.plusMonths(1)));
+        assertUsaIndice(plan(sql, inicioMes, inicioMes.plusMonths(1)), "citas",
+                "idx_citas_fecha_hora", "idx_citas_recordatorio");
+    }
+
+    @Test
+    void citasDelMesPorEstadoUsanIndice() {
+        // Estado y rango de fechas: (estado, facturada, fecha) o (fecha, recordatorio_enviado, estado)
+        LocalDate inicioMes = FECHA.withDayOfMonth(1);
+        String sql = sqlDe(() -> citaRepository.countCitasByMesAndEstado(inicioMes, inicioMes.plusMonths(1), EstadoCita.COMPLETADA));
+        assertUsaIndice(plan(sql, inicioMes, inicioMes.plusMonths(1), EstadoCita.COMPLETADA.name()), "citas",
+                "idx_citas_estado_facturada_fecha", "idx_citas_recordatorio");
+    }
+
+    @Test
+    void facturasDelMesUsanIndiceFecha() {
+        LocalDate inicioMes = FECHA.withDayOfMonth(1);
+        String sql = sqlDe(() -> facturaRepository.countByMes(inicioMes, inicioMes.plusMonths(1)));
+        assertUsaIndice(plan(sql, inicioMes, inicioMes.plusMonths(1)), "facturas", "idx_facturas_fecha");
+    }
+
+    @Test
+    void gastosDelMesUsanIndiceFecha() {
+        LocalDate inicioMes = FECHA.withDayOfMonth(1);
+        String sql = sqlDe(() -> gastoRepository.findByMes(inicioMes, inicioMes.plusMonths(1)));
+        assertUsaIndice(plan(sql, inicioMes, inicioMes.plusMonths(1)), "gastos", "idx_gastos_fecha_categoria");
+    }
+
+    @Test
+    void evolucionMensualDeGastosUsaIndiceFecha() {
+        String sql = sqlDe(() -> gastoRepository.evolucionMensual(FECHA.minusMonths(6), FECHA));
+        assertUsaIndice(plan(sql, FECHA.minusMonths(6), FECHA), "gastos", "idx_gastos_fecha_categoria");
+    }
+
+    @Test
+    void facturasRecibidasDelMesUsanIndiceFecha() {
+        LocalDate inicioMes = FECHA.withDayOfMonth(1);
+        String sql = sqlDe(() -> facturaRecibidaRepository.findByMes(inicioMes, inicioMes.plusMonths(1)));
+        assertUsaIndice(plan(sql, inicioMes, inicioMes.plusMonths(1)), "facturas_recibidas",
+                "idx_facturas_recibidas_fecha");
+    }
+
+    /**
+     * SQL de la última SELECT que lanza la consulta
+     */
+    private String sqlDe(Runnable consulta) {
+        CapturaSql.SENTENCIAS.clear();
+        consulta.run();
+        List<String> selects = CapturaSql.SENTENCIAS.stream()
+                .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+        assertFalse(selects.isEmpty(), "La consulta no ha lanzado ninguna SELECT");
+        return selects.get(selects.size() - 1);
+    }
+
+    /**
+     * EXPLAIN de la sentencia; los parámetros se enlazan en el orden en que aparecen
+     */
+    private String plan(String sql, Object... parametros) {
+        long huecos = sql.chars().filter(c -> c == '?').count();
+        assertTrue(huecos <= parametros.length, () -> "Faltan parámetros para: " + sql);
+        Object[] enlazados = Arrays.copyOf(parametros, (int) huecos);
+
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, enlazados).stream()
+                .flatMap(fila -> fila.values().stream())
+                .map(String::valueOf)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static void assertUsaIndice(String plan, String tabla, String... indices) {
+        String texto = plan.toLowerCase(Locale.ROOT);
+        assertFalse(texto.contains("seq scan on " + tabla) || texto.contains(tabla + ".tablescan"),
+                () -> "Recorre toda la tabla " + tabla + ":\n" + plan);
+        assertTrue(Arrays.stream(indices).anyMatch(texto::contains),
+                () -> "No usa " + String.join(" ni ", indices) + ":\n" + plan);
+    }
+
+    /**
+     * Guarda el SQL que Hibernate envía a la base de datos
+     */
+    public static class CapturaSql implements StatementInspector {
+
+        static final List<String> SENTENCIAS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SENTENCIAS.add(sql);
+            return sql;
+        }
+    }
+}
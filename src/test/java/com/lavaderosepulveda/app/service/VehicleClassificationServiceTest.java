@@ -0,0 +1,54 @@
+package com.lavaderosepulveda.app.service;
+
+import com.lavaderosepulveda.app.repository.VehicleCategoryRepository;
+import com.lavaderosepulveda.app.repository.VehicleModelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Clasificación completa: catálogo en memoria y, si no basta, palabras clave.
+ */
+class VehicleClassificationServiceTest {
+
+    private VehicleClassificationService servicio;
+
+    @BeforeEach
+    void preparar() {
+        VehicleModelRepository modelos = mock(VehicleModelRepository.class);
+        when(modelos.findNombresConCategoria()).thenReturn(List.of(
+                new Object[]{"lt", "furgoneta_grande"},
+                new Object[]{"a2", "monovolumen"},
+                new Object[]{"2", "turismo"},
+                new Object[]{"3008", "todoterreno"},
+                new Object[]{"transit", "furgoneta_grande"}));
+        servicio = new VehicleClassificationService(modelos, mock(VehicleCategoryRepository.class));
+    }
+
+    @Test
+    void modelosDentroDeOtrasPalabrasNoCuentan() {
+        assertEquals("turismo", servicio.classifyVehicle("Seat Altea"));
+        assertEquals("turismo", servicio.classifyVehicle("Chevrolet Volt"));
+        assertEquals("furgoneta_grande", servicio.classifyVehicle("VW LT"));
+    }
+
+    @Test
+    void elTipoEscritoPesaMasQueUnNumeroSuelto() {
+        assertEquals("furgoneta_pequena", servicio.classifyVehicle("furgoneta 2 plazas"));
+        assertEquals("turismo", servicio.classifyVehicle("Mazda 2"));
+        assertEquals("todoterreno", servicio.classifyVehicle("Peugeot 3008"));
+        assertEquals("furgoneta_grande", servicio.classifyVehicle("Ford Transit furgoneta"));
+    }
+
+    @Test
+    void sinModeloSeUsanLasPalabrasClave() {
+        assertEquals("todoterreno", servicio.classifyVehicle("un suv"));
+        assertEquals("turismo", servicio.classifyVehicle("desconocido"));
+        assertEquals("turismo", servicio.classifyVehicle(" "));
+    }
+}
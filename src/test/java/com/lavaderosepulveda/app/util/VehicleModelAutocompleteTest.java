@@ -0,0 +1,83 @@
+package com.lavaderosepulveda.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Autocompletado con errores de escritura: cuántos admite según lo escrito (ninguno hasta
+ * 3 letras, uno hasta 6, dos a partir de 7) y que los candidatos por bigramas no dejen
+ * fuera ninguno de esos.
+ */
+class VehicleModelAutocompleteTest {
+
+    private final VehicleModelAutocomplete autocompletado = new VehicleModelAutocomplete(catalogo());
+
+    private static Map<String, String> catalogo() {
+        Map<String, String> catalogo = new LinkedHashMap<>();
+        for (String modelo : List.of("Kangoo", "Golf", "Megane", "Ducato", "Berlingo", "C4 Picasso",
+                "Range Rover", "Range Rover Sport", "Polo", "Passat", "Transit")) {
+            catalogo.put(modelo, "turismo");
+        }
+        return catalogo;
+    }
+
+    private String primero(String texto) {
+        List<VehicleModelAutocomplete.Sugerencia> sugerencias = autocompletado.sugerir(texto, 3);
+        return sugerencias.isEmpty() ? null : sugerencias.get(0).modelo();
+    }
+
+    @Test
+    void letrasCambiadasDeSitio() {
+        assertEquals("Kangoo", primero("kagnoo"));
+        assertEquals("Golf", primero("glof"));
+        assertEquals("Megane", primero("meagne"));
+        assertEquals("Ducato", primero("dcuato"));
+        assertEquals("Range Rover", primero("rnage rover"));
+    }
+
+    @Test
+    void letrasCambiadasPorOtras() {
+        assertEquals("Golf", primero("golg"));
+        assertEquals("Ducato", primero("dukato"));
+        assertEquals("Berlingo", primero("verlingo"));
+        assertEquals("C4 Picasso", primero("c4 picaso"));
+    }
+
+    @Test
+    void hastaTresLetrasNoSeCorrige() {
+        assertEquals("Polo", primero("pol"));
+        assertEquals("C4 Picasso", primero("pic"));
+        assertTrue(autocompletado.sugerir("gof", 3).isEmpty());
+    }
+
+    @Test
+    void deCuatroASeisLetrasUnError() {
+        assertEquals("Golf", primero("gofl"));
+        assertEquals("Passat", primero("pasat"));
+        assertTrue(autocompletado.sugerir("glfo", 3).isEmpty());
+    }
+
+    @Test
+    void desdeSieteLetrasDosErrores() {
+        assertEquals("Berlingo", primero("berligo"));
+        assertEquals("Berlingo", primero("bernligo"));
+        assertEquals("Berlingo", primero("vrelingo"));
+        // Tres errores ya no
+        assertTrue(autocompletado.sugerir("vrelingos", 3).isEmpty());
+        assertTrue(autocompletado.sugerir("xxxxxxx", 3).isEmpty());
+    }
+
+    @Test
+    void principioDelNombreEsDistanciaCero() {
+        VehicleModelAutocomplete.Sugerencia sugerencia = autocompletado.sugerir("range rover s", 1).get(0);
+        assertEquals("Range Rover Sport", sugerencia.modelo());
+        assertEquals(0, sugerencia.distancia());
+        assertTrue(sugerencia.desdeElPrincipio());
+    }
+}
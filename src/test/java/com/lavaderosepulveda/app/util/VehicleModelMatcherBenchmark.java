@@ -0,0 +1,99 @@
+package com.lavaderosepulveda.app.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Medición manual del catálogo de modelos en memoria: clasificaciones por segundo y
+ * tiempo por consulta del autocompletado.
+ *
+ * Construye el clasificador y el autocompletado con un catálogo del tamaño del que
+ * siembra la migración V2__modelos_vehiculos (los modelos reales más nombres de relleno
+ * hasta ~400) y los consulta con textos como los que llegan del formulario de reserva
+ * mientras se escribe, incluidos errores de escritura.
+ *
+ * No es un test: se ejecuta a mano, por ejemplo
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes com.lavaderosepulveda.app.util.VehicleModelMatcherBenchmark
+ */
+public class VehicleModelMatcherBenchmark {
+
+    private static final int RONDAS = 5;
+    private static final int LLAMADAS_POR_RONDA = 1_000_000;
+
+    private static final String[] CONSULTAS = {
+            "golf", "Volkswagen Golf 2015", "range rover sport", "Range Rover", "ran",
+            "BMW Serie 3 Touring", "serie-3", "Mercedes Clase C Estate", "x5", "Peugeot 308 SW",
+            "Ford Transit Custom", "furgoneta", "dacia sandero", "citroen c4 picasso", "q"
+    };
+
+    private static final String[] CONSULTAS_AUTOCOMPLETADO = {
+            "b", "ber", "berligo", "c4 picaso", "picaso", "rnage rover", "gofl", "serie3", "x", "mercedes clase"
+    };
+    private static final int LLAMADAS_AUTOCOMPLETADO = 200_000;
+
+    public static void main(String[] args) {
+        VehicleModelMatcher matcher = new VehicleModelMatcher(catalogo());
+        System.out.printf("Catálogo: %d modelos%n", matcher.size());
+
+        for (String consulta : CONSULTAS) {
+            System.out.printf("  %-28s -> %s%n", consulta, matcher.buscar(consulta));
+        }
+
+        long acumulado = 0;
+        for (int ronda = 1; ronda <= RONDAS; ronda++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < LLAMADAS_POR_RONDA; i++) {
+                String categoria = matcher.buscar(CONSULTAS[i % CONSULTAS.length]);
+                acumulado += categoria != null ? categoria.length() : 0;
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("Ronda %d: %,.0f clasificaciones/s%n", ronda, LLAMADAS_POR_RONDA / segundos);
+        }
+
+        VehicleModelAutocomplete autocompletado = new VehicleModelAutocomplete(catalogo());
+        for (String consulta : CONSULTAS_AUTOCOMPLETADO) {
+            System.out.printf("  %-16s -> %s%n", consulta, autocompletado.sugerir(consulta, 3).stream()
+                    .map(s -> s.modelo() + " (" + s.distancia() + ")").toList());
+        }
+        for (int ronda = 1; ronda <= RONDAS; ronda++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < LLAMADAS_AUTOCOMPLETADO; i++) {
+                acumulado += autocompletado.sugerir(CONSULTAS_AUTOCOMPLETADO[i % CONSULTAS_AUTOCOMPLETADO.length], 8).size();
+            }
+            double microsegundos = (System.nanoTime() - inicio) / 1e3 / LLAMADAS_AUTOCOMPLETADO;
+            System.out.printf("Autocompletado ronda %d: %.1f µs por consulta%n", ronda, microsegundos);
+        }
+
+        // Evita que el JIT descarte los bucles
+        System.out.println("(control " + acumulado + ")");
+    }
+
+    private static Map<String, String> catalogo() {
+        Map<String, String> modelos = new LinkedHashMap<>();
+        agregar(modelos, "turismo", "golf", "polo", "passat", "ibiza", "leon", "fiesta", "focus", "corsa",
+                "astra", "clio", "megane", "208", "308", "c3", "c4", "serie 1", "serie 3", "serie 5",
+                "clase a", "clase c", "clase e", "a3", "a4", "yaris", "corolla", "civic", "i30", "ceed",
+                "2", "3", "6", "octavia", "punto");
+        agregar(modelos, "ranchera", "golf variant", "passat variant", "leon st", "focus sw", "308 sw",
+                "serie 3 touring", "clase c estate", "a4 avant", "octavia combi");
+        agregar(modelos, "monovolumen", "touran", "sharan", "c4 picasso", "grand c4 picasso", "zafira",
+                "scenic", "5", "t-roc", "tiguan", "qashqai", "3008", "2008", "x1", "x3", "q3", "kuga");
+        agregar(modelos, "todoterreno", "touareg", "cayenne", "x5", "x6", "q7", "land cruiser",
+                "range rover", "range rover sport", "range rover evoque", "discovery", "defender");
+        agregar(modelos, "furgoneta_pequena", "caddy", "berlingo", "partner", "kangoo", "doblo", "connect");
+        agregar(modelos, "furgoneta_grande", "crafter", "sprinter", "transit", "master", "ducato", "vito");
+
+        // Relleno hasta el tamaño aproximado del catálogo sembrado
+        for (int i = 0; modelos.size() < 400; i++) {
+            modelos.putIfAbsent("modelo relleno " + i, "turismo");
+        }
+        return modelos;
+    }
+
+    private static void agregar(Map<String, String> modelos, String categoria, String... nombres) {
+        for (String nombre : nombres) {
+            modelos.putIfAbsent(nombre, categoria);
+        }
+    }
+}
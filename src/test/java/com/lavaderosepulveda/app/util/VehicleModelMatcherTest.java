@@ -0,0 +1,86 @@
+package com.lavaderosepulveda.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clasificador de modelos con un extracto del catálogo de V2__modelos_vehiculos: los
+ * nombres cortos ("lt", "a2", "2") son los que pueden aparecer dentro de otras palabras.
+ */
+class VehicleModelMatcherTest {
+
+    private final VehicleModelMatcher matcher = new VehicleModelMatcher(catalogo());
+
+    private static Map<String, String> catalogo() {
+        Map<String, String> catalogo = new LinkedHashMap<>();
+        catalogo.put("range rover", "todoterreno");
+        catalogo.put("range rover sport", "todoterreno");
+        catalogo.put("altea xl", "monovolumen");
+        catalogo.put("a2", "monovolumen");
+        catalogo.put("c4 picasso", "monovolumen");
+        catalogo.put("serie 3 touring", "ranchera");
+        catalogo.put("lt", "furgoneta_grande");
+        catalogo.put("transit", "furgoneta_grande");
+        catalogo.put("golf", "turismo");
+        catalogo.put("serie 3", "turismo");
+        catalogo.put("c4", "turismo");
+        catalogo.put("2", "turismo");
+        catalogo.put("3008", "todoterreno");
+        return catalogo;
+    }
+
+    @Test
+    void ganaElModeloMasLargo() {
+        assertEquals("rangeroversport", matcher.buscarModelo("Range Rover Sport").modelo());
+        assertEquals("rangerover", matcher.buscarModelo("Range Rover").modelo());
+        assertEquals("ranchera", matcher.buscar("BMW Serie 3 Touring"));
+        assertEquals("monovolumen", matcher.buscar("Citroën C4 Picasso"));
+        assertEquals("turismo", matcher.buscar("Citroën C4"));
+    }
+
+    @Test
+    void nombresConSignosOJuntos() {
+        assertEquals("serie3", matcher.buscarModelo("bmw serie-3").modelo());
+        assertEquals("serie3", matcher.buscarModelo("bmw serie3").modelo());
+        assertEquals("golf", matcher.buscarModelo("Volkswagen Golf 2015").modelo());
+    }
+
+    @Test
+    void noEncuentraModelosDentroDeOtrasPalabras() {
+        // "lt" dentro de "altea" y de "volt"
+        assertNull(matcher.buscar("Seat Altea"));
+        assertNull(matcher.buscar("Chevrolet Volt"));
+        assertEquals("monovolumen", matcher.buscar("Seat Altea XL"));
+        // "a2" entre "furgoneta" y "2": solo cuenta el "2" suelto
+        assertEquals("2", matcher.buscarModelo("furgoneta 2 plazas").modelo());
+        // "2" dentro de "2015"
+        assertNull(matcher.buscar("modelo 2015"));
+        // Un modelo que empieza entre palabras pero acaba dentro de una
+        assertNull(matcher.buscar("transitoria"));
+    }
+
+    @Test
+    void modelosQueSonSoloUnNumero() {
+        assertTrue(matcher.buscarModelo("Mazda 2").soloNumero());
+        assertTrue(matcher.buscarModelo("Peugeot 3008").soloNumero());
+        assertFalse(matcher.buscarModelo("Audi A2").soloNumero());
+    }
+
+    @Test
+    void sinModeloCompletoBuscaElMasCortoQueContengaElTexto() {
+        // El usuario aún está escribiendo
+        assertEquals("rangerover", matcher.buscarModelo("range ro").modelo());
+        assertEquals("transit", matcher.buscarModelo("trans").modelo());
+        assertEquals("alteaxl", matcher.buscarModelo("alte").modelo());
+        assertNull(matcher.buscar("furgoneta"));
+        assertNull(matcher.buscar("  -- "));
+        assertNull(matcher.buscar(null));
+    }
+}